@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.cuba.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Invokes middleware services asynchronously.
+ * <p>Allows executing several independent service calls in parallel without blocking the current thread, e.g.:</p>
+ * <pre>
+ * CompletableFuture&lt;List&lt;Customer&gt;&gt; customers = asyncServiceCalls.supplyAsync(() -&gt; customerService.findAll());
+ * CompletableFuture&lt;Integer&gt; count = asyncServiceCalls.supplyAsync(() -&gt; orderService.getCount());
+ * </pre>
+ * The current user session is passed to the thread executing a call.
+ * <p>A service interface can also declare methods returning {@link CompletableFuture} which are invoked
+ * asynchronously by the client proxy without this bean.</p>
+ */
+public interface AsyncServiceCalls {
+
+    String NAME = "cuba_AsyncServiceCalls";
+
+    /**
+     * Executes the call asynchronously.
+     *
+     * @param call service call
+     * @return future completed with the result of the call
+     */
+    <T> CompletableFuture<T> supplyAsync(Supplier<T> call);
+
+    /**
+     * Executes the call asynchronously.
+     *
+     * @param call service call
+     * @return future completed when the call is finished
+     */
+    CompletableFuture<Void> runAsync(Runnable call);
+
+    /**
+     * Executes the code collecting invocations of service methods returning {@link CompletableFuture} and sends them
+     * to middleware in a single request when the code is finished, e.g.:
+     * <pre>
+     * asyncServiceCalls.batch(() -&gt; {
+     *     customersFuture = customerService.findAllAsync();
+     *     countFuture = orderService.getCountAsync();
+     * });
+     * </pre>
+     * The futures are completed when this method returns, so the code must not wait for them.
+     * Methods returning other types are invoked immediately. If the code throws an exception, the collected
+     * invocations are not sent and their futures are cancelled.
+     *
+     * @param calls code invoking services
+     */
+    void batch(Runnable calls);
+}
@@ -377,4 +377,26 @@ public interface ClientConfig extends Config {
     @Property("cuba.gui.validationNotificationType")
     @Default("TRAY")
     String getValidationNotificationType();
-}
\ No newline at end of file
+
+    /**
+     * Whether {@code DataContext} sends only changed attributes of modified detached instances on commit.
+     */
+    @Property("cuba.gui.commitChangedAttributesOnly")
+    @DefaultBoolean(true)
+    boolean getCommitChangedAttributesOnly();
+
+    /**
+     * @return maximum number of screen blueprints (descriptors with resolved messages for a locale) kept in memory.
+     * Zero disables the cache.
+     */
+    @Property("cuba.gui.screenBlueprintCacheSize")
+    @DefaultInt(500)
+    int getScreenBlueprintCacheSize();
+
+    /**
+     * @return whether to create blueprints of all registered screens on application start
+     */
+    @Property("cuba.gui.warmUpScreenBlueprints")
+    @DefaultBoolean(false)
+    boolean getWarmUpScreenBlueprints();
+}
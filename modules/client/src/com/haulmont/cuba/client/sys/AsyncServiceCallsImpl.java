@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.cuba.client.sys;
+
+import com.haulmont.cuba.client.AsyncServiceCalls;
+import com.haulmont.cuba.core.sys.remoting.AsyncRemoteInvocations;
+import com.haulmont.cuba.core.sys.remoting.BatchedRemoteInvocations;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+@Component(AsyncServiceCalls.NAME)
+public class AsyncServiceCallsImpl implements AsyncServiceCalls {
+
+    @Override
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> call) {
+        return AsyncRemoteInvocations.supplyAsync(call::get);
+    }
+
+    @Override
+    public CompletableFuture<Void> runAsync(Runnable call) {
+        return AsyncRemoteInvocations.supplyAsync(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    @Override
+    public void batch(Runnable calls) {
+        BatchedRemoteInvocations.begin();
+        try {
+            calls.run();
+        } catch (RuntimeException | Error e) {
+            BatchedRemoteInvocations.abort();
+            throw e;
+        }
+        BatchedRemoteInvocations.end();
+    }
+}
@@ -828,7 +828,7 @@ create table SYS_JMX_INSTANCE (
 create sequence SYS_QUERY_RESULT_SEQ
 ^
 
-create table SYS_QUERY_RESULT (
+create unlogged table SYS_QUERY_RESULT (
     ID bigint not null default nextval('SYS_QUERY_RESULT_SEQ'),
 	SESSION_ID uuid not null,
 	QUERY_KEY integer not null,
@@ -0,0 +1,3 @@
+-- Query results are transient, do not write them to WAL
+
+alter table SYS_QUERY_RESULT set unlogged;
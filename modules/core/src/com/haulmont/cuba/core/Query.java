@@ -25,6 +25,7 @@ import javax.persistence.LockModeType;
 import javax.persistence.TemporalType;
 import java.util.List;
 import java.util.Date;
+import java.util.stream.Stream;
 
 /**
  * Interface used to control query execution.
@@ -57,6 +58,21 @@ public interface Query {
      */
     List getResultList();
 
+    /**
+     * Execute a SELECT query and return the query results as a Stream backed by a server-side JDBC cursor.
+     * <p>Rows are read from the database as the stream is consumed, so the whole result is never held in memory.
+     * The stream must be consumed in the current transaction and closed after use, e.g. with try-with-resources.
+     * <p>The default implementation loads the whole result with {@link #getResultList()}, implementations
+     * supporting JDBC cursors override it.
+     *
+     * @param fetchSize JDBC fetch size, 0 to use the driver default
+     * @return a stream of the results
+     * @throws IllegalStateException if called for a Java Persistence query language UPDATE or DELETE statement
+     */
+    default Stream getResultStream(int fetchSize) {
+        return getResultList().stream();
+    }
+
     /**
      * Execute a SELECT query that returns a single result.
      *
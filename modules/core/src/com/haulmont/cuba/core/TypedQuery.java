@@ -26,6 +26,7 @@ import javax.persistence.LockModeType;
 import javax.persistence.TemporalType;
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Type-safe extension of Query interface.
@@ -35,6 +36,11 @@ public interface TypedQuery<T> extends Query {
     @Override
     List<T> getResultList();
 
+    @Override
+    default Stream<T> getResultStream(int fetchSize) {
+        return getResultList().stream();
+    }
+
     @Override
     T getSingleResult();
 
@@ -336,9 +336,11 @@ public class ClusterManager implements ClusterManagerAPI {
             MessageStat stat = entry.getValue();
             if (stat != null) {
                 messagesStats
-                        .append(String.format("Class: %s; received: %s, %s bytes; sent: %s, %s bytes\n",
-                                entry.getKey(), stat.getReceivedMessages(), stat.getReceivedBytes(),
-                                stat.getSentMessages(), stat.getSentBytes()));
+                        .append(String.format("Class: %s; received: %s, %s bytes, %s bytes/s; sent: %s, %s bytes, %s bytes/s; " +
+                                        "state received: %s bytes, sent: %s bytes\n",
+                                entry.getKey(), stat.getReceivedMessages(), stat.getReceivedBytes(), stat.getReceivedBytesPerSecond(),
+                                stat.getSentMessages(), stat.getSentBytes(), stat.getSentBytesPerSecond(),
+                                stat.getReceivedStateBytes(), stat.getSentStateBytes()));
             }
         }
         return messagesStats.toString();
@@ -384,6 +386,26 @@ public class ClusterManager implements ClusterManagerAPI {
         return 0;
     }
 
+    @Override
+    public long getSentBytesPerSecond(String className) {
+        Preconditions.checkNotNullArgument(className, "Message class is null");
+        MessageStat stat = messagesStat.get(className);
+        if (stat != null) {
+            return stat.getSentBytesPerSecond();
+        }
+        return 0;
+    }
+
+    @Override
+    public long getReceivedBytesPerSecond(String className) {
+        Preconditions.checkNotNullArgument(className, "Message class is null");
+        MessageStat stat = messagesStat.get(className);
+        if (stat != null) {
+            return stat.getReceivedBytesPerSecond();
+        }
+        return 0;
+    }
+
     protected class ClusterReceiver implements Receiver {
 
         @Override
@@ -434,6 +456,10 @@ public class ClusterManager implements ClusterManagerAPI {
                     }
                     if (data != null && data.length > 0) {
                         state.put(entry.getKey(), data);
+                        MessageStat stat = messagesStat.get(entry.getKey());
+                        if (stat != null) {
+                            stat.updateSentState(data.length);
+                        }
                     }
                 }
 
@@ -483,6 +509,10 @@ public class ClusterManager implements ClusterManagerAPI {
                             log.error("Error receiving state: invalid data length");
                             return;
                         }
+                        MessageStat stat = messagesStat.get(name);
+                        if (stat != null) {
+                            stat.updateReceivedState(len);
+                        }
                         ClusterListener listener = listeners.get(name);
                         if (listener != null) {
                             listener.setState(data);
@@ -524,6 +554,9 @@ public class ClusterManager implements ClusterManagerAPI {
         protected LongAdder receivedBytes = new LongAdder();
         protected LongAdder receivedMessages = new LongAdder();
         protected LongAdder sentMessages = new LongAdder();
+        protected LongAdder sentStateBytes = new LongAdder();
+        protected LongAdder receivedStateBytes = new LongAdder();
+        protected final long startTs = System.currentTimeMillis();
 
         public void updateReceived(int bytes) {
             receivedMessages.increment();
@@ -550,5 +583,34 @@ public class ClusterManager implements ClusterManagerAPI {
         public long getReceivedMessages() {
             return receivedMessages.longValue();
         }
+
+        public void updateSentState(int bytes) {
+            sentStateBytes.add(bytes);
+        }
+
+        public void updateReceivedState(int bytes) {
+            receivedStateBytes.add(bytes);
+        }
+
+        public long getSentStateBytes() {
+            return sentStateBytes.longValue();
+        }
+
+        public long getReceivedStateBytes() {
+            return receivedStateBytes.longValue();
+        }
+
+        public long getSentBytesPerSecond() {
+            return perSecond(sentBytes.longValue());
+        }
+
+        public long getReceivedBytesPerSecond() {
+            return perSecond(receivedBytes.longValue());
+        }
+
+        protected long perSecond(long value) {
+            long seconds = (System.currentTimeMillis() - startTs) / 1000;
+            return seconds > 0 ? value / seconds : value;
+        }
     }
 }
\ No newline at end of file
@@ -151,4 +151,18 @@ public interface ClusterManagerAPI {
      * @return size in bytes
      */
     long getReceivedBytes(String className);
+
+    /**
+     * Get average number of bytes sent per second for specified {@code className} since the listener was registered
+     *
+     * @return bytes per second
+     */
+    long getSentBytesPerSecond(String className);
+
+    /**
+     * Get average number of bytes received per second for specified {@code className} since the listener was registered
+     *
+     * @return bytes per second
+     */
+    long getReceivedBytesPerSecond(String className);
 }
\ No newline at end of file
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.haulmont.cuba.core.app;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.haulmont.cuba.core.sys.SecurityContextAwareCallable;
+import com.haulmont.cuba.core.sys.events.AppContextStoppedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * INTERNAL.
+ * Bounded thread pool used by {@link CrossDataStoreReferenceLoader} to load independent batches of references
+ * concurrently. The size of the pool is defined by {@link ServerConfig#getCrossDataStoreReferenceLoadingParallelism()}.
+ */
+@Component(CrossDataStoreLoadingExecutor.NAME)
+public class CrossDataStoreLoadingExecutor {
+
+    public static final String NAME = "cuba_CrossDataStoreLoadingExecutor";
+
+    protected static final int QUEUE_CAPACITY_PER_THREAD = 100;
+
+    // set while a task is executed by the pool, nested loads run in the same thread to avoid starving the pool
+    protected static final ThreadLocal<Boolean> insidePoolTask = new ThreadLocal<>();
+
+    @Inject
+    protected ServerConfig serverConfig;
+
+    protected ThreadPoolExecutor executor;
+
+    @PostConstruct
+    protected void init() {
+        int nThreads = serverConfig.getCrossDataStoreReferenceLoadingParallelism();
+        if (nThreads > 1) {
+            executor = new ThreadPoolExecutor(nThreads, nThreads,
+                    0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(nThreads * QUEUE_CAPACITY_PER_THREAD),
+                    new ThreadFactoryBuilder().setNameFormat("CrossDataStoreReferenceLoader-%d").setDaemon(true).build());
+        }
+    }
+
+    @EventListener(AppContextStoppedEvent.class)
+    protected void applicationStopped() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return true if tasks can be executed concurrently
+     */
+    public boolean isParallel() {
+        return executor != null && !executor.isShutdown();
+    }
+
+    /**
+     * Executes the given tasks and waits for their completion. The current {@code SecurityContext} is passed to
+     * the tasks. If the pool is not available or its queue is full, tasks are executed in the calling thread.
+     * Tasks started by other tasks of the pool (when loaded references have their own cross-datastore references)
+     * are also executed in the calling thread, because waiting for them in a pool thread could exhaust the pool.
+     *
+     * @param tasks tasks to execute
+     * @return results in the order of tasks
+     */
+    public <T> List<T> invokeAll(List<Callable<T>> tasks) {
+        List<T> results = new ArrayList<>(tasks.size());
+        if (!isParallel() || Boolean.TRUE.equals(insidePoolTask.get())) {
+            for (Callable<T> task : tasks) {
+                results.add(call(task));
+            }
+            return results;
+        }
+
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        try {
+            for (Callable<T> task : tasks) {
+                try {
+                    futures.add(executor.submit(new SecurityContextAwareCallable<>(() -> callInPool(task))));
+                } catch (RejectedExecutionException e) {
+                    // the queue is full, execute in the calling thread
+                    FutureTask<T> futureTask = new FutureTask<>(task);
+                    futureTask.run();
+                    futures.add(futureTask);
+                }
+            }
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while loading cross-datastore references", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException("Error loading cross-datastore references", cause);
+        } finally {
+            for (Future<T> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return results;
+    }
+
+    protected <T> T callInPool(Callable<T> task) throws Exception {
+        insidePoolTask.set(Boolean.TRUE);
+        try {
+            return task.call();
+        } finally {
+            insidePoolTask.remove();
+        }
+    }
+
+    protected <T> T call(Callable<T> task) {
+        try {
+            return task.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Error loading cross-datastore references", e);
+        }
+    }
+}
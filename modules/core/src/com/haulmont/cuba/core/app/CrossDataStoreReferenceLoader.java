@@ -30,6 +30,7 @@ import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
 import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 
 /**
@@ -56,6 +57,9 @@ public class CrossDataStoreReferenceLoader {
     @Inject
     private ServerConfig serverConfig;
 
+    @Inject
+    private CrossDataStoreLoadingExecutor loadingExecutor;
+
     private MetaClass metaClass;
 
     private View view;
@@ -126,11 +130,13 @@ public class CrossDataStoreReferenceLoader {
         if (entityCrossDataStorePropertyList.size() == 1) {
             loadOne(entityCrossDataStorePropertyList.get(0));
         } else {
+            List<Batch> batches = new ArrayList<>();
             entityCrossDataStorePropertyList.stream()
                     .collect(Collectors.groupingBy(EntityCrossDataStoreProperty::getCrossProp))
                     .forEach((ap, eapList) ->
-                            loadMany(ap, eapList.stream().map(eap -> eap.entity).collect(Collectors.toList()))
+                            batches.addAll(createBatches(ap, eapList.stream().map(eap -> eap.entity).collect(Collectors.toList())))
                     );
+            loadBatches(batches);
         }
     }
 
@@ -176,28 +182,48 @@ public class CrossDataStoreReferenceLoader {
         entity.setValue(aProp.property.getName(), relatedEntity);
     }
 
-    private void loadMany(CrossDataStoreProperty crossDataStoreProperty, List<Entity> entities) {
+    private List<Batch> createBatches(CrossDataStoreProperty crossDataStoreProperty, List<Entity> entities) {
+        List<Batch> batches = new ArrayList<>();
         int offset = 0, limit = serverConfig.getCrossDataStoreReferenceLoadingBatchSize();
         while (true) {
             int end = offset + limit;
-            List<Entity> batch = entities.subList(offset, Math.min(end, entities.size()));
-            loadBatch(crossDataStoreProperty, batch);
+            batches.add(new Batch(crossDataStoreProperty, entities.subList(offset, Math.min(end, entities.size()))));
             if (end >= entities.size())
                 break;
             else
                 offset += limit;
         }
+        return batches;
     }
 
-    private void loadBatch(CrossDataStoreProperty crossDataStoreProperty, List<Entity> entities) {
-        List<Object> idList = entities.stream()
+    private void loadBatches(List<Batch> batches) {
+        // loading in other threads is impossible if the caller's transaction must be used
+        if (batches.size() > 1 && !joinTransaction && loadingExecutor.isParallel()) {
+            List<Callable<Map<Object, Entity>>> tasks = batches.stream()
+                    .map(batch -> (Callable<Map<Object, Entity>>) () -> loadBatch(batch))
+                    .collect(Collectors.toList());
+            List<Map<Object, Entity>> results = loadingExecutor.invokeAll(tasks);
+            // references are set in the calling thread to avoid concurrent modification of the entity graph
+            for (int i = 0; i < batches.size(); i++) {
+                setReferences(batches.get(i), results.get(i));
+            }
+        } else {
+            for (Batch batch : batches) {
+                setReferences(batch, loadBatch(batch));
+            }
+        }
+    }
+
+    private Map<Object, Entity> loadBatch(Batch batch) {
+        CrossDataStoreProperty crossDataStoreProperty = batch.crossProp;
+        List<Object> idList = batch.entities.stream()
                 .map(e -> e.getValue(crossDataStoreProperty.relatedPropertyName))
                 .filter(Objects::nonNull)
                 .distinct()
                 .collect(Collectors.toList());
 
         if (idList.isEmpty())
-            return;
+            return Collections.emptyMap();
 
         MetaClass cdsrMetaClass = crossDataStoreProperty.property.getRange().asClass();
         LoadContext<Entity> loadContext = new LoadContext<>(cdsrMetaClass);
@@ -235,17 +261,38 @@ public class CrossDataStoreReferenceLoader {
 
         List<Entity> loadedEntities = dataManager.loadList(loadContext);
 
-        for (Entity entity : entities) {
+        Map<Object, Entity> loadedById = new HashMap<>(loadedEntities.size() * 2);
+        for (Entity loadedEntity : loadedEntities) {
+            Object id = loadedEntity.getId() instanceof IdProxy ? ((IdProxy) loadedEntity.getId()).getNN() : loadedEntity.getId();
+            loadedById.putIfAbsent(id, loadedEntity);
+        }
+        return loadedById;
+    }
+
+    private void setReferences(Batch batch, Map<Object, Entity> loadedById) {
+        if (loadedById.isEmpty())
+            return;
+
+        CrossDataStoreProperty crossDataStoreProperty = batch.crossProp;
+        for (Entity entity : batch.entities) {
             Object relatedPropertyValue = entity.getValue(crossDataStoreProperty.relatedPropertyName);
-            loadedEntities.stream()
-                    .filter(e -> {
-                        Object id = e.getId() instanceof IdProxy ? ((IdProxy) e.getId()).getNN() : e.getId();
-                        return id.equals(relatedPropertyValue);
-                    })
-                    .findAny()
-                    .ifPresent(e ->
-                            entity.setValue(crossDataStoreProperty.property.getName(), e)
-                    );
+            if (relatedPropertyValue == null)
+                continue;
+            Entity loadedEntity = loadedById.get(relatedPropertyValue);
+            if (loadedEntity != null) {
+                entity.setValue(crossDataStoreProperty.property.getName(), loadedEntity);
+            }
+        }
+    }
+
+    private static class Batch {
+
+        private final CrossDataStoreProperty crossProp;
+        private final List<Entity> entities;
+
+        public Batch(CrossDataStoreProperty crossProp, List<Entity> entities) {
+            this.crossProp = crossProp;
+            this.entities = entities;
         }
     }
 
@@ -31,6 +31,7 @@ import org.springframework.stereotype.Component;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import java.util.*;
+import java.util.stream.Stream;
 
 @Component(DataManager.NAME)
 public class DataManagerBean implements DataManager {
@@ -76,6 +77,19 @@ public class DataManagerBean implements DataManager {
         return entities;
     }
 
+    @Override
+    public <E extends Entity> Stream<E> stream(LoadContext<E> context, int fetchSize) {
+        MetaClass metaClass = metadata.getClassNN(context.getMetaClass());
+        DataStore storage = storeFactory.get(getStoreName(metaClass));
+        if (!(storage instanceof RdbmsStore)) {
+            return DataManager.super.stream(context, fetchSize);
+        }
+        Stream<List<E>> chunks = ((RdbmsStore) storage).streamChunks(context, fetchSize);
+        return chunks
+                .peek(chunk -> readCrossDataStoreReferences(chunk, context.getView(), metaClass, context.isJoinTransaction()))
+                .flatMap(Collection::stream);
+    }
+
     @Override
     public long getCount(LoadContext<? extends Entity> context) {
         MetaClass metaClass = metadata.getClassNN(context.getMetaClass());
@@ -139,6 +153,9 @@ public class DataManagerBean implements DataManager {
             View view = context.getViews().get(entity);
             if (view != null)
                 cc.getViews().put(entity, view);
+            Set<String> changedAttributes = context.getChangedAttributes().get(entity);
+            if (changedAttributes != null)
+                cc.getChangedAttributes().put(entity, changedAttributes);
         }
         for (Entity entity : context.getRemoveInstances()) {
             MetaClass metaClass = metadata.getClassNN(entity.getClass());
@@ -381,6 +398,12 @@ public class DataManagerBean implements DataManager {
             return dataManager.loadList(context);
         }
 
+        @Override
+        public <E extends Entity> Stream<E> stream(LoadContext<E> context, int fetchSize) {
+            context.setAuthorizationRequired(true);
+            return dataManager.stream(context, fetchSize);
+        }
+
         @Override
         public List<KeyValueEntity> loadValues(ValueLoadContext context) {
             context.setAuthorizationRequired(true);
@@ -18,9 +18,11 @@
 package com.haulmont.cuba.core.app;
 
 import com.google.common.base.Strings;
+import com.haulmont.cuba.core.entity.FileDescriptor;
 import com.haulmont.cuba.core.entity.SendingAttachment;
 import com.haulmont.cuba.core.entity.SendingMessage;
 import com.haulmont.cuba.core.global.EmailHeader;
+import com.haulmont.cuba.core.global.FileStorageException;
 import com.haulmont.cuba.core.global.FileTypesHelper;
 import com.haulmont.cuba.core.global.TimeSource;
 import com.haulmont.cuba.core.sys.CubaMailSender;
@@ -55,6 +57,9 @@ public class EmailSender implements EmailSenderAPI {
     @Inject
     protected TimeSource timeSource;
 
+    @Inject
+    protected FileStorageAPI fileStorage;
+
     @Resource(name = CubaMailSender.NAME)
     public void setMailSender(JavaMailSender mailSender) {
         this.mailSender = mailSender;
@@ -149,7 +154,12 @@ public class EmailSender implements EmailSenderAPI {
     }
 
     protected MimeBodyPart createAttachmentPart(SendingAttachment attachment) throws MessagingException {
-        DataSource source = new MyByteArrayDataSource(attachment.getContent());
+        DataSource source;
+        if (attachment.getContent() == null && attachment.getContentFile() != null) {
+            source = new FileStorageDataSource(fileStorage, attachment.getContentFile());
+        } else {
+            source = new MyByteArrayDataSource(attachment.getContent());
+        }
 
         String mimeType = FileTypesHelper.getMIMEType(attachment.getName());
         String encodedFileName = encodeAttachmentName(attachment);
@@ -212,4 +222,42 @@ public class EmailSender implements EmailSenderAPI {
             return null;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Reads attachment content from the file storage each time the mail library requests it, so the content
+     * is not kept in memory.
+     */
+    protected static class FileStorageDataSource implements DataSource {
+        private FileStorageAPI fileStorage;
+        private FileDescriptor fileDescriptor;
+
+        public FileStorageDataSource(FileStorageAPI fileStorage, FileDescriptor fileDescriptor) {
+            this.fileStorage = fileStorage;
+            this.fileDescriptor = fileDescriptor;
+        }
+
+        @Override
+        public String getContentType() {
+            return "application/octet-stream";
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            try {
+                return fileStorage.openStream(fileDescriptor);
+            } catch (FileStorageException e) {
+                throw new IOException("Unable to read attachment content " + fileDescriptor, e);
+            }
+        }
+
+        @Override
+        public String getName() {
+            return fileDescriptor.getName();
+        }
+
+        @Override
+        public OutputStream getOutputStream() throws IOException {
+            return null;
+        }
+    }
+}
@@ -31,7 +31,8 @@ public interface EmailSenderAPI {
 
     /**
      * Sends email with help of {@link org.springframework.mail.javamail.JavaMailSender}.
-     * Message body and attachments' content must be loaded from file storage.
+     * Message body must be loaded from file storage. Attachments having no loaded content are streamed from the
+     * file storage by their {@code contentFile}.
      * <br>
      * Use {@link EmailerAPI} instead if you need email to be delivered reliably and stored to email history.
      *
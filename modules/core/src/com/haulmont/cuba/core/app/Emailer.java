@@ -17,8 +17,10 @@
 package com.haulmont.cuba.core.app;
 
 import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
 import com.haulmont.cuba.core.EntityManager;
 import com.haulmont.cuba.core.Persistence;
+import com.haulmont.cuba.core.Query;
 import com.haulmont.cuba.core.Transaction;
 import com.haulmont.cuba.core.TypedQuery;
 import com.haulmont.cuba.core.entity.FileDescriptor;
@@ -35,6 +37,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.mail.MailSendException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Nullable;
@@ -44,19 +47,32 @@ import javax.mail.internet.AddressException;
 import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Component(EmailerAPI.NAME)
 public class Emailer implements EmailerAPI {
 
     protected static final String BODY_FILE_EXTENSION = "txt";
 
+    protected static final int STATUS_UPDATE_CHUNK_SIZE = 500;
+
     private static final Logger log = LoggerFactory.getLogger(Emailer.class);
 
     protected EmailerConfig config;
 
     protected volatile int callCount = 0;
 
+    protected final Queue<StatusUpdate> statusUpdates = new ConcurrentLinkedQueue<>();
+
+    protected final AtomicInteger pendingStatusUpdates = new AtomicInteger();
+
+    protected final AtomicLong sentCount = new AtomicLong();
+
+    protected final AtomicLong failedCount = new AtomicLong();
+
     @Resource(name = "mailSendTaskExecutor")
     protected TaskExecutor mailSendTaskExecutor;
 
@@ -179,14 +195,79 @@ public class Emailer implements EmailerAPI {
         Objects.requireNonNull(sendingMessage.getFrom(), "sendingMessage.from is null");
         try {
             emailSender.sendEmail(sendingMessage);
-            markAsSent(sendingMessage);
+            sentCount.incrementAndGet();
+            addStatusUpdate(sendingMessage, SendingStatus.SENT);
         } catch (Exception e) {
             log.warn("Unable to send email to '" + sendingMessage.getAddress() + "'", e);
-            if (isNeedToRetry(e)) {
-                returnToQueue(sendingMessage);
-            } else {
-                markAsNonSent(sendingMessage);
+            failedCount.incrementAndGet();
+            addStatusUpdate(sendingMessage, isNeedToRetry(e) ? SendingStatus.QUEUE : SendingStatus.NOTSENT);
+        }
+    }
+
+    /**
+     * Registers the result of sending a queued message. The results are saved to the database in bulk updates
+     * when {@link EmailerConfig#getStatusUpdateBatchSize()} of them are accumulated or on the next scheduler tick.
+     */
+    protected void addStatusUpdate(SendingMessage sendingMessage, SendingStatus status) {
+        statusUpdates.add(new StatusUpdate(sendingMessage.getId(), status, timeSource.currentTimestamp()));
+        if (pendingStatusUpdates.incrementAndGet() >= config.getStatusUpdateBatchSize()) {
+            flushStatusUpdates();
+        }
+    }
+
+    /**
+     * Saves accumulated results of sending queued messages to the database.
+     */
+    protected void flushStatusUpdates() {
+        List<StatusUpdate> updates = new ArrayList<>();
+        StatusUpdate update;
+        while ((update = statusUpdates.poll()) != null) {
+            pendingStatusUpdates.decrementAndGet();
+            updates.add(update);
+        }
+        if (updates.isEmpty()) {
+            return;
+        }
+
+        Map<SendingStatus, List<StatusUpdate>> updatesByStatus = new EnumMap<>(SendingStatus.class);
+        for (StatusUpdate statusUpdate : updates) {
+            updatesByStatus.computeIfAbsent(statusUpdate.status, status -> new ArrayList<>()).add(statusUpdate);
+        }
+
+        try (Transaction tx = persistence.createTransaction()) {
+            String login = userSessionSource.getUserSession().getUser().getLogin();
+            EntityManager em = persistence.getEntityManager();
+            for (Map.Entry<SendingStatus, List<StatusUpdate>> entry : updatesByStatus.entrySet()) {
+                SendingStatus status = entry.getKey();
+                for (List<StatusUpdate> chunk : Lists.partition(entry.getValue(), STATUS_UPDATE_CHUNK_SIZE)) {
+                    Query query = em.createQuery(
+                            "update sys$SendingMessage sm set sm.status = :status," +
+                                    " sm.attemptsMade = sm.attemptsMade + 1, sm.version = sm.version + 1," +
+                                    " sm.updateTs = :updateTs, sm.updatedBy = :updatedBy" +
+                                    (status == SendingStatus.SENT ? ", sm.dateSent = :dateSent" : "") +
+                                    " where sm.id in :ids");
+                    query.setParameter("status", status.getId());
+                    query.setParameter("updateTs", timeSource.currentTimestamp());
+                    query.setParameter("updatedBy", login);
+                    if (status == SendingStatus.SENT) {
+                        // the time of the last message in the chunk is precise enough for the history
+                        query.setParameter("dateSent", chunk.get(chunk.size() - 1).ts);
+                    }
+                    List<UUID> ids = new ArrayList<>(chunk.size());
+                    for (StatusUpdate statusUpdate : chunk) {
+                        ids.add(statusUpdate.messageId);
+                    }
+                    query.setParameter("ids", ids);
+                    query.executeUpdate();
+                }
             }
+            tx.commit();
+        } catch (Exception e) {
+            log.error("Error saving status of {} sent messages, will retry", updates.size(), e);
+            // return the updates to the queue, otherwise the messages remain in SENDING status and are sent again
+            // after cuba.email.sendingTimeoutSec
+            statusUpdates.addAll(updates);
+            pendingStatusUpdates.addAndGet(updates.size());
         }
     }
 
@@ -271,7 +352,10 @@ public class Emailer implements EmailerAPI {
         try {
             authentication.begin(getEmailerLogin());
             try {
+                // save results of the previous tick not reaching the batch size
+                flushStatusUpdates();
                 resultMessage = sendQueuedEmails();
+                flushStatusUpdates();
             } finally {
                 authentication.end();
             }
@@ -319,14 +403,10 @@ public class Emailer implements EmailerAPI {
             Runnable mailSendTask = new EmailSendTask(msg);
             mailSendTaskExecutor.execute(mailSendTask);
         } catch (RejectedExecutionException e) {
-            returnToQueue(msg);
+            addStatusUpdate(msg, SendingStatus.QUEUE);
         } catch (Exception e) {
             log.error("Exception while sending email: ", e);
-            if (isNeedToRetry(e)) {
-                returnToQueue(msg);
-            } else {
-                markAsNonSent(msg);
-            }
+            addStatusUpdate(msg, isNeedToRetry(e) ? SendingStatus.QUEUE : SendingStatus.NOTSENT);
         }
     }
 
@@ -347,7 +427,7 @@ public class Emailer implements EmailerAPI {
             query.setParameter("time", sendTimeoutTime);
             query.setParameter("statusSending", SendingStatus.SENDING.getId());
 
-            View view = metadata.getViewRepository().getView(SendingMessage.class, "sendingMessage.loadFromQueue");
+            View view = View.copy(metadata.getViewRepository().getView(SendingMessage.class, "sendingMessage.loadFromQueue"));
             view.setLoadPartialEntities(true); // because SendingAttachment.content has FetchType.LAZY
             query.setView(view);
 
@@ -404,12 +484,7 @@ public class Emailer implements EmailerAPI {
                 message.setContentText(body);
             }
 
-            for (SendingAttachment attachment : message.getAttachments()) {
-                if (attachment.getContentFile() != null) {
-                    byte[] content = fileStorage.loadFile(attachment.getContentFile());
-                    attachment.setContent(content);
-                }
-            }
+            // attachment contents are streamed from the file storage by EmailSender
         } catch (FileStorageException e) {
             log.error("Failed to load body or attachments for " + message);
         }
@@ -500,23 +575,6 @@ public class Emailer implements EmailerAPI {
         return contentTextFile;
     }
 
-    protected void returnToQueue(SendingMessage sendingMessage) {
-        try (Transaction tx = persistence.createTransaction()) {
-            EntityManager em = persistence.getEntityManager();
-            SendingMessage msg = em.merge(sendingMessage);
-
-            msg.setAttemptsMade(msg.getAttemptsMade() + 1);
-            msg.setStatus(SendingStatus.QUEUE);
-            if (config.isFileStorageUsed()) {
-                msg.setContentText(null);
-            }
-
-            tx.commit();
-        } catch (Exception e) {
-            log.error("Error returning message to '{}' to the queue", sendingMessage.getAddress(), e);
-        }
-    }
-
     protected void markAsSent(SendingMessage sendingMessage) {
         try (Transaction tx = persistence.createTransaction()) {
             EntityManager em = persistence.getEntityManager();
@@ -553,6 +611,47 @@ public class Emailer implements EmailerAPI {
         }
     }
 
+    /**
+     * @return number of queued messages sent by this server since startup
+     */
+    public long getSentEmailsCount() {
+        return sentCount.get();
+    }
+
+    /**
+     * @return number of failed attempts to send queued messages by this server since startup
+     */
+    public long getFailedEmailsCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * @return number of sending results not saved to the database yet
+     */
+    public int getPendingStatusUpdatesCount() {
+        return pendingStatusUpdates.get();
+    }
+
+    /**
+     * @return number of messages waiting for a free sending thread
+     */
+    public int getSendingQueueSize() {
+        if (mailSendTaskExecutor instanceof ThreadPoolTaskExecutor) {
+            return ((ThreadPoolTaskExecutor) mailSendTaskExecutor).getThreadPoolExecutor().getQueue().size();
+        }
+        return 0;
+    }
+
+    /**
+     * @return number of messages being sent at the moment
+     */
+    public int getActiveSendingCount() {
+        if (mailSendTaskExecutor instanceof ThreadPoolTaskExecutor) {
+            return ((ThreadPoolTaskExecutor) mailSendTaskExecutor).getActiveCount();
+        }
+        return 0;
+    }
+
     protected SendingMessage convertToSendingMessage(String address, String from, String caption, String body,
                                                      String bodyContentType,
                                                      @Nullable List<EmailHeader> headers,
@@ -740,6 +839,18 @@ public class Emailer implements EmailerAPI {
         }
     }
 
+    protected static class StatusUpdate {
+        protected final UUID messageId;
+        protected final SendingStatus status;
+        protected final Date ts;
+
+        protected StatusUpdate(UUID messageId, SendingStatus status, Date ts) {
+            this.messageId = messageId;
+            this.status = status;
+            this.ts = ts;
+        }
+    }
+
     protected static class MessagePersistingContext {
         public final List<FileDescriptor> files = new ArrayList<>();
 
@@ -116,6 +116,16 @@ public interface EmailerConfig extends Config {
 
     void setSmtpTimeoutSec(int smtpTimeoutSec);
 
+    /**
+     * Maximum number of idle SMTP connections kept open for reuse by subsequent messages.
+     * 0 means that a new connection is opened for each sending.
+     */
+    @Property("cuba.email.smtpConnectionPoolSize")
+    @DefaultInt(5)
+    int getSmtpConnectionPoolSize();
+
+    void setSmtpConnectionPoolSize(int smtpConnectionPoolSize);
+
     /**
      * How many scheduler ticks to skip after server startup.
      * Actual sending will start with the next call.
@@ -134,6 +144,14 @@ public interface EmailerConfig extends Config {
     @Default("100")
     int getMessageQueueCapacity();
 
+    /**
+     * Number of sending results of queued messages accumulated before their statuses are saved to the database
+     * in bulk updates. Pending results are also saved on every scheduler tick.
+     */
+    @Property("cuba.email.statusUpdateBatchSize")
+    @DefaultInt(100)
+    int getStatusUpdateBatchSize();
+
     /**
      * Max number of attempts to send a message, after which the message's status is set to NOT_SENT.
      */
@@ -50,6 +50,8 @@ public class RdbmsQueryBuilder {
 
     private static final Logger log = LoggerFactory.getLogger(RdbmsQueryBuilder.class);
 
+    protected static final String KEYSET_PARAM_NAME = "_keysetLastValue";
+
     protected String queryString;
     protected Map<String, Object> queryParams;
     protected String[] noConversionParams;
@@ -132,6 +134,24 @@ public class RdbmsQueryBuilder {
         this.queryParams.put("_qr_sessionId", sessionId);
     }
 
+    /**
+     * Orders the query by the keyset property and restricts it to the instances following the given value.
+     *
+     * @param keysetProperty unique property of the entity
+     * @param lastValue      value of the keyset property of the last instance of the previous page,
+     *                       or null to select from the beginning
+     */
+    public void applyKeyset(String keysetProperty, @Nullable Object lastValue) {
+        QueryTransformer transformer = QueryTransformerFactory.createTransformer(queryString);
+        if (lastValue != null) {
+            transformer.addWhere(String.format("{E}.%s > :%s", keysetProperty, KEYSET_PARAM_NAME));
+            this.queryParams = new HashMap<>(queryParams);
+            this.queryParams.put(KEYSET_PARAM_NAME, lastValue);
+        }
+        transformer.replaceOrderBy(false, keysetProperty);
+        queryString = transformer.getResult();
+    }
+
     public String getQueryString() {
         return queryString;
     }
@@ -29,12 +29,14 @@ import com.haulmont.cuba.core.app.queryresults.QueryResultsManagerAPI;
 import com.haulmont.cuba.core.entity.*;
 import com.haulmont.cuba.core.global.*;
 import com.haulmont.cuba.core.sys.EntityFetcher;
+import com.haulmont.cuba.core.sys.persistence.CubaEntityFetchGroup;
 import com.haulmont.cuba.core.sys.persistence.EntityChangedEventManager;
 import com.haulmont.cuba.security.entity.ConstraintOperationType;
 import com.haulmont.cuba.security.entity.EntityAttrAccess;
 import com.haulmont.cuba.security.entity.EntityOp;
 import com.haulmont.cuba.security.entity.PermissionType;
 import org.apache.commons.lang3.StringUtils;
+import org.eclipse.persistence.queries.FetchGroupTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Scope;
@@ -46,6 +48,8 @@ import javax.persistence.NoResultException;
 import java.util.*;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * INTERNAL.
@@ -257,6 +261,189 @@ public class RdbmsStore implements DataStore {
         return resultList;
     }
 
+    /**
+     * Loads entity instances by chunks reading them from a server-side JDBC cursor.
+     * <p>Each chunk is processed the same way as the result of {@link #loadList(LoadContext)}: views, dynamic
+     * attributes and security constraints are applied, and the instances are detached from the persistence context
+     * before the chunk is returned, so the memory consumption does not depend on the total number of rows.
+     * <p>The transaction remains open until the returned stream is closed, so the stream must be consumed in the
+     * current thread and closed after use.
+     *
+     * @param context   defines what and how to load
+     * @param fetchSize JDBC fetch size and the number of instances in a chunk
+     * @return stream of chunks of detached instances
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends Entity> Stream<List<E>> streamChunks(LoadContext<E> context, int fetchSize) {
+        if (log.isDebugEnabled())
+            log.debug("streamChunks: metaClass=" + context.getMetaClass() + ", view=" + context.getView()
+                    + ", query=" + (context.getQuery() == null ? null : RdbmsQueryBuilder.printQuery(context.getQuery().getQueryString()))
+                    + ", fetchSize=" + fetchSize);
+
+        Preconditions.checkNotNullArgument(context.getQuery(), "query is null");
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("fetchSize must be positive");
+        }
+
+        MetaClass metaClass = metadata.getClassNN(context.getMetaClass());
+
+        if (isAuthorizationRequired(context) && !isEntityOpPermitted(metaClass, EntityOp.READ)) {
+            log.debug("reading of {} not permitted, returning empty stream", metaClass);
+            return Stream.empty();
+        }
+
+        queryResultsManager.savePreviousQueryResults(context);
+
+        boolean needToFilterByInMemoryReadConstraints = needToFilterByInMemoryReadConstraints(context);
+        int requestedFirst = context.getQuery().getFirstResult();
+        int requestedMax = context.getQuery().getMaxResults();
+        LoadContext<E> queryContext = context;
+        if (needToFilterByInMemoryReadConstraints && (requestedFirst != 0 || requestedMax != 0)) {
+            // paging is applied after filtering
+            queryContext = (LoadContext<E>) context.copy();
+            queryContext.getQuery().setFirstResult(0);
+            queryContext.getQuery().setMaxResults(0);
+        } else {
+            requestedFirst = 0;
+            requestedMax = 0;
+        }
+
+        Transaction tx = getLoadTransaction(context.isJoinTransaction());
+        Stream<E> rows;
+        View view;
+        try {
+            EntityManager em = persistence.getEntityManager(storeName);
+            em.setSoftDeletion(context.isSoftDeletion());
+            persistence.getEntityManagerContext(storeName).setDbHints(context.getDbHints());
+
+            view = createRestrictedView(context);
+            Query query = createQuery(em, queryContext, false);
+            query.setView(view);
+
+            rows = query.getResultStream(fetchSize);
+        } catch (RuntimeException e) {
+            tx.close();
+            throw e;
+        }
+
+        ChunkIterator<E> iterator = new ChunkIterator<>(context, view, rows.iterator(), fetchSize,
+                needToFilterByInMemoryReadConstraints, requestedFirst, requestedMax);
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(() -> {
+                    try {
+                        rows.close();
+                        tx.commit();
+                    } finally {
+                        tx.close();
+                    }
+                });
+    }
+
+    /**
+     * Reads rows from a cursor and returns them by processed and detached chunks.
+     */
+    protected class ChunkIterator<E extends Entity> implements Iterator<List<E>> {
+
+        protected final LoadContext<E> context;
+        protected final View view;
+        protected final Iterator<E> rows;
+        protected final int chunkSize;
+        protected final boolean needToFilterByInMemoryReadConstraints;
+        protected final boolean needToApplyInMemoryReadConstraints;
+
+        protected int toSkip;
+        protected int remaining;
+        protected List<E> next;
+
+        protected ChunkIterator(LoadContext<E> context, View view, Iterator<E> rows, int chunkSize,
+                                boolean needToFilterByInMemoryReadConstraints, int first, int max) {
+            this.context = context;
+            this.view = view;
+            this.rows = rows;
+            this.chunkSize = chunkSize;
+            this.needToFilterByInMemoryReadConstraints = needToFilterByInMemoryReadConstraints;
+            this.needToApplyInMemoryReadConstraints = needToApplyInMemoryReadConstraints(context);
+            this.toSkip = first;
+            this.remaining = max == 0 ? Integer.MAX_VALUE : max;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && remaining > 0 && rows.hasNext()) {
+                List<E> chunk = readChunk();
+                if (!chunk.isEmpty()) {
+                    next = chunk;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public List<E> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            List<E> chunk = next;
+            next = null;
+            return chunk;
+        }
+
+        @SuppressWarnings("unchecked")
+        protected List<E> readChunk() {
+            EntityManager em = persistence.getEntityManager(storeName);
+
+            List<E> chunk = new ArrayList<>(chunkSize);
+            while (chunk.size() < chunkSize && rows.hasNext()) {
+                chunk.add(rows.next());
+            }
+
+            List<E> result = chunk;
+            if (needToFilterByInMemoryReadConstraints) {
+                result = new ArrayList<>(chunk);
+                security.filterByConstraints((Collection<Entity>) result);
+                if (toSkip > 0) {
+                    int skipped = Math.min(toSkip, result.size());
+                    result = new ArrayList<>(result.subList(skipped, result.size()));
+                    toSkip -= skipped;
+                }
+                if (result.size() > remaining) {
+                    result = new ArrayList<>(result.subList(0, remaining));
+                }
+                remaining -= result.size();
+            }
+
+            if (!result.isEmpty() && result.get(0) instanceof BaseGenericIdEntity && context.isLoadDynamicAttributes()) {
+                dynamicAttributesManagerAPI.fetchDynamicAttributes((List<BaseGenericIdEntity>) result,
+                        collectEntityClassesWithDynamicAttributes(context.getView()));
+            }
+
+            if (needToApplyInMemoryReadConstraints) {
+                security.calculateFilteredData((Collection<Entity>) result);
+            }
+
+            attributeSecurity.onLoad(result, view);
+
+            if (context.isJoinTransaction()) {
+                em.flush();
+            }
+            // detach the whole chunk including filtered out instances to release the persistence context
+            for (E entity : chunk) {
+                detachEntity(em, entity, view);
+            }
+
+            if (needToApplyInMemoryReadConstraints) {
+                security.applyConstraints((Collection<Entity>) result);
+            }
+
+            if (context.isAuthorizationRequired()) {
+                attributeSecurity.afterLoad(result);
+            }
+
+            return result;
+        }
+    }
+
     @Override
     public long getCount(LoadContext<? extends Entity> context) {
         if (log.isDebugEnabled())
@@ -280,6 +467,10 @@ public class RdbmsStore implements DataStore {
         if (StringUtils.isBlank(context.getQuery().getQueryString())) {
             context.getQuery().setQueryString("select e from " + metaClass.getName() + " e");
         }
+        // the count covers all pages, so neither keyset ordering nor the position of the last page apply
+        context.getQuery().setKeysetPagination(false);
+        context.getQuery().setKeysetProperty(null);
+        context.getQuery().setKeysetLastValue(null);
 
         if (security.hasInMemoryConstraints(metaClass, ConstraintOperationType.READ, ConstraintOperationType.ALL)) {
             List resultList;
@@ -388,6 +579,7 @@ public class RdbmsStore implements DataStore {
                         security.assertToken(entity);
                     }
                     security.restoreSecurityStateAndFilteredData(entity);
+                    restrictToChangedAttributes(context, entity);
                     if (isAuthorizationRequired(context)) {
                         attributeSecurity.beforeMerge(entity);
                     }
@@ -590,6 +782,26 @@ public class RdbmsStore implements DataStore {
         return isAuthorizationRequired(context) ? attributeSecurity.createRestrictedView(view) : view;
     }
 
+    /**
+     * If the context defines changed attributes of the detached entity, restricts its fetch group to these
+     * and loaded system attributes, so the merge updates only them.
+     */
+    protected void restrictToChangedAttributes(CommitContext context, Entity entity) {
+        Set<String> changedAttributes = context.getChangedAttributes().get(entity);
+        if (changedAttributes == null || !(entity instanceof FetchGroupTracker))
+            return;
+
+        List<String> attributeNames = new ArrayList<>();
+        for (MetaProperty property : metadata.getClassNN(entity.getClass()).getProperties()) {
+            String name = property.getName();
+            if (changedAttributes.contains(name)
+                    || metadataTools.isSystem(property) && entityStates.isLoaded(entity, name)) {
+                attributeNames.add(name);
+            }
+        }
+        ((FetchGroupTracker) entity)._persistence_setFetchGroup(new CubaEntityFetchGroup(attributeNames));
+    }
+
     @Nullable
     protected View getViewFromContextOrNull(CommitContext context, Entity entity) {
         View view = context.getViews().get(entity);
@@ -614,6 +826,60 @@ public class RdbmsStore implements DataStore {
     }
 
     protected Query createQuery(EntityManager em, LoadContext context, boolean singleResult) {
+        LoadContext.Query contextQuery = context.getQuery();
+        RdbmsQueryBuilder queryBuilder = createQueryBuilder(context, singleResult);
+
+        boolean keysetSeek = false;
+        if (!singleResult && contextQuery != null && contextQuery.isKeysetPagination()) {
+            queryBuilder.applyKeyset(getKeysetProperty(context), contextQuery.getKeysetLastValue());
+            keysetSeek = contextQuery.getKeysetLastValue() != null;
+        }
+
+        Query query = queryBuilder.getQuery(em);
+
+        if (contextQuery != null) {
+            if (contextQuery.getFirstResult() != 0 && !keysetSeek)
+                query.setFirstResult(contextQuery.getFirstResult());
+            if (contextQuery.getMaxResults() != 0)
+                query.setMaxResults(contextQuery.getMaxResults());
+            if (contextQuery.isCacheable()) {
+                query.setCacheable(contextQuery.isCacheable());
+            }
+        }
+
+        return query;
+    }
+
+    /**
+     * Creates a query selecting the next chunk of instances in keyset pagination mode.
+     */
+    protected Query createKeysetQuery(EntityManager em, LoadContext context, View view,
+                                      @Nullable Object lastValue, int maxResults) {
+        RdbmsQueryBuilder queryBuilder = createQueryBuilder(context, false);
+        queryBuilder.applyKeyset(getKeysetProperty(context), lastValue);
+        Query query = queryBuilder.getQuery(em);
+        query.setMaxResults(maxResults);
+        query.setView(view);
+        return query;
+    }
+
+    protected String getKeysetProperty(LoadContext context) {
+        String keysetProperty = context.getQuery().getKeysetProperty();
+        if (keysetProperty != null) {
+            return keysetProperty;
+        }
+        MetaClass metaClass = metadata.getClassNN(context.getMetaClass());
+        if (metadataTools.hasCompositePrimaryKey(metaClass)) {
+            throw new DevelopmentException("Keyset pagination by composite primary key is not supported for " + metaClass);
+        }
+        String pkName = metadataTools.getPrimaryKeyName(metaClass);
+        if (pkName == null) {
+            throw new DevelopmentException("Keyset pagination requires a primary key for " + metaClass);
+        }
+        return pkName;
+    }
+
+    protected RdbmsQueryBuilder createQueryBuilder(LoadContext context, boolean singleResult) {
         LoadContext.Query contextQuery = context.getQuery();
         RdbmsQueryBuilder queryBuilder = AppBeans.get(RdbmsQueryBuilder.NAME);
         queryBuilder.init(
@@ -631,19 +897,7 @@ public class RdbmsStore implements DataStore {
             log.debug("Restrict query by previous results");
             queryBuilder.restrictByPreviousResults(userSessionSource.getUserSession().getId(), context.getQueryKey());
         }
-        Query query = queryBuilder.getQuery(em);
-
-        if (contextQuery != null) {
-            if (contextQuery.getFirstResult() != 0)
-                query.setFirstResult(contextQuery.getFirstResult());
-            if (contextQuery.getMaxResults() != 0)
-                query.setMaxResults(contextQuery.getMaxResults());
-            if (contextQuery.isCacheable()) {
-                query.setCacheable(contextQuery.isCacheable());
-            }
-        }
-
-        return query;
+        return queryBuilder;
     }
 
     protected View createRestrictedView(LoadContext context) {
@@ -666,13 +920,22 @@ public class RdbmsStore implements DataStore {
         if (initialSize == 0) {
             return list;
         }
+        boolean keyset = context.getQuery() != null && context.getQuery().isKeysetPagination();
+        // key of the last selected row, must be taken before the rows are filtered
+        Object loadedLastValue = keyset ? getKeysetValue(list.get(initialSize - 1), getKeysetProperty(context)) : null;
+
         boolean needToFilterByInMemoryReadConstraints = needToFilterByInMemoryReadConstraints(context);
         boolean filteredByConstraints = false;
         if (needToFilterByInMemoryReadConstraints) {
             filteredByConstraints = security.filterByConstraints((Collection<Entity>) list);
         }
         if (!ensureDistinct) {
-            return filteredByConstraints ? getResultListIteratively(context, query, list, initialSize, true) : list;
+            if (!filteredByConstraints) {
+                return list;
+            }
+            return keyset
+                    ? getResultListByKeyset(context, list, loadedLastValue, initialSize, true)
+                    : getResultListIteratively(context, query, list, initialSize, true);
         }
 
         int requestedFirst = context.getQuery().getFirstResult();
@@ -681,6 +944,9 @@ public class RdbmsStore implements DataStore {
             // If this is the first chunk and it has no duplicates and security constraints are not applied, just return it
             return list;
         }
+        if (keyset) {
+            return getResultListByKeyset(context, set, loadedLastValue, initialSize, needToFilterByInMemoryReadConstraints);
+        }
         // In case of not first chunk, even if there where no duplicates, start filling the set from zero
         // to ensure correct paging
         return getResultListIteratively(context, query, set, initialSize, needToFilterByInMemoryReadConstraints);
@@ -740,6 +1006,87 @@ public class RdbmsStore implements DataStore {
         return result;
     }
 
+    /**
+     * Fills the collection in keyset pagination mode: each next chunk is selected after the key of the last
+     * loaded instance, so the rows read by previous chunks are not scanned again.
+     *
+     * @param filteredCollection rows of the first chunk remaining after filtering
+     * @param loadedLastValue    key of the last row of the first chunk before filtering
+     */
+    @SuppressWarnings("unchecked")
+    protected <E extends Entity> List<E> getResultListByKeyset(LoadContext<E> context,
+                                                               Collection<E> filteredCollection,
+                                                               Object loadedLastValue,
+                                                               int initialSize, boolean needToFilterByInMemoryReadConstraints) {
+        Object lastValue = context.getQuery().getKeysetLastValue();
+        int requestedFirst = lastValue != null ? 0 : context.getQuery().getFirstResult();
+        int requestedMax = context.getQuery().getMaxResults();
+
+        if (requestedMax == 0) {
+            return new ArrayList<>(filteredCollection);
+        }
+
+        int setSize = requestedFirst + requestedMax;
+        int factor = filteredCollection.size() == 0 ? 2 : initialSize / filteredCollection.size() * 2;
+
+        if (requestedFirst > 0) {
+            // the first chunk was selected with an offset which must be applied to filtered rows, start from the beginning
+            filteredCollection.clear();
+        } else if (initialSize < requestedMax) {
+            // the first chunk contains all remaining rows
+            return new ArrayList<>(filteredCollection);
+        } else {
+            // continue after the rows of the first chunk
+            lastValue = loadedLastValue;
+        }
+
+        EntityManager em = persistence.getEntityManager(storeName);
+        View view = createRestrictedView(context);
+        String keysetProperty = getKeysetProperty(context);
+
+        int maxResults = setSize * factor;
+        int i = 0;
+        while (filteredCollection.size() < setSize) {
+            if (i++ > 10000) {
+                log.warn("Keyset pagination: endless loop detected for " + context);
+                break;
+            }
+            List<E> list = executeQuery(createKeysetQuery(em, context, view, lastValue, maxResults), false);
+            if (list.size() == 0) {
+                break;
+            }
+            int loadedSize = list.size();
+            lastValue = getKeysetValue(list.get(loadedSize - 1), keysetProperty);
+
+            if (needToFilterByInMemoryReadConstraints) {
+                security.filterByConstraints((Collection<Entity>) list);
+            }
+            filteredCollection.addAll(list);
+
+            if (loadedSize < maxResults) {
+                break;
+            }
+        }
+
+        // Copy by iteration because subList() returns non-serializable class
+        int max = Math.min(requestedFirst + requestedMax, filteredCollection.size());
+        List<E> result = new ArrayList<>(Math.max(max - requestedFirst, 0));
+        int j = 0;
+        for (E item : filteredCollection) {
+            if (j >= max)
+                break;
+            if (j >= requestedFirst)
+                result.add(item);
+            j++;
+        }
+        return result;
+    }
+
+    protected Object getKeysetValue(Entity entity, String keysetProperty) {
+        Object value = entity.getValueEx(keysetProperty);
+        return value instanceof IdProxy ? ((IdProxy) value).getNN() : value;
+    }
+
     @SuppressWarnings("unchecked")
     protected <E extends Entity> List<E> executeQuery(Query query, boolean singleResult) {
         List<E> list;
@@ -131,6 +131,29 @@ public interface ServerConfig extends Config {
     @DefaultBoolean(true)
     boolean getImmutableFileStorage();
 
+    /**
+     * If true, {@link FileStorageAPI} computes a hash of the content of saved files and stores identical content
+     * only once in the primary storage directory using hard links.
+     */
+    @Property("cuba.fileStorageDeduplication")
+    @DefaultBoolean(false)
+    boolean getFileStorageDeduplication();
+
+    /**
+     * @return number of threads copying saved files to secondary storage directories
+     */
+    @Property("cuba.fileStorageReplicationThreads")
+    @DefaultInt(5)
+    int getFileStorageReplicationThreads();
+
+    /**
+     * @return maximum number of files waiting to be copied to secondary storage directories. When the queue is full,
+     * files are copied in the thread saving them.
+     */
+    @Property("cuba.fileStorageReplicationQueueCapacity")
+    @DefaultInt(1000)
+    int getFileStorageReplicationQueueCapacity();
+
     /**
      * @return Scheduled tasks execution control.
      */
@@ -149,6 +172,15 @@ public interface ServerConfig extends Config {
     long getSchedulingInterval();
     void setSchedulingInterval(long value);
 
+    /**
+     * @return Interval in milliseconds of reloading the list of active scheduled tasks from the database.
+     * Changes in task definitions are picked up by the scheduler with this delay.
+     */
+    @Property("cuba.schedulingTasksReloadInterval")
+    @DefaultLong(10000)
+    long getSchedulingTasksReloadInterval();
+    void setSchedulingTasksReloadInterval(long value);
+
     /**
      * @return Maximum size of thread pool which is used to process scheduled tasks
      */
@@ -183,6 +215,16 @@ public interface ServerConfig extends Config {
     @DefaultBoolean(false)
     boolean getSyncNewUserSessionReplication();
 
+    /**
+     * Indicates that refreshed user sessions are sent to the cluster as compact batches of last used timestamps
+     * instead of full sessions. Set to false while the cluster contains nodes of previous versions, or if other
+     * nodes should receive sessions they have missed and session attributes changed without
+     * {@link UserSessionsAPI#propagate(java.util.UUID)} on each refresh.
+     */
+    @Property("cuba.compactUserSessionTouchReplication")
+    @DefaultBoolean(true)
+    boolean getCompactUserSessionTouchReplication();
+
     /**
      * If set to false, attribute permissions are not enforced on Middleware. This is appropriate if only server-side
      * clients are used.
@@ -270,6 +312,14 @@ public interface ServerConfig extends Config {
     @DefaultInt(50)
     int getCrossDataStoreReferenceLoadingBatchSize();
 
+    /**
+     * @return maximum number of batches of cross-datastore references loaded concurrently. The value of 1 means
+     * that all batches are loaded sequentially in the calling thread.
+     */
+    @Property("cuba.crossDataStoreReferenceLoadingParallelism")
+    @DefaultInt(1)
+    int getCrossDataStoreReferenceLoadingParallelism();
+
     /**
      * @return use read-only transactions in {@code DataManager} load operations and do not commit them
      */
@@ -308,4 +358,12 @@ public interface ServerConfig extends Config {
     @Property("cuba.implicitConversionOfJpqlParams")
     @DefaultBoolean(false)
     boolean getImplicitConversionOfJpqlParams();
+
+    /**
+     * @return maximum number of fetch plans calculated from views and cached by {@code FetchGroupManager}.
+     * Zero disables the cache.
+     */
+    @Property("cuba.fetchGroupCacheSize")
+    @DefaultInt(1000)
+    int getFetchGroupCacheSize();
 }
\ No newline at end of file
@@ -24,6 +24,7 @@ import com.haulmont.cuba.core.global.*;
 import com.haulmont.cuba.core.sys.AppContext;
 import com.haulmont.cuba.core.sys.SecurityContext;
 import com.haulmont.cuba.security.global.UserSession;
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -31,17 +32,30 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.Nullable;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.haulmont.bali.util.Preconditions.checkNotNullArgument;
 
@@ -59,16 +73,42 @@ public class FileStorage implements FileStorageAPI {
     @Inject
     protected Configuration configuration;
 
+    /**
+     * Directory in the primary storage root containing hard links to unique contents of files
+     * if deduplication is enabled.
+     */
+    public static final String CONTENT_DIR = ".content";
+
+    protected static final String LOG_FILE_NAME = "storage.log";
+
+    protected static final long TRANSFER_CHUNK_SIZE = 8 * 1024 * 1024;
+
     protected boolean isImmutableFileStorage;
 
-    protected ExecutorService writeExecutor = Executors.newFixedThreadPool(5,
-            new ThreadFactoryBuilder().setNameFormat("FileStorageWriter-%d").build());
+    protected boolean deduplication;
+
+    protected ThreadPoolExecutor writeExecutor;
+
+    protected AtomicLong replicatedFiles = new AtomicLong();
+
+    protected AtomicLong replicationErrors = new AtomicLong();
+
+    protected ConcurrentMap<File, FileChannel> logChannels = new ConcurrentHashMap<>();
 
     protected volatile File[] storageRoots;
 
     @PostConstruct
     public void init() {
-        this.isImmutableFileStorage = configuration.getConfig(ServerConfig.class).getImmutableFileStorage();
+        ServerConfig serverConfig = configuration.getConfig(ServerConfig.class);
+        this.isImmutableFileStorage = serverConfig.getImmutableFileStorage();
+        this.deduplication = serverConfig.getFileStorageDeduplication();
+
+        int nThreads = serverConfig.getFileStorageReplicationThreads();
+        // when the queue is full, the file is copied in the saving thread which slows down the producer
+        this.writeExecutor = new ThreadPoolExecutor(nThreads, nThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(serverConfig.getFileStorageReplicationQueueCapacity()),
+                new ThreadFactoryBuilder().setNameFormat("FileStorageWriter-%d").build(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
     }
 
     /**
@@ -116,20 +156,14 @@ public class FileStorage implements FileStorageAPI {
         final File file = new File(dir, getFileName(fileDescr));
         checkFileExists(file);
 
-        long size = 0;
-        OutputStream os = null;
+        long size;
         try {
-            os = FileUtils.openOutputStream(file);
-            size = IOUtils.copyLarge(inputStream, os);
-            os.flush();
+            size = deduplication ? writeDeduplicated(roots[0], inputStream, file) : write(inputStream, file);
             writeLog(file, false);
         } catch (IOException e) {
-            IOUtils.closeQuietly(os);
             FileUtils.deleteQuietly(file);
 
             throw new FileStorageException(FileStorageException.Type.IO_EXCEPTION, file.getAbsolutePath(), e);
-        } finally {
-            IOUtils.closeQuietly(os);
         }
 
         // Copy file to secondary storages asynchronously
@@ -144,18 +178,18 @@ public class FileStorage implements FileStorageAPI {
             File copyDir = getStorageDir(roots[i], fileDescr);
             final File fileCopy = new File(copyDir, getFileName(fileDescr));
 
-            writeExecutor.submit(new Runnable() {
-                @Override
-                public void run() {
-                    try {
-                        AppContext.setSecurityContext(securityContext);
-                        FileUtils.copyFile(file, fileCopy, true);
-                        writeLog(fileCopy, false);
-                    } catch (Exception e) {
-                        log.error("Error saving {} into {} : {}", fileDescr, fileCopy.getAbsolutePath(), e.getMessage());
-                    } finally {
-                        AppContext.setSecurityContext(null);
-                    }
+            writeExecutor.execute(() -> {
+                SecurityContext previousSecurityContext = AppContext.getSecurityContext();
+                try {
+                    AppContext.setSecurityContext(securityContext);
+                    copyFile(file, fileCopy);
+                    writeLog(fileCopy, false);
+                    replicatedFiles.incrementAndGet();
+                } catch (Exception e) {
+                    replicationErrors.incrementAndGet();
+                    log.error("Error saving {} into {} : {}", fileDescr, fileCopy.getAbsolutePath(), e.getMessage());
+                } finally {
+                    AppContext.setSecurityContext(previousSecurityContext);
                 }
             });
         }
@@ -163,6 +197,127 @@ public class FileStorage implements FileStorageAPI {
         return size;
     }
 
+    /**
+     * Writes the stream to a new file. The content of a {@link FileInputStream} is transferred by the file system
+     * without copying it to the heap.
+     */
+    protected long write(InputStream inputStream, File file) throws IOException {
+        // do not overwrite in place, the file can be a hard link to a shared content
+        Files.deleteIfExists(file.toPath());
+        try (FileChannel out = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long size;
+            if (inputStream instanceof FileInputStream) {
+                FileChannel in = ((FileInputStream) inputStream).getChannel();
+                size = transfer(in, in.position(), in.size() - in.position(), out);
+            } else {
+                ReadableByteChannel in = Channels.newChannel(inputStream);
+                size = 0;
+                long count;
+                while ((count = out.transferFrom(in, size, TRANSFER_CHUNK_SIZE)) > 0) {
+                    size += count;
+                }
+            }
+            out.force(false);
+            return size;
+        }
+    }
+
+    /**
+     * Writes the stream to a temporary file computing the hash of its content. If a file with the same content already
+     * exists in the storage, the new file is created as a hard link to it and the temporary file is removed. If the link
+     * cannot be created, the temporary file is stored as is.
+     */
+    protected long writeDeduplicated(File root, InputStream inputStream, File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+
+        File tmpFile = new File(file.getParentFile(), file.getName() + ".tmp");
+        long size;
+        try {
+            size = write(new DigestInputStream(inputStream, digest), tmpFile);
+
+            String hash = Hex.encodeHexString(digest.digest());
+            File contentFile = new File(root, CONTENT_DIR + "/" + hash.substring(0, 2) + "/" + hash);
+            Path target = file.toPath();
+            Files.deleteIfExists(target);
+            if (!linkContent(target, contentFile, size)) {
+                Files.move(tmpFile.toPath(), target);
+                if (!contentFile.exists()) {
+                    addContent(target, contentFile);
+                }
+            }
+        } finally {
+            FileUtils.deleteQuietly(tmpFile);
+        }
+        return size;
+    }
+
+    /**
+     * Creates the file as a hard link to the existing content.
+     *
+     * @return false if there is no such content or the link cannot be created, e.g. the content has been removed
+     * concurrently or has too many links
+     */
+    protected boolean linkContent(Path target, File contentFile, long size) {
+        if (!contentFile.exists() || contentFile.length() != size)
+            return false;
+        try {
+            Files.createLink(target, contentFile.toPath());
+            log.debug("File {} has the same content as {}", target, contentFile);
+            return true;
+        } catch (UnsupportedOperationException e) {
+            log.warn("Hard links are not supported by the file system, storing {} without deduplication", target);
+        } catch (IOException e) {
+            log.debug("Unable to link {} to {}, storing its own copy: {}", target, contentFile, e.toString());
+        }
+        return false;
+    }
+
+    /**
+     * Adds the file to the index of unique contents.
+     */
+    protected void addContent(Path target, File contentFile) {
+        contentFile.getParentFile().mkdirs();
+        try {
+            Files.createLink(contentFile.toPath(), target);
+        } catch (FileAlreadyExistsException e) {
+            // saved concurrently with the same content
+        } catch (UnsupportedOperationException e) {
+            log.warn("Hard links are not supported by the file system, storing {} without deduplication", target);
+        } catch (IOException e) {
+            log.warn("Unable to add {} to the content index: {}", target, e.toString());
+        }
+    }
+
+    protected void copyFile(File source, File target) throws IOException {
+        File dir = target.getParentFile();
+        if (dir != null) {
+            dir.mkdirs();
+        }
+        try (FileChannel in = FileChannel.open(source.toPath(), StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target.toPath(), StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            transfer(in, 0, in.size(), out);
+        }
+        target.setLastModified(source.lastModified());
+    }
+
+    protected long transfer(FileChannel in, long position, long count, FileChannel out) throws IOException {
+        long transferred = 0;
+        while (transferred < count) {
+            long n = in.transferTo(position + transferred, Math.min(count - transferred, TRANSFER_CHUNK_SIZE), out);
+            if (n <= 0) {
+                break;
+            }
+            transferred += n;
+        }
+        return transferred;
+    }
+
     protected void checkFileExists(File file) throws FileStorageException {
         if (file.exists() && isImmutableFileStorage)
             throw new FileStorageException(FileStorageException.Type.FILE_ALREADY_EXISTS, file.getAbsolutePath());
@@ -193,7 +348,11 @@ public class FileStorage implements FileStorageAPI {
         saveStream(fileDescr, new ByteArrayInputStream(data));
     }
 
-    protected synchronized void writeLog(File file, boolean remove) {
+    /**
+     * Appends a record to the storage log. Records are written to a channel opened in the append mode, so concurrent
+     * writers are not serialized on this object.
+     */
+    protected void writeLog(File file, boolean remove) {
         File rootDir;
         try {
             rootDir = file.getParentFile().getParentFile().getParentFile().getParentFile();
@@ -215,16 +374,53 @@ public class FileStorage implements FileStorageAPI {
         sb.append(remove ? "REMOVE" : "CREATE").append(" ");
         sb.append("\"").append(file.getAbsolutePath()).append("\"\n");
 
-        File logFile = new File(rootDir, "storage.log");
+        File logFile = new File(rootDir, LOG_FILE_NAME);
+        ByteBuffer buffer = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
         try {
-            try (FileOutputStream fos = new FileOutputStream(logFile, true)) {
-                IOUtils.write(sb.toString(), fos, StandardCharsets.UTF_8);
+            try {
+                writeLogRecord(logFile, buffer);
+            } catch (ClosedChannelException e) {
+                // the channel has been reopened by another thread
+                writeLogRecord(logFile, buffer);
             }
-        } catch (IOException e) {
+        } catch (IOException | UncheckedIOException e) {
             log.error("Unable to write log", e);
         }
     }
 
+    protected void writeLogRecord(File logFile, ByteBuffer buffer) throws IOException {
+        FileChannel channel = getLogChannel(logFile);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Returns the cached channel of the log file, or opens a new one if the file has been removed or rotated.
+     */
+    protected FileChannel getLogChannel(File logFile) {
+        FileChannel channel = logChannels.computeIfAbsent(logFile, this::openLogChannel);
+        if (channel.isOpen() && logFile.exists())
+            return channel;
+
+        FileChannel newChannel = openLogChannel(logFile);
+        if (logChannels.replace(logFile, channel, newChannel)) {
+            IOUtils.closeQuietly(channel);
+            return newChannel;
+        }
+        IOUtils.closeQuietly(newChannel);
+        return logChannels.computeIfAbsent(logFile, this::openLogChannel);
+    }
+
+    protected FileChannel openLogChannel(File logFile) {
+        try {
+            return FileChannel.open(logFile.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     @Override
     public void removeFile(FileDescriptor fileDescr) throws FileStorageException {
         checkFileDescriptor(fileDescr);
@@ -314,6 +510,78 @@ public class FileStorage implements FileStorageAPI {
         return false;
     }
 
+    /**
+     * INTERNAL. Don't use in application code.
+     *
+     * @return the first existing file of the given descriptor in the storage roots, or null if not found
+     */
+    @Nullable
+    public File findFile(FileDescriptor fileDescr) {
+        checkFileDescriptor(fileDescr);
+
+        for (File root : getStorageRoots()) {
+            File file = new File(getStorageDir(root, fileDescr), getFileName(fileDescr));
+            if (file.exists()) {
+                return file;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes unique contents that are not referenced by files anymore if deduplication is enabled.
+     * Works only on file systems supporting the {@code unix:nlink} attribute.
+     *
+     * @return number of removed contents
+     */
+    public int removeUnusedContent() throws IOException {
+        File[] roots = getStorageRoots();
+        if (roots.length == 0)
+            return 0;
+
+        File contentDir = new File(roots[0], CONTENT_DIR);
+        if (!contentDir.exists())
+            return 0;
+
+        int count = 0;
+        for (File file : FileUtils.listFiles(contentDir, null, true)) {
+            Object nlink = Files.getAttribute(file.toPath(), "unix:nlink");
+            if (nlink instanceof Integer && (Integer) nlink <= 1) {
+                if (file.delete())
+                    count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return number of files waiting to be copied to secondary storage directories
+     */
+    public int getReplicationQueueSize() {
+        return writeExecutor.getQueue().size();
+    }
+
+    /**
+     * @return number of files being copied to secondary storage directories at the moment
+     */
+    public int getActiveReplicationsCount() {
+        return writeExecutor.getActiveCount();
+    }
+
+    /**
+     * @return total number of files copied to secondary storage directories
+     */
+    public long getReplicatedFilesCount() {
+        return replicatedFiles.get();
+    }
+
+    /**
+     * @return total number of failed attempts to copy files to secondary storage directories
+     */
+    public long getReplicationErrorsCount() {
+        return replicationErrors.get();
+    }
+
     /**
      * INTERNAL. Don't use in application code.
      */
@@ -339,5 +607,9 @@ public class FileStorage implements FileStorageAPI {
     @PreDestroy
     protected void stopWriteExecutor() {
         writeExecutor.shutdown();
+        for (FileChannel channel : logChannels.values()) {
+            IOUtils.closeQuietly(channel);
+        }
+        logChannels.clear();
     }
 }
\ No newline at end of file
@@ -25,6 +25,7 @@ import com.haulmont.cuba.core.global.*;
 import com.haulmont.cuba.core.sys.AppContext;
 import com.haulmont.cuba.core.sys.QueryHolder;
 import com.haulmont.cuba.core.sys.persistence.DbTypeConverter;
+import com.haulmont.cuba.core.sys.persistence.DbmsSpecificFactory;
 import com.haulmont.cuba.security.app.UserSessionsAPI;
 import com.haulmont.cuba.security.global.UserSession;
 import org.slf4j.Logger;
@@ -32,6 +33,9 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -64,6 +68,8 @@ public class QueryResultsManager implements QueryResultsManagerAPI {
 
     protected static final int BATCH_SIZE = 100;
 
+    protected static final int ARRAY_BATCH_SIZE = 10000;
+
     protected static final int DELETE_BATCH_SIZE = 100;
 
     protected static final int INACTIVE_DELETION_MAX = 100000;
@@ -171,19 +177,13 @@ public class QueryResultsManager implements QueryResultsManagerAPI {
             } else {
                 columnName = "ENTITY_ID";
             }
-            QueryRunner runner = new QueryRunner();
+            String userSessionIdStr = converter.getSqlObject(userSessionId).toString(); // assuming that UUID can be passed to query as string in all databases
+            String arrayElementType = DbmsSpecificFactory.getDbmsFeatures().getArrayElementTypeName(idFromList.getClass());
             try {
-                String userSessionIdStr = converter.getSqlObject(userSessionId).toString(); // assuming that UUID can be passed to query as string in all databases
-                String sql = String.format("insert into SYS_QUERY_RESULT (SESSION_ID, QUERY_KEY, %s) values ('%s', %s, ?)",
-                        columnName, userSessionIdStr, queryKey);
-                int[] paramTypes = new int[]{converter.getSqlType(idFromList.getClass())};
-                for (int i = 0; i < idList.size(); i += BATCH_SIZE) {
-                    List<UUID> sublist = idList.subList(i, Math.min(i + BATCH_SIZE, idList.size()));
-                    Object[][] params = new Object[sublist.size()][1];
-                    for (int j = 0; j < sublist.size(); j++) {
-                        params[j][0] = converter.getSqlObject(sublist.get(j));
-                    }
-                    runner.batch(em.getConnection(), sql, params, paramTypes);
+                if (arrayElementType != null) {
+                    insertByArray(em.getConnection(), userSessionIdStr, queryKey, columnName, arrayElementType, idList);
+                } else {
+                    insertByBatches(em.getConnection(), userSessionIdStr, queryKey, columnName, idList);
                 }
             } catch (SQLException e) {
                 throw new RuntimeException(e);
@@ -196,6 +196,45 @@ public class QueryResultsManager implements QueryResultsManagerAPI {
         }
     }
 
+    protected void insertByBatches(Connection connection, String userSessionIdStr, int queryKey, String columnName,
+                                   List idList) throws SQLException {
+        DbTypeConverter converter = persistence.getDbTypeConverter();
+        QueryRunner runner = new QueryRunner();
+        String sql = String.format("insert into SYS_QUERY_RESULT (SESSION_ID, QUERY_KEY, %s) values ('%s', %s, ?)",
+                columnName, userSessionIdStr, queryKey);
+        int[] paramTypes = new int[]{converter.getSqlType(idList.get(0).getClass())};
+        for (int i = 0; i < idList.size(); i += BATCH_SIZE) {
+            List sublist = idList.subList(i, Math.min(i + BATCH_SIZE, idList.size()));
+            Object[][] params = new Object[sublist.size()][1];
+            for (int j = 0; j < sublist.size(); j++) {
+                params[j][0] = converter.getSqlObject(sublist.get(j));
+            }
+            runner.batch(connection, sql, params, paramTypes);
+        }
+    }
+
+    /**
+     * Inserts identifiers passing them as array parameters, which requires one statement per
+     * {@link #ARRAY_BATCH_SIZE} identifiers instead of a batch of single-row inserts.
+     */
+    protected void insertByArray(Connection connection, String userSessionIdStr, int queryKey, String columnName,
+                                 String arrayElementType, List idList) throws SQLException {
+        String sql = String.format("insert into SYS_QUERY_RESULT (SESSION_ID, QUERY_KEY, %s) select '%s', %s, t.ID from unnest(?) as t(ID)",
+                columnName, userSessionIdStr, queryKey);
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < idList.size(); i += ARRAY_BATCH_SIZE) {
+                List sublist = idList.subList(i, Math.min(i + ARRAY_BATCH_SIZE, idList.size()));
+                Array array = connection.createArrayOf(arrayElementType, sublist.toArray());
+                try {
+                    statement.setArray(1, array);
+                    statement.executeUpdate();
+                } finally {
+                    array.free();
+                }
+            }
+        }
+    }
+
     @Override
     public void delete(int queryKey) {
         DbTypeConverter converter = persistence.getDbTypeConverter();
@@ -43,4 +43,19 @@ public interface Coordinator {
     boolean isLastExecutionFinished(ScheduledTask task, long now);
 
     long getLastFinished(ScheduledTask task);
+
+    /**
+     * Claims the right to start the singleton task at the given time on the given server. If the claim succeeds,
+     * {@code lastStartTime} and {@code lastStartServer} of the task instance are updated.
+     *
+     * @param task      task instance
+     * @param now       start time
+     * @param serverId  current server ID
+     * @return true if the task should be started by the current server
+     */
+    default boolean claim(ScheduledTask task, long now, String serverId) {
+        task.setLastStartTime(new Date(now));
+        task.setLastStartServer(serverId);
+        return true;
+    }
 }
@@ -14,27 +14,36 @@
  * limitations under the License.
  *
  */
-
 package com.haulmont.cuba.core.app.scheduling;
 
-import com.haulmont.cuba.core.EntityManager;
 import com.haulmont.cuba.core.Persistence;
 import com.haulmont.cuba.core.Query;
-import com.haulmont.cuba.core.Transaction;
+import com.haulmont.cuba.core.app.ServerConfig;
 import com.haulmont.cuba.core.entity.ScheduledTask;
+import com.haulmont.cuba.core.global.Configuration;
+import com.haulmont.cuba.core.global.TimeSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
-import javax.persistence.LockModeType;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Implementation of {@link Coordinator} interface, performing synchronization of singleton schedulers on the main
  * database.
- * <p>This implementation should not be used if the database is overloaded.</p>
+ * <p>Active tasks are read without locking and cached for {@link ServerConfig#getSchedulingTasksReloadInterval()}.
+ * A singleton task is started by the server which succeeds in a conditional update of the task's
+ * {@code lastStartTime}, so servers never block each other. Finish times of executions are cached until
+ * the next start of a task.</p>
  */
 @Component(Coordinator.NAME)
 public class DbBasedCoordinator implements Coordinator {
@@ -44,54 +53,76 @@ public class DbBasedCoordinator implements Coordinator {
     protected static class ContextImpl implements Context {
 
         protected List<ScheduledTask> tasks;
-        protected Transaction transaction;
 
-        protected ContextImpl(List<ScheduledTask> tasks, Transaction transaction) {
+        protected ContextImpl(List<ScheduledTask> tasks) {
             this.tasks = tasks;
-            this.transaction = transaction;
         }
 
         @Override
         public List<ScheduledTask> getTasks() {
             return tasks;
         }
+    }
+
+    /**
+     * Finish time of the last execution known for a task at the moment it had the given last start time.
+     */
+    protected static class FinishInfo {
+
+        protected final long lastStart;
+        protected final long finishTime;
+
+        protected FinishInfo(long lastStart, long finishTime) {
+            this.lastStart = lastStart;
+            this.finishTime = finishTime;
+        }
 
-        public Transaction getTransaction() {
-            return transaction;
+        protected boolean isValidFor(ScheduledTask task) {
+            return lastStart == task.getLastStart() && finishTime >= lastStart;
         }
     }
 
     @Inject
     protected Persistence persistence;
 
+    @Inject
+    protected Configuration configuration;
+
+    @Inject
+    protected TimeSource timeSource;
+
+    protected volatile List<ScheduledTask> tasks;
+
+    protected volatile long tasksLoadTime;
+
+    protected ConcurrentMap<UUID, FinishInfo> finishCache = new ConcurrentHashMap<>();
+
     @Override
     public Context begin() {
-        Transaction tx = persistence.createTransaction();
-        try {
-            List<ScheduledTask> tasks = getTasks();
-            return new ContextImpl(tasks, tx);
-        } catch (Exception e) {
-            tx.end();
-            throw new RuntimeException(e);
-        }
+        return new ContextImpl(getTasks());
     }
 
     @Override
     public void end(Context context) {
-        log.trace("Commit transaction thereby unlock active tasks");
-        ((ContextImpl) context).transaction.commit();
-        ((ContextImpl) context).transaction.end();
     }
 
     @Override
     public boolean isLastExecutionFinished(ScheduledTask task, long now) {
-        EntityManager em = persistence.getEntityManager();
-        Query query = em.createQuery(
-                "select e.finishTime from sys$ScheduledExecution e where e.task.id = ?1 and e.startTime = ?2");
-        query.setParameter(1, task.getId());
-        query.setParameter(2, task.getLastStartTime());
-        List list = query.getResultList();
-        if (list.isEmpty() || list.get(0) == null) {
+        FinishInfo info = finishCache.get(task.getId());
+        if (info != null && info.isValidFor(task)) {
+            log.trace("{} : finished at {}", task, info.finishTime);
+            return true;
+        }
+
+        Date date = persistence.callInTransaction(em -> {
+            Query query = em.createQuery(
+                    "select e.finishTime from sys$ScheduledExecution e where e.task.id = ?1 and e.startTime = ?2");
+            query.setParameter(1, task.getId());
+            query.setParameter(2, task.getLastStartTime());
+            List list = query.getResultList();
+            return list.isEmpty() ? null : (Date) list.get(0);
+        });
+        if (date == null) {
             // Execution finish was not registered for some reason, so using timeout value or just return false
             boolean result = task.getTimeout() != null
                     && (task.getLastStart() + task.getTimeout() * 1000) <= now;
@@ -101,26 +132,98 @@ public class DbBasedCoordinator implements Coordinator {
                 log.trace(task + ": not finished and not timed out");
             return result;
         }
-        Date date = (Date) list.get(0);
         log.trace("{} : finished at {}", task, date.getTime());
+        finishCache.put(task.getId(), new FinishInfo(task.getLastStart(), date.getTime()));
         return true;
     }
 
     @Override
     public long getLastFinished(ScheduledTask task) {
-        EntityManager em = persistence.getEntityManager();
-        Query query = em.createQuery(
-                "select max(e.finishTime) from sys$ScheduledExecution e where e.task.id = ?1")
-                .setParameter(1, task.getId());
-        Date date = (Date) query.getFirstResult();
-        return date == null ? 0 : date.getTime();
+        FinishInfo info = finishCache.get(task.getId());
+        if (info != null && info.isValidFor(task)) {
+            return info.finishTime;
+        }
+
+        Date date = persistence.callInTransaction(em -> {
+            Query query = em.createQuery(
+                    "select max(e.finishTime) from sys$ScheduledExecution e where e.task.id = ?1")
+                    .setParameter(1, task.getId());
+            return (Date) query.getFirstResult();
+        });
+        long finishTime = date == null ? 0 : date.getTime();
+        finishCache.put(task.getId(), new FinishInfo(task.getLastStart(), finishTime));
+        return finishTime;
+    }
+
+    @Override
+    public boolean claim(ScheduledTask task, long now, String serverId) {
+        Date prevStartTime = task.getLastStartTime();
+        Date startTime = new Date(now);
+
+        Date storedStartTime = persistence.callInTransaction(em -> {
+            Query query = em.createQuery("update sys$ScheduledTask t set t.lastStartTime = ?1, t.lastStartServer = ?2" +
+                    " where t.id = ?3 and " + (prevStartTime == null ? "t.lastStartTime is null" : "t.lastStartTime = ?4"));
+            query.setParameter(1, startTime);
+            query.setParameter(2, serverId);
+            query.setParameter(3, task.getId());
+            if (prevStartTime != null) {
+                query.setParameter(4, prevStartTime);
+            }
+            if (query.executeUpdate() != 1) {
+                return null;
+            }
+            // the database can store the time with lower precision (e.g. MS SQL datetime), so the next claim
+            // must compare with the stored value rather than with the in-memory one
+            return (Date) em.createQuery("select t.lastStartTime from sys$ScheduledTask t where t.id = ?1")
+                    .setParameter(1, task.getId())
+                    .getFirstResult();
+        });
+
+        boolean claimed = storedStartTime != null;
+        if (claimed) {
+            task.setLastStartTime(storedStartTime);
+            task.setLastStartServer(serverId);
+        } else {
+            log.trace("{}: started by another server", task);
+            refreshLastStart(task);
+        }
+        return claimed;
+    }
+
+    protected void refreshLastStart(ScheduledTask task) {
+        Object[] row = persistence.callInTransaction(em -> {
+            Query query = em.createQuery(
+                    "select t.lastStartTime, t.lastStartServer from sys$ScheduledTask t where t.id = ?1")
+                    .setParameter(1, task.getId());
+            return (Object[]) query.getFirstResult();
+        });
+        if (row != null) {
+            task.setLastStartTime((Date) row[0]);
+            task.setLastStartServer((String) row[1]);
+        }
     }
 
     protected synchronized List<ScheduledTask> getTasks() {
-        log.trace("Read all active tasks from DB and lock them");
-        EntityManager em = persistence.getEntityManager();
-        Query query = em.createQuery("select t from sys$ScheduledTask t where t.active = true");
-        query.setLockMode(LockModeType.PESSIMISTIC_WRITE);
-        return query.getResultList();
+        long now = timeSource.currentTimeMillis();
+        long reloadInterval = configuration.getConfig(ServerConfig.class).getSchedulingTasksReloadInterval();
+        if (tasks == null || now - tasksLoadTime >= reloadInterval) {
+            log.trace("Read all active tasks from DB");
+            List<ScheduledTask> list = persistence.callInTransaction(em -> {
+                Query query = em.createQuery("select t from sys$ScheduledTask t where t.active = true");
+                return (List<ScheduledTask>) query.getResultList();
+            });
+            tasks = Collections.unmodifiableList(new ArrayList<>(list));
+            tasksLoadTime = now;
+            finishCache.keySet().retainAll(idsOf(tasks));
+        }
+        return tasks;
+    }
+
+    protected Set<UUID> idsOf(List<ScheduledTask> tasks) {
+        Set<UUID> ids = new HashSet<>(tasks.size());
+        for (ScheduledTask task : tasks) {
+            ids.add(task.getId());
+        }
+        return ids;
     }
-}
\ No newline at end of file
+}
@@ -45,9 +45,12 @@ import javax.inject.Inject;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Class that manages {@link ScheduledTask}s in distributed environment.
+ * <p>Tasks are kept in a queue ordered by the time of their next check, so on each invocation of
+ * {@link #processScheduledTasks()} only the tasks that can be due are processed.</p>
  */
 @Component(SchedulingAPI.NAME)
 public class Scheduling implements SchedulingAPI {
@@ -89,6 +92,44 @@ public class Scheduling implements SchedulingAPI {
 
     protected volatile long schedulingStartTime;
 
+    protected final PriorityQueue<TaskCheck> checkQueue = new PriorityQueue<>();
+
+    protected List<ScheduledTask> queuedTasks;
+
+    protected final AtomicLong ticksCount = new AtomicLong();
+
+    protected final AtomicLong totalTickDuration = new AtomicLong();
+
+    protected volatile long lastTickDuration;
+
+    protected volatile long maxTickDuration;
+
+    protected volatile long lastScheduleLag;
+
+    protected volatile long maxScheduleLag;
+
+    /**
+     * Time when a task should be checked next. The time is exact if it is the moment the task becomes due,
+     * otherwise the task is checked on the next invocation of the scheduler.
+     */
+    protected static class TaskCheck implements Comparable<TaskCheck> {
+
+        protected final ScheduledTask task;
+        protected final long time;
+        protected final boolean exact;
+
+        protected TaskCheck(ScheduledTask task, long time, boolean exact) {
+            this.task = task;
+            this.time = time;
+            this.exact = exact;
+        }
+
+        @Override
+        public int compareTo(TaskCheck other) {
+            return Long.compare(time, other.time);
+        }
+    }
+
     @Override
     public void processScheduledTasks() {
         if (AppContext.isStarted()) {
@@ -110,18 +151,63 @@ public class Scheduling implements SchedulingAPI {
             StopWatch sw = new Slf4JStopWatch("Scheduling.processTasks");
             Coordinator.Context context = coordinator.begin();
             try {
-                for (ScheduledTask task : context.getTasks()) {
-                    processTask(task);
-                }
+                processDueTasks(context.getTasks());
             } finally {
                 coordinator.end(context);
             }
             sw.stop();
+
+            long duration = sw.getElapsedTime();
+            lastTickDuration = duration;
+            if (duration > maxTickDuration)
+                maxTickDuration = duration;
+            totalTickDuration.addAndGet(duration);
+            ticksCount.incrementAndGet();
         } finally {
             authentication.end();
         }
     }
 
+    protected void processDueTasks(List<ScheduledTask> tasks) {
+        synchronized (checkQueue) {
+            long now = timeSource.currentTimeMillis();
+            if (tasks != queuedTasks) {
+                log.trace("Rebuilding the queue of {} tasks", tasks.size());
+                checkQueue.clear();
+                for (ScheduledTask task : tasks) {
+                    checkQueue.add(new TaskCheck(task, now, false));
+                }
+                queuedTasks = tasks;
+            }
+
+            List<TaskCheck> dueChecks = new ArrayList<>();
+            while (!checkQueue.isEmpty() && checkQueue.peek().time <= now) {
+                dueChecks.add(checkQueue.poll());
+            }
+
+            for (TaskCheck check : dueChecks) {
+                ScheduledTask task = check.task;
+                if (processTask(task) && check.exact) {
+                    long lag = timeSource.currentTimeMillis() - check.time;
+                    lastScheduleLag = lag;
+                    if (lag > maxScheduleLag)
+                        maxScheduleLag = lag;
+                }
+
+                long checkTime = timeSource.currentTimeMillis();
+                long nextTime;
+                try {
+                    nextTime = getNextCheckTime(task, checkTime);
+                } catch (Throwable throwable) {
+                    log.error("Unable to calculate next start of " + task, throwable);
+                    nextTime = checkTime;
+                }
+                checkQueue.add(nextTime > checkTime ?
+                        new TaskCheck(task, nextTime, true) : new TaskCheck(task, checkTime, false));
+            }
+        }
+    }
+
     @Override
     public boolean setRunning(ScheduledTask task, boolean running) {
         log.trace("{}: mark running={}", task, running);
@@ -163,7 +249,7 @@ public class Scheduling implements SchedulingAPI {
         Coordinator.Context context = coordinator.begin();
         coordinator.end(context);
 
-        List<ScheduledTask> tasks = context.getTasks();
+        List<ScheduledTask> tasks = new ArrayList<>(context.getTasks());
         for (ScheduledTask task : tasks) {
             if (!BooleanUtils.isTrue(task.getSingleton())) {
                 Long time = lastStartCache.get(task);
@@ -178,10 +264,13 @@ public class Scheduling implements SchedulingAPI {
         return configuration.getConfig(ServerConfig.class).getSchedulingInterval();
     }
 
-    protected void processTask(ScheduledTask task) {
+    /**
+     * @return true if the task has been started
+     */
+    protected boolean processTask(ScheduledTask task) {
         if (isRunning(task)) {
             log.trace("{} is running", task);
-            return;
+            return false;
         }
 
         try {
@@ -191,7 +280,7 @@ public class Scheduling implements SchedulingAPI {
             Integer serverPriority = getServerPriority(task, me);
 
             if (!checkFirst(task, serverPriority, now))
-                return;
+                return false;
 
             long period = task.getPeriod() != null ? task.getPeriod() * 1000 : 0;
             long frame = task.getTimeFrame() != null ? task.getTimeFrame() * 1000 : period / 2;
@@ -210,7 +299,7 @@ public class Scheduling implements SchedulingAPI {
                         currentStart = calculateNextPeriodDate(task, task.getLastStart(), now, frame, period);
                     }
                     if (needToStartInTimeFrame(now, frame, task.getLastStart(), currentStart)) {
-                        runSingletonTask(task, now, me);
+                        return runSingletonTask(task, now, me);
                     } else {
                         log.trace("{}\n not in time frame to start", task);
                     }
@@ -230,18 +319,18 @@ public class Scheduling implements SchedulingAPI {
                             task, now, task.getLastStart(), task.getLastStartServer(), shouldSwitch, giveChanceToPreviousHost);
 
                     if (task.getLastStart() == 0 || shouldSwitch) {
-                        runSingletonTask(task, now, me);
+                        return runSingletonTask(task, now, me);
                     } else {
                         long delay = giveChanceToPreviousHost ? period + period / 2 : period;
                         if (SchedulingType.FIXED_DELAY == task.getSchedulingType()) {
                             long lastFinish = coordinator.getLastFinished(task);
                             if ((task.getLastStart() < lastFinish || !lastFinishCache.containsKey(task)) && lastFinish + delay < now) {
-                                runSingletonTask(task, now, me);
+                                return runSingletonTask(task, now, me);
                             } else {
                                 log.trace("{}\n time has not come and we shouldn't switch", task);
                             }
                         } else if (task.getLastStart() + delay <= now) {
-                            runSingletonTask(task, now, me);
+                            return runSingletonTask(task, now, me);
                         } else {
                             log.trace("{}\n time has not come and we shouldn't switch", task);
                         }
@@ -260,7 +349,7 @@ public class Scheduling implements SchedulingAPI {
                         currentStart = calculateNextPeriodDate(task, lastStart, now, frame, period);
                     }
                     if (needToStartInTimeFrame(now, frame, lastStart, currentStart)) {
-                        runTask(task, now);
+                        return runTask(task, now);
                     } else {
                         log.trace("{}\n not in time frame to start", task);
                     }
@@ -268,12 +357,12 @@ public class Scheduling implements SchedulingAPI {
                     log.trace("{}\n now={} lastStart={} lastFinish={}", task, now, lastStart, lastFinish);
                     if (SchedulingType.FIXED_DELAY == task.getSchedulingType()) {
                         if ((lastStart == 0 || lastStart < lastFinish) && now >= lastFinish + period) {
-                            runTask(task, now);
+                            return runTask(task, now);
                         } else {
                             log.trace("{}\n time has not come", task);
                         }
                     } else if (now >= lastStart + period) {
-                        runTask(task, now);
+                        return runTask(task, now);
                     } else {
                         log.trace("{}\n time has not come", task);
                     }
@@ -282,6 +371,7 @@ public class Scheduling implements SchedulingAPI {
         } catch (Throwable throwable) {
             log.error("Unable to process " + task, throwable);
         }
+        return false;
     }
 
     protected boolean needToStartInTimeFrame(long now, long frame, long lastStart, long currentStart) {
@@ -334,23 +424,122 @@ public class Scheduling implements SchedulingAPI {
         return task.getLastStartServer() != null && !task.getLastStartServer().equals(me);
     }
 
-    protected void runSingletonTask(ScheduledTask task, long now, String server) throws LoginException {
+    protected boolean runSingletonTask(ScheduledTask task, long now, String server) throws LoginException {
         boolean finished = true;
         if (task.getLastStart() > 0 && lastServerWasNotMe(task, server)) {
             // Check whether the task is finished if the last execution was from another server
             finished = coordinator.isLastExecutionFinished(task, now);
         }
-        if (finished) {
-            task.setLastStartTime(new Date(now));
-            task.setLastStartServer(server);
-            runner.runTask(task, now, getUserSession(task));
-        } else
+        if (!finished) {
             log.trace("{}\n not finished", task);
+            return false;
+        }
+        if (!coordinator.claim(task, now, server)) {
+            log.trace("{}\n claimed by another server", task);
+            return false;
+        }
+        runner.runTask(task, now, getUserSession(task));
+        return true;
     }
 
-    protected void runTask(ScheduledTask task, long time) throws LoginException {
+    protected boolean runTask(ScheduledTask task, long time) throws LoginException {
         lastStartCache.put(task, time);
         runner.runTask(task, time, getUserSession(task));
+        return true;
+    }
+
+    /**
+     * Calculates the time when the task should be checked next. The result must not be later than the actual time
+     * the task becomes due; a value not exceeding {@code now} means the task is checked on the next invocation.
+     */
+    protected long getNextCheckTime(ScheduledTask task, long now) {
+        if (isRunning(task))
+            return now;
+
+        String me = serverInfo.getServerId();
+        Integer serverPriority = getServerPriority(task, me);
+        if (serverPriority == null) // the master can change at any moment
+            return now;
+
+        if (task.getStartDelay() != null) {
+            long startTimeMillis = schedulingStartTime + task.getStartDelay() * 1000;
+            if (startTimeMillis > now)
+                return startTimeMillis;
+        }
+        if (task.getStartDate() != null && task.getStartDate().getTime() > now)
+            return task.getStartDate().getTime();
+
+        boolean singleton = BooleanUtils.isTrue(task.getSingleton());
+        long lastStart = singleton ? task.getLastStart() : lastStartCache.getOrDefault(task, 0L);
+        long period = task.getPeriod() != null ? task.getPeriod() * 1000 : 0;
+
+        if (SchedulingType.CRON == task.getSchedulingType()) {
+            long frame = task.getTimeFrame() != null ? task.getTimeFrame() * 1000 : getSchedulingInterval();
+            long currentStart = calculateNextCronDate(task, lastStart, now, frame);
+            if (needToStartInTimeFrame(now, frame, lastStart, currentStart))
+                return now;
+            CronSequenceGenerator cronSequenceGenerator = new CronSequenceGenerator(task.getCron(), getCurrentTimeZone());
+            return cronSequenceGenerator.next(new Date(now)).getTime();
+        }
+
+        if (period <= 0)
+            return now;
+
+        if (SchedulingType.FIXED_DELAY == task.getSchedulingType()) {
+            // while the last execution is not finished the next start is unknown
+            long lastFinish = singleton ? coordinator.getLastFinished(task) : lastFinishCache.getOrDefault(task, 0L);
+            if (lastStart != 0 && lastStart < lastFinish && lastFinish + period > now)
+                return lastFinish + period;
+            return now;
+        }
+
+        if (task.getStartDate() != null) {
+            long frame = task.getTimeFrame() != null ? task.getTimeFrame() * 1000 : period / 2;
+            long currentStart = calculateNextPeriodDate(task, lastStart, now, frame, period);
+            if (needToStartInTimeFrame(now, frame, lastStart, currentStart))
+                return now;
+            return currentStart + period;
+        }
+
+        if (singleton && lastServerWasNotMe(task, me)) {
+            Integer lastServerPriority = getServerPriority(task, task.getLastStartServer());
+            if (lastServerPriority == null || serverPriority.compareTo(lastServerPriority) < 0)
+                return now;
+        }
+        return lastStart + period > now ? lastStart + period : now;
+    }
+
+    @Override
+    public long getLastTickDuration() {
+        return lastTickDuration;
+    }
+
+    @Override
+    public long getMaxTickDuration() {
+        return maxTickDuration;
+    }
+
+    @Override
+    public long getAvgTickDuration() {
+        long count = ticksCount.get();
+        return count == 0 ? 0 : totalTickDuration.get() / count;
+    }
+
+    @Override
+    public long getLastScheduleLag() {
+        return lastScheduleLag;
+    }
+
+    @Override
+    public long getMaxScheduleLag() {
+        return maxScheduleLag;
+    }
+
+    @Override
+    public int getQueuedTasksCount() {
+        synchronized (checkQueue) {
+            return checkQueue.size();
+        }
     }
 
     protected boolean checkFirst(ScheduledTask task, Integer serverPriority, long now) {
@@ -83,4 +83,34 @@ public interface SchedulingAPI {
      * @throws RunTaskOnceException if you try to execute task once from not permitted server
      */
     void runOnce(ScheduledTask task);
+
+    /**
+     * @return duration of the last invocation of the scheduler in milliseconds
+     */
+    long getLastTickDuration();
+
+    /**
+     * @return maximum duration of an invocation of the scheduler in milliseconds
+     */
+    long getMaxTickDuration();
+
+    /**
+     * @return average duration of an invocation of the scheduler in milliseconds
+     */
+    long getAvgTickDuration();
+
+    /**
+     * @return delay in milliseconds between the moment the last started task became due and its start
+     */
+    long getLastScheduleLag();
+
+    /**
+     * @return maximum delay in milliseconds between the moment a task became due and its start
+     */
+    long getMaxScheduleLag();
+
+    /**
+     * @return number of tasks waiting for their next check
+     */
+    int getQueuedTasksCount();
 }
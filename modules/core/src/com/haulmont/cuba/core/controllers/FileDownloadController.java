@@ -19,6 +19,7 @@ package com.haulmont.cuba.core.controllers;
 import com.haulmont.bali.util.URLEncodeUtils;
 import com.haulmont.cuba.core.app.DataService;
 import com.haulmont.cuba.core.app.FileStorageAPI;
+import com.haulmont.cuba.core.app.filestorage.FileStorage;
 import com.haulmont.cuba.core.entity.FileDescriptor;
 import com.haulmont.cuba.core.global.FileStorageException;
 import com.haulmont.cuba.core.global.FileTypesHelper;
@@ -35,13 +36,18 @@ import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.UUID;
 
 /**
@@ -54,6 +60,11 @@ public class FileDownloadController {
 
     private static final Logger log = LoggerFactory.getLogger(FileDownloadController.class);
 
+    protected static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    protected static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    protected static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    protected static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
     @Inject
     private UserSessionsAPI userSessions;
 
@@ -85,12 +96,33 @@ public class FileDownloadController {
             response.setIntHeader("Expires", -1);
             response.setHeader("Content-Type", FileTypesHelper.DEFAULT_MIME_TYPE);
 
+            if (sendFile(request, response, fd != null ? findLocalFile(fd) : file))
+                return;
+
             InputStream is = null;
             ServletOutputStream os = null;
             try {
                 is = fd != null ? fileStorage.openStream(fd) : FileUtils.openInputStream(file);
                 os = response.getOutputStream();
-                IOUtils.copy(is, os);
+                if (is instanceof FileInputStream) {
+                    FileChannel channel = ((FileInputStream) is).getChannel();
+                    long size = channel.size();
+                    response.setContentLengthLong(size);
+                    // the servlet output stream is not a file or socket channel, so this is not a zero-copy transfer:
+                    // the content is copied through a buffer
+                    WritableByteChannel target = Channels.newChannel(os);
+                    long position = 0;
+                    while (position < size) {
+                        long count = channel.transferTo(position, size - position, target);
+                        if (count <= 0) {
+                            // the file has been truncated
+                            break;
+                        }
+                        position += count;
+                    }
+                } else {
+                    IOUtils.copy(is, os);
+                }
                 os.flush();
             } catch (FileStorageException e) {
                 log.error("Unable to download file", e);
@@ -107,6 +139,32 @@ public class FileDownloadController {
         }
     }
 
+    /**
+     * Delegates sending of a local file to the servlet container if it supports sendfile, so the content is
+     * transferred by the operating system without copying it to the JVM.
+     *
+     * @return true if the file will be sent by the container
+     */
+    protected boolean sendFile(HttpServletRequest request, HttpServletResponse response, @Nullable File file) {
+        if (file == null || !Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR)) || !file.isFile())
+            return false;
+
+        long length = file.length();
+        response.setContentLengthLong(length);
+        request.setAttribute(SENDFILE_FILENAME_ATTR, file.getAbsolutePath());
+        request.setAttribute(SENDFILE_START_ATTR, 0L);
+        request.setAttribute(SENDFILE_END_ATTR, length);
+        return true;
+    }
+
+    @Nullable
+    protected File findLocalFile(FileDescriptor fd) {
+        if (fileStorage instanceof FileStorage) {
+            return ((FileStorage) fileStorage).findFile(fd);
+        }
+        return null;
+    }
+
     protected UserSession getSession(HttpServletRequest request, HttpServletResponse response) throws IOException {
         UUID sessionId;
         try {
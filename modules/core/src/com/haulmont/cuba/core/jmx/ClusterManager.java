@@ -111,4 +111,14 @@ public class ClusterManager implements ClusterManagerMBean {
     public long getReceivedBytes(String className) {
         return className == null ? -1 : clusterManager.getReceivedBytes(className);
     }
+
+    @Override
+    public long getSentBytesPerSecond(String className) {
+        return className == null ? -1 : clusterManager.getSentBytesPerSecond(className);
+    }
+
+    @Override
+    public long getReceivedBytesPerSecond(String className) {
+        return className == null ? -1 : clusterManager.getReceivedBytesPerSecond(className);
+    }
 }
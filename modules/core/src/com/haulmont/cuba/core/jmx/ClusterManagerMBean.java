@@ -78,4 +78,10 @@ public interface ClusterManagerMBean {
 
     @ManagedOperation(description = "Get received bytes for specified class")
     long getReceivedBytes(String className);
+
+    @ManagedOperation(description = "Get average sent bytes per second for specified class")
+    long getSentBytesPerSecond(String className);
+
+    @ManagedOperation(description = "Get average received bytes per second for specified class")
+    long getReceivedBytesPerSecond(String className);
 }
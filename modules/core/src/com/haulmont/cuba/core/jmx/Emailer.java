@@ -28,12 +28,14 @@ import com.haulmont.cuba.core.entity.SendingMessage;
 import com.haulmont.cuba.core.global.Configuration;
 import com.haulmont.cuba.core.global.EmailAttachment;
 import com.haulmont.cuba.core.global.View;
+import com.haulmont.cuba.core.sys.CubaMailSender;
 import com.haulmont.cuba.security.app.Authenticated;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.stereotype.Component;
+import javax.annotation.Resource;
 import javax.inject.Inject;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
@@ -47,6 +49,9 @@ public class Emailer implements EmailerMBean {
     @Inject
     protected Persistence persistence;
 
+    @Resource(name = CubaMailSender.NAME)
+    protected CubaMailSender mailSender;
+
     protected EmailerConfig config;
 
     private static final Logger log = LoggerFactory.getLogger(Emailer.class);
@@ -161,6 +166,55 @@ public class Emailer implements EmailerMBean {
         config.setSmtpConnectionTimeoutSec(timeoutSec);
     }
 
+    @Override
+    public int getSmtpConnectionPoolSize() {
+        return config.getSmtpConnectionPoolSize();
+    }
+
+    @Authenticated
+    @Override
+    public void setSmtpConnectionPoolSize(int poolSize) {
+        config.setSmtpConnectionPoolSize(poolSize);
+        if (poolSize <= 0) {
+            mailSender.closeIdleConnections();
+        }
+    }
+
+    @Override
+    public int getIdleSmtpConnectionsCount() {
+        return mailSender.getIdleConnectionsCount();
+    }
+
+    @Override
+    public long getSentEmailsCount() {
+        return emailer instanceof com.haulmont.cuba.core.app.Emailer ?
+                ((com.haulmont.cuba.core.app.Emailer) emailer).getSentEmailsCount() : 0;
+    }
+
+    @Override
+    public long getFailedEmailsCount() {
+        return emailer instanceof com.haulmont.cuba.core.app.Emailer ?
+                ((com.haulmont.cuba.core.app.Emailer) emailer).getFailedEmailsCount() : 0;
+    }
+
+    @Override
+    public int getSendingQueueSize() {
+        return emailer instanceof com.haulmont.cuba.core.app.Emailer ?
+                ((com.haulmont.cuba.core.app.Emailer) emailer).getSendingQueueSize() : 0;
+    }
+
+    @Override
+    public int getActiveSendingCount() {
+        return emailer instanceof com.haulmont.cuba.core.app.Emailer ?
+                ((com.haulmont.cuba.core.app.Emailer) emailer).getActiveSendingCount() : 0;
+    }
+
+    @Override
+    public int getPendingStatusUpdatesCount() {
+        return emailer instanceof com.haulmont.cuba.core.app.Emailer ?
+                ((com.haulmont.cuba.core.app.Emailer) emailer).getPendingStatusUpdatesCount() : 0;
+    }
+
     @Authenticated
     @Override
     public String sendTestEmail(String addresses) {
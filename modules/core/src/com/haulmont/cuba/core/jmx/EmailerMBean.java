@@ -17,6 +17,7 @@
 package com.haulmont.cuba.core.jmx;
 
 import com.haulmont.cuba.core.sys.jmx.JmxRunAsync;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
 import org.springframework.jmx.export.annotation.ManagedOperation;
 import org.springframework.jmx.export.annotation.ManagedOperationParameter;
 import org.springframework.jmx.export.annotation.ManagedOperationParameters;
@@ -54,6 +55,27 @@ public interface EmailerMBean {
     int getSmtpConnectionTimeoutSec();
     void setSmtpConnectionTimeoutSec(int timeoutSec);
 
+    int getSmtpConnectionPoolSize();
+    void setSmtpConnectionPoolSize(int poolSize);
+
+    @ManagedAttribute(description = "Number of idle SMTP connections kept open")
+    int getIdleSmtpConnectionsCount();
+
+    @ManagedAttribute(description = "Number of queued emails sent since the server startup")
+    long getSentEmailsCount();
+
+    @ManagedAttribute(description = "Number of failed attempts to send queued emails since the server startup")
+    long getFailedEmailsCount();
+
+    @ManagedAttribute(description = "Number of emails waiting for a free sending thread")
+    int getSendingQueueSize();
+
+    @ManagedAttribute(description = "Number of emails being sent at the moment")
+    int getActiveSendingCount();
+
+    @ManagedAttribute(description = "Number of sending results not saved to the database yet")
+    int getPendingStatusUpdatesCount();
+
     @ManagedOperationParameters({@ManagedOperationParameter(name = "addresses", description = "")})
     String sendTestEmail(String addresses);
 
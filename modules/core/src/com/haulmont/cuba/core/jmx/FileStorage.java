@@ -30,6 +30,7 @@ import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import java.io.File;
 import java.util.Collection;
@@ -118,6 +119,10 @@ public class FileStorage implements FileStorageMBean {
         Collection<File> filesInRootFolder = FileUtils.listFiles(storageFolder, null, false);
         //remove files of root storage folder (e.g. storage.log) from files collection
         systemFiles.removeAll(filesInRootFolder);
+        //remove deduplicated contents, they are referenced by hard links from the storage files
+        String contentPath = new File(storageFolder,
+                com.haulmont.cuba.core.app.filestorage.FileStorage.CONTENT_DIR).getPath() + File.separator;
+        systemFiles.removeIf(file -> file.getPath().startsWith(contentPath));
 
         List<FileDescriptor> fileDescriptors;
         Transaction tx = persistence.createTransaction();
@@ -150,4 +155,50 @@ public class FileStorage implements FileStorageMBean {
 
         return sb.toString();
     }
-}
\ No newline at end of file
+
+    @Override
+    public int getReplicationQueueSize() {
+        com.haulmont.cuba.core.app.filestorage.FileStorage fileStorage = getFileStorage();
+        return fileStorage != null ? fileStorage.getReplicationQueueSize() : 0;
+    }
+
+    @Override
+    public int getActiveReplicationsCount() {
+        com.haulmont.cuba.core.app.filestorage.FileStorage fileStorage = getFileStorage();
+        return fileStorage != null ? fileStorage.getActiveReplicationsCount() : 0;
+    }
+
+    @Override
+    public long getReplicatedFilesCount() {
+        com.haulmont.cuba.core.app.filestorage.FileStorage fileStorage = getFileStorage();
+        return fileStorage != null ? fileStorage.getReplicatedFilesCount() : 0;
+    }
+
+    @Override
+    public long getReplicationErrorsCount() {
+        com.haulmont.cuba.core.app.filestorage.FileStorage fileStorage = getFileStorage();
+        return fileStorage != null ? fileStorage.getReplicationErrorsCount() : 0;
+    }
+
+    @Override
+    public String removeUnusedContent() {
+        com.haulmont.cuba.core.app.filestorage.FileStorage fileStorage = getFileStorage();
+        if (fileStorage == null)
+            return "<not supported>";
+        try {
+            int count = fileStorage.removeUnusedContent();
+            return "Removed " + count + " unused contents";
+        } catch (Exception e) {
+            return ExceptionUtils.getStackTrace(e);
+        }
+    }
+
+    @Nullable
+    protected com.haulmont.cuba.core.app.filestorage.FileStorage getFileStorage() {
+        FileStorageAPI fileStorageAPI = AppBeans.get(FileStorageAPI.class);
+        if (fileStorageAPI instanceof com.haulmont.cuba.core.app.filestorage.FileStorage) {
+            return (com.haulmont.cuba.core.app.filestorage.FileStorage) fileStorageAPI;
+        }
+        return null;
+    }
+}
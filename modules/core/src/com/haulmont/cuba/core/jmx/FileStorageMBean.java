@@ -38,4 +38,31 @@ public interface FileStorageMBean {
      * @return the list of files in the storage which have no corresponding descriptors in the database
      */
     String findOrphanFiles();
+
+    /**
+     * @return number of files waiting to be copied to secondary storage directories
+     */
+    int getReplicationQueueSize();
+
+    /**
+     * @return number of files being copied to secondary storage directories at the moment
+     */
+    int getActiveReplicationsCount();
+
+    /**
+     * @return total number of files copied to secondary storage directories since the server start
+     */
+    long getReplicatedFilesCount();
+
+    /**
+     * @return total number of failed copies to secondary storage directories since the server start
+     */
+    long getReplicationErrorsCount();
+
+    /**
+     * Removes unique contents which are not referenced by files anymore if the storage deduplication is enabled.
+     *
+     * @return operation result
+     */
+    String removeUnusedContent();
 }
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.cuba.core.jmx;
+
+import com.haulmont.cuba.core.sys.NumberIdCache.Statistics;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.Map;
+
+@Component("cuba_NumberIdCacheMBean")
+public class NumberIdCache implements NumberIdCacheMBean {
+
+    @Inject
+    protected com.haulmont.cuba.core.sys.NumberIdCache numberIdCache;
+
+    @Override
+    public String printStatistics() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Statistics> entry : numberIdCache.getStatistics().entrySet()) {
+            Statistics statistics = entry.getValue();
+            sb.append(entry.getKey())
+                    .append(": allocated=").append(statistics.getAllocatedCount())
+                    .append(", fetchedBlocks=").append(statistics.getFetchedBlocksCount())
+                    .append(", stalls=").append(statistics.getStallsCount())
+                    .append(", avgFetchTime=").append(statistics.getAvgFetchTime()).append("ms")
+                    .append(", prefetchBlocks=").append(statistics.getPrefetchBlocks())
+                    .append(", reservedBlocks=").append(statistics.getReservedBlocks())
+                    .append("\n");
+        }
+        return sb.toString();
+    }
+}
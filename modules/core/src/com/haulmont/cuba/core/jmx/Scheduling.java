@@ -60,6 +60,36 @@ public class Scheduling implements SchedulingMBean {
         scheduling.setActive(value);
     }
 
+    @Override
+    public long getLastTickDuration() {
+        return scheduling.getLastTickDuration();
+    }
+
+    @Override
+    public long getMaxTickDuration() {
+        return scheduling.getMaxTickDuration();
+    }
+
+    @Override
+    public long getAvgTickDuration() {
+        return scheduling.getAvgTickDuration();
+    }
+
+    @Override
+    public long getLastScheduleLag() {
+        return scheduling.getLastScheduleLag();
+    }
+
+    @Override
+    public long getMaxScheduleLag() {
+        return scheduling.getMaxScheduleLag();
+    }
+
+    @Override
+    public int getQueuedTasksCount() {
+        return scheduling.getQueuedTasksCount();
+    }
+
     @Override
     public String printActiveScheduledTasks() {
         SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
@@ -17,6 +17,7 @@
 
 package com.haulmont.cuba.core.jmx;
 
+import org.springframework.jmx.export.annotation.ManagedAttribute;
 import org.springframework.jmx.export.annotation.ManagedOperation;
 import org.springframework.jmx.export.annotation.ManagedOperationParameter;
 import org.springframework.jmx.export.annotation.ManagedOperationParameters;
@@ -41,6 +42,24 @@ public interface SchedulingMBean {
      */
     void setActive(boolean value);
 
+    @ManagedAttribute(description = "Duration of the last processing of scheduled tasks, ms")
+    long getLastTickDuration();
+
+    @ManagedAttribute(description = "Max duration of processing of scheduled tasks, ms")
+    long getMaxTickDuration();
+
+    @ManagedAttribute(description = "Average duration of processing of scheduled tasks, ms")
+    long getAvgTickDuration();
+
+    @ManagedAttribute(description = "Delay between the moment the last started task became due and its start, ms")
+    long getLastScheduleLag();
+
+    @ManagedAttribute(description = "Max delay between the moment a task became due and its start, ms")
+    long getMaxScheduleLag();
+
+    @ManagedAttribute(description = "Number of tasks in the queue of the scheduler")
+    int getQueuedTasksCount();
+
     @ManagedOperation(description = "Print active scheduled tasks")
     String printActiveScheduledTasks();
 
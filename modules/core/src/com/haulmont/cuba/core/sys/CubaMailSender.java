@@ -20,24 +20,42 @@ package com.haulmont.cuba.core.sys;
 import com.haulmont.cuba.core.app.EmailerConfig;
 import com.haulmont.cuba.core.global.Configuration;
 import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
 
 import org.springframework.stereotype.Component;
+import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
-import javax.mail.Session;
-import java.util.HashSet;
-import java.util.Properties;
-import java.util.Set;
+import javax.mail.*;
+import javax.mail.internet.MimeMessage;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedDeque;
 
 @Component(CubaMailSender.NAME)
 public class CubaMailSender extends JavaMailSenderImpl {
 
     public static final String NAME = "cuba_MailSender";
 
+    private static final Logger log = LoggerFactory.getLogger(CubaMailSender.class);
+
+    protected static final String HEADER_MESSAGE_ID = "Message-ID";
+
+    /**
+     * Idle connections are checked by the server round trip before reuse if they were not used for this time.
+     */
+    protected static final long VALIDATION_INTERVAL_MS = 1000;
+
     protected EmailerConfig config;
 
     private boolean propertiesInitialized;
 
+    protected final Deque<PooledTransport> idleTransports = new ConcurrentLinkedDeque<>();
+
     @Inject
     public void setConfiguration(Configuration configuration) {
         config = configuration.getConfig(EmailerConfig.class);
@@ -121,4 +139,116 @@ public class CubaMailSender extends JavaMailSenderImpl {
     protected boolean includeJavaMailProperty(String name, Set excludedProperties) {
         return name.startsWith("mail.") && !excludedProperties.contains(name);
     }
-}
\ No newline at end of file
+
+    /**
+     * Sends messages through SMTP connections kept open between calls if
+     * {@link EmailerConfig#getSmtpConnectionPoolSize()} is positive.
+     */
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, @Nullable Object[] originalMessages) throws MailException {
+        if (config.getSmtpConnectionPoolSize() <= 0) {
+            super.doSend(mimeMessages, originalMessages);
+            return;
+        }
+
+        Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+        for (int i = 0; i < mimeMessages.length; i++) {
+            MimeMessage mimeMessage = mimeMessages[i];
+            Object original = originalMessages != null ? originalMessages[i] : mimeMessage;
+
+            PooledTransport pooledTransport;
+            try {
+                pooledTransport = borrowTransport();
+            } catch (AuthenticationFailedException e) {
+                throw new MailAuthenticationException(e);
+            } catch (Exception e) {
+                for (int j = i; j < mimeMessages.length; j++) {
+                    failedMessages.put(originalMessages != null ? originalMessages[j] : mimeMessages[j], e);
+                }
+                throw new MailSendException("Mail server connection failed", e, failedMessages);
+            }
+
+            try {
+                if (mimeMessage.getSentDate() == null) {
+                    mimeMessage.setSentDate(new Date());
+                }
+                String messageId = mimeMessage.getMessageID();
+                mimeMessage.saveChanges();
+                if (messageId != null) {
+                    // preserve explicitly specified message id
+                    mimeMessage.setHeader(HEADER_MESSAGE_ID, messageId);
+                }
+                Address[] addresses = mimeMessage.getAllRecipients();
+                pooledTransport.transport.sendMessage(mimeMessage, addresses != null ? addresses : new Address[0]);
+                releaseTransport(pooledTransport);
+            } catch (Exception e) {
+                closeTransport(pooledTransport.transport);
+                failedMessages.put(original, e);
+            }
+        }
+
+        if (!failedMessages.isEmpty()) {
+            throw new MailSendException(failedMessages);
+        }
+    }
+
+    protected PooledTransport borrowTransport() throws MessagingException {
+        PooledTransport pooledTransport;
+        while ((pooledTransport = idleTransports.pollFirst()) != null) {
+            long idleTime = System.currentTimeMillis() - pooledTransport.lastUsedTs;
+            if (idleTime >= config.getSmtpTimeoutSec() * 1000L) {
+                // the server has most likely closed the connection already
+                closeTransport(pooledTransport.transport);
+            } else if (idleTime > VALIDATION_INTERVAL_MS && !pooledTransport.transport.isConnected()) {
+                closeTransport(pooledTransport.transport);
+            } else {
+                return pooledTransport;
+            }
+        }
+        return new PooledTransport(connectTransport());
+    }
+
+    protected void releaseTransport(PooledTransport pooledTransport) {
+        if (idleTransports.size() < config.getSmtpConnectionPoolSize()) {
+            pooledTransport.lastUsedTs = System.currentTimeMillis();
+            idleTransports.offerFirst(pooledTransport);
+        } else {
+            closeTransport(pooledTransport.transport);
+        }
+    }
+
+    protected void closeTransport(Transport transport) {
+        try {
+            transport.close();
+        } catch (Exception e) {
+            log.debug("Error closing SMTP connection", e);
+        }
+    }
+
+    /**
+     * Closes all idle SMTP connections.
+     */
+    @PreDestroy
+    public void closeIdleConnections() {
+        PooledTransport pooledTransport;
+        while ((pooledTransport = idleTransports.pollFirst()) != null) {
+            closeTransport(pooledTransport.transport);
+        }
+    }
+
+    /**
+     * @return number of idle SMTP connections kept open
+     */
+    public int getIdleConnectionsCount() {
+        return idleTransports.size();
+    }
+
+    protected static class PooledTransport {
+        protected final Transport transport;
+        protected volatile long lastUsedTs;
+
+        protected PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+    }
+}
@@ -17,11 +17,15 @@
 
 package com.haulmont.cuba.core.sys;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.haulmont.bali.util.Preconditions;
 import com.haulmont.chile.core.model.MetaClass;
 import com.haulmont.chile.core.model.MetaProperty;
 import com.haulmont.chile.core.model.MetaPropertyPath;
 import com.haulmont.chile.core.model.Range;
+import com.haulmont.cuba.core.app.ServerConfig;
 import com.haulmont.cuba.core.entity.BaseUuidEntity;
 import com.haulmont.cuba.core.entity.EmbeddableEntity;
 import com.haulmont.cuba.core.entity.Entity;
@@ -39,11 +43,18 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.ClassUtils;
 
 import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
 import javax.inject.Inject;
 import java.lang.reflect.Method;
 import java.util.*;
 import java.util.stream.Collectors;
 
+/**
+ * Builds EclipseLink fetch/load groups and fetch hints for queries from views.
+ * <p>Calculated {@link FetchGroupDescription}s are cached by query text, view structure and query flags. Views
+ * obtained from the {@link ViewRepository} are immutable, so their keys are remembered by identity. The cache is
+ * cleared when views are redeployed.
+ */
 @Component(FetchGroupManager.NAME)
 public class FetchGroupManager {
 
@@ -60,6 +71,25 @@ public class FetchGroupManager {
     @Inject
     private ViewRepository viewRepository;
 
+    @Inject
+    private ServerConfig serverConfig;
+
+    private int cacheMaxSize;
+
+    private Cache<FetchGroupKey, FetchGroupDescription> cache;
+
+    // keys of sealed views, compared by identity
+    private Cache<View, String> viewKeys;
+
+    private volatile long viewsVersion;
+
+    @PostConstruct
+    private void init() {
+        cacheMaxSize = serverConfig.getFetchGroupCacheSize();
+        cache = CacheBuilder.newBuilder().maximumSize(Math.max(cacheMaxSize, 0)).recordStats().build();
+        viewKeys = CacheBuilder.newBuilder().weakKeys().build();
+    }
+
     public void setView(JpaQuery query, String queryString, @Nullable View view, boolean singleResultExpected) {
         Preconditions.checkNotNullArgument(query, "query is null");
         if (view != null) {
@@ -128,10 +158,77 @@ public class FetchGroupManager {
         }
     }
 
+    /**
+     * Returns the description of fetch group and hints for the query and view. The result may be shared with other
+     * callers and must not be modified.
+     */
     public FetchGroupDescription calculateFetchGroup(String queryString,
                                                      View view,
                                                      boolean singleResultExpected,
                                                      boolean useFetchGroup) {
+        if (cacheMaxSize <= 0) {
+            return doCalculateFetchGroup(queryString, view, singleResultExpected, useFetchGroup);
+        }
+
+        checkViewsVersion();
+
+        FetchGroupKey key = new FetchGroupKey(queryString, getViewKey(view), singleResultExpected, useFetchGroup);
+        FetchGroupDescription description = cache.getIfPresent(key);
+        if (description == null) {
+            description = doCalculateFetchGroup(queryString, view, singleResultExpected, useFetchGroup);
+            cache.put(key, description);
+        }
+        return description;
+    }
+
+    private void checkViewsVersion() {
+        if (viewRepository instanceof AbstractViewRepository) {
+            long version = ((AbstractViewRepository) viewRepository).getVersion();
+            if (version != viewsVersion) {
+                cache.invalidateAll();
+                viewKeys.invalidateAll();
+                viewsVersion = version;
+            }
+        }
+    }
+
+    private String getViewKey(View view) {
+        if (view.isSealed()) {
+            String key = viewKeys.getIfPresent(view);
+            if (key == null) {
+                key = buildViewKey(view);
+                viewKeys.put(view, key);
+            }
+            return key;
+        }
+        return buildViewKey(view);
+    }
+
+    private String buildViewKey(View view) {
+        StringBuilder sb = new StringBuilder();
+        appendViewKey(sb, view);
+        return sb.toString();
+    }
+
+    private void appendViewKey(StringBuilder sb, View view) {
+        sb.append(view.getEntityClass().getName()).append('{');
+        for (ViewProperty property : view.getProperties()) {
+            sb.append(property.getName());
+            if (property.getFetchMode() != FetchMode.AUTO) {
+                sb.append(':').append(property.getFetchMode());
+            }
+            if (property.getView() != null) {
+                appendViewKey(sb, property.getView());
+            }
+            sb.append(',');
+        }
+        sb.append('}');
+    }
+
+    private FetchGroupDescription doCalculateFetchGroup(String queryString,
+                                                        View view,
+                                                        boolean singleResultExpected,
+                                                        boolean useFetchGroup) {
         Set<FetchGroupField> fetchGroupFields = new LinkedHashSet<>();
         processView(view, null, fetchGroupFields, useFetchGroup);
 
@@ -452,6 +549,59 @@ public class FetchGroupManager {
         return metadataTools.isCacheable(metaClass) ? FetchMode.UNDEFINED : fetchMode;
     }
 
+    public int getCacheMaxSize() {
+        return cacheMaxSize;
+    }
+
+    public long getCacheSize() {
+        return cache.size();
+    }
+
+    public CacheStats getCacheStats() {
+        return cache.stats();
+    }
+
+    public void clearCache() {
+        cache.invalidateAll();
+        viewKeys.invalidateAll();
+    }
+
+    protected static class FetchGroupKey {
+        private final String queryString;
+        private final String viewKey;
+        private final boolean singleResultExpected;
+        private final boolean useFetchGroup;
+
+        public FetchGroupKey(String queryString, String viewKey, boolean singleResultExpected, boolean useFetchGroup) {
+            this.queryString = queryString;
+            this.viewKey = viewKey;
+            this.singleResultExpected = singleResultExpected;
+            this.useFetchGroup = useFetchGroup;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            FetchGroupKey that = (FetchGroupKey) o;
+
+            return singleResultExpected == that.singleResultExpected
+                    && useFetchGroup == that.useFetchGroup
+                    && Objects.equals(queryString, that.queryString)
+                    && viewKey.equals(that.viewKey);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Objects.hashCode(queryString);
+            result = 31 * result + viewKey.hashCode();
+            result = 31 * result + (singleResultExpected ? 1 : 0);
+            result = 31 * result + (useFetchGroup ? 1 : 0);
+            return result;
+        }
+    }
+
     protected static class FetchGroupField {
         private final MetaClass metaClass;
         private FetchMode fetchMode;
@@ -131,9 +131,12 @@ public class PersistenceSecurityImpl extends SecurityImpl implements Persistence
     @Override
     public boolean filterByConstraints(Collection<Entity> entities) {
         boolean filtered = false;
+        Map<MetaClass, List<ConstraintData>> constraintsByMetaClass = new HashMap<>();
         for (Iterator<Entity> iterator = entities.iterator(); iterator.hasNext(); ) {
             Entity entity = iterator.next();
-            if (!isPermittedInMemory(entity)) {
+            List<ConstraintData> constraints = constraintsByMetaClass.computeIfAbsent(entity.getMetaClass(),
+                    metaClass -> getConstraints(metaClass, this::isInMemoryReadConstraint));
+            if (!isPermitted(entity, constraints)) {
                 //we ignore situations when the collection is immutable
                 iterator.remove();
                 filtered = true;
@@ -375,10 +378,13 @@ public class PersistenceSecurityImpl extends SecurityImpl implements Persistence
     }
 
     protected boolean isPermittedInMemory(Entity entity) {
-        return isPermitted(entity, constraint ->
-                constraint.getCheckType().memory()
-                        && (constraint.getOperationType() == ConstraintOperationType.READ
-                        || constraint.getOperationType() == ConstraintOperationType.ALL));
+        return isPermitted(entity, this::isInMemoryReadConstraint);
+    }
+
+    protected boolean isInMemoryReadConstraint(ConstraintData constraint) {
+        return constraint.getCheckType().memory()
+                && (constraint.getOperationType() == ConstraintOperationType.READ
+                || constraint.getOperationType() == ConstraintOperationType.ALL);
     }
 
     protected static class EntityId {
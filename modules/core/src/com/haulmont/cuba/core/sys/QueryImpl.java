@@ -37,11 +37,14 @@ import com.haulmont.cuba.core.sys.persistence.PersistenceImplSupport;
 import org.eclipse.persistence.config.CascadePolicy;
 import org.eclipse.persistence.config.HintValues;
 import org.eclipse.persistence.config.QueryHints;
+import org.eclipse.persistence.config.ResultSetConcurrency;
+import org.eclipse.persistence.config.ResultSetType;
 import org.eclipse.persistence.internal.helper.CubaUtil;
 import org.eclipse.persistence.internal.jpa.EJBQueryImpl;
 import org.eclipse.persistence.jpa.JpaQuery;
 import org.eclipse.persistence.queries.DatabaseQuery;
 import org.eclipse.persistence.queries.ObjectLevelReadQuery;
+import org.eclipse.persistence.queries.ScrollableCursor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.config.BeanDefinition;
@@ -54,6 +57,8 @@ import javax.persistence.*;
 import java.util.*;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Implementation of {@link TypedQuery} interface based on EclipseLink.
@@ -367,6 +372,45 @@ public class QueryImpl<T> implements TypedQuery<T> {
         return resultList;
     }
 
+    @Override
+    public Stream<T> getResultStream(int fetchSize) {
+        if (log.isDebugEnabled())
+            log.debug(queryString.replaceAll("[\\t\\n\\x0B\\f\\r]", " "));
+
+        singleResultExpected = false;
+
+        JpaQuery<T> jpaQuery = getQuery();
+        jpaQuery.setHint(QueryHints.SCROLLABLE_CURSOR, HintValues.TRUE);
+        jpaQuery.setHint(QueryHints.RESULT_SET_TYPE, ResultSetType.ForwardOnly);
+        jpaQuery.setHint(QueryHints.RESULT_SET_CONCURRENCY, ResultSetConcurrency.ReadOnly);
+        if (fetchSize > 0) {
+            jpaQuery.setHint(QueryHints.JDBC_FETCH_SIZE, fetchSize);
+        }
+        preExecute(jpaQuery);
+
+        ScrollableCursor cursor = (ScrollableCursor) jpaQuery.getSingleResult();
+        Iterator<T> iterator = new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return cursor.hasNext();
+            }
+
+            @SuppressWarnings("unchecked")
+            @Override
+            public T next() {
+                T item = (T) cursor.next();
+                if (item instanceof Entity) {
+                    for (View view : views) {
+                        entityFetcher.fetch((Entity) item, view);
+                    }
+                }
+                return item;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(cursor::close);
+    }
+
     @Override
     public T getSingleResult() {
         if (log.isDebugEnabled())
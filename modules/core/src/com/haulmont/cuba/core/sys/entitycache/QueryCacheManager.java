@@ -17,22 +17,29 @@
 package com.haulmont.cuba.core.sys.entitycache;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.haulmont.chile.core.model.MetaClass;
 import com.haulmont.chile.core.model.MetadataObject;
 import com.haulmont.cuba.core.EntityManager;
 import com.haulmont.cuba.core.Persistence;
+import com.haulmont.cuba.core.Query;
 import com.haulmont.cuba.core.app.ClusterListenerAdapter;
 import com.haulmont.cuba.core.app.ClusterManagerAPI;
 import com.haulmont.cuba.core.entity.BaseGenericIdEntity;
+import com.haulmont.cuba.core.entity.Entity;
+import com.haulmont.cuba.core.entity.IdProxy;
 import com.haulmont.cuba.core.global.Metadata;
 import com.haulmont.cuba.core.global.View;
+import com.haulmont.cuba.core.sys.persistence.DbmsFeatures;
+import com.haulmont.cuba.core.sys.persistence.DbmsSpecificFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
+import javax.persistence.Cache;
 import javax.persistence.MappedSuperclass;
 import javax.persistence.TypedQuery;
 import java.io.Serializable;
@@ -96,8 +103,12 @@ public class QueryCacheManager {
             if (!metadata.getTools().isCacheable(metaClass)) {
                 log.warn("Using cacheable query without entity cache for {}", queryResult.getType());
             }
-            for (Object id : queryResult.getResult()) {
-                resultList.add((T) em.find(metaClass.getJavaClass(), id, views.toArray(new View[views.size()])));
+            if (metadata.getTools().hasCompositePrimaryKey(metaClass)) {
+                for (Object id : queryResult.getResult()) {
+                    resultList.add((T) em.find(metaClass.getJavaClass(), id, views.toArray(new View[views.size()])));
+                }
+            } else {
+                resultList.addAll(loadByIds(em, metaClass, queryResult.getResult(), views, storeName));
             }
         } else {
             log.debug("Query results are not found in cache: {}", queryKey.printDescription());
@@ -105,6 +116,66 @@ public class QueryCacheManager {
         return resultList;
     }
 
+    /**
+     * Loads entities for the cached identifiers, keeping the order of {@code ids}.
+     * <p>Instances found in the entity cache are taken from it, the rest are loaded by a single
+     * {@code in} query per batch of identifiers. The batch size is limited by
+     * {@link DbmsFeatures#getMaxIdsBatchSize()} of the entity's data store.
+     */
+    @SuppressWarnings("unchecked")
+    protected <T> List<T> loadByIds(EntityManager em, MetaClass metaClass, List<Object> ids, List<View> views,
+                                    String storeName) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Class javaClass = metaClass.getJavaClass();
+        View[] viewArray = views.toArray(new View[views.size()]);
+        Map<Object, Object> loaded = new HashMap<>(ids.size());
+        List<Object> notCachedIds = new ArrayList<>(ids.size());
+
+        Cache ormCache = metadata.getTools().isCacheable(metaClass) ?
+                em.getDelegate().getEntityManagerFactory().getCache() : null;
+        for (Object id : ids) {
+            Object realId = getRealId(id);
+            if (ormCache != null && ormCache.contains(javaClass, realId)) {
+                loaded.put(realId, em.find(javaClass, id, viewArray));
+            } else {
+                notCachedIds.add(realId);
+            }
+        }
+
+        if (!notCachedIds.isEmpty()) {
+            String pkName = metadata.getTools().getPrimaryKeyName(metaClass);
+            if (pkName == null)
+                throw new IllegalStateException("Cannot determine PK name for entity " + metaClass);
+
+            int batchSize = DbmsSpecificFactory.getDbmsFeatures(storeName).getMaxIdsBatchSize();
+            for (List<Object> batch : Lists.partition(notCachedIds, batchSize)) {
+                Query query = em.createQuery(
+                        String.format("select e from %s e where e.%s in :ids", metaClass.getName(), pkName));
+                query.setParameter("ids", batch);
+                for (View view : views) {
+                    query.addView(view);
+                }
+                for (Object entity : query.getResultList()) {
+                    loaded.put(getRealId(((Entity) entity).getId()), entity);
+                }
+            }
+            log.debug("Loaded {} of {} cached query results from database", notCachedIds.size(), ids.size());
+        }
+
+        List<T> result = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            result.add((T) loaded.get(getRealId(id)));
+        }
+        return result;
+    }
+
+    protected Object getRealId(Object id) {
+        return id instanceof IdProxy ? ((IdProxy) id).getNN() : id;
+    }
+
     /**
      * Get single query results from query cache by specified {@code queryKey}
      * If query is cached and no results found exception is thrown
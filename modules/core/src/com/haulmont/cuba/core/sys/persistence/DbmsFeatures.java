@@ -80,4 +80,25 @@ public interface DbmsFeatures {
      * @return true if the DBMS supports equals conditions in the filter and sort for LOB columns
      */
     boolean supportsLobSortingAndFiltering();
+
+    /**
+     * @return maximum number of identifiers that can be passed in a single {@code in} condition
+     */
+    default int getMaxIdsBatchSize() {
+        return 1000;
+    }
+
+    /**
+     * Returns the name of the SQL type of elements of an array parameter. If supported, a large number of values
+     * can be bound to a statement as a single array and selected with {@code unnest(?)} instead of executing
+     * a batch of single-row statements.
+     *
+     * @param javaClass class of the array elements
+     * @return type name to pass to {@link java.sql.Connection#createArrayOf(String, Object[])}, or null if array
+     * parameters of the given type are not supported
+     */
+    @Nullable
+    default String getArrayElementTypeName(Class<?> javaClass) {
+        return null;
+    }
 }
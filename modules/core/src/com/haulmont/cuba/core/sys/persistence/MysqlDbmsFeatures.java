@@ -76,4 +76,9 @@ public class MysqlDbmsFeatures implements DbmsFeatures {
     public boolean supportsLobSortingAndFiltering() {
         return true;
     }
-}
\ No newline at end of file
+
+    @Override
+    public int getMaxIdsBatchSize() {
+        return 5000;
+    }
+}
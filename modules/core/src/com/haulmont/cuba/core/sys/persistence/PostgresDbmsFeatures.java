@@ -20,6 +20,7 @@ package com.haulmont.cuba.core.sys.persistence;
 import javax.annotation.Nullable;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 @SuppressWarnings("UnusedDeclaration")
 public class PostgresDbmsFeatures implements DbmsFeatures {
@@ -77,4 +78,24 @@ public class PostgresDbmsFeatures implements DbmsFeatures {
     public boolean supportsLobSortingAndFiltering() {
         return true;
     }
-}
\ No newline at end of file
+
+    @Override
+    public int getMaxIdsBatchSize() {
+        return 5000;
+    }
+
+    @Nullable
+    @Override
+    public String getArrayElementTypeName(Class<?> javaClass) {
+        if (UUID.class.equals(javaClass)) {
+            return "uuid";
+        } else if (Long.class.equals(javaClass)) {
+            return "int8";
+        } else if (Integer.class.equals(javaClass)) {
+            return "int4";
+        } else if (String.class.equals(javaClass)) {
+            return "varchar";
+        }
+        return null;
+    }
+}
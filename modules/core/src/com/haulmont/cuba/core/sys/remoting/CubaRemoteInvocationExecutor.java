@@ -107,7 +107,8 @@ public class CubaRemoteInvocationExecutor implements RemoteInvocationExecutor {
 
         Object result;
         try {
-            result = invocation.invoke(targetObject);
+            // a future returned by the service is completed on middleware, the client receives its value
+            result = AsyncRemoteInvocations.await(invocation.invoke(targetObject));
         } finally {
             AppContext.setSecurityContext(null);
             UserInvocationContext.clearRequestScopeInfo();
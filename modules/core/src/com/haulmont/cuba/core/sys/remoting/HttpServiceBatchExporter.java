@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.cuba.core.sys.remoting;
+
+import org.springframework.beans.BeansException;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.remoting.support.RemoteInvocation;
+import org.springframework.remoting.support.RemoteInvocationResult;
+import org.springframework.web.util.NestedServletException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OptionalDataException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Endpoint executing a {@link RemoteInvocationBatch}. Each invocation is passed to the {@link HttpServiceExporter}
+ * of the target service, so it is executed exactly as if it was sent separately. The result of the batch is the list
+ * of results of the invocations, an exception thrown by one invocation doesn't affect others.
+ */
+public class HttpServiceBatchExporter extends HttpServiceExporter implements ApplicationContextAware {
+
+    protected ApplicationContext applicationContext;
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        // no target service
+    }
+
+    @Override
+    public void setBeanName(String name) {
+        // not available for local invocations
+    }
+
+    @Override
+    public void handleRequest(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        try {
+            RemoteInvocationResult result;
+            try {
+                RemoteInvocation invocation = readRemoteInvocation(request);
+                if (!(invocation instanceof RemoteInvocationBatch)) {
+                    throw new IllegalArgumentException("Invocation is not a batch: " + invocation);
+                }
+                result = new RemoteInvocationResult(invokeBatch((RemoteInvocationBatch) invocation));
+            } catch (OptionalDataException | ClassCastException | IllegalArgumentException e) {
+                logger.error("Failed to read remote invocation batch", e);
+                result = new RemoteInvocationResult(e);
+            }
+
+            writeRemoteInvocationResult(request, response, result);
+        } catch (ClassNotFoundException ex) {
+            throw new NestedServletException("Class not found during deserialization", ex);
+        }
+    }
+
+    protected ArrayList<RemoteInvocationResult> invokeBatch(RemoteInvocationBatch batch) {
+        List<String> serviceNames = batch.getServiceNames();
+        List<RemoteInvocation> invocations = batch.getInvocations();
+
+        ArrayList<RemoteInvocationResult> results = new ArrayList<>(invocations.size());
+        for (int i = 0; i < invocations.size(); i++) {
+            String beanName = "/" + serviceNames.get(i);
+            Object exporter = applicationContext.containsBean(beanName) ? applicationContext.getBean(beanName) : null;
+            if (exporter instanceof HttpServiceExporter && !(exporter instanceof HttpServiceBatchExporter)) {
+                results.add(((HttpServiceExporter) exporter).invoke(invocations.get(i)));
+            } else {
+                results.add(new RemoteInvocationResult(
+                        new IllegalArgumentException("Service " + serviceNames.get(i) + " is not exported")));
+            }
+        }
+        return results;
+    }
+}
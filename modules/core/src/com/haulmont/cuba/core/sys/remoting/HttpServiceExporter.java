@@ -17,6 +17,7 @@
 
 package com.haulmont.cuba.core.sys.remoting;
 
+import com.google.common.io.CountingOutputStream;
 import com.haulmont.cuba.core.sys.AppContext;
 import com.haulmont.cuba.core.sys.serialization.SerializationSupport;
 import org.springframework.beans.factory.BeanNameAware;
@@ -28,21 +29,25 @@ import org.springframework.web.util.NestedServletException;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.io.OptionalDataException;
+import java.io.*;
 
 /**
  * Exports a middleware service bean as an HTTP invoker service endpoint.
- *
+ * <p>Decompresses requests according to their {@code Content-Encoding} and compresses responses larger than
+ * {@code cuba.remotingCompressionThreshold} bytes with the first encoding from {@code Accept-Encoding}
+ * supported by {@link RemotingCompression}.</p>
  */
 public class HttpServiceExporter extends HttpInvokerServiceExporter implements BeanNameAware {
 
+    protected int compressionThreshold;
+
     public HttpServiceExporter() {
         super();
         setRegisterTraceInterceptor(false);
         setRemoteInvocationExecutor(new CubaRemoteInvocationExecutor());
+
+        String thresholdProp = AppContext.getProperty("cuba.remotingCompressionThreshold");
+        compressionThreshold = thresholdProp == null ? RemotingCompression.DEFAULT_THRESHOLD : Integer.parseInt(thresholdProp);
     }
 
     @Override
@@ -86,6 +91,38 @@ public class HttpServiceExporter extends HttpInvokerServiceExporter implements B
         }
     }
 
+    /**
+     * Invokes the exported service.
+     *
+     * @param invocation remote invocation
+     * @return result of the invocation
+     */
+    public RemoteInvocationResult invoke(RemoteInvocation invocation) {
+        return invokeAndCreateResult(invocation, getProxy());
+    }
+
+    @Override
+    protected InputStream decorateInputStream(HttpServletRequest request, InputStream is) throws IOException {
+        return RemotingCompression.decompress(request.getHeader("Content-Encoding"), is);
+    }
+
+    @Override
+    protected void writeRemoteInvocationResult(HttpServletRequest request, HttpServletResponse response,
+                                               RemoteInvocationResult result, OutputStream os) throws IOException {
+        CountingOutputStream wireOutputStream = new CountingOutputStream(os);
+        String encoding = RemotingCompression.selectEncoding(request.getHeader("Accept-Encoding"));
+        ThresholdCompressingOutputStream resultOutputStream = new ThresholdCompressingOutputStream(
+                wireOutputStream, encoding, compressionThreshold, () -> response.setHeader("Content-Encoding", encoding));
+
+        super.writeRemoteInvocationResult(request, response, result, resultOutputStream);
+
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format("Sent HTTP invoker result of %s with size %s, on wire %s (ratio %s)",
+                    request.getRequestURI(), resultOutputStream.getCount(), wireOutputStream.getCount(),
+                    RemotingCompression.formatRatio(resultOutputStream.getCount(), wireOutputStream.getCount())));
+        }
+    }
+
     @Override
     protected void doWriteRemoteInvocationResult(RemoteInvocationResult result, ObjectOutputStream oos) throws IOException {
         SerializationSupport.serialize(result, oos);
@@ -91,7 +91,7 @@ public class LocalServiceInvokerImpl implements LocalServiceInvoker {
             }
 
             Method method = target.getClass().getMethod(invocation.getMethodName(), parameterTypes);
-            Object data = method.invoke(target, arguments);
+            Object data = AsyncRemoteInvocations.await(method.invoke(target, arguments));
 
             if (invocation.canResultBypassSerialization()) {
                 result.setNotSerializableData(data);
@@ -16,6 +16,7 @@
  */
 package com.haulmont.cuba.security.app;
 
+import com.haulmont.bali.db.QueryRunner;
 import com.haulmont.bali.util.Preconditions;
 import com.haulmont.chile.core.datatypes.Datatype;
 import com.haulmont.chile.core.model.*;
@@ -29,6 +30,7 @@ import com.haulmont.cuba.core.global.*;
 import com.haulmont.cuba.core.sys.AppContext;
 import com.haulmont.cuba.core.sys.AuditInfoProvider;
 import com.haulmont.cuba.core.sys.EntityManagerContext;
+import com.haulmont.cuba.core.sys.persistence.DbTypeConverter;
 import com.haulmont.cuba.security.entity.*;
 import org.apache.commons.lang3.BooleanUtils;
 import org.eclipse.persistence.descriptors.changetracking.ChangeTracker;
@@ -41,12 +43,18 @@ import org.springframework.transaction.support.TransactionSynchronizationAdapter
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
 import javax.annotation.concurrent.GuardedBy;
 import javax.inject.Inject;
 import java.beans.PropertyChangeListener;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.sql.SQLException;
+import java.sql.Types;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -89,6 +97,13 @@ public class EntityLog implements EntityLogAPI {
     protected ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
     protected ThreadLocal<Boolean> entityLogSwitchedOn = new ThreadLocal<>();
 
+    protected volatile BlockingQueue<EntityLogItem> asyncQueue;
+    protected volatile List<EntityLogItem> failedBatch;
+    protected int failedBatchAttempts;
+    protected AtomicLong asyncWrittenCount = new AtomicLong();
+    protected AtomicLong asyncErrorsCount = new AtomicLong();
+    protected AtomicLong syncWrittenCount = new AtomicLong();
+
     @Inject
     public EntityLog(Configuration configuration) {
         config = configuration.getConfig(EntityLogConfig.class);
@@ -111,34 +126,78 @@ public class EntityLog implements EntityLogAPI {
         if (items == null || items.isEmpty())
             return;
 
-        for (EntityLogItem item : items) {
-            List<EntityLogItem> sameEntityList = items.stream()
-                    .filter(entityLogItem -> entityLogItem.getDbGeneratedIdEntity() != null ?
-                            entityLogItem.getDbGeneratedIdEntity().equals(item.getDbGeneratedIdEntity()) :
-                            entityLogItem.getObjectEntityId().equals(item.getObjectEntityId()))
-                    .collect(Collectors.toList());
+        boolean async = config.getAsync();
+        List<EntityLogItem> asyncItems = new ArrayList<>();
+        for (List<EntityLogItem> sameEntityList : groupItems(items)) {
             EntityLogItem itemToSave = sameEntityList.get(0);
             computeChanges(itemToSave, sameEntityList);
-            saveItem(itemToSave);
+            if (async && itemToSave.getDbGeneratedIdEntity() == null) {
+                asyncItems.add(itemToSave);
+            } else {
+                saveItem(itemToSave);
+            }
+        }
+        // the items are processed, don't save them again if flush is invoked once more in this transaction
+        items.clear();
+
+        if (!asyncItems.isEmpty()) {
+            enqueueAsync(asyncItems);
+        }
+    }
+
+    /**
+     * Groups the items by the logged entity instance preserving the registration order.
+     */
+    protected Collection<List<EntityLogItem>> groupItems(List<EntityLogItem> items) {
+        Map<Object, List<EntityLogItem>> groups = new LinkedHashMap<>();
+        for (EntityLogItem item : items) {
+            Object key = item.getDbGeneratedIdEntity() != null ?
+                    item.getDbGeneratedIdEntity() :
+                    Arrays.asList(item.getEntity(), item.getObjectEntityId());
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(item);
         }
+        return groups.values();
     }
 
     protected void computeChanges(EntityLogItem itemToSave, List<EntityLogItem> sameEntityList) {
-        Set<String> allAttributes = sameEntityList.stream()
-                .flatMap(entityLogItem -> entityLogItem.getAttributes().stream().map(EntityLogAttr::getName))
-                .collect(Collectors.toSet());
+        Map<String, EntityLogAttr> attrsToSave = new HashMap<>();
+        for (EntityLogAttr attr : itemToSave.getAttributes()) {
+            attrsToSave.put(attr.getName(), attr);
+        }
+
+        if (sameEntityList.size() > 1) {
+            Map<String, EntityLogAttr> firstAttributes = new HashMap<>();
+            for (EntityLogAttr attr : sameEntityList.get(0).getAttributes()) {
+                firstAttributes.putIfAbsent(attr.getName(), attr);
+            }
+            Map<String, EntityLogAttr> lastAttributes = new HashMap<>();
+            for (EntityLogAttr attr : sameEntityList.get(sameEntityList.size() - 1).getAttributes()) {
+                lastAttributes.putIfAbsent(attr.getName(), attr);
+            }
 
-        for (String attributeName : allAttributes) {
-            // old value from the first item
-            sameEntityList.get(0).getAttributes().stream()
-                    .filter(entityLogAttr -> entityLogAttr.getName().equals(attributeName))
-                    .findFirst()
-                    .ifPresent(entityLogAttr -> setAttributeOldValue(entityLogAttr, itemToSave));
-            // new value from the last item
-            sameEntityList.get(sameEntityList.size() - 1).getAttributes().stream()
-                    .filter(entityLogAttr -> entityLogAttr.getName().equals(attributeName))
-                    .findFirst()
-                    .ifPresent(entityLogAttr -> setAttributeNewValue(entityLogAttr, itemToSave));
+            Set<String> allAttributes = new HashSet<>();
+            for (EntityLogItem entityLogItem : sameEntityList) {
+                for (EntityLogAttr attr : entityLogItem.getAttributes()) {
+                    allAttributes.add(attr.getName());
+                }
+            }
+
+            for (String attributeName : allAttributes) {
+                // old value from the first item
+                EntityLogAttr oldAttr = firstAttributes.get(attributeName);
+                if (oldAttr != null) {
+                    EntityLogAttr attr = getAttrToSave(oldAttr, itemToSave, attrsToSave);
+                    attr.setOldValue(oldAttr.getOldValue());
+                    attr.setOldValueId(oldAttr.getOldValueId());
+                }
+                // new value from the last item
+                EntityLogAttr newAttr = lastAttributes.get(attributeName);
+                if (newAttr != null) {
+                    EntityLogAttr attr = getAttrToSave(newAttr, itemToSave, attrsToSave);
+                    attr.setValue(newAttr.getValue());
+                    attr.setValueId(newAttr.getValueId());
+                }
+            }
         }
 
         Properties properties = new Properties();
@@ -160,10 +219,12 @@ public class EntityLog implements EntityLogAPI {
         }
 
         if (itemToSave.getType() == EntityLogItem.Type.MODIFY) {
-            sameEntityList.stream()
-                    .filter(entityLogItem -> entityLogItem.getType() == EntityLogItem.Type.CREATE)
-                    .findFirst()
-                    .ifPresent(entityLogItem -> itemToSave.setType(EntityLogItem.Type.CREATE));
+            for (EntityLogItem entityLogItem : sameEntityList) {
+                if (entityLogItem.getType() == EntityLogItem.Type.CREATE) {
+                    itemToSave.setType(EntityLogItem.Type.CREATE);
+                    break;
+                }
+            }
         }
         itemToSave.setChanges(getChanges(properties));
     }
@@ -180,6 +241,18 @@ public class EntityLog implements EntityLogAPI {
         attr.setValueId(entityLogAttr.getValueId());
     }
 
+    protected EntityLogAttr getAttrToSave(EntityLogAttr entityLogAttr, EntityLogItem itemToSave,
+                                          Map<String, EntityLogAttr> attrsToSave) {
+        EntityLogAttr attr = attrsToSave.get(entityLogAttr.getName());
+        if (attr == null) {
+            attr = metadata.create(EntityLogAttr.class);
+            attr.setName(entityLogAttr.getName());
+            itemToSave.getAttributes().add(attr);
+            attrsToSave.put(attr.getName(), attr);
+        }
+        return attr;
+    }
+
     protected EntityLogAttr getAttrToSave(EntityLogAttr entityLogAttr, EntityLogItem itemToSave) {
         EntityLogAttr attr = itemToSave.getAttributes().stream()
                 .filter(a -> a.getName().equals(entityLogAttr.getName()))
@@ -223,13 +296,198 @@ public class EntityLog implements EntityLogAPI {
         }
     }
 
+    /**
+     * Passes the items to the asynchronous writer after the current transaction is committed.
+     * If the queue is full, the items are written in the committing thread.
+     */
+    protected void enqueueAsync(List<EntityLogItem> items) {
+        String login = auditInfoProvider.getCurrentUserLogin();
+        Date ts = timeSource.currentTimestamp();
+        for (EntityLogItem item : items) {
+            item.setCreateTs(ts);
+            item.setCreatedBy(login);
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                BlockingQueue<EntityLogItem> queue = getAsyncQueue();
+                List<EntityLogItem> rejected = new ArrayList<>();
+                for (EntityLogItem item : items) {
+                    if (!queue.offer(item)) {
+                        rejected.add(item);
+                    }
+                }
+                if (!rejected.isEmpty()) {
+                    log.debug("Entity log queue is full, writing {} items synchronously", rejected.size());
+                    syncWrittenCount.addAndGet(rejected.size());
+                    writeItems(rejected);
+                }
+            }
+        });
+    }
+
+    protected BlockingQueue<EntityLogItem> getAsyncQueue() {
+        BlockingQueue<EntityLogItem> queue = asyncQueue;
+        if (queue == null) {
+            synchronized (this) {
+                queue = asyncQueue;
+                if (queue == null) {
+                    queue = new ArrayBlockingQueue<>(config.getAsyncQueueCapacity());
+                    asyncQueue = queue;
+                }
+            }
+        }
+        return queue;
+    }
+
+    /**
+     * Writes items accumulated in the asynchronous mode to the database.
+     * Invoked by the scheduler.
+     * <p>If a batch cannot be written, it is retried before other items on the next invocation, up to
+     * {@link EntityLogConfig#getAsyncRetryAttempts()} times. The queue is kept in memory, so the items which are not
+     * written yet are lost if the server stops.
+     */
+    public synchronized void writeQueuedItems() {
+        BlockingQueue<EntityLogItem> queue = asyncQueue;
+        if (queue == null)
+            return;
+
+        List<EntityLogItem> batch = failedBatch;
+        if (batch != null && !writeQueuedBatch(batch))
+            return;
+
+        int batchSize = config.getAsyncBatchSize();
+        batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            if (!writeQueuedBatch(batch))
+                return;
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    /**
+     * @return true if the batch has been written, false if it has been kept for retrying or dropped
+     */
+    protected boolean writeQueuedBatch(List<EntityLogItem> batch) {
+        try {
+            writeItems(batch);
+            asyncWrittenCount.addAndGet(batch.size());
+            failedBatch = null;
+            failedBatchAttempts = 0;
+            return true;
+        } catch (Exception e) {
+            if (batch != failedBatch) {
+                failedBatch = batch;
+                failedBatchAttempts = 0;
+            }
+            failedBatchAttempts++;
+            if (failedBatchAttempts < config.getAsyncRetryAttempts()) {
+                log.warn("Unable to write {} entity log items, will retry", batch.size(), e);
+            } else {
+                asyncErrorsCount.addAndGet(batch.size());
+                log.error("Unable to write {} entity log items after {} attempts", batch.size(), failedBatchAttempts, e);
+                failedBatch = null;
+                failedBatchAttempts = 0;
+            }
+            return false;
+        }
+    }
+
+    @PreDestroy
+    protected void writeQueuedItemsOnShutdown() {
+        try {
+            writeQueuedItems();
+        } catch (Exception e) {
+            log.error("Unable to write entity log items on shutdown", e);
+        }
+        int lost = getAsyncQueueSize();
+        if (lost > 0) {
+            log.error("{} entity log items have not been written on shutdown", lost);
+        }
+    }
+
+    /**
+     * Inserts the items into SEC_ENTITY_LOG by JDBC batches in a separate transaction.
+     */
+    protected void writeItems(List<EntityLogItem> items) {
+        DbTypeConverter converter = persistence.getDbTypeConverter();
+        String sql = "insert into SEC_ENTITY_LOG (ID, CREATE_TS, CREATED_BY, EVENT_TS, USER_ID, CHANGE_TYPE, ENTITY, " +
+                "ENTITY_ID, STRING_ENTITY_ID, INT_ENTITY_ID, LONG_ENTITY_ID, CHANGES) " +
+                "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        int uuidType = converter.getSqlType(UUID.class);
+        int stringType = converter.getSqlType(String.class);
+        int dateType = converter.getSqlType(Date.class);
+        int[] paramTypes = new int[]{uuidType, dateType, stringType, dateType, uuidType, stringType, stringType,
+                uuidType, stringType, converter.getSqlType(Integer.class), converter.getSqlType(Long.class),
+                Types.LONGVARCHAR};
+
+        Object[][] params = new Object[items.size()][];
+        for (int i = 0; i < items.size(); i++) {
+            EntityLogItem item = items.get(i);
+            ReferenceToEntity ref = item.getEntityRef();
+            params[i] = new Object[]{
+                    converter.getSqlObject(item.getId()),
+                    converter.getSqlObject(item.getCreateTs()),
+                    item.getCreatedBy(),
+                    converter.getSqlObject(item.getEventTs()),
+                    item.getUser() != null ? converter.getSqlObject(item.getUser().getId()) : null,
+                    item.getType() != null ? item.getType().getId() : null,
+                    item.getEntity(),
+                    ref.getEntityId() != null ? converter.getSqlObject(ref.getEntityId()) : null,
+                    ref.getStringEntityId(),
+                    ref.getIntEntityId(),
+                    ref.getLongEntityId(),
+                    item.getChanges()
+            };
+        }
+
+        try (Transaction tx = persistence.createTransaction()) {
+            EntityManager em = persistence.getEntityManager();
+            new QueryRunner().batch(em.getConnection(), sql, params, paramTypes);
+            tx.commit();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error writing entity log items", e);
+        }
+    }
+
+    /**
+     * @return number of items waiting to be written by the asynchronous writer
+     */
+    public int getAsyncQueueSize() {
+        BlockingQueue<EntityLogItem> queue = asyncQueue;
+        List<EntityLogItem> batch = failedBatch;
+        return (queue != null ? queue.size() : 0) + (batch != null ? batch.size() : 0);
+    }
+
+    /**
+     * @return number of items written by the asynchronous writer since startup
+     */
+    public long getAsyncWrittenCount() {
+        return asyncWrittenCount.get();
+    }
+
+    /**
+     * @return number of items the asynchronous writer failed to write since startup
+     */
+    public long getAsyncErrorsCount() {
+        return asyncErrorsCount.get();
+    }
+
+    /**
+     * @return number of items written in committing threads because the asynchronous queue was full
+     */
+    public long getSyncWrittenCount() {
+        return syncWrittenCount.get();
+    }
+
     @Override
-    public synchronized boolean isEnabled() {
+    public boolean isEnabled() {
         return config.getEnabled() && isLoggingForCurrentThread();
     }
 
     @Override
-    public synchronized void setEnabled(boolean enabled) {
+    public void setEnabled(boolean enabled) {
         if (enabled != config.getEnabled()) {
             config.setEnabled(enabled);
         }
@@ -21,6 +21,7 @@ import com.haulmont.cuba.core.config.Property;
 import com.haulmont.cuba.core.config.Source;
 import com.haulmont.cuba.core.config.SourceType;
 import com.haulmont.cuba.core.config.defaults.DefaultBoolean;
+import com.haulmont.cuba.core.config.defaults.DefaultInt;
 
 /**
  * {@link com.haulmont.cuba.security.app.EntityLog} configuration parameters
@@ -35,4 +36,36 @@ public interface EntityLogConfig extends Config {
     @DefaultBoolean(true)
     boolean getEnabled();
     void setEnabled(boolean value);
-}
\ No newline at end of file
+
+    /**
+     * @return Whether the log items are written to the database by a background writer after the business
+     * transaction is committed, instead of being saved within the transaction
+     */
+    @Property("cuba.entityLog.async")
+    @DefaultBoolean(false)
+    boolean getAsync();
+    void setAsync(boolean value);
+
+    /**
+     * @return Maximum number of log items waiting for the background writer. When the queue is full, items are
+     * written by the committing thread.
+     */
+    @Property("cuba.entityLog.asyncQueueCapacity")
+    @DefaultInt(10000)
+    int getAsyncQueueCapacity();
+
+    /**
+     * @return Number of log items inserted by the background writer in one JDBC batch
+     */
+    @Property("cuba.entityLog.asyncBatchSize")
+    @DefaultInt(500)
+    int getAsyncBatchSize();
+
+    /**
+     * @return Number of attempts to write a batch of log items by the background writer, after which the items are
+     * dropped
+     */
+    @Property("cuba.entityLog.asyncRetryAttempts")
+    @DefaultInt(10)
+    int getAsyncRetryAttempts();
+}
@@ -17,6 +17,7 @@ package com.haulmont.cuba.security.app;
 
 import com.haulmont.bali.util.Preconditions;
 import com.haulmont.cuba.core.app.ClusterListener;
+import com.haulmont.cuba.core.app.ClusterListenerAdapter;
 import com.haulmont.cuba.core.app.ClusterManagerAPI;
 import com.haulmont.cuba.core.app.ServerConfig;
 import com.haulmont.cuba.core.global.Configuration;
@@ -39,9 +40,16 @@ import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * User sessions distributed cache.
+ * <p>Sessions refreshed by {@link #getAndRefresh(UUID, boolean)} are sent to the cluster as batches of last used
+ * timestamps, see {@link LastUsedTsMessage}. Unlike full sessions, these batches do not restore a session on
+ * a node which has missed it and do not carry session attributes changed without {@link #propagate(UUID)}.
+ * Nodes of previous versions cannot read them, so {@link ServerConfig#getCompactUserSessionTouchReplication()}
+ * must be turned off during a rolling upgrade.
  */
 @Component(UserSessionsAPI.NAME)
 public class UserSessions implements UserSessionsAPI {
@@ -84,10 +92,64 @@ public class UserSessions implements UserSessionsAPI {
         }
     }
 
+    /**
+     * Cluster message propagating last used timestamps of a number of sessions.
+     * Uses a compact binary format instead of sending serialized sessions. Timestamps of sessions unknown
+     * to the receiving node are ignored.
+     */
+    public static class LastUsedTsMessage implements Externalizable {
+        private static final long serialVersionUID = 1532873219875034267L;
+
+        protected Map<UUID, Long> lastUsedTs;
+
+        public LastUsedTsMessage() {
+            lastUsedTs = new HashMap<>();
+        }
+
+        public LastUsedTsMessage(Map<UUID, Long> lastUsedTs) {
+            this.lastUsedTs = lastUsedTs;
+        }
+
+        public Map<UUID, Long> getLastUsedTs() {
+            return lastUsedTs;
+        }
+
+        @Override
+        public void writeExternal(ObjectOutput out) throws IOException {
+            out.writeInt(lastUsedTs.size());
+            for (Map.Entry<UUID, Long> entry : lastUsedTs.entrySet()) {
+                out.writeLong(entry.getKey().getMostSignificantBits());
+                out.writeLong(entry.getKey().getLeastSignificantBits());
+                out.writeLong(entry.getValue());
+            }
+        }
+
+        @Override
+        public void readExternal(ObjectInput in) throws IOException {
+            int size = in.readInt();
+            lastUsedTs = new HashMap<>(size * 4 / 3 + 1);
+            for (int i = 0; i < size; i++) {
+                UUID id = new UUID(in.readLong(), in.readLong());
+                lastUsedTs.put(id, in.readLong());
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "LastUsedTsMessage{sessions=" + lastUsedTs.size() + "}";
+        }
+    }
+
     private static final Logger log = LoggerFactory.getLogger(UserSessions.class);
 
+    protected static final int LAST_USED_TS_BATCH_SIZE = 1000;
+
+    protected static final int STATE_CHUNK_SIZE = 500;
+
     protected Map<UUID, UserSessionInfo> cache = new ConcurrentHashMap<>();
 
+    protected Set<UUID> touchedSessions = ConcurrentHashMap.newKeySet();
+
     protected volatile int expirationTimeout = 1800;
 
     protected volatile int sendTimeout = 10;
@@ -153,6 +215,24 @@ public class UserSessions implements UserSessionsAPI {
                     }
                 }
         );
+        this.clusterManager.addListener(
+                LastUsedTsMessage.class,
+                new ClusterListenerAdapter<LastUsedTsMessage>() {
+                    @Override
+                    public void receive(LastUsedTsMessage message) {
+                        receiveLastUsedTs(message);
+                    }
+                }
+        );
+    }
+
+    protected void receiveLastUsedTs(LastUsedTsMessage message) {
+        for (Map.Entry<UUID, Long> entry : message.getLastUsedTs().entrySet()) {
+            UserSessionInfo usi = getSessionInfo(entry.getKey());
+            if (usi != null && usi.lastUsedTs != 0 && usi.lastUsedTs < entry.getValue()) {
+                usi.lastUsedTs = entry.getValue();
+            }
+        }
     }
 
     protected void receiveClusterMessage(UserSessionInfo message) {
@@ -174,6 +254,35 @@ public class UserSessions implements UserSessionsAPI {
             return;
         }
 
+        if (state.length < 2 || (state[0] & 0xff) != (GZIPInputStream.GZIP_MAGIC & 0xff)
+                || (state[1] & 0xff) != (GZIPInputStream.GZIP_MAGIC >> 8)) {
+            receiveLegacyClusterState(state);
+            return;
+        }
+
+        int size = 0;
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(state)))) {
+            int chunkSize;
+            while ((chunkSize = in.readInt()) > 0) {
+                byte[] chunk = new byte[in.readInt()];
+                in.readFully(chunk);
+                try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(chunk))) {
+                    for (int i = 0; i < chunkSize; i++) {
+                        UserSessionInfo usi = (UserSessionInfo) ois.readObject();
+                        receiveClusterMessage(usi);
+                    }
+                } catch (ClassNotFoundException | ObjectStreamException e) {
+                    log.error("Error receiving a chunk of user sessions, skipping {} sessions", chunkSize, e);
+                }
+                size += chunkSize;
+            }
+            log.debug("Received user sessions cache: {} sessions, {} bytes. Cache now contains {} sessions", size, state.length, cache.size());
+        } catch (IOException e) {
+            log.error("Error receiving state", e);
+        }
+    }
+
+    protected void receiveLegacyClusterState(byte[] state) {
         ByteArrayInputStream bis = new ByteArrayInputStream(state);
         try {
             ObjectInputStream ois = new ObjectInputStream(bis);
@@ -188,18 +297,31 @@ public class UserSessions implements UserSessionsAPI {
         }
     }
 
+    /**
+     * Writes the sessions by chunks of {@link #STATE_CHUNK_SIZE}, each chunk is serialized separately, so a new node
+     * can restore the sessions chunk by chunk. The whole state is compressed.
+     */
     protected byte[] sendClusterState() {
         List<UserSessionInfo> infoList = getSessionInfoStream().collect(Collectors.toList());
         if (infoList.isEmpty())
             return new byte[0];
 
         ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        try {
-            ObjectOutputStream oos = new ObjectOutputStream(bos);
-            oos.writeInt(infoList.size());
-            for (UserSessionInfo usi : infoList) {
-                oos.writeObject(usi);
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bos))) {
+            ByteArrayOutputStream chunkBos = new ByteArrayOutputStream();
+            for (int i = 0; i < infoList.size(); i += STATE_CHUNK_SIZE) {
+                List<UserSessionInfo> chunk = infoList.subList(i, Math.min(i + STATE_CHUNK_SIZE, infoList.size()));
+                chunkBos.reset();
+                try (ObjectOutputStream oos = new ObjectOutputStream(chunkBos)) {
+                    for (UserSessionInfo usi : chunk) {
+                        oos.writeObject(usi);
+                    }
+                }
+                out.writeInt(chunk.size());
+                out.writeInt(chunkBos.size());
+                chunkBos.writeTo(out);
             }
+            out.writeInt(0);
         } catch (IOException e) {
             throw new RuntimeException("Error sending state", e);
         }
@@ -292,7 +414,7 @@ public class UserSessions implements UserSessionsAPI {
                 if (propagate && !usi.session.isSystem()) {
                     if (now > (usi.lastSentTs + toMillis(sendTimeout))) {
                         usi.lastSentTs = now;
-                        clusterManager.send(usi);
+                        touchedSessions.add(id);
                     }
                 }
             }
@@ -411,6 +533,35 @@ public class UserSessions implements UserSessionsAPI {
                 });
     }
 
+    @Override
+    public void sendLastUsedTs() {
+        if (touchedSessions.isEmpty())
+            return;
+
+        boolean compact = serverConfig == null || serverConfig.getCompactUserSessionTouchReplication();
+
+        Map<UUID, Long> batch = new HashMap<>();
+        for (Iterator<UUID> it = touchedSessions.iterator(); it.hasNext(); ) {
+            UUID id = it.next();
+            it.remove();
+            UserSessionInfo usi = getSessionInfo(id);
+            if (usi != null && usi.lastUsedTs != 0) {
+                if (!compact) {
+                    clusterManager.send(usi);
+                    continue;
+                }
+                batch.put(id, usi.lastUsedTs);
+                if (batch.size() >= LAST_USED_TS_BATCH_SIZE) {
+                    clusterManager.send(new LastUsedTsMessage(batch));
+                    batch = new HashMap<>();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            clusterManager.send(new LastUsedTsMessage(batch));
+        }
+    }
+
     protected UserSessionInfo getSessionInfo(UUID id) {
         return cache.get(id);
     }
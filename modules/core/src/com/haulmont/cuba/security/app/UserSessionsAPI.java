@@ -184,4 +184,12 @@ public interface UserSessionsAPI extends UserSessionFinder {
      * Evict timed out sessions from the cache.
      */
     void processEviction();
+
+    /**
+     * INTERNAL.
+     *
+     * Send last used timestamps of the sessions refreshed since the previous invocation to the cluster
+     * in one batched message, or the full sessions if compact replication of refreshes is turned off.
+     */
+    void sendLastUsedTs();
 }
\ No newline at end of file
@@ -44,4 +44,28 @@ public class EntityLog implements EntityLogMBean {
     public void invalidateCache() {
         entityLog.invalidateCache();
     }
+
+    @Override
+    public int getAsyncQueueSize() {
+        return entityLog instanceof com.haulmont.cuba.security.app.EntityLog ?
+                ((com.haulmont.cuba.security.app.EntityLog) entityLog).getAsyncQueueSize() : 0;
+    }
+
+    @Override
+    public long getAsyncWrittenCount() {
+        return entityLog instanceof com.haulmont.cuba.security.app.EntityLog ?
+                ((com.haulmont.cuba.security.app.EntityLog) entityLog).getAsyncWrittenCount() : 0;
+    }
+
+    @Override
+    public long getAsyncErrorsCount() {
+        return entityLog instanceof com.haulmont.cuba.security.app.EntityLog ?
+                ((com.haulmont.cuba.security.app.EntityLog) entityLog).getAsyncErrorsCount() : 0;
+    }
+
+    @Override
+    public long getSyncWrittenCount() {
+        return entityLog instanceof com.haulmont.cuba.security.app.EntityLog ?
+                ((com.haulmont.cuba.security.app.EntityLog) entityLog).getSyncWrittenCount() : 0;
+    }
 }
\ No newline at end of file
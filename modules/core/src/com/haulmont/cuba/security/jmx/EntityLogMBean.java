@@ -36,4 +36,24 @@ public interface EntityLogMBean {
      * The configuration will be recreated from the database on next lifecycle event.
      */
     void invalidateCache();
+
+    /**
+     * @return number of log items waiting to be written by the asynchronous writer
+     */
+    int getAsyncQueueSize();
+
+    /**
+     * @return number of log items written by the asynchronous writer since the server startup
+     */
+    long getAsyncWrittenCount();
+
+    /**
+     * @return number of log items the asynchronous writer failed to write since the server startup
+     */
+    long getAsyncErrorsCount();
+
+    /**
+     * @return number of log items written synchronously because the asynchronous queue was full
+     */
+    long getSyncWrittenCount();
 }
@@ -20,9 +20,11 @@ import com.haulmont.bali.db.QueryRunner;
 import com.haulmont.cuba.core.entity.Entity;
 import com.haulmont.cuba.core.entity.Server;
 import com.haulmont.cuba.core.global.*;
+import com.haulmont.cuba.core.sys.ChunkedLoadIterator;
 import com.haulmont.cuba.security.entity.Group;
 import com.haulmont.cuba.security.entity.User;
 import com.haulmont.cuba.testsupport.TestContainer;
+import com.haulmont.cuba.testsupport.TestSupport;
 import org.apache.commons.lang3.time.DateUtils;
 import org.junit.Before;
 import org.junit.ClassRule;
@@ -30,6 +32,8 @@ import org.junit.Test;
 
 import javax.persistence.TemporalType;
 import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.*;
 
@@ -96,6 +100,132 @@ public class DataManagerTest {
         assertTrue(list.size() > 0);
     }
 
+    @Test
+    public void testStream() {
+        List<Server> servers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Server server = new Server();
+            server.setName("localhost-" + i);
+            server.setRunning(true);
+            servers.add(server);
+        }
+        dataManager.commit(new CommitContext(servers));
+
+        LoadContext<Server> loadContext = LoadContext.create(Server.class);
+        loadContext.setQueryString("select s from " + PersistenceHelper.getEntityName(Server.class) + " s order by s.name");
+
+        List<Server> list;
+        try (Stream<Server> stream = dataManager.stream(loadContext, 2)) {
+            list = stream.collect(Collectors.toList());
+        }
+        assertEquals(5, list.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals("localhost-" + i, list.get(i).getName());
+            assertTrue(PersistenceHelper.isDetached(list.get(i)));
+        }
+
+        // the same by chunks through loadList, as on the client tier
+        ChunkedLoadIterator<Server> iterator = new ChunkedLoadIterator<>(dataManager, loadContext, 2);
+        List<Integer> chunkSizes = new ArrayList<>();
+        while (iterator.hasNext()) {
+            chunkSizes.add(iterator.next().size());
+        }
+        assertEquals(Arrays.asList(2, 2, 1), chunkSizes);
+    }
+
+    @Test
+    public void testStreamWithoutOrderBy() {
+        List<Server> servers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Server server = new Server();
+            server.setName("localhost-" + i);
+            server.setRunning(true);
+            servers.add(server);
+        }
+        dataManager.commit(new CommitContext(servers));
+
+        // the literal must not be taken for ORDER BY clause, chunks are selected by the primary key
+        LoadContext<Server> loadContext = LoadContext.create(Server.class);
+        loadContext.setQueryString("select s from sys$Server s where s.name <> 'order by name'");
+
+        List<List<Server>> chunks = new ArrayList<>();
+        ChunkedLoadIterator<Server> iterator = new ChunkedLoadIterator<>(dataManager, loadContext, 2);
+        while (iterator.hasNext()) {
+            chunks.add(iterator.next());
+        }
+
+        List<UUID> ids = chunks.stream()
+                .flatMap(Collection::stream)
+                .map(Server::getId)
+                .collect(Collectors.toList());
+        Set<UUID> expectedIds = servers.stream()
+                .map(Server::getId)
+                .collect(Collectors.toSet());
+        assertEquals(5, ids.size());
+        assertEquals(expectedIds, new HashSet<>(ids));
+        assertEquals(Arrays.asList(2, 2, 1), chunks.stream().map(List::size).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testKeysetPagination() {
+        List<Server> servers = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Server server = new Server();
+            server.setName("localhost-" + i);
+            server.setRunning(true);
+            servers.add(server);
+        }
+        dataManager.commit(new CommitContext(servers));
+
+        List<String> names = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        Object lastValue = null;
+        while (true) {
+            LoadContext<Server> loadContext = LoadContext.create(Server.class);
+            loadContext.setQueryString("select s from sys$Server s")
+                    .setKeysetProperty("name")
+                    .setKeysetLastValue(lastValue)
+                    .setMaxResults(3);
+
+            List<Server> page = dataManager.loadList(loadContext);
+            if (page.isEmpty()) {
+                break;
+            }
+            pageSizes.add(page.size());
+            for (Server server : page) {
+                names.add(server.getName());
+            }
+            lastValue = page.get(page.size() - 1).getName();
+        }
+
+        assertEquals(Arrays.asList(3, 3, 1), pageSizes);
+        assertEquals(servers.stream().map(Server::getName).collect(Collectors.toList()), names);
+    }
+
+    @Test
+    public void testKeysetPaginationCount() {
+        List<Server> servers = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Server server = new Server();
+            server.setName("localhost-" + i);
+            server.setRunning(true);
+            servers.add(server);
+        }
+        dataManager.commit(new CommitContext(servers));
+
+        LoadContext<Server> loadContext = LoadContext.create(Server.class);
+        loadContext.setQueryString("select s from sys$Server s")
+                .setKeysetProperty("name")
+                .setMaxResults(3);
+
+        assertEquals(7, dataManager.getCount(loadContext));
+
+        loadContext.getQuery().setKeysetLastValue("localhost-2");
+
+        assertEquals(7, dataManager.getCount(loadContext));
+        assertEquals("localhost-2", loadContext.getQuery().getKeysetLastValue());
+    }
+
     @Test
     public void testLoadListById() {
         Server server = new Server();
@@ -287,6 +417,70 @@ public class DataManagerTest {
         assertNotNull(saved);
     }
 
+    @Test
+    public void testCommitChangedAttributes() throws Exception {
+        Group group = dataManager.load(LoadContext.create(Group.class).setId(TestSupport.COMPANY_GROUP_ID).setView(View.MINIMAL));
+
+        User user = cont.metadata().create(User.class);
+        user.setLogin("ChangedAttributes");
+        user.setPassword("password");
+        user.setName("Name");
+        user.setFirstName("First");
+        user.setLastName("Last");
+        user.setPosition("Position");
+        user.setEmail("user@example.com");
+        user.setGroup(group);
+        dataManager.commit(user);
+        try {
+            // partially loaded instance
+            User partial = dataManager.load(LoadContext.create(User.class).setId(user.getId())
+                    .setView(new View(User.class, true).addProperty("name")));
+            Integer version = partial.getVersion();
+
+            // a column which is not loaded is changed by somebody else
+            QueryRunner runner = new QueryRunner(cont.persistence().getDataSource());
+            runner.update("update SEC_USER set POSITION_ = 'Changed position' where ID = ?", user.getId().toString());
+
+            partial.setName("Changed name");
+            CommitContext commitContext = new CommitContext(partial);
+            commitContext.getChangedAttributes().put(partial, Collections.singleton("name"));
+            dataManager.commit(commitContext);
+
+            User reloaded = dataManager.load(LoadContext.create(User.class).setId(user.getId()).setView("user.edit"));
+            assertEquals(Integer.valueOf(version + 1), reloaded.getVersion());
+            assertEquals("Changed name", reloaded.getName());
+            assertEquals("ChangedAttributes", reloaded.getLogin());
+            assertEquals("changedattributes", reloaded.getLoginLowerCase());
+            assertEquals("password", reloaded.getPassword());
+            assertEquals("First", reloaded.getFirstName());
+            assertEquals("Last", reloaded.getLastName());
+            assertNull(reloaded.getMiddleName());
+            assertEquals("Changed position", reloaded.getPosition());
+            assertEquals("user@example.com", reloaded.getEmail());
+            assertEquals(Boolean.TRUE, reloaded.getActive());
+            assertEquals(group, reloaded.getGroup());
+            assertNotNull(reloaded.getCreateTs());
+            assertNotNull(reloaded.getUpdateTs());
+
+            // attributes which are not listed as changed are not written
+            reloaded.setFirstName("Changed first");
+            reloaded.setEmail("changed@example.com");
+            commitContext = new CommitContext(reloaded);
+            commitContext.getChangedAttributes().put(reloaded, Collections.singleton("firstName"));
+            dataManager.commit(commitContext);
+
+            User reloaded2 = dataManager.load(LoadContext.create(User.class).setId(user.getId()).setView("user.edit"));
+            assertEquals(Integer.valueOf(version + 2), reloaded2.getVersion());
+            assertEquals("Changed first", reloaded2.getFirstName());
+            assertEquals("user@example.com", reloaded2.getEmail());
+            assertEquals("Changed name", reloaded2.getName());
+            assertEquals("Changed position", reloaded2.getPosition());
+            assertEquals(group, reloaded2.getGroup());
+        } finally {
+            cont.deleteRecord(user);
+        }
+    }
+
     public static class MyLoadContext<E extends Entity> extends LoadContext<E> {
 
         private String info;
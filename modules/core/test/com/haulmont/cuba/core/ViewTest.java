@@ -22,6 +22,8 @@ import com.haulmont.bali.db.QueryRunner;
 import com.haulmont.bali.db.ResultSetHandler;
 import com.haulmont.cuba.core.entity.EntitySnapshot;
 import com.haulmont.cuba.core.global.*;
+import com.haulmont.cuba.core.sys.AbstractViewRepository;
+import com.haulmont.cuba.core.sys.AppContext;
 import com.haulmont.cuba.security.entity.*;
 import com.haulmont.cuba.testmodel.multiplelinks.LinkEntity;
 import com.haulmont.cuba.testmodel.multiplelinks.MultiLinkEntity;
@@ -459,6 +461,40 @@ public class ViewTest {
         assertNull(viewRepository.getView(User.class, View.LOCAL).getProperty("group"));
     }
 
+    @Test
+    public void testViewsAreNotSharedByDefault() throws Exception {
+        ViewRepository viewRepository = cont.metadata().getViewRepository();
+        View view = viewRepository.getView(User.class, View.LOCAL);
+
+        assertFalse(view.isSealed());
+        assertNotSame(view, viewRepository.getView(User.class, View.LOCAL));
+        view.addProperty("group");
+        assertNull(viewRepository.getView(User.class, View.LOCAL).getProperty("group"));
+    }
+
+    @Test
+    public void testSharedViewIsSealed() throws Exception {
+        AbstractViewRepository viewRepository = (AbstractViewRepository) cont.metadata().getViewRepository();
+        AppContext.setProperty("cuba.viewRepository.shareViews", "true");
+        viewRepository.reset();
+        try {
+            View view = viewRepository.getView(User.class, View.LOCAL);
+
+            assertTrue(view.isSealed());
+            assertSame(view, viewRepository.getView(User.class, View.LOCAL));
+            assertFail(() -> view.addProperty("group"));
+            assertFail(() -> view.setLoadPartialEntities(true));
+
+            View copy = View.copy(view);
+            assertFalse(copy.isSealed());
+            copy.addProperty("group");
+            assertNotNull(copy.getProperty("group"));
+        } finally {
+            AppContext.setProperty("cuba.viewRepository.shareViews", null);
+            viewRepository.reset();
+        }
+    }
+
     @Test
     public void testFetchGroupIsAbsentIfViewIsFull() throws Exception {
         ViewRepository viewRepository = cont.metadata().getViewRepository();
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.haulmont.cuba.core.app;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CrossDataStoreLoadingExecutorTest {
+
+    private CrossDataStoreLoadingExecutor loadingExecutor;
+
+    @Before
+    public void setUp() {
+        loadingExecutor = new CrossDataStoreLoadingExecutor();
+        loadingExecutor.executor = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+    }
+
+    @After
+    public void tearDown() {
+        loadingExecutor.executor.shutdownNow();
+    }
+
+    @Test
+    public void testNestedLoadsDoNotExhaustPool() throws Exception {
+        // references of loaded references are loaded by nested invokeAll() calls from the pool threads
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> result = caller.submit(() -> sum(loadingExecutor.invokeAll(createTasks(3, 4))));
+            assertEquals(Integer.valueOf(4 * 4 * 4), result.get(30, TimeUnit.SECONDS));
+        } finally {
+            caller.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testNestedLoadsRunInCallingPoolThread() {
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            tasks.add(() -> {
+                Thread poolThread = Thread.currentThread();
+                List<Callable<Thread>> nested = new ArrayList<>();
+                for (int j = 0; j < 4; j++) {
+                    nested.add(Thread::currentThread);
+                }
+                return loadingExecutor.invokeAll(nested).stream().allMatch(thread -> thread == poolThread);
+            });
+        }
+
+        for (Boolean sameThread : loadingExecutor.invokeAll(tasks)) {
+            assertTrue(sameThread);
+        }
+    }
+
+    private List<Callable<Integer>> createTasks(int depth, int width) {
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < width; i++) {
+            tasks.add(() -> depth == 1 ? 1 : sum(loadingExecutor.invokeAll(createTasks(depth - 1, width))));
+        }
+        return tasks;
+    }
+
+    private int sum(List<Integer> values) {
+        return values.stream().mapToInt(Integer::intValue).sum();
+    }
+}
@@ -378,6 +378,29 @@ public class EmailerTest {
         assertTrue(recipientSet.contains("tanya@example.com"));
     }
 
+    @Test
+    public void testQueuedStatusesSavedInBulk() throws Exception {
+        testMailSender.clearBuffer();
+        Emailer emailerImpl = (Emailer) emailer;
+        long sentCount = emailerImpl.getSentEmailsCount();
+
+        EmailInfo myInfo = new EmailInfo("a@example.com,b@example.com,c@example.com", "Test", "Test Body");
+        List<SendingMessage> messages = emailer.sendEmailAsync(myInfo);
+        assertEquals(3, messages.size());
+
+        emailer.processQueuedEmails();
+        assertEquals(3, testMailSender.getBufferSize());
+        assertEquals(sentCount + 3, emailerImpl.getSentEmailsCount());
+        assertEquals(0, emailerImpl.getPendingStatusUpdatesCount());
+
+        for (SendingMessage message : messages) {
+            SendingMessage sendingMsg = reload(message);
+            assertEquals(SendingStatus.SENT, sendingMsg.getStatus());
+            assertEquals(1, sendingMsg.getAttemptsMade().intValue());
+            assertNotNull(sendingMsg.getDateSent());
+        }
+    }
+
     @Test
     public void testSendAllToAdmin() throws Exception {
         emailerConfig.setSendAllToAdmin(true);
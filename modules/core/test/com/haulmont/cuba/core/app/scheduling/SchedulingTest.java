@@ -18,7 +18,9 @@
 package com.haulmont.cuba.core.app.scheduling;
 
 import com.haulmont.cuba.core.entity.ScheduledTask;
+import com.haulmont.cuba.core.app.ServerInfoAPI;
 import com.haulmont.cuba.core.entity.SchedulingType;
+import com.haulmont.cuba.core.global.AppBeans;
 import com.haulmont.cuba.core.global.TimeSource;
 import com.haulmont.cuba.testsupport.TestContainer;
 import junit.framework.Assert;
@@ -143,4 +145,46 @@ public class SchedulingTest {
         assertTrue(scheduling.setRunning(scheduledTask, true));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testNextCheckTime() {
+        Scheduling scheduling = new Scheduling() {
+            {
+                serverInfo = AppBeans.get(ServerInfoAPI.NAME);
+            }
+
+            @Override
+            protected TimeZone getCurrentTimeZone() {
+                return TimeZone.getTimeZone("GMT-0");
+            }
+        };
+
+        long now = date("2013-11-13 15:30:00").getTime();
+
+        ScheduledTask periodTask = new ScheduledTask();
+        periodTask.setSchedulingType(SchedulingType.PERIOD);
+        periodTask.setPeriod(60);
+        // never started, so check on the next invocation
+        assertEquals(now, scheduling.getNextCheckTime(periodTask, now));
+
+        scheduling.lastStartCache.put(periodTask, now - 10000);
+        assertEquals(now + 50000, scheduling.getNextCheckTime(periodTask, now));
+
+        ScheduledTask delayTask = new ScheduledTask();
+        delayTask.setSchedulingType(SchedulingType.FIXED_DELAY);
+        delayTask.setPeriod(60);
+        scheduling.lastStartCache.put(delayTask, now - 20000);
+        // still running, the next start is unknown
+        assertEquals(now, scheduling.getNextCheckTime(delayTask, now));
+
+        scheduling.lastFinishCache.put(delayTask, now - 10000);
+        assertEquals(now + 50000, scheduling.getNextCheckTime(delayTask, now));
+
+        ScheduledTask cronTask = new ScheduledTask();
+        cronTask.setSchedulingType(SchedulingType.CRON);
+        cronTask.setCron("0 0 0 * * FRI");
+        cronTask.setTimeFrame(600);
+        scheduling.lastStartCache.put(cronTask, date("2013-11-08 00:00:00").getTime());
+        assertEquals(date("2013-11-15 00:00:00").getTime(), scheduling.getNextCheckTime(cronTask, now));
+    }
+}
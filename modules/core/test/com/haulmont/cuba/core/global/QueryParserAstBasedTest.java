@@ -55,6 +55,20 @@ public class QueryParserAstBasedTest {
         assertEquals("u", parser.getEntityAlias());
     }
 
+    @Test
+    public void testHasOrderBy() throws Exception {
+        DomainModel model = prepareDomainModel();
+
+        assertTrue(new QueryParserAstBased(model, "select u from sec$User u order by u.login").hasOrderBy());
+
+        assertFalse(new QueryParserAstBased(model, "select u from sec$User u").hasOrderBy());
+        assertFalse(new QueryParserAstBased(model,
+                "select u from sec$User u where u.login <> 'order by login'").hasOrderBy());
+        assertFalse(new QueryParserAstBased(model,
+                "select u from sec$User u where u.group in (select g from sec$Group g where g.name = 'order by')"
+        ).hasOrderBy());
+    }
+
     @Test
     public void testError() throws Exception {
         DomainModel model = prepareDomainModel();
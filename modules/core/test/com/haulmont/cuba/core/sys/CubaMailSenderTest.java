@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.haulmont.cuba.core.sys;
+
+import com.haulmont.cuba.core.app.EmailerConfig;
+import com.haulmont.cuba.core.global.AppBeans;
+import com.haulmont.cuba.core.global.Configuration;
+import com.haulmont.cuba.testsupport.TestContainer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.springframework.mail.MailSendException;
+
+import javax.mail.*;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CubaMailSenderTest {
+
+    @ClassRule
+    public static TestContainer cont = TestContainer.Common.INSTANCE;
+
+    private EmailerConfig emailerConfig;
+    private int poolSize;
+
+    private TestTransportMailSender mailSender;
+
+    @Before
+    public void setUp() throws Exception {
+        Configuration configuration = AppBeans.get(Configuration.class);
+        emailerConfig = configuration.getConfig(EmailerConfig.class);
+        poolSize = emailerConfig.getSmtpConnectionPoolSize();
+        emailerConfig.setSmtpConnectionPoolSize(1);
+
+        mailSender = new TestTransportMailSender();
+        mailSender.setConfiguration(configuration);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mailSender.closeIdleConnections();
+        emailerConfig.setSmtpConnectionPoolSize(poolSize);
+    }
+
+    @Test
+    public void testConnectionReused() throws Exception {
+        mailSender.send(createMessage("a@example.com"));
+        mailSender.send(createMessage("b@example.com"));
+        mailSender.send(createMessage("c@example.com"));
+
+        assertEquals(1, mailSender.transports.size());
+        TestTransport transport = mailSender.transports.get(0);
+        assertEquals(3, transport.sentMessages.size());
+        assertEquals("a@example.com", transport.sentMessages.get(0).getAllRecipients()[0].toString());
+        assertEquals("c@example.com", transport.sentMessages.get(2).getAllRecipients()[0].toString());
+
+        assertTrue(transport.isConnected());
+        assertEquals(1, mailSender.getIdleConnectionsCount());
+    }
+
+    @Test
+    public void testMessagesSentInOneCall() throws Exception {
+        mailSender.send(createMessage("a@example.com"), createMessage("b@example.com"));
+
+        assertEquals(1, mailSender.transports.size());
+        assertEquals(2, mailSender.transports.get(0).sentMessages.size());
+        assertEquals(1, mailSender.getIdleConnectionsCount());
+    }
+
+    @Test
+    public void testFailedConnectionNotReused() throws Exception {
+        mailSender.send(createMessage("a@example.com"));
+        TestTransport transport = mailSender.transports.get(0);
+        transport.fail = true;
+
+        MimeMessage failedMessage = createMessage("b@example.com");
+        try {
+            mailSender.send(failedMessage);
+            fail();
+        } catch (MailSendException e) {
+            assertEquals(1, e.getFailedMessages().size());
+            assertTrue(e.getFailedMessages().containsKey(failedMessage));
+        }
+        assertFalse(transport.isConnected());
+        assertEquals(0, mailSender.getIdleConnectionsCount());
+
+        mailSender.send(createMessage("c@example.com"));
+        assertEquals(2, mailSender.transports.size());
+        assertEquals(1, mailSender.transports.get(1).sentMessages.size());
+    }
+
+    @Test
+    public void testConnectionsAboveLimitClosed() throws Exception {
+        TestTransport transport1 = mailSender.connectTransport();
+        TestTransport transport2 = mailSender.connectTransport();
+
+        mailSender.releaseTransport(new CubaMailSender.PooledTransport(transport1));
+        mailSender.releaseTransport(new CubaMailSender.PooledTransport(transport2));
+
+        assertEquals(1, mailSender.getIdleConnectionsCount());
+        assertTrue(transport1.isConnected());
+        assertFalse(transport2.isConnected());
+    }
+
+    private MimeMessage createMessage(String address) throws MessagingException {
+        MimeMessage message = new MimeMessage(mailSender.getSession());
+        message.setFrom(new InternetAddress("test@example.com"));
+        message.setRecipient(Message.RecipientType.TO, new InternetAddress(address));
+        message.setSubject("Test");
+        message.setText("Test Body");
+        return message;
+    }
+
+    private static class TestTransportMailSender extends CubaMailSender {
+
+        private List<TestTransport> transports = new ArrayList<>();
+
+        @Override
+        protected TestTransport connectTransport() {
+            TestTransport transport = new TestTransport(getSession());
+            transports.add(transport);
+            return transport;
+        }
+    }
+
+    private static class TestTransport extends Transport {
+
+        private List<Message> sentMessages = new ArrayList<>();
+        private boolean connected = true;
+        private boolean fail;
+
+        private TestTransport(Session session) {
+            super(session, new URLName("smtp", "localhost", 25, null, null, null));
+        }
+
+        @Override
+        public void sendMessage(Message message, Address[] addresses) throws MessagingException {
+            if (fail) {
+                throw new MessagingException("Connection reset");
+            }
+            sentMessages.add(message);
+        }
+
+        @Override
+        public boolean isConnected() {
+            return connected;
+        }
+
+        @Override
+        public void close() {
+            connected = false;
+        }
+    }
+}
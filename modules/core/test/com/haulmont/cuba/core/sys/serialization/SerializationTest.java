@@ -30,9 +30,17 @@ import com.haulmont.cuba.security.entity.UserRole;
 import com.haulmont.cuba.testsupport.TestContainer;
 import org.junit.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
 import java.util.BitSet;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
@@ -253,6 +261,39 @@ public class SerializationTest {
         assertEquals(set, restored);
     }
 
+    @Test
+    public void testKryoPooledBuffers() throws Exception {
+        KryoSerialization kryoSerialization = new KryoSerialization(true, 2);
+
+        List<String> list = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            list.add("item-" + i);
+        }
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        kryoSerialization.serialize(list, os);
+        assertEquals(list, kryoSerialization.deserialize(new ByteArrayInputStream(os.toByteArray())));
+        assertArrayEquals(os.toByteArray(), kryoSerialization.serialize(list));
+
+        UUID id = UUID.randomUUID();
+        assertEquals(id, kryoSerialization.deserialize(kryoSerialization.serialize(id)));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                String value = "value-" + i;
+                futures.add(executor.submit(() -> kryoSerialization.deserialize(kryoSerialization.serialize(value))));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals("value-" + i, futures.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(kryoSerialization.getPoolSize() <= 2);
+    }
+
 
     protected View getView() {Metadata metadata = AppBeans.get(Metadata.NAME);
         ViewRepository viewRepository = metadata.getViewRepository();
@@ -532,6 +532,29 @@ public class QueryCacheTestClass {
         assertEquals(0, appender.filterMessages(m -> m.contains("> SELECT")).count());
     }
 
+    @Test
+    public void testResultListBatchLoadingOfEvictedEntities() throws Exception {
+        appender.clearMessages();
+        List<User> resultList = getResultListUsersOrderedByName();
+        assertEquals(2, resultList.size());
+        assertEquals(1, queryCache.size());
+        appender.clearMessages();
+
+        cache.evict(User.class);
+
+        resultList = getResultListUsersOrderedByName();
+        assertEquals(2, resultList.size());
+        assertEquals(user.getId(), resultList.get(0).getId());
+        assertEquals(user2.getId(), resultList.get(1).getId());
+        assertEquals(1, queryCache.size());
+        assertEquals(1, appender.filterMessages(m -> m.contains("> SELECT")).count()); // all users by one query
+        appender.clearMessages();
+
+        resultList = getResultListUsersOrderedByName();
+        assertEquals(2, resultList.size());
+        assertEquals(0, appender.filterMessages(m -> m.contains("> SELECT")).count());
+    }
+
     @Test
     public void testStaleData_insert() throws Exception {
         appender.clearMessages();
@@ -1141,6 +1164,19 @@ public class QueryCacheTestClass {
         return user;
     }
 
+    protected List<User> getResultListUsersOrderedByName() throws Exception {
+        List<User> resultList;
+        try (Transaction tx = cont.persistence().createTransaction()) {
+            TypedQuery<User> query = cont.entityManager().createQuery(
+                    "select u from sec$User u where u.login like 'ECTest-%' order by u.name asc", User.class);
+            query.setCacheable(true);
+            query.setViewName(View.LOCAL);
+            resultList = query.getResultList();
+            tx.commit();
+        }
+        return resultList;
+    }
+
     protected List<User> getResultListUserByRole(String roleName) throws Exception {
         List<User> resultList;
         try (Transaction tx = cont.persistence().createTransaction()) {
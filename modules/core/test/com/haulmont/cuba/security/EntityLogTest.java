@@ -24,8 +24,11 @@ import com.haulmont.cuba.core.Query;
 import com.haulmont.cuba.core.Transaction;
 import com.haulmont.cuba.core.TypedQuery;
 import com.haulmont.cuba.core.global.AppBeans;
+import com.haulmont.cuba.core.global.Configuration;
 import com.haulmont.cuba.core.global.Messages;
+import com.haulmont.cuba.security.app.EntityLog;
 import com.haulmont.cuba.security.app.EntityLogAPI;
+import com.haulmont.cuba.security.app.EntityLogConfig;
 import com.haulmont.cuba.security.entity.*;
 import com.haulmont.cuba.testsupport.TestContainer;
 import org.junit.After;
@@ -34,11 +37,16 @@ import org.junit.ClassRule;
 import org.junit.Test;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 public class EntityLogTest {
 
@@ -313,6 +321,90 @@ public class EntityLogTest {
         assertEquals("changed-name@test.com", attr.getOldValue());
     }
 
+    @Test
+    public void testAsyncRetry() throws Exception {
+        FailingEntityLog entityLogImpl = new FailingEntityLog(2);
+        EntityLogItem item1 = cont.metadata().create(EntityLogItem.class);
+        EntityLogItem item2 = cont.metadata().create(EntityLogItem.class);
+        entityLogImpl.enqueue(item1, item2);
+
+        entityLogImpl.writeQueuedItems();
+        assertEquals(2, entityLogImpl.getAsyncQueueSize());
+
+        EntityLogItem item3 = cont.metadata().create(EntityLogItem.class);
+        entityLogImpl.enqueue(item3);
+
+        entityLogImpl.writeQueuedItems();
+        assertEquals(3, entityLogImpl.getAsyncQueueSize());
+        assertTrue(entityLogImpl.written.isEmpty());
+
+        // the failed batch is written before the items queued later
+        entityLogImpl.writeQueuedItems();
+        assertEquals(0, entityLogImpl.getAsyncQueueSize());
+        assertEquals(Arrays.asList(Arrays.asList(item1, item2), Collections.singletonList(item3)),
+                entityLogImpl.written);
+        assertEquals(3, entityLogImpl.getAsyncWrittenCount());
+        assertEquals(0, entityLogImpl.getAsyncErrorsCount());
+    }
+
+    @Test
+    public void testAsyncRetryAttemptsExceeded() throws Exception {
+        EntityLogConfig config = AppBeans.get(Configuration.class).getConfig(EntityLogConfig.class);
+        FailingEntityLog entityLogImpl = new FailingEntityLog(Integer.MAX_VALUE);
+        entityLogImpl.enqueue(cont.metadata().create(EntityLogItem.class), cont.metadata().create(EntityLogItem.class));
+
+        for (int i = 0; i < config.getAsyncRetryAttempts() - 1; i++) {
+            entityLogImpl.writeQueuedItems();
+            assertEquals(2, entityLogImpl.getAsyncQueueSize());
+        }
+        entityLogImpl.writeQueuedItems();
+        assertEquals(0, entityLogImpl.getAsyncQueueSize());
+        assertEquals(2, entityLogImpl.getAsyncErrorsCount());
+    }
+
+    @Test
+    public void testAsync() throws Exception {
+        EntityLogConfig config = AppBeans.get(Configuration.class).getConfig(EntityLogConfig.class);
+        config.setAsync(true);
+        try {
+            Transaction tx = cont.persistence().createTransaction();
+            try {
+                EntityManager em = cont.persistence().getEntityManager();
+
+                Group group = em.find(Group.class, UUID.fromString("0fa2b1a5-1d68-4d69-9fbd-dff348347f93"));
+
+                User user = new User();
+                userId = user.getId();
+                user.setGroup(group);
+                user.setLogin("test");
+                user.setName("test-name");
+                user.setEmail("name@test.com");
+                em.persist(user);
+
+                tx.commit();
+            } finally {
+                tx.end();
+            }
+
+            // the items are written after commit by the background writer
+            EntityLog entityLogImpl = (EntityLog) entityLog;
+            entityLogImpl.writeQueuedItems();
+            assertEquals(0, entityLogImpl.getAsyncQueueSize());
+        } finally {
+            config.setAsync(false);
+        }
+
+        List<EntityLogItem> items = getEntityLogItems();
+        assertEquals(1, items.size());
+
+        EntityLogItem item = items.get(0);
+        assertEquals(EntityLogItem.Type.CREATE, item.getType());
+        assertNotNull(item.getUser());
+
+        EntityLogAttr attr = Iterables.find(item.getAttributes(), a -> "email".equals(a.getName()));
+        assertEquals("name@test.com", attr.getValue());
+    }
+
     private List<EntityLogItem> getEntityLogItems() {
         Transaction tx;
         List<EntityLogItem> items;
@@ -331,4 +423,27 @@ public class EntityLogTest {
         }
         return items;
     }
-}
\ No newline at end of file
+
+    private static class FailingEntityLog extends EntityLog {
+
+        private AtomicInteger failures;
+        private List<List<EntityLogItem>> written = new ArrayList<>();
+
+        private FailingEntityLog(int failures) {
+            super(AppBeans.get(Configuration.class));
+            this.failures = new AtomicInteger(failures);
+        }
+
+        private void enqueue(EntityLogItem... items) {
+            getAsyncQueue().addAll(Arrays.asList(items));
+        }
+
+        @Override
+        protected void writeItems(List<EntityLogItem> items) {
+            if (failures.getAndDecrement() > 0) {
+                throw new RuntimeException("Database is not available");
+            }
+            written.add(new ArrayList<>(items));
+        }
+    }
+}
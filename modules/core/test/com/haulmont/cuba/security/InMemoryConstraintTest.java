@@ -17,7 +17,9 @@
 package com.haulmont.cuba.security;
 
 import com.haulmont.cuba.core.EntityManager;
+import com.haulmont.cuba.core.PersistenceSecurity;
 import com.haulmont.cuba.core.Transaction;
+import com.haulmont.cuba.core.entity.Entity;
 import com.haulmont.cuba.core.global.*;
 import com.haulmont.cuba.security.app.LoginWorker;
 import com.haulmont.cuba.security.entity.*;
@@ -27,12 +29,11 @@ import com.haulmont.cuba.testsupport.TestContainer;
 import com.haulmont.cuba.testsupport.TestUserSessionSource;
 import org.junit.*;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Locale;
+import java.util.*;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 public class InMemoryConstraintTest {
 
@@ -353,7 +354,166 @@ public class InMemoryConstraintTest {
         }
     }
 
+    @Test
+    public void testKeysetPaginationWithConstraints() throws LoginException {
+        LoginWorker lw = AppBeans.get(LoginWorker.NAME);
+
+        UserSession userSession = lw.login("constraintUser3", passwordEncryption.getPlainHash(PASSWORD), Locale.getDefault());
+        assertNotNull(userSession);
+
+        UserSessionSource uss = AppBeans.get(UserSessionSource.class);
+        UserSession savedUserSession = uss.getUserSession();
+        ((TestUserSessionSource) uss).setUserSession(userSession);
+        try {
+            DataManager dataManager = AppBeans.get(DataManager.class);
+            dataManager = dataManager.secure();
+            String queryString = "select u from sec$User u where u.login like 'user%' or u.login like 'constraintUser%'";
+
+            LoadContext<User> loadContext = LoadContext.create(User.class).setView(View.LOCAL);
+            loadContext.setQueryString(queryString + " order by u.login");
+            List<String> expected = new ArrayList<>();
+            for (User user : dataManager.loadList(loadContext)) {
+                expected.add(user.getLogin());
+            }
+
+            List<String> logins = new ArrayList<>();
+            List<Integer> pageSizes = new ArrayList<>();
+            String lastValue = null;
+            while (true) {
+                loadContext = LoadContext.create(User.class).setView(View.LOCAL);
+                loadContext.setQueryString(queryString)
+                        .setKeysetProperty("login")
+                        .setKeysetLastValue(lastValue)
+                        .setMaxResults(10);
+
+                List<User> page = dataManager.loadList(loadContext);
+                if (page.isEmpty()) {
+                    break;
+                }
+                pageSizes.add(page.size());
+                for (User user : page) {
+                    logins.add(user.getLogin());
+                }
+                lastValue = page.get(page.size() - 1).getLogin();
+            }
+
+            assertEquals(expected, logins);
+            assertTrue(pageSizes.size() > 1);
+            for (int i = 0; i < pageSizes.size() - 1; i++) {
+                assertEquals(10, (int) pageSizes.get(i));
+            }
+        } finally {
+            ((TestUserSessionSource) uss).setUserSession(savedUserSession);
+        }
+    }
+
+    @Test
+    public void testCompiledConstraintsMatchEvaluatedScripts() throws LoginException {
+        LoginWorker lw = AppBeans.get(LoginWorker.NAME);
+
+        UserSession userSession = lw.login("constraintUser3", passwordEncryption.getPlainHash(PASSWORD), Locale.getDefault());
+        assertNotNull(userSession);
+
+        UserSessionSource uss = AppBeans.get(UserSessionSource.class);
+        UserSession savedUserSession = uss.getUserSession();
+        ((TestUserSessionSource) uss).setUserSession(userSession);
+        try {
+            PersistenceSecurity security = AppBeans.get(PersistenceSecurity.NAME);
+            List<Entity> entities = new ArrayList<>();
+            for (int i = 0; i < 10000; i++) {
+                User user = cont.metadata().create(User.class);
+                user.setLogin("user" + i);
+                entities.add(user);
+            }
+            List<Entity> filtered = new ArrayList<>(entities);
+            security.filterByConstraints(filtered);
+
+            String groovyScript = constraint3.getGroovyScript();
+            List<Entity> evaluated = new ArrayList<>();
+            for (Entity entity : entities) {
+                if (!Boolean.FALSE.equals(security.evaluateConstraintScript(entity, groovyScript))) {
+                    evaluated.add(entity);
+                }
+            }
+
+            assertEquals(evaluated, filtered);
+        } finally {
+            ((TestUserSessionSource) uss).setUserSession(savedUserSession);
+        }
+    }
+
+    @Test
+    @Ignore
+    public void testCompareCompiledAndEvaluatedConstraintsSpeed() {
+        String[] scripts = {
+                "{E}.login != null",
+                "{E}.login.startsWith('user')",
+                "{E}.active == null || {E}.active",
+                "!{E}.login.endsWith('-')",
+                "{E}.name == null || {E}.name != userSession.user.login"
+        };
+
+        User sessionUser = cont.metadata().create(User.class);
+        sessionUser.setLogin("speedUser");
+        UserSession userSession = new UserSession(UUID.randomUUID(), sessionUser, Collections.emptyList(),
+                Locale.getDefault(), false);
+        for (String script : scripts) {
+            Constraint constraint = cont.metadata().create(Constraint.class);
+            constraint.setEntityName("sec$User");
+            constraint.setCheckType(ConstraintCheckType.MEMORY);
+            constraint.setOperationType(ConstraintOperationType.READ);
+            constraint.setGroovyScript(script);
+            userSession.addConstraint(constraint);
+        }
+
+        List<Entity> entities = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            User user = cont.metadata().create(User.class);
+            user.setLogin("user" + i);
+            entities.add(user);
+        }
+
+        UserSessionSource uss = AppBeans.get(UserSessionSource.class);
+        UserSession savedUserSession = uss.getUserSession();
+        ((TestUserSessionSource) uss).setUserSession(userSession);
+        try {
+            PersistenceSecurity security = AppBeans.get(PersistenceSecurity.NAME);
+            security.filterByConstraints(new ArrayList<>(entities.subList(0, 100)));//warm up
+            for (String script : scripts) {
+                security.evaluateConstraintScript(entities.get(0), script);//warm up
+            }
 
+            List<Entity> filtered = new ArrayList<>(entities);
+            long start = System.currentTimeMillis();
+            security.filterByConstraints(filtered);
+            long compiledTime = System.currentTimeMillis() - start;
+            System.out.printf("Compiled:\t\tConstraints [%d]. Entities [%d]. Time [%d]\n",
+                    scripts.length, entities.size(), compiledTime);
+
+            List<Entity> evaluated = new ArrayList<>();
+            start = System.currentTimeMillis();
+            for (Entity entity : entities) {
+                boolean permitted = true;
+                for (String script : scripts) {
+                    if (Boolean.FALSE.equals(security.evaluateConstraintScript(entity, script))) {
+                        permitted = false;
+                        break;
+                    }
+                }
+                if (permitted) {
+                    evaluated.add(entity);
+                }
+            }
+            long evaluatedTime = System.currentTimeMillis() - start;
+            System.out.printf("Evaluated:\t\tConstraints [%d]. Entities [%d]. Time [%d]\n",
+                    scripts.length, entities.size(), evaluatedTime);
+
+            assertEquals(evaluated, filtered);
+            assertTrue(compiledTime < evaluatedTime);
+        } finally {
+            ((TestUserSessionSource) uss).setUserSession(savedUserSession);
+        }
+    }
 
     @After
     public void tearDown() throws Exception {
@@ -364,4 +524,36 @@ public class InMemoryConstraintTest {
         cont.deleteRecord("SEC_CONSTRAINT", constraint1.getId(), constraint2.getId(), constraint3.getId(), constraint4.getId());
         cont.deleteRecord("SEC_GROUP", parentGroup.getId(), constraintGroup1.getId(), constraintGroup2.getId(), constraintGroup3.getId(), constraintGroup4.getId());
     }
+
+    @Test
+    public void testCompiledConstraintUsesCurrentSession() {
+        User user1 = cont.metadata().create(User.class);
+        user1.setLogin("sessionUser1");
+        User user2 = cont.metadata().create(User.class);
+        user2.setLogin("sessionUser2");
+
+        UserSessionSource uss = AppBeans.get(UserSessionSource.class);
+        UserSession savedUserSession = uss.getUserSession();
+        try {
+            Security security = AppBeans.get(Security.NAME);
+            for (User user : new User[]{user1, user2}) {
+                // sessions have their own constraints with the same script
+                Constraint constraint = cont.metadata().create(Constraint.class);
+                constraint.setEntityName("sec$User");
+                constraint.setCheckType(ConstraintCheckType.MEMORY);
+                constraint.setOperationType(ConstraintOperationType.READ);
+                constraint.setGroovyScript("{E}.login == userSession.user.login");
+
+                UserSession userSession = new UserSession(UUID.randomUUID(), user, Collections.emptyList(),
+                        Locale.getDefault(), false);
+                userSession.addConstraint(constraint);
+                ((TestUserSessionSource) uss).setUserSession(userSession);
+
+                assertEquals(user == user1, security.isPermitted(user1, ConstraintOperationType.READ));
+                assertEquals(user == user2, security.isPermitted(user2, ConstraintOperationType.READ));
+            }
+        } finally {
+            ((TestUserSessionSource) uss).setUserSession(savedUserSession);
+        }
+    }
 }
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.haulmont.cuba.security;
+
+import com.haulmont.cuba.core.app.ClusterManagerAPI;
+import com.haulmont.cuba.core.app.ServerConfig;
+import com.haulmont.cuba.core.sys.serialization.SerializationSupport;
+import com.haulmont.cuba.security.app.UserSessions;
+import com.haulmont.cuba.security.entity.User;
+import com.haulmont.cuba.security.global.UserSession;
+import com.haulmont.cuba.testsupport.TestContainer;
+import mockit.Mock;
+import mockit.MockUp;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class UserSessionsReplicationTest {
+
+    @ClassRule
+    public static TestContainer cont = TestContainer.Common.INSTANCE;
+
+    @Test
+    public void testClusterState() {
+        TestUserSessions source = new TestUserSessions();
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            UserSession session = createSession("user-" + i);
+            source.put(session, 1000L + i);
+            ids.add(session.getId());
+        }
+
+        byte[] state = source.getState();
+
+        TestUserSessions target = new TestUserSessions();
+        target.setState(state);
+
+        assertEquals(1200, target.size());
+        for (int i = 0; i < ids.size(); i++) {
+            UserSessions.UserSessionInfo usi = target.getInfo(ids.get(i));
+            assertNotNull(usi);
+            assertEquals("user-" + i, usi.getSession().getUser().getLogin());
+            assertEquals(1000L + i, usi.getLastUsedTs());
+        }
+    }
+
+    @Test
+    public void testLastUsedTsMessage() {
+        UUID id1 = UUID.randomUUID();
+        UUID id2 = UUID.randomUUID();
+        Map<UUID, Long> map = new HashMap<>();
+        map.put(id1, 10L);
+        map.put(id2, 20L);
+
+        byte[] bytes = SerializationSupport.serialize(new UserSessions.LastUsedTsMessage(map));
+        UserSessions.LastUsedTsMessage message = (UserSessions.LastUsedTsMessage) SerializationSupport.deserialize(bytes);
+
+        assertEquals(map, message.getLastUsedTs());
+    }
+
+    @Test
+    public void testSendLastUsedTs() {
+        List<Serializable> sent = new ArrayList<>();
+        TestUserSessions sessions = createUserSessions(sent, true);
+
+        UserSession session = createSession("user");
+        sessions.put(session, 1000L);
+        sessions.touch(session.getId());
+        sessions.touch(UUID.randomUUID());
+
+        sessions.sendLastUsedTs();
+
+        assertEquals(1, sent.size());
+        UserSessions.LastUsedTsMessage message = (UserSessions.LastUsedTsMessage) sent.get(0);
+        assertEquals(Collections.singletonMap(session.getId(), 1000L), message.getLastUsedTs());
+
+        sent.clear();
+        sessions.sendLastUsedTs();
+
+        assertTrue(sent.isEmpty());
+    }
+
+    @Test
+    public void testSendFullSessionsOnTouch() {
+        List<Serializable> sent = new ArrayList<>();
+        TestUserSessions sessions = createUserSessions(sent, false);
+
+        UserSession session = createSession("user");
+        sessions.put(session, 1000L);
+        sessions.touch(session.getId());
+
+        sessions.sendLastUsedTs();
+
+        assertEquals(1, sent.size());
+        UserSessions.UserSessionInfo usi = (UserSessions.UserSessionInfo) sent.get(0);
+        assertSame(session, usi.getSession());
+        assertEquals(1000L, usi.getLastUsedTs());
+    }
+
+    protected TestUserSessions createUserSessions(List<Serializable> sent, boolean compact) {
+        ClusterManagerAPI clusterManager = new MockUp<ClusterManagerAPI>() {
+            @Mock
+            public void send(Serializable message) {
+                sent.add(message);
+            }
+        }.getMockInstance();
+
+        ServerConfig serverConfig = new MockUp<ServerConfig>() {
+            @Mock
+            public boolean getCompactUserSessionTouchReplication() {
+                return compact;
+            }
+        }.getMockInstance();
+
+        TestUserSessions sessions = new TestUserSessions();
+        sessions.setClusterManager(clusterManager);
+        sessions.setServerConfig(serverConfig);
+        return sessions;
+    }
+
+    protected UserSession createSession(String login) {
+        User user = new User();
+        user.setLogin(login);
+        return new UserSession(UUID.randomUUID(), user, Collections.emptyList(), Locale.ENGLISH, false);
+    }
+
+    protected static class TestUserSessions extends UserSessions {
+
+        public void put(UserSession session, long lastUsedTs) {
+            UserSessionInfo usi = new UserSessionInfo(session, lastUsedTs);
+            putSessionInfo(session.getId(), usi);
+        }
+
+        public void touch(UUID id) {
+            touchedSessions.add(id);
+        }
+
+        public void setServerConfig(ServerConfig serverConfig) {
+            this.serverConfig = serverConfig;
+        }
+
+        public UserSessionInfo getInfo(UUID id) {
+            return getSessionInfo(id);
+        }
+
+        public int size() {
+            return cache.size();
+        }
+
+        public byte[] getState() {
+            return sendClusterState();
+        }
+
+        public void setState(byte[] state) {
+            receiveClusterState(state);
+        }
+    }
+}
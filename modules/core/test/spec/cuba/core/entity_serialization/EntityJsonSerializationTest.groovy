@@ -6,6 +6,7 @@
 package spec.cuba.core.entity_serialization
 
 import com.haulmont.cuba.core.app.serialization.EntitySerializationAPI
+import com.haulmont.cuba.core.app.serialization.EntitySerializationOption
 import com.haulmont.cuba.core.global.AppBeans
 import com.haulmont.cuba.testmodel.entity_serialization.Serialization_Order
 import com.haulmont.cuba.testmodel.entity_serialization.Serialization_OrderItem
@@ -59,4 +60,29 @@ class EntityJsonSerializationTest extends Specification {
         item2.relatedItem.order.id == parsedObject.id
         item2.relatedItem.order.name == null //order name should NOT exist, it is a cyclic reference
     }
+
+    def "entities written to a writer are the same as the result string"() {
+        def order1 = cont.metadata().create(Serialization_Order.class)
+        order1.setNumber('order-1')
+        def order2 = cont.metadata().create(Serialization_Order.class)
+        order2.setNumber('order-2')
+
+        def orderItem = cont.metadata().create(Serialization_OrderItem.class)
+        orderItem.name = 'item-1'
+        orderItem.order = order1
+        order1.items = [orderItem]
+
+        when:
+
+        def singleWriter = new StringWriter()
+        entitySerializationAPI.toJson(order1, null, singleWriter, EntitySerializationOption.SERIALIZE_INSTANCE_NAME)
+
+        def listWriter = new StringWriter()
+        entitySerializationAPI.toJson([order1, order2], null, listWriter, EntitySerializationOption.SERIALIZE_NULLS)
+
+        then:
+
+        singleWriter.toString() == entitySerializationAPI.toJson(order1, null, EntitySerializationOption.SERIALIZE_INSTANCE_NAME)
+        listWriter.toString() == entitySerializationAPI.toJson([order1, order2], null, EntitySerializationOption.SERIALIZE_NULLS)
+    }
 }
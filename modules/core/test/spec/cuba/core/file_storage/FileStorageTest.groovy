@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package spec.cuba.core.file_storage
+
+import com.haulmont.cuba.core.app.DataService
+import com.haulmont.cuba.core.app.filestorage.FileStorage
+import com.haulmont.cuba.core.controllers.FileDownloadController
+import com.haulmont.cuba.core.entity.FileDescriptor
+import com.haulmont.cuba.core.global.AppBeans
+import com.haulmont.cuba.core.global.Configuration
+import com.haulmont.cuba.core.global.TimeSource
+import com.haulmont.cuba.core.global.UserSessionSource
+import com.haulmont.cuba.core.sys.AppContext
+import com.haulmont.cuba.core.sys.SecurityContext
+import com.haulmont.cuba.security.app.UserSessionsAPI
+import com.haulmont.cuba.testsupport.TestContainer
+import org.apache.commons.io.FileUtils
+import org.junit.ClassRule
+import spock.lang.Shared
+import spock.lang.Specification
+
+import javax.servlet.ServletOutputStream
+import javax.servlet.WriteListener
+import javax.servlet.http.HttpServletRequest
+import javax.servlet.http.HttpServletResponse
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+
+class FileStorageTest extends Specification {
+
+    @Shared @ClassRule
+    public TestContainer cont = TestContainer.Common.INSTANCE
+
+    private File root
+    private FileStorage storage
+    private SecurityContext securityContext
+
+    void setup() {
+        securityContext = AppContext.getSecurityContext()
+
+        root = Files.createTempDirectory('filestorage').toFile()
+
+        storage = new FileStorage()
+        storage.userSessionSource = AppBeans.get(UserSessionSource)
+        storage.timeSource = AppBeans.get(TimeSource)
+        storage.configuration = AppBeans.get(Configuration)
+        storage.init()
+        storage.storageRoots = [root] as File[]
+        storage.deduplication = true
+    }
+
+    void cleanup() {
+        storage.stopWriteExecutor()
+        FileUtils.deleteQuietly(root)
+        AppContext.setSecurityContext(securityContext)
+    }
+
+    def "files with the same content are stored as hard links"() {
+
+        def fd1 = createFileDescriptor()
+        def fd2 = createFileDescriptor()
+        def fd3 = createFileDescriptor()
+
+        when:
+
+        storage.saveFile(fd1, bytes('same content'))
+        storage.saveFile(fd2, bytes('same content'))
+        storage.saveFile(fd3, bytes('other content'))
+
+        then:
+
+        Files.isSameFile(storage.findFile(fd1).toPath(), storage.findFile(fd2).toPath())
+        !Files.isSameFile(storage.findFile(fd1).toPath(), storage.findFile(fd3).toPath())
+
+        new String(storage.loadFile(fd1), StandardCharsets.UTF_8) == 'same content'
+        new String(storage.loadFile(fd2), StandardCharsets.UTF_8) == 'same content'
+        new String(storage.loadFile(fd3), StandardCharsets.UTF_8) == 'other content'
+
+        contentFiles().size() == 2
+        !temporaryFiles()
+    }
+
+    def "file is stored as is if its content has been removed from the index"() {
+
+        def fd1 = createFileDescriptor()
+        def fd2 = createFileDescriptor()
+
+        storage.saveFile(fd1, bytes('same content'))
+        contentFiles().each { it.delete() }
+
+        when:
+
+        storage.saveFile(fd2, bytes('same content'))
+
+        then:
+
+        !Files.isSameFile(storage.findFile(fd1).toPath(), storage.findFile(fd2).toPath())
+        new String(storage.loadFile(fd2), StandardCharsets.UTF_8) == 'same content'
+
+        contentFiles().size() == 1
+        Files.isSameFile(contentFiles()[0].toPath(), storage.findFile(fd2).toPath())
+        !temporaryFiles()
+    }
+
+    def "unused content is removed"() {
+
+        def fd1 = createFileDescriptor()
+        def fd2 = createFileDescriptor()
+
+        storage.saveFile(fd1, bytes('same content'))
+        storage.saveFile(fd2, bytes('same content'))
+
+        when:
+
+        storage.removeFile(fd1)
+
+        then:
+
+        storage.removeUnusedContent() == 0
+        contentFiles().size() == 1
+
+        when:
+
+        storage.removeFile(fd2)
+
+        then:
+
+        storage.removeUnusedContent() == 1
+        contentFiles().isEmpty()
+    }
+
+    def "log file is reopened if it has been removed"() {
+
+        def fd1 = createFileDescriptor()
+        def fd2 = createFileDescriptor()
+
+        storage.saveFile(fd1, bytes('content 1'))
+
+        def logFile = new File(root, 'storage.log')
+        assert logFile.text.contains(FileStorage.getFileName(fd1))
+
+        when:
+
+        logFile.delete()
+        storage.saveFile(fd2, bytes('content 2'))
+
+        then:
+
+        logFile.exists()
+        !logFile.text.contains(FileStorage.getFileName(fd1))
+        logFile.text.contains(FileStorage.getFileName(fd2))
+    }
+
+    def "file is downloaded by the controller"() {
+
+        def fd = createFileDescriptor()
+        storage.saveFile(fd, bytes('downloaded content'))
+
+        def controller = createController(fd)
+        def output = new ByteArrayOutputStream()
+
+        def request = Mock(HttpServletRequest) {
+            getParameter('s') >> UUID.randomUUID().toString()
+            getParameter('f') >> fd.id.toString()
+        }
+        def response = Mock(HttpServletResponse) {
+            getOutputStream() >> createServletOutputStream(output)
+        }
+
+        when:
+
+        controller.download(request, response)
+
+        then:
+
+        new String(output.toByteArray(), StandardCharsets.UTF_8) == 'downloaded content'
+        1 * response.setContentLengthLong('downloaded content'.length())
+        0 * response.sendError(_)
+    }
+
+    def "local file is sent by the servlet container if sendfile is supported"() {
+
+        def fd = createFileDescriptor()
+        storage.saveFile(fd, bytes('downloaded content'))
+
+        def controller = createController(fd)
+
+        def request = Mock(HttpServletRequest) {
+            getParameter('s') >> UUID.randomUUID().toString()
+            getParameter('f') >> fd.id.toString()
+            getAttribute('org.apache.tomcat.sendfile.support') >> true
+        }
+        def response = Mock(HttpServletResponse)
+
+        when:
+
+        controller.download(request, response)
+
+        then:
+
+        1 * request.setAttribute('org.apache.tomcat.sendfile.filename', storage.findFile(fd).absolutePath)
+        1 * request.setAttribute('org.apache.tomcat.sendfile.end', 'downloaded content'.length())
+        0 * response.getOutputStream()
+        0 * response.sendError(_)
+    }
+
+    private FileDescriptor createFileDescriptor() {
+        def fd = cont.metadata().create(FileDescriptor)
+        fd.name = 'test.txt'
+        fd.extension = 'txt'
+        fd.createDate = new Date()
+        return fd
+    }
+
+    private FileDownloadController createController(FileDescriptor fd) {
+        def controller = new FileDownloadController()
+        controller.userSessions = Mock(UserSessionsAPI) {
+            getAndRefresh(_) >> AppBeans.get(UserSessionSource).getUserSession()
+        }
+        controller.dataService = Mock(DataService) {
+            load(_) >> fd
+        }
+        controller.fileStorage = storage
+        return controller
+    }
+
+    private static ServletOutputStream createServletOutputStream(OutputStream output) {
+        return new ServletOutputStream() {
+            @Override
+            boolean isReady() {
+                return true
+            }
+
+            @Override
+            void setWriteListener(WriteListener writeListener) {
+            }
+
+            @Override
+            void write(int b) throws IOException {
+                output.write(b)
+            }
+        }
+    }
+
+    private List<File> contentFiles() {
+        def contentDir = new File(root, FileStorage.CONTENT_DIR)
+        return contentDir.exists() ? new ArrayList<>(FileUtils.listFiles(contentDir, null, true)) : []
+    }
+
+    private List<File> temporaryFiles() {
+        return FileUtils.listFiles(root, ['tmp'] as String[], true).toList()
+    }
+
+    private static byte[] bytes(String str) {
+        return str.getBytes(StandardCharsets.UTF_8)
+    }
+}
@@ -22,6 +22,7 @@ import com.haulmont.cuba.core.app.NumberIdWorker
 import com.haulmont.cuba.core.global.AppBeans
 import com.haulmont.cuba.core.global.DataManager
 import com.haulmont.cuba.core.global.Metadata
+import com.haulmont.cuba.core.global.NumberIdSource
 import com.haulmont.cuba.core.sys.AppContext
 import com.haulmont.cuba.core.sys.NumberIdCache
 import com.haulmont.cuba.core.sys.SecurityContextAwareRunnable
@@ -106,6 +107,38 @@ class NumberIdConcurrencyTest extends Specification {
         AppContext.setProperty('cuba.numberIdCacheSize', null)
     }
 
+    def "generating ids with prefetching"() {
+
+        AppContext.setProperty('cuba.numberIdCacheSize', '20')
+        AppContext.setProperty('cuba.numberIdCachePrefetchThreshold', '50')
+
+        when:
+
+        Set<Long> ids = Collections.synchronizedSet(new HashSet<Long>())
+        NumberIdSource numberIdSource = AppBeans.get(NumberIdSource)
+        ExecutorService executorService = Executors.newFixedThreadPool(10)
+        for (i in 1..1000) {
+            executorService.submit(new SecurityContextAwareRunnable({
+                ids.add(numberIdSource.createLongId('test$NumberIdSingleTableRoot'))
+            }))
+        }
+        executorService.shutdown()
+        executorService.awaitTermination(10, TimeUnit.SECONDS)
+
+        def statistics = AppBeans.get(NumberIdCache).getStatistics().get('test$NumberIdSingleTableRoot')
+
+        then:
+
+        ids.size() == 1000
+        statistics.allocatedCount == 1000
+        statistics.fetchedBlocksCount >= 50
+
+        cleanup:
+
+        AppContext.setProperty('cuba.numberIdCacheSize', null)
+        AppContext.setProperty('cuba.numberIdCachePrefetchThreshold', null)
+    }
+
     def "generate with zero size cache"() {
         AppContext.setProperty('cuba.numberIdCacheSize', '0')
 
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package spec.cuba.core.remoting
+
+import com.haulmont.cuba.core.sys.AppContext
+import com.haulmont.cuba.core.sys.SecurityContext
+import com.haulmont.cuba.core.sys.remoting.BatchedRemoteInvocations
+import com.haulmont.cuba.core.sys.remoting.HttpServiceBatchExporter
+import com.haulmont.cuba.core.sys.remoting.HttpServiceProxy
+import com.haulmont.cuba.core.sys.remoting.RemoteInvocationBatch
+import com.haulmont.cuba.core.sys.remoting.discovery.StaticServerSelector
+import com.haulmont.cuba.security.entity.User
+import com.haulmont.cuba.security.global.UserSession
+import com.haulmont.cuba.testsupport.TestContainer
+import org.junit.ClassRule
+import org.springframework.context.support.StaticApplicationContext
+import org.springframework.remoting.RemoteConnectFailureException
+import spock.lang.Shared
+import spock.lang.Specification
+
+import java.util.concurrent.CancellationException
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+
+class BatchedRemoteInvocationsTest extends Specification {
+
+    @Shared @ClassRule
+    public TestContainer cont = TestContainer.Common.INSTANCE
+
+    private TestRemotingServer server
+
+    void setup() {
+        def serviceExporter = TestRemotingServer.createExporter(TestAsyncService, new TestAsyncServiceBean())
+
+        def applicationContext = new StaticApplicationContext()
+        applicationContext.beanFactory.registerSingleton('/' + TestAsyncService.NAME, serviceExporter)
+        applicationContext.refresh()
+
+        def batchExporter = new HttpServiceBatchExporter()
+        batchExporter.applicationContext = applicationContext
+
+        server = new TestRemotingServer()
+        server.export(TestAsyncService.NAME, serviceExporter)
+        server.export(RemoteInvocationBatch.SERVICE_NAME, batchExporter)
+
+        def userSession = new UserSession(UUID.randomUUID(), new User(login: 'test'), [], Locale.ENGLISH, false)
+        AppContext.setSecurityContext(new SecurityContext(userSession))
+    }
+
+    void cleanup() {
+        AppContext.setSecurityContext(null)
+        server.stop()
+    }
+
+    def "invocations are sent in a single request and their futures are completed at the end of the batch"() {
+
+        def service = createProxy(server.baseUrl)
+
+        when:
+
+        BatchedRemoteInvocations.begin()
+        def first = service.getValue('first')
+        def second = service.getValue('second')
+
+        then:
+
+        !first.done
+        !second.done
+        server.requests.isEmpty()
+
+        when:
+
+        BatchedRemoteInvocations.end()
+
+        then:
+
+        !BatchedRemoteInvocations.active
+        server.requests == [RemoteInvocationBatch.SERVICE_NAME]
+        first.get(0, TimeUnit.SECONDS) == 'first'
+        second.get(0, TimeUnit.SECONDS) == 'second'
+    }
+
+    def "exception of one invocation completes only its future exceptionally"() {
+
+        def service = createProxy(server.baseUrl)
+
+        when:
+
+        BatchedRemoteInvocations.begin()
+        def failed = service.fail('test error')
+        def succeeded = service.getValue('value')
+        BatchedRemoteInvocations.end()
+
+        then:
+
+        succeeded.get(0, TimeUnit.SECONDS) == 'value'
+
+        when:
+
+        failed.get(0, TimeUnit.SECONDS)
+
+        then:
+
+        def e = thrown(ExecutionException)
+        e.cause instanceof IllegalStateException
+        e.cause.message == 'test error'
+    }
+
+    def "synchronous method is invoked immediately and nested batch joins the outer one"() {
+
+        def service = createProxy(server.baseUrl)
+
+        when:
+
+        BatchedRemoteInvocations.begin()
+        def outer = service.getValue('outer')
+        def syncValue = service.getValueSync('sync')
+
+        BatchedRemoteInvocations.begin()
+        def inner = service.getValue('inner')
+        BatchedRemoteInvocations.end()
+
+        then:
+
+        syncValue == 'sync'
+        server.requests == [TestAsyncService.NAME]
+        !inner.done
+
+        when:
+
+        BatchedRemoteInvocations.end()
+
+        then:
+
+        server.requests == [TestAsyncService.NAME, RemoteInvocationBatch.SERVICE_NAME]
+        outer.get(0, TimeUnit.SECONDS) == 'outer'
+        inner.get(0, TimeUnit.SECONDS) == 'inner'
+    }
+
+    def "connection failure of the batch is converted to RemoteAccessException"() {
+
+        def service = createProxy(TestRemotingServer.unavailableUrl)
+
+        when:
+
+        BatchedRemoteInvocations.begin()
+        def future = service.getValue('value')
+        BatchedRemoteInvocations.end()
+
+        future.get(0, TimeUnit.SECONDS)
+
+        then:
+
+        def e = thrown(ExecutionException)
+        e.cause instanceof RemoteConnectFailureException
+    }
+
+    def "aborted batch is not sent and its futures are cancelled"() {
+
+        def service = createProxy(server.baseUrl)
+
+        when:
+
+        BatchedRemoteInvocations.begin()
+        def outer = service.getValue('outer')
+
+        BatchedRemoteInvocations.begin()
+        def inner = service.getValue('inner')
+        BatchedRemoteInvocations.abort()
+
+        BatchedRemoteInvocations.end()
+
+        then:
+
+        !BatchedRemoteInvocations.active
+        server.requests.isEmpty()
+        outer.cancelled
+        inner.cancelled
+
+        when:
+
+        outer.get(0, TimeUnit.SECONDS)
+
+        then:
+
+        thrown(CancellationException)
+    }
+
+    private static TestAsyncService createProxy(String baseUrl) {
+        def selector = new StaticServerSelector()
+        selector.baseUrl = baseUrl
+        selector.init()
+
+        def proxy = new HttpServiceProxy(selector)
+        proxy.serviceUrl = TestAsyncService.NAME
+        proxy.serviceInterface = TestAsyncService
+        proxy.afterPropertiesSet()
+        return (TestAsyncService) proxy.object
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package spec.cuba.core.remoting
+
+import com.haulmont.cuba.core.sys.AppContext
+import com.haulmont.cuba.core.sys.SecurityContext
+import com.haulmont.cuba.core.sys.remoting.HttpServiceProxy
+import com.haulmont.cuba.core.sys.remoting.discovery.StaticServerSelector
+import com.haulmont.cuba.core.sys.remoting.discovery.UserSessionUrlsHolder
+import com.haulmont.cuba.security.entity.User
+import com.haulmont.cuba.security.global.UserSession
+import com.haulmont.cuba.testsupport.TestContainer
+import org.junit.ClassRule
+import org.springframework.remoting.RemoteConnectFailureException
+import spock.lang.Shared
+import spock.lang.Specification
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+
+class HttpServiceProxyTest extends Specification {
+
+    @Shared @ClassRule
+    public TestContainer cont = TestContainer.Common.INSTANCE
+
+    private TestRemotingServer server
+    private UserSession userSession
+
+    void setup() {
+        server = new TestRemotingServer()
+        server.export(TestAsyncService.NAME, TestRemotingServer.createExporter(TestAsyncService, new TestAsyncServiceBean()))
+
+        userSession = new UserSession(UUID.randomUUID(), new User(login: 'test'), [], Locale.ENGLISH, false)
+
+        // AppContext is not started in tests and returns the same security context in all threads
+        setAppContextStarted(true)
+        AppContext.setSecurityContext(new SecurityContext(userSession))
+    }
+
+    void cleanup() {
+        AppContext.setSecurityContext(null)
+        setAppContextStarted(false)
+        server.stop()
+    }
+
+    def "method returning a future is invoked in the thread pool with the security context of the caller"() {
+
+        def selector = createSelector(server.baseUrl)
+        def service = createProxy(selector)
+
+        when:
+
+        def sessionId = service.getSessionId().get(10, TimeUnit.SECONDS)
+
+        then:
+
+        sessionId == userSession.id
+
+        selector.threads.size() == 1
+        selector.threads[0] != Thread.currentThread()
+        selector.threads[0].name.startsWith('AsyncRemoteInvocation-')
+        selector.securityContexts[0].session.is(userSession)
+    }
+
+    def "synchronous method is invoked in the calling thread"() {
+
+        def selector = createSelector(server.baseUrl)
+        def service = createProxy(selector)
+
+        expect:
+
+        service.getValueSync('value') == 'value'
+        selector.threads == [Thread.currentThread()]
+    }
+
+    def "exception of the service completes the future exceptionally"() {
+
+        def service = createProxy(createSelector(server.baseUrl))
+
+        when:
+
+        service.fail('test error').get(10, TimeUnit.SECONDS)
+
+        then:
+
+        def e = thrown(ExecutionException)
+        e.cause instanceof IllegalStateException
+        e.cause.message == 'test error'
+    }
+
+    def "asynchronous invocation fails over to the next server"() {
+
+        def unavailableUrl = TestRemotingServer.unavailableUrl
+        def selector = createSelector(unavailableUrl + ',' + server.baseUrl)
+        def service = createProxy(selector)
+
+        when:
+
+        def value = service.getValue('value').get(10, TimeUnit.SECONDS)
+
+        then:
+
+        value == 'value'
+        server.requests == [TestAsyncService.NAME]
+        selector.failedUrls == [unavailableUrl + '/remoting'] as Set
+
+        // the server is remembered for the session of the caller
+        new UserSessionUrlsHolder(userSession).getUrls(selector.id) != null
+    }
+
+    def "connection failure of an asynchronous invocation is converted to RemoteAccessException"() {
+
+        def service = createProxy(createSelector(TestRemotingServer.unavailableUrl))
+
+        when:
+
+        service.getValue('value').get(10, TimeUnit.SECONDS)
+
+        then:
+
+        def e = thrown(ExecutionException)
+        e.cause instanceof RemoteConnectFailureException
+    }
+
+    private static RecordingServerSelector createSelector(String baseUrl) {
+        def selector = new RecordingServerSelector()
+        selector.baseUrl = baseUrl
+        selector.init()
+        return selector
+    }
+
+    private static TestAsyncService createProxy(StaticServerSelector selector) {
+        def proxy = new HttpServiceProxy(selector)
+        proxy.serviceUrl = TestAsyncService.NAME
+        proxy.serviceInterface = TestAsyncService
+        proxy.afterPropertiesSet()
+        return (TestAsyncService) proxy.object
+    }
+
+    private static void setAppContextStarted(boolean started) {
+        def field = AppContext.getDeclaredField('started')
+        field.accessible = true
+        field.set(null, started)
+    }
+
+    static class RecordingServerSelector extends StaticServerSelector {
+
+        List<Thread> threads = new CopyOnWriteArrayList<>()
+        List<SecurityContext> securityContexts = new CopyOnWriteArrayList<>()
+
+        @Override
+        Object initContext() {
+            threads.add(Thread.currentThread())
+            securityContexts.add(AppContext.getSecurityContext())
+            return super.initContext()
+        }
+    }
+}
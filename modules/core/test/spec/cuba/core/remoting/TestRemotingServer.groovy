@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package spec.cuba.core.remoting
+
+import com.haulmont.cuba.core.sys.remoting.HttpServiceExporter
+import com.sun.net.httpserver.HttpExchange
+import com.sun.net.httpserver.HttpHandler
+import com.sun.net.httpserver.HttpServer
+
+import javax.servlet.ReadListener
+import javax.servlet.ServletInputStream
+import javax.servlet.ServletOutputStream
+import javax.servlet.WriteListener
+import javax.servlet.http.HttpServletRequest
+import javax.servlet.http.HttpServletResponse
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+
+/**
+ * Embedded HTTP server passing remoting requests to service exporters, as the remoting servlet of the middleware does.
+ */
+class TestRemotingServer {
+
+    static final String CONTEXT = '/app-core/remoting/'
+
+    private HttpServer server
+
+    private Map<String, HttpServiceExporter> exporters = new ConcurrentHashMap<>()
+
+    /**
+     * Names of the requested services in the order of requests.
+     */
+    final List<String> requests = new CopyOnWriteArrayList<>()
+
+    TestRemotingServer() {
+        server = HttpServer.create(new InetSocketAddress('localhost', 0), 0)
+        server.createContext(CONTEXT, { HttpExchange exchange -> handle(exchange) } as HttpHandler)
+        server.start()
+    }
+
+    /**
+     * @return base URL of the server to be passed to a server selector
+     */
+    String getBaseUrl() {
+        return "http://localhost:${server.address.port}/app-core"
+    }
+
+    /**
+     * @return base URL of a port nobody listens to
+     */
+    static String getUnavailableUrl() {
+        ServerSocket socket = new ServerSocket(0)
+        int port = socket.localPort
+        socket.close()
+        return "http://localhost:$port/app-core"
+    }
+
+    static HttpServiceExporter createExporter(Class serviceInterface, Object service) {
+        HttpServiceExporter exporter = new HttpServiceExporter()
+        exporter.service = service
+        exporter.serviceInterface = serviceInterface
+        exporter.afterPropertiesSet()
+        return exporter
+    }
+
+    void export(String name, HttpServiceExporter exporter) {
+        exporters.put(name, exporter)
+    }
+
+    void stop() {
+        server.stop(0)
+    }
+
+    protected void handle(HttpExchange exchange) {
+        try {
+            String name = exchange.requestURI.path.substring(CONTEXT.length())
+            requests.add(name)
+
+            HttpServiceExporter exporter = exporters.get(name)
+            if (exporter == null) {
+                exchange.sendResponseHeaders(HttpURLConnection.HTTP_NOT_FOUND, -1)
+                return
+            }
+
+            ByteArrayOutputStream body = new ByteArrayOutputStream()
+            exporter.handleRequest(createRequest(exchange), createResponse(exchange, body))
+
+            exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, body.size())
+            exchange.responseBody.write(body.toByteArray())
+        } finally {
+            exchange.close()
+        }
+    }
+
+    protected HttpServletRequest createRequest(HttpExchange exchange) {
+        InputStream inputStream = exchange.requestBody
+        ServletInputStream servletInputStream = new ServletInputStream() {
+            @Override
+            boolean isFinished() {
+                return inputStream.available() == 0
+            }
+
+            @Override
+            boolean isReady() {
+                return true
+            }
+
+            @Override
+            void setReadListener(ReadListener readListener) {
+            }
+
+            @Override
+            int read() throws IOException {
+                return inputStream.read()
+            }
+
+            @Override
+            int read(byte[] b, int off, int len) throws IOException {
+                return inputStream.read(b, off, len)
+            }
+        }
+        return [
+                getInputStream: { servletInputStream },
+                getHeader     : { String name -> exchange.requestHeaders.getFirst(name) },
+                getRequestURI : { exchange.requestURI.path }
+        ] as HttpServletRequest
+    }
+
+    protected HttpServletResponse createResponse(HttpExchange exchange, OutputStream body) {
+        ServletOutputStream servletOutputStream = new ServletOutputStream() {
+            @Override
+            boolean isReady() {
+                return true
+            }
+
+            @Override
+            void setWriteListener(WriteListener writeListener) {
+            }
+
+            @Override
+            void write(int b) throws IOException {
+                body.write(b)
+            }
+
+            @Override
+            void write(byte[] b, int off, int len) throws IOException {
+                body.write(b, off, len)
+            }
+        }
+        return [
+                getOutputStream: { servletOutputStream },
+                setContentType : { String type -> exchange.responseHeaders.set('Content-Type', type) },
+                setHeader      : { String name, String value -> exchange.responseHeaders.set(name, value) }
+        ] as HttpServletResponse
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.chile.core.model.utils;
+
+import com.haulmont.chile.core.model.MetaProperty;
+
+import javax.annotation.Nullable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads and writes an instance field directly, bypassing getters and setters, through {@link MethodHandle}s
+ * created once for each field.
+ * <p>Accessors are cached in a {@link ClassValue} of the declaring class, so the cache doesn't prevent unloading
+ * of the class and its class loader.</p>
+ */
+public final class FieldAccessor {
+
+    private static final ClassValue<Map<Field, FieldAccessor>> accessors = new ClassValue<Map<Field, FieldAccessor>>() {
+        @Override
+        protected Map<Field, FieldAccessor> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final Field field;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+
+    private FieldAccessor(Field field) {
+        this.field = field;
+        field.setAccessible(true);
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            getter = lookup.unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class));
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Unable to create accessor for " + field, e);
+        }
+        MethodHandle fieldSetter;
+        try {
+            fieldSetter = lookup.unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, Object.class));
+        } catch (IllegalAccessException e) {
+            // final field, set by reflection
+            fieldSetter = null;
+        }
+        setter = fieldSetter;
+    }
+
+    /**
+     * @return accessor of the given field
+     */
+    public static FieldAccessor of(Field field) {
+        return accessors.get(field.getDeclaringClass()).computeIfAbsent(field, FieldAccessor::new);
+    }
+
+    /**
+     * @return accessor of the field corresponding to the given property or null if the property is not
+     * based on a field
+     */
+    @Nullable
+    public static FieldAccessor of(MetaProperty property) {
+        AnnotatedElement annotatedElement = property.getAnnotatedElement();
+        return annotatedElement instanceof Field ? of((Field) annotatedElement) : null;
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    public Object get(Object object) {
+        try {
+            return getter.invokeExact(object);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException("Error reading " + field, e);
+        }
+    }
+
+    public void set(Object object, Object value) {
+        try {
+            if (setter != null) {
+                setter.invokeExact(object, value);
+            } else {
+                field.set(object, value);
+            }
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException("Error writing " + field, e);
+        }
+    }
+}
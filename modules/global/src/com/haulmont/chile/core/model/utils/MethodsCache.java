@@ -16,18 +16,35 @@
  */
 package com.haulmont.chile.core.model.utils;
 
+import org.apache.commons.lang3.ClassUtils;
 import org.apache.commons.lang3.StringUtils;
 
-import java.lang.reflect.Method;
+import javax.annotation.Nullable;
+import java.lang.invoke.*;
 import java.lang.reflect.InvocationTargetException;
-import java.util.Map;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
+/**
+ * Getters and setters of a class, invoked through accessors generated on first use.
+ * <p>If the class and the types of its properties are visible from the platform class loader, accessors are
+ * generated by {@link LambdaMetafactory}, otherwise they are based on {@link MethodHandle}s.</p>
+ */
 public class MethodsCache {
 
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
     private final transient Map<String, Method> getters = new HashMap<>();
     private final transient Map<String, Method> setters = new HashMap<>();
 
+    private final transient Map<String, Function<Object, Object>> getterAccessors = new ConcurrentHashMap<>();
+    private final transient Map<String, BiConsumer<Object, Object>> setterAccessors = new ConcurrentHashMap<>();
+
     public MethodsCache(Class clazz) {
         final Method[] methods = clazz.getMethods();
         for (Method method : methods) {
@@ -49,28 +66,146 @@ public class MethodsCache {
     }
 
     public void invokeSetter(Object object, String property, Object value) {
-        final Method method = setters.get(property);
-        if (method == null) {
+        BiConsumer<Object, Object> setter = getSetter(property);
+        if (setter == null) {
             throw new IllegalArgumentException(
                     String.format("Can't find setter for property '%s' at %s", property, object.getClass()));
         }
         try {
-            method.invoke(object, value);
-        } catch (IllegalAccessException | InvocationTargetException e) {
-            throw new RuntimeException(e);
+            setter.accept(object, value);
+        } catch (RuntimeException | Error e) {
+            // the same exception as thrown by the reflective invocation
+            throw new RuntimeException(new InvocationTargetException(e));
         }
     }
 
     public Object invokeGetter(Object object, String property) {
-        final Method method = getters.get(property);
-        if (method == null) {
+        Function<Object, Object> getter = getGetter(property);
+        if (getter == null) {
             throw new IllegalArgumentException(
                     String.format("Can't find getter for property '%s' at %s", property, object.getClass()));
         }
         try {
-            return method.invoke(object);
-        } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-            throw new RuntimeException(e);
+            return getter.apply(object);
+        } catch (RuntimeException | Error e) {
+            throw new RuntimeException(new InvocationTargetException(e));
+        }
+    }
+
+    /**
+     * @return accessor invoking the getter of the property or null if there is no such getter
+     */
+    @Nullable
+    public Function<Object, Object> getGetter(String property) {
+        Function<Object, Object> getter = getterAccessors.get(property);
+        if (getter == null) {
+            Method method = getters.get(property);
+            if (method == null) {
+                return null;
+            }
+            getter = createGetter(method);
+            getterAccessors.put(property, getter);
+        }
+        return getter;
+    }
+
+    /**
+     * @return accessor invoking the setter of the property or null if there is no such setter
+     */
+    @Nullable
+    public BiConsumer<Object, Object> getSetter(String property) {
+        BiConsumer<Object, Object> setter = setterAccessors.get(property);
+        if (setter == null) {
+            Method method = setters.get(property);
+            if (method == null) {
+                return null;
+            }
+            setter = createSetter(method);
+            setterAccessors.put(property, setter);
+        }
+        return setter;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected Function<Object, Object> createGetter(Method method) {
+        MethodHandle handle;
+        try {
+            handle = LOOKUP.unreflect(method);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Unable to create getter accessor for " + method, e);
+        }
+        Class<?> returnType = method.getReturnType();
+        if (isVisible(method.getDeclaringClass())) {
+            try {
+                CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "apply",
+                        MethodType.methodType(Function.class),
+                        MethodType.methodType(Object.class, Object.class),
+                        handle,
+                        MethodType.methodType(returnType.isPrimitive() ? ClassUtils.primitiveToWrapper(returnType) : Object.class,
+                                method.getDeclaringClass()));
+                return (Function<Object, Object>) callSite.getTarget().invokeExact();
+            } catch (Throwable e) {
+                // fall back to the method handle
+            }
+        }
+        MethodHandle genericHandle = handle.asType(MethodType.methodType(Object.class, Object.class));
+        return object -> {
+            try {
+                return genericHandle.invokeExact(object);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    protected BiConsumer<Object, Object> createSetter(Method method) {
+        MethodHandle handle;
+        try {
+            handle = LOOKUP.unreflect(method);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Unable to create setter accessor for " + method, e);
+        }
+        Class<?> paramType = method.getParameterTypes()[0];
+        if (isVisible(method.getDeclaringClass()) && (paramType.isPrimitive() || isVisible(paramType))) {
+            try {
+                CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "accept",
+                        MethodType.methodType(BiConsumer.class),
+                        MethodType.methodType(void.class, Object.class, Object.class),
+                        handle,
+                        MethodType.methodType(void.class, method.getDeclaringClass(),
+                                paramType.isPrimitive() ? ClassUtils.primitiveToWrapper(paramType) : paramType));
+                return (BiConsumer<Object, Object>) callSite.getTarget().invokeExact();
+            } catch (Throwable e) {
+                // fall back to the method handle
+            }
+        }
+        MethodHandle genericHandle = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        return (object, value) -> {
+            try {
+                genericHandle.invokeExact(object, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        };
+    }
+
+    /**
+     * Generated accessor classes are linked by the class loader of this class, so they can refer only to public
+     * classes visible from it.
+     */
+    protected static boolean isVisible(Class<?> cls) {
+        if (!Modifier.isPublic(cls.getModifiers())) {
+            return false;
+        }
+        try {
+            return Class.forName(cls.getName(), false, MethodsCache.class.getClassLoader()) == cls;
+        } catch (ClassNotFoundException e) {
+            return false;
         }
     }
-}
\ No newline at end of file
+}
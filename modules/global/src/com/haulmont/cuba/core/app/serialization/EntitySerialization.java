@@ -22,6 +22,7 @@ import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.Table;
 import com.google.gson.*;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
 import com.haulmont.chile.core.datatypes.Datatype;
 import com.haulmont.chile.core.datatypes.Datatypes;
 import com.haulmont.chile.core.model.MetaClass;
@@ -42,6 +43,8 @@ import org.springframework.stereotype.Component;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.Writer;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
@@ -108,6 +111,42 @@ public class EntitySerialization implements EntitySerializationAPI {
         return createGsonForSerialization(view, options).toJson(entities);
     }
 
+    @Override
+    public void toJson(Entity entity,
+                       @Nullable View view,
+                       Writer writer,
+                       EntitySerializationOption... options) {
+        context.remove();
+        Gson gson = createGsonForSerialization(view, options);
+        try {
+            JsonWriter jsonWriter = gson.newJsonWriter(writer);
+            gson.toJson(entity, Entity.class, jsonWriter);
+            jsonWriter.flush();
+        } catch (IOException e) {
+            throw new EntitySerializationException("Unable to write JSON", e);
+        }
+    }
+
+    @Override
+    public void toJson(Iterable<? extends Entity> entities,
+                       @Nullable View view,
+                       Writer writer,
+                       EntitySerializationOption... options) {
+        context.remove();
+        Gson gson = createGsonForSerialization(view, options);
+        try {
+            JsonWriter jsonWriter = gson.newJsonWriter(writer);
+            jsonWriter.beginArray();
+            for (Entity entity : entities) {
+                gson.toJson(entity, Entity.class, jsonWriter);
+            }
+            jsonWriter.endArray();
+            jsonWriter.flush();
+        } catch (IOException e) {
+            throw new EntitySerializationException("Unable to write JSON", e);
+        }
+    }
+
     @Override
     public String objectToJson(Object object, EntitySerializationOption... options) {
         context.remove();
@@ -22,6 +22,7 @@ import com.haulmont.cuba.core.entity.Entity;
 import com.haulmont.cuba.core.global.View;
 
 import javax.annotation.Nullable;
+import java.io.Writer;
 import java.util.Collection;
 
 /**
@@ -86,6 +87,37 @@ public interface EntitySerializationAPI {
      */
     String toJson(Collection<? extends Entity> entities);
 
+    /**
+     * Serializes a single entity to JSON and writes it to the given writer. Method works like the {@link
+     * #toJson(Entity, View, EntitySerializationOption...)}, but doesn't build the result string. The writer is flushed
+     * but not closed.
+     *
+     * @param entity  an entity to be serialized
+     * @param view    a view that defines which entity properties should be added to the result JSON object
+     * @param writer  a writer to output JSON to
+     * @param options options specifying how an entity should be serialized
+     */
+    void toJson(Entity entity,
+                @Nullable View view,
+                Writer writer,
+                EntitySerializationOption... options);
+
+    /**
+     * Serializes entities to the JSON array and writes it to the given writer. Method works like the {@link
+     * #toJson(Collection, View, EntitySerializationOption...)}, but each entity is written as soon as it is taken
+     * from the {@code entities} iterable, so neither the whole JSON array nor the result string are kept in memory.
+     * The writer is flushed but not closed.
+     *
+     * @param entities entities to be serialized
+     * @param view     a view that defines which entity properties should be added to the result JSON object
+     * @param writer   a writer to output JSON to
+     * @param options  options specifying how an entity should be serialized
+     */
+    void toJson(Iterable<? extends Entity> entities,
+                @Nullable View view,
+                Writer writer,
+                EntitySerializationOption... options);
+
     /**
      * Serializes any custom POJO or collection of POJOs or JSON. If some field in POJO is an entity then this field
      * will be serialized according to entity serialization rules. Date fields are serialized according to the format of
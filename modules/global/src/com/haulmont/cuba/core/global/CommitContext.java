@@ -36,6 +36,8 @@ public class CommitContext implements Serializable {
 
     protected Map<Object, View> views = new HashMap<>();
 
+    protected Map<Object, Set<String>> changedAttributes = new HashMap<>();
+
     protected boolean softDeletion = true;
     protected boolean discardCommitted;
     protected boolean authorizationRequired;
@@ -156,6 +158,17 @@ public class CommitContext implements Serializable {
         return views;
     }
 
+    /**
+     * Enables defining changed attributes for committed detached entities. An entity having changed attributes
+     * in this map can contain only these attributes and system ones like id and version, and only they are updated
+     * in the database. Other entities are merged entirely.
+     *
+     * @return editable map of entities to names of their changed attributes
+     */
+    public Map<Object, Set<String>> getChangedAttributes() {
+        return changedAttributes;
+    }
+
     /**
      * @return custom hints which can be used later during query construction
      */
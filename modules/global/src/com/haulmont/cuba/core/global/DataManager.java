@@ -22,9 +22,15 @@ import com.haulmont.cuba.core.entity.BaseGenericIdEntity;
 import com.haulmont.cuba.core.entity.Entity;
 import com.haulmont.cuba.core.entity.KeyValueEntity;
 import com.haulmont.cuba.core.entity.contracts.Id;
+import com.haulmont.cuba.core.sys.ChunkedLoadIterator;
 
 import javax.annotation.Nullable;
+import java.util.Collection;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Central interface to provide CRUD functionality. Can be used on both middle and client tiers.
@@ -60,6 +66,40 @@ public interface DataManager {
      */
     <E extends Entity> List<E> loadList(LoadContext<E> context);
 
+    /**
+     * Loads entity instances as a stream which reads them from the data store as it is consumed.
+     * <p>Use it to process large result sets that should not be kept in memory at once. The stream must be closed
+     * after use, for example in a try-with-resources block:
+     * <pre>
+     * try (Stream&lt;Customer&gt; customers = dataManager.stream(loadContext)) {
+     *     customers.forEach(customer -&gt; export(customer));
+     * }
+     * </pre>
+     * On the middleware, a relational data store reads instances from a JDBC cursor inside a transaction that
+     * remains open until the stream is closed, so the stream must be consumed in the current thread.
+     * On the client tier, instances are loaded in chunks by separate requests.
+     *
+     * @param context   {@link LoadContext} object, defining what and how to load
+     * @return          a stream of detached instances
+     */
+    default <E extends Entity> Stream<E> stream(LoadContext<E> context) {
+        return stream(context, AppBeans.get(Configuration.class).getConfig(GlobalConfig.class).getDataManagerStreamFetchSize());
+    }
+
+    /**
+     * Loads entity instances as a stream which reads them from the data store as it is consumed.
+     *
+     * @param context   {@link LoadContext} object, defining what and how to load
+     * @param fetchSize number of instances read from the data store at once
+     * @return          a stream of detached instances
+     * @see #stream(LoadContext)
+     */
+    default <E extends Entity> Stream<E> stream(LoadContext<E> context, int fetchSize) {
+        ChunkedLoadIterator<E> iterator = new ChunkedLoadIterator<>(this, context, fetchSize);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .flatMap(Collection::stream);
+    }
+
     /**
      * Returns the number of entity instances for the given query passed in the {@link LoadContext}.
      * @param context   defines the query
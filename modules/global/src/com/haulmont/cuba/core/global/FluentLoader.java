@@ -23,6 +23,7 @@ import com.haulmont.cuba.core.global.queryconditions.Condition;
 
 import javax.persistence.TemporalType;
 import java.util.*;
+import java.util.stream.Stream;
 
 public class FluentLoader<E extends Entity<K>, K> {
 
@@ -78,6 +79,28 @@ public class FluentLoader<E extends Entity<K>, K> {
         return dataManager.loadList(loadContext);
     }
 
+    /**
+     * Loads entities as a stream which reads them from the data store as it is consumed.
+     * The stream must be closed after use.
+     *
+     * @see DataManager#stream(LoadContext)
+     */
+    public Stream<E> stream() {
+        LoadContext<E> loadContext = createLoadContext();
+        return dataManager.stream(loadContext);
+    }
+
+    /**
+     * Loads entities as a stream reading {@code fetchSize} instances from the data store at once.
+     * The stream must be closed after use.
+     *
+     * @see DataManager#stream(LoadContext, int)
+     */
+    public Stream<E> stream(int fetchSize) {
+        LoadContext<E> loadContext = createLoadContext();
+        return dataManager.stream(loadContext, fetchSize);
+    }
+
     /**
      * Loads a single instance and wraps it in Optional.
      */
@@ -164,6 +187,28 @@ public class FluentLoader<E extends Entity<K>, K> {
             return loadContext;
         }
 
+        /**
+         * Loads entities as a stream which reads them from the data store as it is consumed.
+         * The stream must be closed after use.
+         *
+         * @see DataManager#stream(LoadContext)
+         */
+        public Stream<E> stream() {
+            LoadContext<E> loadContext = createLoadContext();
+            return loader.dataManager.stream(loadContext);
+        }
+
+        /**
+         * Loads entities as a stream reading {@code fetchSize} instances from the data store at once.
+         * The stream must be closed after use.
+         *
+         * @see DataManager#stream(LoadContext, int)
+         */
+        public Stream<E> stream(int fetchSize) {
+            LoadContext<E> loadContext = createLoadContext();
+            return loader.dataManager.stream(loadContext, fetchSize);
+        }
+
         /**
          * Loads a single instance and wraps it in Optional.
          */
@@ -156,6 +156,20 @@ public interface GlobalConfig extends Config {
     @DefaultBoolean(true)
     boolean getUseAstBasedJpqlTransformer();
 
+    /**
+     * @return maximum number of parsed JPQL query trees kept in memory. Zero disables the cache.
+     */
+    @Property("cuba.jpqlQueryTreeCacheSize")
+    @DefaultInt(1000)
+    int getJpqlQueryTreeCacheSize();
+
+    /**
+     * @return default number of instances read at once by {@link DataManager#stream(LoadContext)}
+     */
+    @Property("cuba.dataManagerStreamFetchSize")
+    @DefaultInt(500)
+    int getDataManagerStreamFetchSize();
+
     /**
      * @return Overridden AppFolderEditWindow class name
      */
@@ -194,6 +208,14 @@ public interface GlobalConfig extends Config {
     @DefaultInt(100)
     int getNumberIdCacheSize();
 
+    /**
+     * @return percentage of {@link #getNumberIdCacheSize()} ids left in the current block of cached ids when
+     * the next block is fetched from the sequence in background. 0 disables prefetching.
+     */
+    @Property("cuba.numberIdCachePrefetchThreshold")
+    @DefaultInt(20)
+    int getNumberIdCachePrefetchThreshold();
+
     @Property("cuba.anonymousSessionId")
     @Factory(factory = UuidTypeFactory.class)
     UUID getAnonymousSessionId();
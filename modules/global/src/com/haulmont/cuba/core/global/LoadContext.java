@@ -320,6 +320,9 @@ public class LoadContext<E extends Entity> implements DataLoadContext, Serializa
         private boolean cacheable;
         private Condition condition;
         private Sort sort;
+        private boolean keysetPagination;
+        private String keysetProperty;
+        private Object keysetLastValue;
 
         /**
          * @param queryString JPQL query string. Only named parameters are supported.
@@ -452,6 +455,70 @@ public class LoadContext<E extends Entity> implements DataLoadContext, Serializa
             return this;
         }
 
+        /**
+         * Enables keyset (seek) pagination by the primary key.
+         * <p>In this mode the results are ordered by the keyset property and the next page is selected by the
+         * condition on the value of this property in the last instance of the previous page, instead of skipping
+         * {@code firstResult} rows. The query's own sort order is replaced.
+         *
+         * @see #setKeysetProperty(String)
+         * @see #setKeysetLastValue(Object)
+         * @return this query instance for chaining
+         */
+        public Query setKeysetPagination(boolean keysetPagination) {
+            this.keysetPagination = keysetPagination;
+            return this;
+        }
+
+        /**
+         * Enables keyset pagination by the given property. The property must be unique and not null, and it must be
+         * loaded by the view. If not set, the primary key is used.
+         *
+         * @param keysetProperty name of a unique persistent property of the loaded entity
+         * @return this query instance for chaining
+         */
+        public Query setKeysetProperty(@Nullable String keysetProperty) {
+            this.keysetProperty = keysetProperty;
+            if (keysetProperty != null) {
+                this.keysetPagination = true;
+            }
+            return this;
+        }
+
+        /**
+         * Sets the value of the keyset property of the last instance of the previous page. If set, the results
+         * start right after this value and {@code firstResult} is ignored.
+         *
+         * @return this query instance for chaining
+         */
+        public Query setKeysetLastValue(@Nullable Object keysetLastValue) {
+            this.keysetLastValue = keysetLastValue;
+            return this;
+        }
+
+        /**
+         * @return true if keyset pagination is enabled
+         */
+        public boolean isKeysetPagination() {
+            return keysetPagination;
+        }
+
+        /**
+         * @return the property used for keyset pagination or null if the primary key is used
+         */
+        @Nullable
+        public String getKeysetProperty() {
+            return keysetProperty;
+        }
+
+        /**
+         * @return value of the keyset property of the last instance of the previous page
+         */
+        @Nullable
+        public Object getKeysetLastValue() {
+            return keysetLastValue;
+        }
+
         /**
          * Indicates that the query results should be cached.
          * @return the same query instance
@@ -494,6 +561,9 @@ public class LoadContext<E extends Entity> implements DataLoadContext, Serializa
             query.firstResult = firstResult;
             query.maxResults = maxResults;
             query.cacheable = cacheable;
+            query.keysetPagination = keysetPagination;
+            query.keysetProperty = keysetProperty;
+            query.keysetLastValue = keysetLastValue;
             return query;
         }
 
@@ -506,6 +576,9 @@ public class LoadContext<E extends Entity> implements DataLoadContext, Serializa
 
             if (firstResult != query.firstResult) return false;
             if (maxResults != query.maxResults) return false;
+            if (keysetPagination != query.keysetPagination) return false;
+            if (!Objects.equals(keysetProperty, query.keysetProperty)) return false;
+            if (!Objects.equals(keysetLastValue, query.keysetLastValue)) return false;
             if (!parameters.equals(query.parameters)) return false;
             return queryString.equals(query.queryString);
         }
@@ -83,6 +83,11 @@ public interface QueryParser {
 
     boolean isParameterInCondition(String parameterName);
 
+    /**
+     * @return true if the main query has ORDER BY clause. Clauses of subqueries are not taken into account.
+     */
+    boolean hasOrderBy();
+
     List<QueryPath> getQueryPaths();
 
     class QueryPath {
@@ -28,6 +28,7 @@ import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
+import javax.inject.Inject;
 import java.util.*;
 
 import static java.lang.String.format;
@@ -40,6 +41,9 @@ public class QueryParserAstBased implements QueryParser {
     protected QueryTree queryTree;
     protected QueryTreeAnalyzer queryAnalyzer;
 
+    @Inject
+    protected QueryTreeCache queryTreeCache;
+
     protected class EntityNameAndPath {
 
         String entityName;
@@ -65,7 +69,8 @@ public class QueryParserAstBased implements QueryParser {
     protected QueryTree getTree() {
         if (queryTree == null) {
             try {
-                queryTree = new QueryTree(model, query);
+                queryTree = queryTreeCache != null ?
+                        new QueryTree(model, queryTreeCache.getTree(query)) : new QueryTree(model, query);
             } catch (JPA2RecognitionException e) {
                 throw new JpqlSyntaxException(format("Errors found for input JPQL:[%s]\n%s", StringUtils.strip(query), e.getMessage()));
             }
@@ -140,6 +145,11 @@ public class QueryParserAstBased implements QueryParser {
         return getAnalyzer().isQueryWithJoins();
     }
 
+    @Override
+    public boolean hasOrderBy() {
+        return getTree().getAstOrderByNode() != null;
+    }
+
     @Override
     public String getOriginalEntityName() {
         EntityNameAndPath entityNameAndAlias = getOriginEntityNameAndPath();
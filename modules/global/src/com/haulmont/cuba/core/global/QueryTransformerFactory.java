@@ -18,12 +18,15 @@ package com.haulmont.cuba.core.global;
 
 import com.haulmont.cuba.core.sys.jpql.DomainModel;
 import com.haulmont.cuba.core.sys.jpql.DomainModelBuilder;
+import com.haulmont.cuba.core.sys.jpql.QueryTreeCache;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
 
 /**
  * Factory to get {@link QueryParser} and {@link QueryTransformer} instances.
+ * <p>Parsed queries are shared through {@link QueryTreeCache}, so creating parsers and transformers for the same
+ * query text repeatedly does not require parsing it again.
  */
 @Component(QueryTransformerFactory.NAME)
 public class QueryTransformerFactory {
@@ -47,13 +50,17 @@ public class QueryTransformerFactory {
         return AppBeans.get(NAME, QueryTransformerFactory.class).parser(query);
     }
 
+    protected DomainModel getDomainModel() {
+        if (domainModel == null) {
+            DomainModelBuilder builder = AppBeans.get(DomainModelBuilder.NAME);
+            domainModel = builder.produce();
+        }
+        return domainModel;
+    }
+
     public QueryTransformer transformer(String query) {
         if (useAst) {
-            if (domainModel == null) {
-                DomainModelBuilder builder = AppBeans.get(DomainModelBuilder.NAME);
-                domainModel = builder.produce();
-            }
-            return AppBeans.getPrototype(QueryTransformer.NAME, domainModel, query);
+            return AppBeans.getPrototype(QueryTransformer.NAME, getDomainModel(), query);
         } else {
             return new QueryTransformerRegex(query);
         }
@@ -61,11 +68,7 @@ public class QueryTransformerFactory {
 
     public QueryParser parser(String query) {
         if (useAst) {
-            if (domainModel == null) {
-                DomainModelBuilder builder = AppBeans.get(DomainModelBuilder.NAME);
-                domainModel = builder.produce();
-            }
-            return AppBeans.getPrototype(QueryParser.NAME, domainModel, query);
+            return AppBeans.getPrototype(QueryParser.NAME, getDomainModel(), query);
         } else {
             return new QueryParserRegex(query);
         }
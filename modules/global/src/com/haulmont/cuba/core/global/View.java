@@ -40,7 +40,9 @@ import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
  * <li>{@link #MINIMAL}</li>
  * <li>{@link #BASE}</li>
  * </ul>
- *
+ * If the {@code cuba.viewRepository.shareViews} application property is true, views returned by the
+ * {@link com.haulmont.cuba.core.global.ViewRepository} are shared between callers and therefore sealed,
+ * see {@link #isSealed()}. Use {@link #copy(View)} to get a modifiable instance in this case.
  */
 public class View implements Serializable {
 
@@ -104,6 +106,8 @@ public class View implements Serializable {
 
     private boolean loadPartialEntities;
 
+    private transient boolean sealed;
+
     public View(Class<? extends Entity> entityClass) {
         this(entityClass, "", true);
     }
@@ -166,9 +170,16 @@ public class View implements Serializable {
                 View sourcePropertyView = sourceProperty.getView();
 
                 if (sourcePropertyView != null && isNotEmpty(sourcePropertyView.getProperties())) {
-
-                    Map<String, ViewProperty> thisViewProperties = thisProperties.get(sourcePropertyName).getView().properties;
-                    putProperties(thisViewProperties, sourcePropertyView.getProperties());
+                    ViewProperty thisProperty = thisProperties.get(sourcePropertyName);
+                    View thisPropertyView = thisProperty.getView();
+                    if (thisPropertyView.isSealed()) {
+                        // do not merge into a shared view
+                        thisPropertyView = copy(thisPropertyView);
+                        thisProperties.put(sourcePropertyName,
+                                new ViewProperty(sourcePropertyName, thisPropertyView, thisProperty.getFetchMode()));
+                    }
+
+                    putProperties(thisPropertyView.properties, sourcePropertyView.getProperties());
                 }
 
             } else {
@@ -211,7 +222,7 @@ public class View implements Serializable {
      * @return collection of properties
      */
     public Collection<ViewProperty> getProperties() {
-        return properties.values();
+        return sealed ? Collections.unmodifiableCollection(properties.values()) : properties.values();
     }
 
     /**
@@ -222,12 +233,14 @@ public class View implements Serializable {
      * @return      this view instance for chaining
      */
     public View addProperty(String name, @Nullable View view, FetchMode fetchMode) {
+        checkNotSealed();
         properties.put(name, new ViewProperty(name, view, fetchMode));
         return this;
     }
 
     @Deprecated
     public View addProperty(String name, @Nullable View view, boolean lazy) {
+        checkNotSealed();
         properties.put(name, new ViewProperty(name, view, lazy));
         return this;
     }
@@ -239,6 +252,7 @@ public class View implements Serializable {
      * @return      this view instance for chaining
      */
     public View addProperty(String name, View view) {
+        checkNotSealed();
         properties.put(name, new ViewProperty(name, view));
         return this;
     }
@@ -249,6 +263,7 @@ public class View implements Serializable {
      * @return      this view instance for chaining
      */
     public View addProperty(String name) {
+        checkNotSealed();
         properties.put(name, new ViewProperty(name, null));
         return this;
     }
@@ -312,10 +327,44 @@ public class View implements Serializable {
      * @return this view instance for chaining
      */
     public View setLoadPartialEntities(boolean loadPartialEntities) {
+        checkNotSealed();
         this.loadPartialEntities = loadPartialEntities;
         return this;
     }
 
+    /**
+     * @return true if the view cannot be modified because it is shared, e.g. obtained from
+     * {@link com.haulmont.cuba.core.global.ViewRepository}
+     */
+    public boolean isSealed() {
+        return sealed;
+    }
+
+    /**
+     * INTERNAL.
+     * Makes this view and all its nested views unmodifiable.
+     *
+     * @return this view instance for chaining
+     */
+    public View seal() {
+        if (!sealed) {
+            sealed = true;
+            for (ViewProperty property : properties.values()) {
+                if (property.getView() != null) {
+                    property.getView().seal();
+                }
+            }
+        }
+        return this;
+    }
+
+    protected void checkNotSealed() {
+        if (sealed) {
+            throw new IllegalStateException(String.format(
+                    "View %s is shared and cannot be modified, use View.copy() to get a modifiable instance", this));
+        }
+    }
+
     /**
      * DEPRECATED since v.6
      */
@@ -46,6 +46,7 @@ import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
@@ -57,6 +58,9 @@ import static org.apache.commons.lang3.StringUtils.isNotBlank;
  * Base implementation of the {@link ViewRepository}. Contains methods to store {@link View} objects and deploy
  * them from XML. <br>
  * <br> Don't replace this class completely, because the framework uses it directly.
+ * <p>Views returned by {@link #findView(MetaClass, String)} are separate modifiable copies of the deployed views.
+ * If the {@code cuba.viewRepository.shareViews} application property is set to {@code true}, sealed copies shared
+ * between all callers are returned instead, so callers that modify views must copy them first.
  */
 public class AbstractViewRepository implements ViewRepository {
 
@@ -66,6 +70,13 @@ public class AbstractViewRepository implements ViewRepository {
 
     protected Map<MetaClass, Map<String, View>> storage = new ConcurrentHashMap<>();
 
+    // sealed copies of the stored views returned to callers
+    protected Map<MetaClass, Map<String, View>> sharedViews = new ConcurrentHashMap<>();
+
+    protected boolean shareViews;
+
+    protected AtomicLong version = new AtomicLong();
+
     @Inject
     protected Metadata metadata;
 
@@ -98,6 +109,9 @@ public class AbstractViewRepository implements ViewRepository {
 
         storage.clear();
         readFileNames.clear();
+        viewsChanged();
+
+        shareViews = Boolean.parseBoolean(AppContext.getProperty("cuba.viewRepository.shareViews"));
 
         String configName = AppContext.getProperty("cuba.viewsConfig");
         if (!StringUtils.isBlank(configName)) {
@@ -180,6 +194,20 @@ public class AbstractViewRepository implements ViewRepository {
 
     public void reset() {
         initialized = false;
+        viewsChanged();
+    }
+
+    /**
+     * Returns a number which is incremented each time views are deployed or the repository is reset. Can be used
+     * to invalidate data calculated from views.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    protected void viewsChanged() {
+        sharedViews.clear();
+        version.incrementAndGet();
     }
 
     /**
@@ -236,7 +264,11 @@ public class AbstractViewRepository implements ViewRepository {
             checkInitialized();
 
             View view = retrieveView(metaClass, name, new HashSet<>());
-            return copyView(view);
+            if (view == null || !shareViews) {
+                return copyView(view);
+            }
+            return sharedViews.computeIfAbsent(metaClass, k -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(name, k -> copyView(view).seal());
         } finally {
             lock.readLock().unlock();
         }
@@ -491,6 +523,8 @@ public class AbstractViewRepository implements ViewRepository {
             replaceOverridden(view);
         }
 
+        viewsChanged();
+
         return view;
     }
 
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.haulmont.cuba.core.sys;
+
+import com.haulmont.bali.util.Preconditions;
+import com.haulmont.chile.core.model.MetaClass;
+import com.haulmont.cuba.core.entity.Entity;
+import com.haulmont.cuba.core.entity.IdProxy;
+import com.haulmont.cuba.core.global.*;
+
+import javax.annotation.Nullable;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * INTERNAL.
+ * Iterates over the result of a {@link LoadContext} query by loading it in chunks through
+ * {@link DataManager#loadList(LoadContext)}.
+ * <p>If the query has no explicit order, the chunks are selected by the primary key in the keyset pagination mode,
+ * otherwise by {@code firstResult}/{@code maxResults}.
+ */
+public class ChunkedLoadIterator<E extends Entity> implements Iterator<List<E>> {
+
+    protected final DataManager dataManager;
+    protected final LoadContext<E> context;
+    protected final int chunkSize;
+    protected final String keysetProperty;
+
+    protected int firstResult;
+    protected int remaining;
+    protected boolean finished;
+    protected List<E> next;
+
+    @SuppressWarnings("unchecked")
+    public ChunkedLoadIterator(DataManager dataManager, LoadContext<E> context, int chunkSize) {
+        Preconditions.checkNotNullArgument(context.getQuery(), "query is null");
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        this.dataManager = dataManager;
+        this.context = (LoadContext<E>) context.copy();
+        this.chunkSize = chunkSize;
+
+        LoadContext.Query query = this.context.getQuery();
+        this.firstResult = query.getFirstResult();
+        this.remaining = query.getMaxResults() == 0 ? Integer.MAX_VALUE : query.getMaxResults();
+        this.keysetProperty = resolveKeysetProperty(query);
+        if (keysetProperty != null) {
+            query.setKeysetProperty(keysetProperty);
+        }
+    }
+
+    @Nullable
+    protected String resolveKeysetProperty(LoadContext.Query query) {
+        if (query.isKeysetPagination()) {
+            if (query.getKeysetProperty() != null) {
+                return query.getKeysetProperty();
+            }
+        } else if (query.getSort() != null || QueryTransformerFactory.createParser(query.getQueryString()).hasOrderBy()) {
+            return null;
+        }
+        Metadata metadata = AppBeans.get(Metadata.NAME);
+        MetaClass metaClass = metadata.getClassNN(context.getMetaClass());
+        MetadataTools metadataTools = metadata.getTools();
+        if (metadataTools.hasCompositePrimaryKey(metaClass)) {
+            return null;
+        }
+        return metadataTools.getPrimaryKeyName(metaClass);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            next = loadNextChunk();
+            if (next.isEmpty()) {
+                next = null;
+                finished = true;
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public List<E> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        List<E> chunk = next;
+        next = null;
+        return chunk;
+    }
+
+    protected List<E> loadNextChunk() {
+        int maxResults = Math.min(chunkSize, remaining);
+        LoadContext.Query query = context.getQuery();
+        query.setFirstResult(firstResult);
+        query.setMaxResults(maxResults);
+
+        List<E> chunk = dataManager.loadList(context);
+
+        remaining -= chunk.size();
+        if (chunk.size() < maxResults || remaining <= 0) {
+            finished = true;
+        }
+        if (!chunk.isEmpty()) {
+            if (keysetProperty != null) {
+                firstResult = 0;
+                Object lastValue = chunk.get(chunk.size() - 1).getValueEx(keysetProperty);
+                query.setKeysetLastValue(lastValue instanceof IdProxy ? ((IdProxy) lastValue).getNN() : lastValue);
+            } else {
+                firstResult += chunk.size();
+            }
+        }
+        return chunk;
+    }
+}
@@ -14,40 +14,82 @@
  * limitations under the License.
  *
  */
-
 package com.haulmont.cuba.core.sys;
 
 import com.haulmont.chile.core.model.MetaClass;
 import com.haulmont.cuba.core.entity.annotation.IdSequence;
 import com.haulmont.cuba.core.global.GlobalConfig;
 import com.haulmont.cuba.core.global.Metadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.Nonnull;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Intermediate cache for generated ids of entities with long/integer PK.
  * The cache size is determined by the {@code cuba.numberIdCacheSize} app property.
+ * <p>Ids are taken from the current block without locking. When the number of ids left in the block falls below
+ * {@code cuba.numberIdCachePrefetchThreshold} percent of the cache size, next blocks are fetched from the sequence
+ * in background. The number of blocks fetched ahead adapts to the allocation rate and the sequence latency.</p>
  */
 @Component(NumberIdCache.NAME)
 public class NumberIdCache {
 
     public static final String NAME = "cuba_NumberIdCache";
 
+    protected static final int MAX_PREFETCH_BLOCKS = 16;
+
+    private static final Logger log = LoggerFactory.getLogger(NumberIdCache.class);
+
     @Inject
     protected Metadata metadata;
 
+    /**
+     * Range of ids {@code (start, end]} obtained by one call of the sequence.
+     */
+    protected static class Block {
+        protected final AtomicLong counter;
+        protected final long end;
+        protected final long prefetchFrom;
+
+        protected Block(long start, long end, long lowWaterMark) {
+            this.counter = new AtomicLong(start);
+            this.end = end;
+            this.prefetchFrom = end - lowWaterMark;
+        }
+
+        protected boolean isPrefetchEnabled() {
+            return prefetchFrom < end;
+        }
+    }
+
     protected class Generator {
-        protected long counter;
-        protected long sequenceValue;
         protected String entityName;
         protected String sequenceName;
         protected boolean cached;
         protected NumberIdSequence numberIdSequence;
 
+        protected volatile Block block;
+        protected volatile long blockStartTime;
+        protected final Queue<Block> reserve = new ConcurrentLinkedQueue<>();
+        protected final AtomicBoolean prefetching = new AtomicBoolean();
+        protected volatile int prefetchBlocks = 1;
+
+        protected final AtomicLong allocatedCount = new AtomicLong();
+        protected final AtomicLong fetchedBlocksCount = new AtomicLong();
+        protected final AtomicLong stallsCount = new AtomicLong();
+        protected final AtomicLong totalFetchTime = new AtomicLong();
+
         public Generator(String entityName,
                          String sequenceName,
                          boolean cached,
@@ -57,7 +99,8 @@ public class NumberIdCache {
             this.cached = cached;
             this.numberIdSequence = sequence;
             if (useIdCache()) {
-                createCachedCounter();
+                block = fetchBlock();
+                blockStartTime = System.currentTimeMillis();
             }
         }
 
@@ -65,27 +108,171 @@ public class NumberIdCache {
             return config.getNumberIdCacheSize() != 0 && cached;
         }
 
-        protected void createCachedCounter() {
-            sequenceValue = numberIdSequence.createCachedLongId(entityName, sequenceName);
-            counter = sequenceValue;
+        protected Block fetchBlock() {
+            int cacheSize = config.getNumberIdCacheSize();
+            long lowWaterMark = (long) cacheSize * config.getNumberIdCachePrefetchThreshold() / 100;
+
+            long start = System.currentTimeMillis();
+            long sequenceValue = numberIdSequence.createCachedLongId(entityName, sequenceName);
+            totalFetchTime.addAndGet(System.currentTimeMillis() - start);
+            fetchedBlocksCount.incrementAndGet();
+
+            return new Block(sequenceValue, sequenceValue + cacheSize, lowWaterMark);
         }
 
-        public synchronized long getNext() {
+        public long getNext() {
+            allocatedCount.incrementAndGet();
             if (!useIdCache()) {
                 return numberIdSequence.createLongId(entityName, sequenceName);
-            } else {
-                long next = ++counter;
-                if (next > sequenceValue + config.getNumberIdCacheSize()) {
-                    createCachedCounter();
-                    next = ++counter;
+            }
+            while (true) {
+                Block current = block;
+                if (current != null) {
+                    long next = current.counter.incrementAndGet();
+                    if (next <= current.end) {
+                        if (next > current.prefetchFrom) {
+                            prefetch();
+                        }
+                        return next;
+                    }
+                }
+                switchBlock(current);
+            }
+        }
+
+        protected synchronized void switchBlock(Block exhausted) {
+            if (block != exhausted) {
+                // already switched by another thread
+                return;
+            }
+            long now = System.currentTimeMillis();
+            Block next = reserve.poll();
+            if (next == null) {
+                if (exhausted != null && exhausted.isPrefetchEnabled()) {
+                    stallsCount.incrementAndGet();
+                    prefetchBlocks = Math.min(prefetchBlocks * 2, MAX_PREFETCH_BLOCKS);
                 }
-                return next;
+                next = fetchBlock();
+            } else if (exhausted != null) {
+                adaptPrefetchBlocks(now - blockStartTime);
+            }
+            block = next;
+            blockStartTime = now;
+        }
+
+        /**
+         * Keeps enough blocks in reserve to cover twice the average sequence latency at the current allocation rate.
+         */
+        protected void adaptPrefetchBlocks(long blockLifetime) {
+            long avgFetchTime = totalFetchTime.get() / Math.max(fetchedBlocksCount.get(), 1);
+            long required = (2 * avgFetchTime) / Math.max(blockLifetime, 1) + 1;
+            if (required > prefetchBlocks) {
+                prefetchBlocks = (int) Math.min(required, MAX_PREFETCH_BLOCKS);
+            } else if (required < prefetchBlocks) {
+                prefetchBlocks--;
+            }
+        }
+
+        protected void prefetch() {
+            if (prefetching.get() || reserve.size() >= prefetchBlocks || !prefetching.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                prefetchExecutor.execute(new SecurityContextAwareRunnable(() -> {
+                    try {
+                        while (reserve.size() < prefetchBlocks) {
+                            reserve.add(fetchBlock());
+                        }
+                    } catch (Exception e) {
+                        log.warn("Unable to prefetch ids for {}", getCacheKey(entityName, sequenceName), e);
+                    } finally {
+                        prefetching.set(false);
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                prefetching.set(false);
             }
         }
+
+        protected Statistics getStatistics() {
+            Statistics statistics = new Statistics();
+            statistics.allocatedCount = allocatedCount.get();
+            statistics.fetchedBlocksCount = fetchedBlocksCount.get();
+            statistics.stallsCount = stallsCount.get();
+            statistics.avgFetchTime = totalFetchTime.get() / Math.max(fetchedBlocksCount.get(), 1);
+            statistics.prefetchBlocks = prefetchBlocks;
+            statistics.reservedBlocks = reserve.size();
+            return statistics;
+        }
+    }
+
+    /**
+     * Allocation statistics of a sequence.
+     */
+    public static class Statistics {
+        protected long allocatedCount;
+        protected long fetchedBlocksCount;
+        protected long stallsCount;
+        protected long avgFetchTime;
+        protected int prefetchBlocks;
+        protected int reservedBlocks;
+
+        /**
+         * @return number of ids allocated since the server start
+         */
+        public long getAllocatedCount() {
+            return allocatedCount;
+        }
+
+        /**
+         * @return number of blocks of ids obtained from the sequence
+         */
+        public long getFetchedBlocksCount() {
+            return fetchedBlocksCount;
+        }
+
+        /**
+         * @return number of times a thread had to wait for a block because the prefetched ones were exhausted
+         */
+        public long getStallsCount() {
+            return stallsCount;
+        }
+
+        /**
+         * @return average time of obtaining a block from the sequence in milliseconds
+         */
+        public long getAvgFetchTime() {
+            return avgFetchTime;
+        }
+
+        /**
+         * @return current number of blocks fetched ahead
+         */
+        public int getPrefetchBlocks() {
+            return prefetchBlocks;
+        }
+
+        /**
+         * @return number of prefetched blocks waiting to be used
+         */
+        public int getReservedBlocks() {
+            return reservedBlocks;
+        }
     }
 
     protected ConcurrentMap<String, Generator> cache = new ConcurrentHashMap<>();
 
+    protected ExecutorService prefetchExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(@Nonnull Runnable r) {
+            Thread thread = new Thread(r, "NumberIdPrefetchThread-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
     @Inject
     protected GlobalConfig config;
 
@@ -118,6 +305,17 @@ public class NumberIdCache {
         return gen.getNext();
     }
 
+    /**
+     * @return allocation statistics by sequence
+     */
+    public Map<String, Statistics> getStatistics() {
+        Map<String, Statistics> result = new TreeMap<>();
+        for (Map.Entry<String, Generator> entry : cache.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().getStatistics());
+        }
+        return result;
+    }
+
     /**
      * INTERNAL. Used by tests.
      */
@@ -125,7 +323,12 @@ public class NumberIdCache {
         cache.clear();
     }
 
+    @PreDestroy
+    public void shutdown() {
+        prefetchExecutor.shutdownNow();
+    }
+
     protected String getCacheKey(String entityName, String sequenceName) {
         return sequenceName == null ? entityName : sequenceName;
     }
-}
\ No newline at end of file
+}
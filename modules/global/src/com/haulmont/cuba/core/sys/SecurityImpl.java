@@ -17,6 +17,8 @@
 
 package com.haulmont.cuba.core.sys;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.haulmont.chile.core.datatypes.Datatype;
 import com.haulmont.chile.core.datatypes.Datatypes;
 import com.haulmont.chile.core.datatypes.impl.EnumClass;
@@ -30,6 +32,9 @@ import com.haulmont.cuba.security.entity.EntityOp;
 import com.haulmont.cuba.security.entity.PermissionType;
 import com.haulmont.cuba.security.global.ConstraintData;
 import com.haulmont.cuba.security.global.UserSession;
+import groovy.lang.Binding;
+import groovy.lang.Closure;
+import groovy.lang.Script;
 import org.apache.commons.lang3.StringUtils;
 import org.codehaus.groovy.runtime.MethodClosure;
 import org.slf4j.Logger;
@@ -39,6 +44,7 @@ import org.springframework.stereotype.Component;
 import javax.inject.Inject;
 import java.text.ParseException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -65,6 +71,13 @@ public class SecurityImpl implements Security {
     @Inject
     protected Scripting scripting;
 
+    /**
+     * Closures compiled from in-memory constraint scripts, by script text. The closures don't depend on a user
+     * session: context variables are resolved through the binding created for each check.
+     */
+    protected Cache<String, Optional<Closure>> compiledConstraints =
+            CacheBuilder.newBuilder().maximumSize(1000).build();
+
     @Override
     public boolean isScreenPermitted(String windowAlias) {
         return userSessionSource.getUserSession().isScreenPermitted(windowAlias);
@@ -204,7 +217,10 @@ public class SecurityImpl implements Security {
     }
 
     protected boolean isPermitted(Entity entity, Predicate<ConstraintData> predicate) {
-        List<ConstraintData> constraints = getConstraints(entity.getMetaClass(), predicate);
+        return isPermitted(entity, getConstraints(entity.getMetaClass(), predicate));
+    }
+
+    protected boolean isPermitted(Entity entity, List<ConstraintData> constraints) {
         for (ConstraintData constraint : constraints) {
             if (!isPermitted(entity, constraint)) {
                 return false;
@@ -218,8 +234,7 @@ public class SecurityImpl implements Security {
         String groovyScript = constraint.getGroovyScript();
         if (constraint.getCheckType().memory() && StringUtils.isNotBlank(groovyScript)) {
             try {
-                Object o = evaluateConstraintScript(entity, groovyScript);
-                if (Boolean.FALSE.equals(o)) {
+                if (!evaluateCompiledConstraint(entity, groovyScript)) {
                     log.trace("Entity does not match security constraint. Entity class [{}]. Entity [{}]. Constraint [{}].",
                             metaClassName, entity.getId(), constraint.getCheckType());
                     return false;
@@ -243,6 +258,46 @@ public class SecurityImpl implements Security {
         return scripting.evaluateGroovy(groovyScript.replace("{E}", "__entity__"), context);
     }
 
+    /**
+     * Checks the entity by the in-memory constraint script compiled into a closure once, so checking an entity
+     * doesn't require borrowing a script from the pool. If the script cannot be compiled as a closure body,
+     * it is evaluated by {@link #evaluateConstraintScript(Entity, String)}.
+     */
+    protected boolean evaluateCompiledConstraint(Entity entity, String groovyScript) {
+        Optional<Closure> closure;
+        try {
+            closure = compiledConstraints.get(groovyScript, () -> compileConstraint(groovyScript));
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Unable to compile constraint's Groovy script", e.getCause());
+        }
+        if (!closure.isPresent()) {
+            return !Boolean.FALSE.equals(evaluateConstraintScript(entity, groovyScript));
+        }
+
+        Map<String, Object> context = new HashMap<>();
+        context.put("parse", new MethodClosure(this, "parseValue"));
+        context.put("userSession", userSessionSource.getUserSession());
+        fillGroovyConstraintsContext(context);
+
+        // resolve context variables through the binding of this check
+        Script owner = new ConstraintScript(new Binding(context));
+        return !Boolean.FALSE.equals(closure.get().rehydrate(owner, owner, owner).call(entity));
+    }
+
+    protected Optional<Closure> compileConstraint(String groovyScript) {
+        try {
+            Closure closure = scripting.evaluateGroovy(
+                    format("return { __entity__ ->%n%s%n}", groovyScript.replace("{E}", "__entity__")),
+                    Collections.emptyMap());
+            // don't keep the pooled script which has created the closure
+            return Optional.of(closure.dehydrate());
+        } catch (Exception e) {
+            log.debug("Unable to compile constraint's Groovy script, it will be evaluated for each entity. " +
+                    "Script [{}].", groovyScript, e);
+            return Optional.empty();
+        }
+    }
+
     /**
      * Override if you need specific context variables in Groovy constraints.
      *
@@ -284,4 +339,16 @@ public class SecurityImpl implements Security {
                     "See the log for details.", clazz, string), null);
         }
     }
-}
\ No newline at end of file
+
+    protected static class ConstraintScript extends Script {
+
+        public ConstraintScript(Binding binding) {
+            super(binding);
+        }
+
+        @Override
+        public Object run() {
+            return null;
+        }
+    }
+}
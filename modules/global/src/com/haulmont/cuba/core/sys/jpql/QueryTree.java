@@ -42,18 +42,32 @@ public class QueryTree {
     }
 
     public QueryTree(DomainModel model, String query, boolean failOnErrors) {
-        Preconditions.checkNotNull(query, "query is null");
-        String modifiedQuery = StringUtils.replaceChars(query, "\n\r\t", "   ");
+        this(model, parse(query, failOnErrors));
+    }
 
+    /**
+     * Creates the query tree for an already parsed AST. The AST becomes owned by this instance and can be
+     * modified by transformations, so it must not be shared.
+     */
+    public QueryTree(DomainModel model, CommonTree tree) {
         this.model = model;
+        this.tree = tree;
+
+        this.idVarSelector = new IdVarSelector(model);
+        new TreeVisitor().visit(tree, idVarSelector);
+    }
+
+    /**
+     * Parses the query into AST. The result does not depend on the domain model.
+     */
+    public static CommonTree parse(String query, boolean failOnErrors) {
+        Preconditions.checkNotNull(query, "query is null");
+        String modifiedQuery = StringUtils.replaceChars(query, "\n\r\t", "   ");
         try {
-            this.tree = Parser.parse(modifiedQuery, failOnErrors);
+            return Parser.parse(modifiedQuery, failOnErrors);
         } catch (RecognitionException e) {
             throw new JPA2RecognitionException("JPA grammar recognition error", e);
         }
-
-        this.idVarSelector = new IdVarSelector(model);
-        new TreeVisitor().visit(tree, idVarSelector);
     }
 
     public DomainModel getModel() {
@@ -133,6 +147,13 @@ public class QueryTree {
         return tree.getFirstChildWithType(JPA2Lexer.T_GROUP_BY);
     }
 
+    /**
+     * @return returns tree for ORDER BY statement of the main query
+     */
+    public Tree getAstOrderByNode() {
+        return tree.getFirstChildWithType(JPA2Lexer.T_ORDER_BY);
+    }
+
 
     public <T extends TreeVisitorAction> T visit(T visitor) {
         new TreeVisitor().visit(tree, visitor);
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.haulmont.cuba.core.sys.jpql;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.haulmont.cuba.core.global.Configuration;
+import com.haulmont.cuba.core.global.GlobalConfig;
+import com.haulmont.cuba.core.sys.jpql.tree.BaseCustomNode;
+import org.antlr.runtime.tree.CommonTree;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+
+/**
+ * INTERNAL.
+ * Caches ASTs of parsed JPQL queries by query text.
+ * <p>Cached trees are never exposed: {@link #getTree(String)} returns a copy which can be freely modified by
+ * query transformations. The AST does not depend on the domain model, so the cache is keyed by query text only.
+ */
+@Component(QueryTreeCache.NAME)
+public class QueryTreeCache {
+
+    public static final String NAME = "cuba_QueryTreeCache";
+
+    @Inject
+    protected Configuration configuration;
+
+    protected Cache<String, CommonTree> cache;
+
+    protected int maxSize;
+
+    @PostConstruct
+    protected void init() {
+        maxSize = configuration.getConfig(GlobalConfig.class).getJpqlQueryTreeCacheSize();
+        cache = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().build();
+    }
+
+    /**
+     * Returns a copy of the parsed query AST, parsing the query if it is not in the cache yet.
+     * Queries with syntax errors are not cached.
+     *
+     * @param query JPQL query text
+     * @return AST owned by the caller
+     */
+    public CommonTree getTree(String query) {
+        if (maxSize <= 0) {
+            return QueryTree.parse(query, true);
+        }
+        CommonTree tree = cache.getIfPresent(query);
+        if (tree == null) {
+            tree = QueryTree.parse(query, true);
+            cache.put(query, tree);
+        }
+        return BaseCustomNode.dupTree(tree);
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public long getSize() {
+        return cache.size();
+    }
+
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    public void clearCache() {
+        cache.invalidateAll();
+    }
+}
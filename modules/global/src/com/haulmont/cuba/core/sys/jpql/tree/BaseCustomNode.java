@@ -53,10 +53,35 @@ public class BaseCustomNode extends CommonTree implements TreeToQueryCapable {
     }
 
     protected void dupChildren(CommonTree result) {
-        for (Object child : children) {
+        dupChildren(this, result);
+    }
+
+    /**
+     * Copies children of the source node recursively. Custom nodes copy their subtrees in {@link #dupNode()},
+     * children of plain ANTLR nodes are copied here.
+     */
+    protected static void dupChildren(CommonTree source, CommonTree result) {
+        if (source.getChildCount() == 0) {
+            return;
+        }
+        for (Object child : source.getChildren()) {
             CommonTree t = (CommonTree) child;
             Tree copy = t.dupNode();
+            if (!(t instanceof BaseCustomNode)) {
+                dupChildren(t, (CommonTree) copy);
+            }
             result.addChild(copy);
         }
     }
+
+    /**
+     * Creates a deep copy of the given tree.
+     */
+    public static CommonTree dupTree(CommonTree tree) {
+        CommonTree copy = (CommonTree) tree.dupNode();
+        if (!(tree instanceof BaseCustomNode)) {
+            dupChildren(tree, copy);
+        }
+        return copy;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.cuba.core.sys.remoting;
+
+import com.haulmont.cuba.core.sys.AppContext;
+import com.haulmont.cuba.core.sys.SecurityContext;
+
+import javax.annotation.Nonnull;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * INTERNAL.
+ * Support for service methods returning {@link CompletableFuture}.
+ * <p>On the client side such methods are invoked in a separate thread pool, so the calling thread is not blocked
+ * and several invocations can be executed in parallel. The thread pool size is defined by the
+ * {@code cuba.remotingAsyncThreadPoolSize} app property, the number of invocations waiting for a thread by the
+ * {@code cuba.remotingAsyncQueueCapacity} app property. When the queue is full, the invocation is executed in the
+ * calling thread. On the middleware the future returned by the service is awaited and its value is passed to the
+ * client as a result of a regular invocation.</p>
+ */
+public final class AsyncRemoteInvocations {
+
+    private static final int DEFAULT_THREAD_POOL_SIZE = 32;
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    private static volatile ExecutorService executor;
+
+    private AsyncRemoteInvocations() {
+    }
+
+    /**
+     * Invocation which can throw any exception.
+     */
+    public interface Invocation<T> {
+        T call() throws Throwable;
+    }
+
+    /**
+     * @return true if the method returns a future which should be completed by an asynchronous invocation
+     */
+    public static boolean isAsync(Method method) {
+        Class<?> returnType = method.getReturnType();
+        return returnType == CompletableFuture.class
+                || returnType == CompletionStage.class
+                || returnType == Future.class;
+    }
+
+    /**
+     * Executes the invocation in the thread pool passing the current {@link SecurityContext} to it.
+     *
+     * @return future completed with the result of the invocation
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Invocation<T> invocation) {
+        SecurityContext securityContext = AppContext.getSecurityContext();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        getExecutor().execute(() -> {
+            // the invocation is executed in the calling thread if the queue is full
+            SecurityContext previousSecurityContext = AppContext.getSecurityContext();
+            AppContext.setSecurityContext(securityContext);
+            try {
+                future.complete(invocation.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                AppContext.setSecurityContext(previousSecurityContext);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Waits for completion of a future returned by a service method.
+     *
+     * @param result result of a service method invocation
+     * @return value of the future or the result itself if it is not a future
+     * @throws InvocationTargetException wrapping the exception the future has been completed with
+     */
+    public static Object await(Object result) throws InvocationTargetException {
+        if (!(result instanceof Future) && !(result instanceof CompletionStage)) {
+            return result;
+        }
+        Future future = result instanceof Future ? (Future) result : ((CompletionStage) result).toCompletableFuture();
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw new InvocationTargetException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InvocationTargetException(e);
+        }
+    }
+
+    private static ExecutorService getExecutor() {
+        if (executor == null) {
+            synchronized (AsyncRemoteInvocations.class) {
+                if (executor == null) {
+                    String poolSizeProp = AppContext.getProperty("cuba.remotingAsyncThreadPoolSize");
+                    int poolSize = poolSizeProp == null ? DEFAULT_THREAD_POOL_SIZE : Integer.parseInt(poolSizeProp);
+
+                    String queueCapacityProp = AppContext.getProperty("cuba.remotingAsyncQueueCapacity");
+                    int queueCapacity = queueCapacityProp == null ? DEFAULT_QUEUE_CAPACITY : Integer.parseInt(queueCapacityProp);
+
+                    executor = createExecutor(poolSize, queueCapacity);
+                }
+            }
+        }
+        return executor;
+    }
+
+    static ThreadPoolExecutor createExecutor(int poolSize, int queueCapacity) {
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(poolSize, poolSize,
+                60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity), new ThreadFactory() {
+            private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+            @Override
+            public Thread newThread(@Nonnull Runnable r) {
+                Thread thread = new Thread(r, "AsyncRemoteInvocation-" + threadNumber.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        return threadPoolExecutor;
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.cuba.core.sys.remoting;
+
+import com.haulmont.cuba.core.sys.remoting.discovery.ServerSelector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.remoting.httpinvoker.HttpInvokerClientConfiguration;
+import org.springframework.remoting.support.RemoteInvocation;
+import org.springframework.remoting.support.RemoteInvocationResult;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * INTERNAL.
+ * Collects invocations of service methods returning {@link CompletableFuture} made in the current thread
+ * between {@link #begin()} and {@link #end()} and sends them to middleware in a single request per server selector.
+ * The futures are completed when {@link #end()} is invoked. Methods returning other types are invoked immediately.
+ * If the code collecting invocations fails, {@link #abort()} must be invoked instead of {@link #end()}.
+ */
+public final class BatchedRemoteInvocations {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchedRemoteInvocations.class);
+
+    private static final ThreadLocal<Batch> currentBatch = new ThreadLocal<>();
+
+    private BatchedRemoteInvocations() {
+    }
+
+    private static class Entry {
+        private final HttpServiceProxy proxy;
+        private final RemoteInvocation invocation;
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        private Entry(HttpServiceProxy proxy, RemoteInvocation invocation) {
+            this.proxy = proxy;
+            this.invocation = invocation;
+        }
+    }
+
+    private static class Batch {
+        private int depth;
+        private boolean aborted;
+        private List<Entry> entries = new ArrayList<>();
+    }
+
+    /**
+     * Starts collecting invocations in the current thread. Nested invocations of this method join the outer batch.
+     */
+    public static void begin() {
+        Batch batch = currentBatch.get();
+        if (batch == null) {
+            batch = new Batch();
+            currentBatch.set(batch);
+        }
+        batch.depth++;
+    }
+
+    /**
+     * @return true if invocations are being collected in the current thread
+     */
+    public static boolean isActive() {
+        return currentBatch.get() != null;
+    }
+
+    /**
+     * Sends collected invocations to middleware and completes their futures if this is the end of the outermost batch.
+     */
+    public static void end() {
+        Batch batch = currentBatch.get();
+        if (batch == null)
+            throw new IllegalStateException("Batch is not started");
+
+        if (--batch.depth > 0)
+            return;
+
+        currentBatch.remove();
+        if (batch.aborted) {
+            cancel(batch);
+            return;
+        }
+
+        Map<ServerSelector, List<Entry>> entriesBySelector = new LinkedHashMap<>();
+        for (Entry entry : batch.entries) {
+            entriesBySelector.computeIfAbsent(entry.proxy.getServerSelector(), s -> new ArrayList<>()).add(entry);
+        }
+        for (List<Entry> entries : entriesBySelector.values()) {
+            execute(entries);
+        }
+    }
+
+    /**
+     * Discards collected invocations without sending them to middleware and cancels their futures.
+     * If invoked in a nested batch, the outermost batch is discarded when it ends.
+     */
+    public static void abort() {
+        Batch batch = currentBatch.get();
+        if (batch == null)
+            throw new IllegalStateException("Batch is not started");
+
+        batch.aborted = true;
+        if (--batch.depth > 0)
+            return;
+
+        currentBatch.remove();
+        cancel(batch);
+    }
+
+    private static void cancel(Batch batch) {
+        log.debug("Discarding {} batched invocations", batch.entries.size());
+        for (Entry entry : batch.entries) {
+            entry.future.cancel(false);
+        }
+    }
+
+    static CompletableFuture<Object> add(HttpServiceProxy proxy, RemoteInvocation invocation) {
+        Batch batch = currentBatch.get();
+        if (batch == null)
+            throw new IllegalStateException("Batch is not started");
+
+        Entry entry = new Entry(proxy, invocation);
+        batch.entries.add(entry);
+        return entry.future;
+    }
+
+    private static void execute(List<Entry> entries) {
+        RemoteInvocationBatch batchInvocation = new RemoteInvocationBatch();
+        for (Entry entry : entries) {
+            batchInvocation.add(entry.proxy.getServiceUrl(), entry.invocation);
+        }
+
+        HttpServiceProxy proxy = entries.get(0).proxy;
+        HttpInvokerClientConfiguration config = new HttpInvokerClientConfiguration() {
+            @Override
+            public String getServiceUrl() {
+                return RemoteInvocationBatch.SERVICE_NAME;
+            }
+
+            @Override
+            public String getCodebaseUrl() {
+                return proxy.getCodebaseUrl();
+            }
+        };
+
+        List<RemoteInvocationResult> results;
+        try {
+            log.debug("Sending {} batched invocations", batchInvocation.size());
+            RemoteInvocationResult batchResult;
+            try {
+                batchResult = proxy.getHttpInvokerRequestExecutor().executeRequest(config, batchInvocation);
+            } catch (Throwable e) {
+                throw proxy.convertAccessException(e);
+            }
+            //noinspection unchecked
+            results = (List<RemoteInvocationResult>) batchResult.recreate();
+        } catch (Throwable e) {
+            for (Entry entry : entries) {
+                entry.future.completeExceptionally(e);
+            }
+            return;
+        }
+
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            try {
+                entry.future.complete(entry.proxy.recreateRemoteInvocationResult(results.get(i)));
+            } catch (Throwable e) {
+                entry.future.completeExceptionally(e);
+            }
+        }
+    }
+}
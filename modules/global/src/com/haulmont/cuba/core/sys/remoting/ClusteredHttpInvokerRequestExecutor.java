@@ -41,11 +41,17 @@ import java.net.URLConnection;
 /**
  * HttpInvokerRequestExecutor that executes a request on a server which is selected according to the current cluster
  * topology, provided by {@link ServerSelector}.
+ * <p>Requests and responses are compressed according to the {@code cuba.remotingCompression} app property,
+ * see {@link RemotingCompression}.</p>
  */
 public class ClusteredHttpInvokerRequestExecutor extends SimpleHttpInvokerRequestExecutor {
 
     private ServerSelector serverSelector;
 
+    private String compression;
+
+    private int compressionThreshold;
+
     private static final Logger log = LoggerFactory.getLogger(ClusteredHttpInvokerRequestExecutor.class);
 
     public ClusteredHttpInvokerRequestExecutor(ServerSelector serverSelector) {
@@ -56,6 +62,17 @@ public class ClusteredHttpInvokerRequestExecutor extends SimpleHttpInvokerReques
 
         String readTimeoutProp = AppContext.getProperty("cuba.connectionReadTimeout");
         setReadTimeout(readTimeoutProp == null ? -1 : Integer.parseInt(readTimeoutProp));
+
+        String compressionProp = AppContext.getProperty("cuba.remotingCompression");
+        compression = RemotingCompression.isSupported(compressionProp) ? compressionProp : null;
+        setAcceptGzipEncoding(compression != null);
+
+        String thresholdProp = AppContext.getProperty("cuba.remotingCompressionThreshold");
+        compressionThreshold = thresholdProp == null ? RemotingCompression.DEFAULT_THRESHOLD : Integer.parseInt(thresholdProp);
+    }
+
+    public ServerSelector getServerSelector() {
+        return serverSelector;
     }
 
     @Override
@@ -64,6 +81,21 @@ public class ClusteredHttpInvokerRequestExecutor extends SimpleHttpInvokerReques
 
         RemoteInvocationResult result;
 
+        // compressed once, the body is resent as is on failover
+        ByteArrayOutputStream body = baos;
+        boolean compressed = false;
+        if (compression != null) {
+            ByteArrayOutputStream compressedBody = new ByteArrayOutputStream(Math.min(baos.size(), 8192));
+            ThresholdCompressingOutputStream cos = new ThresholdCompressingOutputStream(
+                    compressedBody, compression, compressionThreshold, () -> {});
+            baos.writeTo(cos);
+            cos.close();
+            if (cos.isCompressed()) {
+                body = compressedBody;
+                compressed = true;
+            }
+        }
+
         Object context = serverSelector.initContext();
         String url = currentServiceUrl(serverSelector.getUrl(context), config);
         if (url == null)
@@ -71,13 +103,19 @@ public class ClusteredHttpInvokerRequestExecutor extends SimpleHttpInvokerReques
 
         while (true) {
             HttpURLConnection con = openConnection(url);
+            serverSelector.requestStarted(context);
             try {
                 StopWatch sw = new StopWatch();
-                prepareConnection(con, baos.size());
-                writeRequestBody(config, con, baos);
+                prepareConnection(con, body.size());
+                if (compressed) {
+                    con.setRequestProperty(HTTP_HEADER_CONTENT_ENCODING, compression);
+                }
+                writeRequestBody(config, con, body);
                 sw.start("waiting time");
                 validateResponse(config, con);
-                CountingInputStream responseInputStream = new CountingInputStream(readResponseBody(config, con));
+                CountingInputStream wireInputStream = new CountingInputStream(con.getInputStream());
+                CountingInputStream responseInputStream = new CountingInputStream(
+                        RemotingCompression.decompress(con.getContentEncoding(), wireInputStream));
                 sw.stop();
 
                 serverSelector.success(context);
@@ -88,8 +126,13 @@ public class ClusteredHttpInvokerRequestExecutor extends SimpleHttpInvokerReques
                 }
                 sw.stop();
                 if (log.isDebugEnabled()) {
-                    log.debug(String.format("Receiving HTTP invoker response for service at [%s], with size %s, %s", config.getServiceUrl(),
-                            responseInputStream.getCount(), printStopWatch(sw)));
+                    log.debug(String.format("Receiving HTTP invoker response for service at [%s], with size %s, " +
+                                    "on wire %s (ratio %s), request size %s, on wire %s (ratio %s), %s",
+                            config.getServiceUrl(),
+                            responseInputStream.getCount(), wireInputStream.getCount(),
+                            RemotingCompression.formatRatio(responseInputStream.getCount(), wireInputStream.getCount()),
+                            baos.size(), body.size(), RemotingCompression.formatRatio(baos.size(), body.size()),
+                            printStopWatch(sw)));
                 }
                 break;
             } catch (IOException e) {
@@ -103,11 +146,22 @@ public class ClusteredHttpInvokerRequestExecutor extends SimpleHttpInvokerReques
                 }
                 log.info("No more URL available");
                 throw e;
+            } finally {
+                serverSelector.requestFinished(context);
             }
         }
         return result;
     }
 
+    @Override
+    protected void prepareConnection(HttpURLConnection connection, int contentLength) throws IOException {
+        super.prepareConnection(connection, contentLength);
+        if (RemotingCompression.LZ4.equals(compression)) {
+            connection.setRequestProperty(HTTP_HEADER_ACCEPT_ENCODING,
+                    RemotingCompression.LZ4 + ", " + RemotingCompression.GZIP);
+        }
+    }
+
     @Nullable
     protected String currentServiceUrl(String url, HttpInvokerClientConfiguration config) {
         return url == null ? null :  url + "/" + config.getServiceUrl();
@@ -19,7 +19,11 @@ package com.haulmont.cuba.core.sys.remoting;
 
 import com.haulmont.cuba.core.global.RemoteException;
 import com.haulmont.cuba.core.sys.remoting.discovery.ServerSelector;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.remoting.RemoteAccessException;
+import org.springframework.remoting.RemoteInvocationFailureException;
 import org.springframework.remoting.httpinvoker.HttpInvokerProxyFactoryBean;
+import org.springframework.remoting.support.RemoteInvocation;
 import org.springframework.remoting.support.RemoteInvocationResult;
 import org.springframework.remoting.support.RemoteInvocationUtils;
 
@@ -27,7 +31,10 @@ import java.lang.reflect.InvocationTargetException;
 
 public class HttpServiceProxy extends HttpInvokerProxyFactoryBean {
 
+    protected ServerSelector serverSelector;
+
     public HttpServiceProxy(ServerSelector selector) {
+        this.serverSelector = selector;
         setRemoteInvocationFactory(new CubaRemoteInvocationFactory());
 
         ClusteredHttpInvokerRequestExecutor executor = new ClusteredHttpInvokerRequestExecutor(selector);
@@ -35,6 +42,52 @@ public class HttpServiceProxy extends HttpInvokerProxyFactoryBean {
         setHttpInvokerRequestExecutor(executor);
     }
 
+    public ServerSelector getServerSelector() {
+        return serverSelector;
+    }
+
+    /**
+     * Methods returning {@link java.util.concurrent.CompletableFuture} are invoked asynchronously,
+     * see {@link AsyncRemoteInvocations}, or added to the current batch, see {@link BatchedRemoteInvocations}.
+     */
+    @Override
+    public Object invoke(MethodInvocation methodInvocation) throws Throwable {
+        if (!AsyncRemoteInvocations.isAsync(methodInvocation.getMethod())) {
+            return super.invoke(methodInvocation);
+        }
+
+        // create the invocation in the calling thread to pass the current session and request scope info
+        RemoteInvocation invocation = createRemoteInvocation(methodInvocation);
+        if (BatchedRemoteInvocations.isActive()) {
+            return BatchedRemoteInvocations.add(this, invocation);
+        }
+        return AsyncRemoteInvocations.supplyAsync(() -> {
+            RemoteInvocationResult result;
+            try {
+                result = executeRequest(invocation, methodInvocation);
+            } catch (Throwable ex) {
+                throw convertAccessException(ex);
+            }
+            try {
+                return recreateRemoteInvocationResult(result);
+            } catch (Throwable ex) {
+                if (result.hasInvocationTargetException()) {
+                    throw ex;
+                }
+                throw new RemoteInvocationFailureException("Invocation of method [" + methodInvocation.getMethod() +
+                        "] failed in HTTP invoker remote service at [" + getServiceUrl() + "]", ex);
+            }
+        });
+    }
+
+    /**
+     * Converts an exception thrown while sending a request to {@link RemoteAccessException} if possible.
+     */
+    protected Throwable convertAccessException(Throwable ex) {
+        RemoteAccessException rae = convertHttpInvokerAccessException(ex);
+        return rae != null ? rae : ex;
+    }
+
     @Override
     protected Object recreateRemoteInvocationResult(RemoteInvocationResult result) throws Throwable {
         Throwable throwable = result.getException();
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.cuba.core.sys.remoting;
+
+import org.springframework.remoting.support.RemoteInvocation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Several invocations of middleware services sent in a single request.
+ * <p>Executed by the {@link #SERVICE_NAME} endpoint which returns a list of
+ * {@link org.springframework.remoting.support.RemoteInvocationResult}s in the order of invocations.</p>
+ */
+public class RemoteInvocationBatch extends RemoteInvocation {
+
+    private static final long serialVersionUID = -2218915382364545416L;
+
+    public static final String SERVICE_NAME = "cuba_RemoteInvocationBatch";
+
+    private List<String> serviceNames = new ArrayList<>();
+    private List<RemoteInvocation> invocations = new ArrayList<>();
+
+    public void add(String serviceName, RemoteInvocation invocation) {
+        serviceNames.add(serviceName);
+        invocations.add(invocation);
+    }
+
+    public List<String> getServiceNames() {
+        return serviceNames;
+    }
+
+    public List<RemoteInvocation> getInvocations() {
+        return invocations;
+    }
+
+    public int size() {
+        return invocations.size();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.cuba.core.sys.remoting;
+
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorInputStream;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorOutputStream;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * INTERNAL.
+ * Content encodings supported for remoting requests and responses.
+ * <p>LZ4 is fast and suits LAN connections, gzip gives better compression ratio for slow connections.
+ * The encoding used by a client is defined by the {@code cuba.remotingCompression} app property, payloads smaller than
+ * {@code cuba.remotingCompressionThreshold} bytes are not compressed.</p>
+ */
+public final class RemotingCompression {
+
+    public static final String GZIP = "gzip";
+    public static final String LZ4 = "lz4";
+
+    public static final int DEFAULT_THRESHOLD = 4096;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private RemotingCompression() {
+    }
+
+    public static boolean isSupported(@Nullable String encoding) {
+        return GZIP.equals(encoding) || LZ4.equals(encoding);
+    }
+
+    /**
+     * Selects the first supported encoding from the value of {@code Accept-Encoding} header.
+     *
+     * @return encoding or null if no encoding is supported
+     */
+    @Nullable
+    public static String selectEncoding(@Nullable String acceptEncoding) {
+        if (StringUtils.isBlank(acceptEncoding))
+            return null;
+
+        for (String token : acceptEncoding.split(",")) {
+            String encoding = StringUtils.substringBefore(token, ";").trim().toLowerCase();
+            if (isSupported(encoding))
+                return encoding;
+        }
+        return null;
+    }
+
+    public static OutputStream compress(String encoding, OutputStream os) throws IOException {
+        switch (encoding) {
+            case GZIP:
+                return new GZIPOutputStream(os, BUFFER_SIZE);
+            case LZ4:
+                return new FramedLZ4CompressorOutputStream(os);
+            default:
+                throw new IllegalArgumentException("Unsupported encoding: " + encoding);
+        }
+    }
+
+    public static InputStream decompress(@Nullable String encoding, InputStream is) throws IOException {
+        if (GZIP.equals(encoding))
+            return new GZIPInputStream(is, BUFFER_SIZE);
+        if (LZ4.equals(encoding))
+            return new FramedLZ4CompressorInputStream(is);
+        return is;
+    }
+
+    /**
+     * @return compression ratio as a string for logging
+     */
+    public static String formatRatio(long size, long wireSize) {
+        return wireSize == 0 ? "1.00" : String.format("%.2f", (double) size / wireSize);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.cuba.core.sys.remoting;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * INTERNAL.
+ * Output stream which buffers data until the threshold is reached and then compresses it to the target stream.
+ * If the stream is closed before reaching the threshold, the data is written uncompressed.
+ */
+public class ThresholdCompressingOutputStream extends OutputStream {
+
+    protected final OutputStream target;
+    protected final String encoding;
+    protected final int threshold;
+    protected final Runnable beforeCompression;
+
+    protected ByteArrayOutputStream buffer;
+    protected OutputStream out;
+    protected long count;
+    protected boolean compressed;
+
+    /**
+     * @param target            target stream
+     * @param encoding          encoding or null to pass data without compression
+     * @param threshold         minimal size of data to compress
+     * @param beforeCompression invoked before writing compressed data, e.g. to set the content encoding header
+     */
+    public ThresholdCompressingOutputStream(OutputStream target, @Nullable String encoding, int threshold,
+                                            Runnable beforeCompression) {
+        this.target = target;
+        this.encoding = encoding;
+        this.threshold = threshold;
+        this.beforeCompression = beforeCompression;
+        if (encoding == null || threshold < 0) {
+            out = target;
+        } else {
+            buffer = new ByteArrayOutputStream(Math.min(threshold, 8192) + 1);
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        count += len;
+        if (out == null) {
+            buffer.write(b, off, len);
+            if (buffer.size() <= threshold)
+                return;
+
+            beforeCompression.run();
+            out = RemotingCompression.compress(encoding, target);
+            compressed = true;
+            buffer.writeTo(out);
+            buffer = null;
+        } else {
+            out.write(b, off, len);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (out != null)
+            out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out == null) {
+            out = target;
+            buffer.writeTo(out);
+            buffer = null;
+        }
+        out.close();
+    }
+
+    /**
+     * @return number of bytes written to this stream
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return true if the data is compressed
+     */
+    public boolean isCompressed() {
+        return compressed;
+    }
+}
@@ -0,0 +1,343 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.cuba.core.sys.remoting.discovery;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementation of the {@link ServerSelector} interface working with static list of cluster members and taking
+ * into account the response times of the servers.
+ * <p>For each server, the selector keeps an exponentially weighted moving average (EWMA) of the response time
+ * and the number of requests in progress. A server which becomes {@link #setPenaltyFactor(double) much slower}
+ * than the fastest one is put into a penalty box for {@link #setPenaltyTime(long) some time} and receives
+ * requests only if no other servers are available.</p>
+ * <p>If {@link #setStickySessions(boolean) stickySessions} is true (default), requests of a session go to the
+ * server assigned to the session as in {@link StaticServerSelector}, unless the server is penalized. Otherwise,
+ * and for requests without a session, the server is chosen by the "power of two choices": from two random
+ * available servers the one with the lower {@code EWMA * (requests in progress + 1)} is taken.</p>
+ * <p>As a server losing the comparison receives no requests, its average would never change. So if a server has not
+ * responded for {@link #setProbeInterval(long) some time}, one request is sent to it as a probe, and the first
+ * response after such a pause starts a new average.</p>
+ * <p>Usage in {@code spring.xml}:</p>
+ * <pre>
+ * &lt;bean id="cuba_ServerSelector"
+ *       class="com.haulmont.cuba.core.sys.remoting.discovery.LatencyAwareServerSelector" init-method="init"&gt;
+ *     &lt;property name="baseUrl" value="${cuba.connectionUrlList}"/&gt;
+ *     &lt;property name="serverSorter" ref="cuba_ServerSorter"/&gt;
+ *     &lt;property name="servletPath" value="remoting"/&gt;
+ *     &lt;property name="stickySessions" value="false"/&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ */
+public class LatencyAwareServerSelector extends StaticServerSelector {
+
+    private static final Logger log = LoggerFactory.getLogger(LatencyAwareServerSelector.class);
+
+    protected boolean stickySessions = true;
+
+    protected double decay = 0.3;
+
+    protected double penaltyFactor = 3.0;
+
+    protected long penaltyMinLatency = 500;
+
+    protected long penaltyTime = 30000;
+
+    protected long probeInterval = 10000;
+
+    protected Map<String, ServerStats> stats = new ConcurrentHashMap<>();
+
+    protected static class ServerStats {
+        protected final AtomicInteger inFlight = new AtomicInteger();
+        protected volatile double latency = -1;
+        protected volatile long penaltyUntil;
+        protected volatile boolean penalized;
+        protected volatile long lastResponseTime;
+        protected volatile long lastProbeTime;
+
+        protected double getScore() {
+            return Math.max(latency, 0) * (inFlight.get() + 1);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("latency=%.1fms, inFlight=%d%s", Math.max(latency, 0), inFlight.get(),
+                    penalized ? ", penalized" : "");
+        }
+    }
+
+    protected static class LatencyContext extends Context {
+        protected String startedUrl;
+        protected long startTime;
+    }
+
+    public boolean isStickySessions() {
+        return stickySessions;
+    }
+
+    /**
+     * Whether requests of a session should go to the same server while it is not penalized. True by default.
+     */
+    public void setStickySessions(boolean stickySessions) {
+        this.stickySessions = stickySessions;
+    }
+
+    public double getDecay() {
+        return decay;
+    }
+
+    /**
+     * Weight of the latest response time in the moving average, from 0 to 1. Default is 0.3.
+     */
+    public void setDecay(double decay) {
+        if (decay <= 0 || decay > 1)
+            throw new IllegalArgumentException("decay must be in (0, 1]");
+        this.decay = decay;
+    }
+
+    public double getPenaltyFactor() {
+        return penaltyFactor;
+    }
+
+    /**
+     * How many times the average response time of a server should exceed the one of the fastest server to put
+     * the server into the penalty box. Default is 3.
+     */
+    public void setPenaltyFactor(double penaltyFactor) {
+        this.penaltyFactor = penaltyFactor;
+    }
+
+    public long getPenaltyMinLatency() {
+        return penaltyMinLatency;
+    }
+
+    /**
+     * Average response time in milliseconds below which a server is never penalized. Default is 500.
+     */
+    public void setPenaltyMinLatency(long penaltyMinLatency) {
+        this.penaltyMinLatency = penaltyMinLatency;
+    }
+
+    public long getPenaltyTime() {
+        return penaltyTime;
+    }
+
+    /**
+     * Time in milliseconds a slow server stays in the penalty box. Default is 30000.
+     */
+    public void setPenaltyTime(long penaltyTime) {
+        this.penaltyTime = penaltyTime;
+    }
+
+    public long getProbeInterval() {
+        return probeInterval;
+    }
+
+    /**
+     * Time in milliseconds after which a server that has not responded receives a request regardless of its
+     * average response time. Default is 10000.
+     */
+    public void setProbeInterval(long probeInterval) {
+        this.probeInterval = probeInterval;
+    }
+
+    @Override
+    public Object initContext() {
+        LatencyContext ctx = (LatencyContext) super.initContext();
+        if (ctx.urls.size() > 1) {
+            long now = System.currentTimeMillis();
+            List<String> available = new ArrayList<>(ctx.urls.size());
+            List<String> penalized = new ArrayList<>(1);
+            for (String url : ctx.urls) {
+                if (isPenalized(url, now))
+                    penalized.add(url);
+                else
+                    available.add(url);
+            }
+            if (!(stickySessions && getSessionUrlsHolder() != null)) {
+                chooseFirst(available);
+            }
+            if (!penalized.isEmpty()) {
+                available.addAll(penalized);
+            }
+            ctx.urls = available;
+            log.trace("Context reordered: {}", ctx);
+        }
+        return ctx;
+    }
+
+    @Override
+    protected Context createContext() {
+        return new LatencyContext();
+    }
+
+    /**
+     * Moves the server chosen by the "power of two choices" to the beginning of the list. If the other server
+     * should be probed, it is chosen instead.
+     */
+    protected void chooseFirst(List<String> urls) {
+        int count = 0;
+        while (count < urls.size() && !failedUrls.contains(urls.get(count))) {
+            count++;
+        }
+        if (count < 2)
+            return;
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i = random.nextInt(count);
+        int j = random.nextInt(count - 1);
+        if (j >= i)
+            j++;
+        int chosen = getStats(urls.get(i)).getScore() <= getStats(urls.get(j)).getScore() ? i : j;
+        int other = chosen == i ? j : i;
+        if (tryProbe(urls.get(other), System.currentTimeMillis())) {
+            chosen = other;
+        }
+        if (chosen != 0) {
+            urls.add(0, urls.remove(chosen));
+        }
+    }
+
+    @Override
+    public void requestStarted(Object context) {
+        LatencyContext ctx = (LatencyContext) context;
+        if (ctx.lastUrl == null)
+            return;
+        getStats(ctx.lastUrl).inFlight.incrementAndGet();
+        ctx.startedUrl = ctx.lastUrl;
+        ctx.startTime = System.nanoTime();
+    }
+
+    @Override
+    public void success(Object context) {
+        super.success(context);
+
+        LatencyContext ctx = (LatencyContext) context;
+        if (ctx.startedUrl != null) {
+            double latency = (System.nanoTime() - ctx.startTime) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+            updateLatency(ctx.startedUrl, latency);
+        }
+    }
+
+    @Override
+    public void requestFinished(Object context) {
+        LatencyContext ctx = (LatencyContext) context;
+        if (ctx.startedUrl != null) {
+            getStats(ctx.startedUrl).inFlight.decrementAndGet();
+            ctx.startedUrl = null;
+        }
+    }
+
+    /**
+     * @return human-readable statistics on the servers, for diagnostics
+     */
+    public String printStatistics() {
+        StringBuilder sb = new StringBuilder();
+        for (String url : getUrls()) {
+            sb.append(url).append(": ").append(getStats(url)).append("\n");
+        }
+        return sb.toString();
+    }
+
+    protected ServerStats getStats(String url) {
+        return stats.computeIfAbsent(url, s -> new ServerStats());
+    }
+
+    protected boolean isPenalized(String url, long now) {
+        ServerStats serverStats = stats.get(url);
+        return serverStats != null && serverStats.penalized && serverStats.penaltyUntil > now;
+    }
+
+    /**
+     * @return true if the server has not responded for the {@link #setProbeInterval(long) probe interval} and
+     * was not probed during it; the probe time is registered in this case
+     */
+    protected boolean tryProbe(String url, long now) {
+        ServerStats serverStats = getStats(url);
+        if (serverStats.latency < 0)
+            return false;
+        synchronized (serverStats) {
+            if (now - Math.max(serverStats.lastResponseTime, serverStats.lastProbeTime) < probeInterval)
+                return false;
+            serverStats.lastProbeTime = now;
+        }
+        log.debug("Probing server {}: {}", url, serverStats);
+        return true;
+    }
+
+    protected void updateLatency(String url, double latency) {
+        ServerStats serverStats = getStats(url);
+        long now = System.currentTimeMillis();
+        synchronized (serverStats) {
+            if (serverStats.latency < 0
+                    || serverStats.penalized && serverStats.penaltyUntil <= now
+                    || now - serverStats.lastResponseTime >= probeInterval) {
+                // the first response after the penalty box or a pause starts a new average
+                serverStats.latency = latency;
+                serverStats.penalized = false;
+            } else {
+                serverStats.latency += decay * (latency - serverStats.latency);
+            }
+            serverStats.lastResponseTime = now;
+        }
+
+        double minLatency = getMinLatency(url);
+        if (minLatency >= 0
+                && serverStats.latency > penaltyMinLatency
+                && serverStats.latency > minLatency * penaltyFactor) {
+            penalize(url, serverStats, minLatency);
+        }
+    }
+
+    /**
+     * @return minimal average response time of the servers except the given one, or -1 if not known
+     */
+    protected double getMinLatency(String excludedUrl) {
+        long now = System.currentTimeMillis();
+        double min = -1;
+        for (Map.Entry<String, ServerStats> entry : stats.entrySet()) {
+            if (entry.getKey().equals(excludedUrl) || failedUrls.contains(entry.getKey())
+                    || isPenalized(entry.getKey(), now))
+                continue;
+            double latency = entry.getValue().latency;
+            if (latency >= 0 && (min < 0 || latency < min)) {
+                min = latency;
+            }
+        }
+        return min;
+    }
+
+    protected void penalize(String url, ServerStats serverStats, double minLatency) {
+        synchronized (serverStats) {
+            if (serverStats.penalized)
+                return;
+            serverStats.penaltyUntil = System.currentTimeMillis() + penaltyTime;
+            serverStats.penalized = true;
+        }
+        log.info(String.format("Server %s is put into penalty box for %d ms: average response time %.1f ms, " +
+                "minimal of other servers %.1f ms", url, penaltyTime, serverStats.latency, minLatency));
+    }
+}
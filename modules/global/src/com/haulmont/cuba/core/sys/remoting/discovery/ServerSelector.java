@@ -61,4 +61,21 @@ public interface ServerSelector {
      * @param context obtained by the prior invocation of {@link #initContext()}
      */
     void fail(Object context);
+
+    /**
+     * Mark the beginning of a request to the last obtained server URL. Implementations can use it together with
+     * {@link #success(Object)} and {@link #requestFinished(Object)} to collect statistics on server response times.
+     *
+     * @param context obtained by the prior invocation of {@link #initContext()}
+     */
+    default void requestStarted(Object context) {
+    }
+
+    /**
+     * Mark the end of a request started by {@link #requestStarted(Object)}, regardless of its outcome.
+     *
+     * @param context obtained by the prior invocation of {@link #initContext()}
+     */
+    default void requestFinished(Object context) {
+    }
 }
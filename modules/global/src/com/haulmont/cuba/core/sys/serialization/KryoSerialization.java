@@ -34,6 +34,13 @@ import com.haulmont.chile.core.model.impl.MetaPropertyImpl;
 import com.haulmont.cuba.core.entity.BaseEntityInternalAccess;
 import com.haulmont.cuba.core.entity.BaseGenericIdEntity;
 import com.haulmont.cuba.core.entity.Entity;
+import com.haulmont.cuba.core.entity.FileDescriptor;
+import com.haulmont.cuba.core.entity.KeyValueEntity;
+import com.haulmont.cuba.core.global.CommitContext;
+import com.haulmont.cuba.core.global.LoadContext;
+import com.haulmont.cuba.core.global.ValueLoadContext;
+import com.haulmont.cuba.core.global.View;
+import com.haulmont.cuba.core.global.ViewProperty;
 import de.javakaffee.kryoserializers.*;
 import de.javakaffee.kryoserializers.cglib.CGLibProxySerializer;
 import de.javakaffee.kryoserializers.guava.ImmutableListSerializer;
@@ -57,7 +64,10 @@ import java.io.*;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.stream.Collectors;
 
 /**
@@ -71,19 +81,76 @@ public class KryoSerialization implements Serialization {
             Arrays.asList("value", "isInstantiated", "mapping", "sourceAttributeName", "relationshipSourceObject");
 
 
+    /**
+     * Default maximum number of idle Kryo instances kept in the pool.
+     */
+    public static final int DEFAULT_POOL_SIZE = Math.max(16, Runtime.getRuntime().availableProcessors() * 4);
+
+    protected static final int BUFFER_SIZE = 4096;
+
+    /**
+     * Buffers grown above this size are not returned to the pool.
+     */
+    protected static final int MAX_POOLED_BUFFER_SIZE = 1024 * 1024;
+
     protected boolean onlySerializable = true;
-    protected final ThreadLocal<Kryo> kryos = new ThreadLocal<Kryo>() {
-        @Override
-        protected Kryo initialValue() {
-            return newKryoInstance();
-        }
-    };
+
+    protected final BlockingQueue<KryoContext> pool;
 
     public KryoSerialization() {
+        this(true);
     }
 
     public KryoSerialization(boolean onlySerializable) {
+        this(onlySerializable, DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * @param onlySerializable whether to serialize only classes implementing {@link Serializable}
+     * @param poolSize         maximum number of idle Kryo instances with their buffers kept for reuse. Instances are
+     *                         created on demand, so the pool size doesn't limit concurrency.
+     */
+    public KryoSerialization(boolean onlySerializable, int poolSize) {
         this.onlySerializable = onlySerializable;
+        this.pool = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    /**
+     * Kryo instance with the input and output buffers used by it. An instance is used by one thread at a time.
+     */
+    protected static class KryoContext {
+        protected final Kryo kryo;
+        protected CubaOutput output;
+        protected Input input;
+
+        protected KryoContext(Kryo kryo) {
+            this.kryo = kryo;
+            this.output = new CubaOutput(BUFFER_SIZE, -1);
+            this.input = new Input(BUFFER_SIZE);
+        }
+    }
+
+    protected KryoContext borrow() {
+        KryoContext context = pool.poll();
+        return context != null ? context : new KryoContext(newKryoInstance());
+    }
+
+    protected void release(KryoContext context) {
+        if (context.output.getBuffer().length > MAX_POOLED_BUFFER_SIZE) {
+            context.output = new CubaOutput(BUFFER_SIZE, -1);
+        }
+        if (context.input.getBuffer().length > MAX_POOLED_BUFFER_SIZE) {
+            context.input = new Input(BUFFER_SIZE);
+        }
+        // drop the instance if the pool is full
+        pool.offer(context);
+    }
+
+    /**
+     * @return number of idle Kryo instances in the pool
+     */
+    public int getPoolSize() {
+        return pool.size();
     }
 
     protected Kryo newKryoInstance() {
@@ -131,34 +198,84 @@ public class KryoSerialization implements Serialization {
         kryo.register(UnitOfWorkQueryValueHolder.class, new UnitOfWorkQueryValueHolderSerializer(kryo));
 
         registerEntitySerializer(kryo);
+        registerFrequentClasses(kryo);
 
         return kryo;
     }
 
+    /**
+     * Registers classes which are passed in most of the remote calls, so Kryo writes their IDs instead of class names.
+     * The registration order defines the IDs, so it must be the same on all sides of the communication.
+     */
+    protected void registerFrequentClasses(Kryo kryo) {
+        kryo.register(UUID.class);
+        kryo.register(Date.class);
+        kryo.register(java.sql.Date.class);
+        kryo.register(java.sql.Timestamp.class);
+        kryo.register(BigDecimal.class);
+        kryo.register(Locale.class);
+        kryo.register(ArrayList.class);
+        kryo.register(LinkedList.class);
+        kryo.register(HashMap.class);
+        kryo.register(LinkedHashMap.class);
+        kryo.register(HashSet.class);
+        kryo.register(LinkedHashSet.class);
+        kryo.register(LoadContext.class);
+        kryo.register(LoadContext.Query.class);
+        kryo.register(ValueLoadContext.class);
+        kryo.register(ValueLoadContext.Query.class);
+        kryo.register(CommitContext.class);
+        kryo.register(View.class);
+        kryo.register(ViewProperty.class);
+        kryo.register(KeyValueEntity.class);
+        kryo.register(FileDescriptor.class);
+    }
+
     @Override
-    @SuppressWarnings("finally")
     public void serialize(Object object, OutputStream os) {
-        try (Output output = new CubaOutput(os)) {
-            if (object instanceof BaseGenericIdEntity
-                    && BaseEntityInternalAccess.isManaged((BaseGenericIdEntity) object)) {
-                BaseEntityInternalAccess.setDetached((BaseGenericIdEntity) object, true);
+        KryoContext context = borrow();
+        try {
+            CubaOutput output = context.output;
+            output.setOutputStream(os);
+            try {
+                writeObject(context.kryo, output, object);
+                output.flush();
+            } finally {
+                output.setOutputStream(null);
             }
-            kryos.get().writeClassAndObject(output, object);
+        } finally {
+            release(context);
         }
     }
 
     @Override
     public Object deserialize(InputStream is) {
-        try (Input input = new Input(is)) {
-            return kryos.get().readClassAndObject(input);
+        KryoContext context = borrow();
+        try {
+            Input input = context.input;
+            input.setInputStream(is);
+            try {
+                return context.kryo.readClassAndObject(input);
+            } finally {
+                input.close();
+                input.setInputStream(null);
+            }
+        } finally {
+            release(context);
         }
     }
 
     @Override
     public byte[] serialize(Object object) {
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        serialize(object, bos);
-        return bos.toByteArray();
+        KryoContext context = borrow();
+        try {
+            CubaOutput output = context.output;
+            output.clear();
+            writeObject(context.kryo, output, object);
+            return output.toBytes();
+        } finally {
+            release(context);
+        }
     }
 
     @Override
@@ -167,14 +284,39 @@ public class KryoSerialization implements Serialization {
             return null;
         }
 
-        return deserialize(new ByteArrayInputStream(bytes));
+        KryoContext context = borrow();
+        try {
+            Input input = context.input;
+            byte[] buffer = input.getBuffer();
+            input.setBuffer(bytes);
+            try {
+                return context.kryo.readClassAndObject(input);
+            } finally {
+                input.setBuffer(buffer);
+            }
+        } finally {
+            release(context);
+        }
     }
 
     public Object copy(Object object) {
         if (object == null) {
             return null;
         }
-        return kryos.get().copy(object);
+        KryoContext context = borrow();
+        try {
+            return context.kryo.copy(object);
+        } finally {
+            release(context);
+        }
+    }
+
+    protected void writeObject(Kryo kryo, Output output, Object object) {
+        if (object instanceof BaseGenericIdEntity
+                && BaseEntityInternalAccess.isManaged((BaseGenericIdEntity) object)) {
+            BaseEntityInternalAccess.setDetached((BaseGenericIdEntity) object, true);
+        }
+        kryo.writeClassAndObject(output, object);
     }
 
     protected void registerEntitySerializer(Kryo kryo) {
@@ -371,6 +513,10 @@ public class KryoSerialization implements Serialization {
             super(outputStream);
         }
 
+        public CubaOutput(int bufferSize, int maxBufferSize) {
+            super(bufferSize, maxBufferSize);
+        }
+
         @Override
         public void close() {
             //Prevent close stream. Stream closed only by:
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.chile.core.model.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MethodsCacheTest {
+
+    public static class TestBean {
+        private int number;
+        private String name;
+        private TestBean parent;
+        private final String code = "code";
+
+        public int getNumber() {
+            return number;
+        }
+
+        public void setNumber(int number) {
+            this.number = number;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            if ("invalid".equals(name))
+                throw new IllegalArgumentException("invalid name");
+            this.name = name;
+        }
+
+        public TestBean getParent() {
+            return parent;
+        }
+
+        public void setParent(TestBean parent) {
+            this.parent = parent;
+        }
+
+        public boolean isRoot() {
+            return parent == null;
+        }
+    }
+
+    @Test
+    public void testGettersAndSetters() {
+        MethodsCache methodsCache = new MethodsCache(TestBean.class);
+        TestBean bean = new TestBean();
+        TestBean parent = new TestBean();
+
+        methodsCache.invokeSetter(bean, "number", 10);
+        methodsCache.invokeSetter(bean, "name", "bean");
+        methodsCache.invokeSetter(bean, "parent", parent);
+
+        assertEquals(10, methodsCache.invokeGetter(bean, "number"));
+        assertEquals("bean", methodsCache.invokeGetter(bean, "name"));
+        assertSame(parent, methodsCache.invokeGetter(bean, "parent"));
+        assertEquals(false, methodsCache.invokeGetter(bean, "root"));
+        assertSame(methodsCache.getGetter("name"), methodsCache.getGetter("name"));
+        assertNull(methodsCache.getSetter("root"));
+    }
+
+    @Test
+    public void testExceptions() {
+        MethodsCache methodsCache = new MethodsCache(TestBean.class);
+        TestBean bean = new TestBean();
+
+        try {
+            methodsCache.invokeSetter(bean, "name", "invalid");
+            fail();
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause().getCause() instanceof IllegalArgumentException);
+        }
+
+        try {
+            methodsCache.invokeGetter(bean, "unknown");
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testFieldAccessor() throws Exception {
+        TestBean bean = new TestBean();
+
+        FieldAccessor accessor = FieldAccessor.of(TestBean.class.getDeclaredField("name"));
+        assertSame(accessor, FieldAccessor.of(TestBean.class.getDeclaredField("name")));
+
+        // bypasses the setter
+        accessor.set(bean, "invalid");
+        assertEquals("invalid", accessor.get(bean));
+
+        FieldAccessor numberAccessor = FieldAccessor.of(TestBean.class.getDeclaredField("number"));
+        numberAccessor.set(bean, 5);
+        assertEquals(5, numberAccessor.get(bean));
+
+        FieldAccessor codeAccessor = FieldAccessor.of(TestBean.class.getDeclaredField("code"));
+        assertEquals("code", codeAccessor.get(bean));
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.haulmont.cuba.core.sys.jpql;
+
+import com.google.common.cache.CacheBuilder;
+import com.haulmont.cuba.core.sys.jpql.model.EntityBuilder;
+import com.haulmont.cuba.core.sys.jpql.model.JpqlEntityModel;
+import org.antlr.runtime.CommonToken;
+import org.antlr.runtime.tree.CommonTree;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class QueryTreeCacheTest {
+
+    private QueryTreeCache queryTreeCache;
+    private DomainModel model;
+
+    @Before
+    public void setUp() {
+        queryTreeCache = new QueryTreeCache();
+        queryTreeCache.maxSize = 10;
+        queryTreeCache.cache = CacheBuilder.newBuilder().maximumSize(10).recordStats().build();
+
+        EntityBuilder builder = new EntityBuilder();
+        builder.startNewEntity("Team");
+        builder.addStringAttribute("name");
+        JpqlEntityModel teamEntity = builder.produce();
+
+        builder.startNewEntity("Player");
+        builder.addStringAttribute("nickname");
+        builder.addReferenceAttribute("team", "Team");
+        JpqlEntityModel playerEntity = builder.produce();
+
+        model = new DomainModel(playerEntity, teamEntity);
+    }
+
+    @Test
+    public void returnsCopyOfCachedTree() {
+        String query = "select p from Player p join p.team t where t.name = :name and p.nickname like :nick " +
+                "and p.team.id in (select t1.id from Team t1 where t1.name is not null) order by p.nickname";
+
+        CommonTree tree1 = queryTreeCache.getTree(query);
+        CommonTree tree2 = queryTreeCache.getTree(query);
+
+        assertNotSame(tree1, tree2);
+        assertEquals(1, queryTreeCache.getMissCount());
+        assertEquals(1, queryTreeCache.getHitCount());
+        assertEquals(1, queryTreeCache.getSize());
+
+        String expected = toQuery(new QueryTree(model, query));
+        assertEquals(expected, toQuery(new QueryTree(model, tree1)));
+        assertEquals(expected, toQuery(new QueryTree(model, tree2)));
+    }
+
+    @Test
+    public void modificationsDoNotAffectCache() {
+        String query = "select p from Player p where p.nickname = :nick";
+
+        CommonTree tree = queryTreeCache.getTree(query);
+        ((CommonTree) tree.getChild(0)).addChild(new CommonTree(new CommonToken(0, "garbage")));
+
+        assertEquals(toQuery(new QueryTree(model, query)), toQuery(new QueryTree(model, queryTreeCache.getTree(query))));
+    }
+
+    @Test
+    public void clearCache() {
+        queryTreeCache.getTree("select p from Player p");
+        assertEquals(1, queryTreeCache.getSize());
+
+        queryTreeCache.clearCache();
+        assertEquals(0, queryTreeCache.getSize());
+    }
+
+    private String toQuery(QueryTree queryTree) {
+        return queryTree.visit(new TreeToQuery()).getQueryString().trim();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.cuba.core.sys.remoting;
+
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.junit.Assert.*;
+
+public class AsyncRemoteInvocationsTest {
+
+    public interface TestService {
+
+        String getValue();
+
+        CompletableFuture<String> getValueAsync();
+
+        CompletionStage<String> getValueStage();
+    }
+
+    @Test
+    public void testIsAsync() throws Exception {
+        assertFalse(AsyncRemoteInvocations.isAsync(TestService.class.getMethod("getValue")));
+        assertTrue(AsyncRemoteInvocations.isAsync(TestService.class.getMethod("getValueAsync")));
+        assertTrue(AsyncRemoteInvocations.isAsync(TestService.class.getMethod("getValueStage")));
+    }
+
+    @Test
+    public void testAwait() throws Exception {
+        assertEquals("value", AsyncRemoteInvocations.await("value"));
+        assertEquals("value", AsyncRemoteInvocations.await(CompletableFuture.completedFuture("value")));
+        assertNull(AsyncRemoteInvocations.await(null));
+
+        CompletableFuture<String> failed = new CompletableFuture<>();
+        IllegalStateException exception = new IllegalStateException("test");
+        failed.completeExceptionally(exception);
+        try {
+            AsyncRemoteInvocations.await(failed);
+            fail();
+        } catch (InvocationTargetException e) {
+            assertSame(exception, e.getTargetException());
+        }
+    }
+
+    @Test
+    public void testCallerRunsWhenQueueIsFull() throws Exception {
+        ThreadPoolExecutor executor = AsyncRemoteInvocations.createExecutor(1, 1);
+        CountDownLatch latch = new CountDownLatch(1);
+        try {
+            executor.execute(() -> {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            executor.execute(() -> {});
+            assertEquals(1, executor.getQueue().size());
+
+            Thread[] executingThread = new Thread[1];
+            executor.execute(() -> executingThread[0] = Thread.currentThread());
+            assertSame(Thread.currentThread(), executingThread[0]);
+        } finally {
+            latch.countDown();
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.cuba.core.sys.remoting;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class RemotingCompressionTest {
+
+    @Test
+    public void testSelectEncoding() {
+        assertNull(RemotingCompression.selectEncoding(null));
+        assertNull(RemotingCompression.selectEncoding("deflate"));
+        assertEquals("gzip", RemotingCompression.selectEncoding("gzip"));
+        assertEquals("lz4", RemotingCompression.selectEncoding("lz4, gzip"));
+        assertEquals("gzip", RemotingCompression.selectEncoding("br;q=1.0, gzip;q=0.8"));
+    }
+
+    @Test
+    public void testCompressAboveThreshold() throws Exception {
+        byte[] data = new byte[100_000];
+        Arrays.fill(data, (byte) 'a');
+
+        for (String encoding : Arrays.asList(RemotingCompression.GZIP, RemotingCompression.LZ4)) {
+            boolean[] headerSet = new boolean[1];
+            ByteArrayOutputStream wire = new ByteArrayOutputStream();
+            ThresholdCompressingOutputStream os = new ThresholdCompressingOutputStream(wire, encoding, 4096,
+                    () -> headerSet[0] = true);
+            os.write(data);
+            os.close();
+
+            assertTrue(os.isCompressed());
+            assertTrue(headerSet[0]);
+            assertEquals(data.length, os.getCount());
+            assertTrue(wire.size() < data.length / 10);
+
+            byte[] restored = IOUtils.toByteArray(
+                    RemotingCompression.decompress(encoding, new ByteArrayInputStream(wire.toByteArray())));
+            assertArrayEquals(data, restored);
+        }
+    }
+
+    @Test
+    public void testNoCompressionBelowThreshold() throws Exception {
+        byte[] data = new byte[1000];
+        Arrays.fill(data, (byte) 'a');
+
+        ByteArrayOutputStream wire = new ByteArrayOutputStream();
+        ThresholdCompressingOutputStream os = new ThresholdCompressingOutputStream(wire, RemotingCompression.LZ4, 4096,
+                () -> fail("Must not be compressed"));
+        os.write(data);
+        os.close();
+
+        assertFalse(os.isCompressed());
+        assertArrayEquals(data, wire.toByteArray());
+    }
+}
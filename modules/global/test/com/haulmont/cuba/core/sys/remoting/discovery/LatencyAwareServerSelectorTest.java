@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.cuba.core.sys.remoting.discovery;
+
+import com.haulmont.cuba.security.entity.User;
+import com.haulmont.cuba.security.global.UserSession;
+import org.junit.Test;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+
+public class LatencyAwareServerSelectorTest {
+
+    private UserSession currentSession;
+
+    private LatencyAwareServerSelector createSelector(boolean stickySessions) {
+        LatencyAwareServerSelector selector = new LatencyAwareServerSelector() {
+            @Nullable
+            @Override
+            protected SessionUrlsHolder getSessionUrlsHolder() {
+                return currentSession != null ? new UserSessionUrlsHolder(currentSession) : null;
+            }
+        };
+        selector.setBaseUrl("server1,server2");
+        selector.setServletPath("path");
+        selector.setStickySessions(stickySessions);
+        selector.init();
+        return selector;
+    }
+
+    private String request(LatencyAwareServerSelector selector) {
+        Object context = selector.initContext();
+        return selector.getUrl(context);
+    }
+
+    @Test
+    public void testFasterServerIsPreferred() {
+        LatencyAwareServerSelector selector = createSelector(false);
+        selector.updateLatency("server1/path", 100);
+        selector.updateLatency("server2/path", 10);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals("server2/path", request(selector));
+        }
+    }
+
+    @Test
+    public void testRequestsInProgress() {
+        LatencyAwareServerSelector selector = createSelector(false);
+        selector.updateLatency("server1/path", 100);
+        selector.updateLatency("server2/path", 10);
+
+        // server1 has responded recently, so it is not probed
+        for (int i = 0; i < 20; i++) {
+            Object context = selector.initContext();
+            assertEquals("server2/path", selector.getUrl(context));
+            selector.requestStarted(context);
+        }
+        // 10 * (20 + 1) > 100 * (0 + 1)
+        Object context = selector.initContext();
+        assertEquals("server1/path", selector.getUrl(context));
+
+        selector.requestStarted(context);
+        selector.success(context);
+        selector.requestFinished(context);
+        assertEquals(0, selector.getStats("server1/path").inFlight.get());
+    }
+
+    @Test
+    public void testSlowServerIsProbed() {
+        LatencyAwareServerSelector selector = createSelector(false);
+        selector.updateLatency("server1/path", 100);
+        selector.updateLatency("server2/path", 10);
+        assertEquals("server2/path", request(selector));
+
+        // server1 has not responded for the probe interval
+        selector.getStats("server1/path").lastResponseTime -= selector.getProbeInterval();
+        assertEquals("server1/path", request(selector));
+
+        // only one request is sent as a probe
+        for (int i = 0; i < 10; i++) {
+            assertEquals("server2/path", request(selector));
+        }
+
+        // the response to the probe starts a new average
+        selector.updateLatency("server1/path", 5);
+        assertEquals(5, selector.getStats("server1/path").latency, 0.001);
+        assertEquals("server1/path", request(selector));
+    }
+
+    @Test
+    public void testPenaltyBox() {
+        LatencyAwareServerSelector selector = createSelector(true);
+        // sessions get server2 as the primary server
+        selector.setServerSorter(Collections::reverse);
+        selector.updateLatency("server1/path", 10);
+        selector.updateLatency("server2/path", 1000);
+
+        User user = new User();
+        user.setLogin("user");
+        for (int i = 0; i < 10; i++) {
+            currentSession = new UserSession(UUID.randomUUID(), user, Collections.emptyList(), Locale.ENGLISH, false);
+            assertEquals("server1/path", request(selector));
+        }
+
+        // the penalty is over, the next response starts a new average
+        selector.getStats("server2/path").penaltyUntil = 0;
+        selector.updateLatency("server2/path", 5);
+        assertEquals(5, selector.getStats("server2/path").latency, 0.001);
+
+        currentSession = null;
+        assertEquals("server2/path", request(selector));
+    }
+}
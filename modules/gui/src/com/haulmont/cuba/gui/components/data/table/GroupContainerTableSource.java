@@ -51,6 +51,8 @@ public class GroupContainerTableSource<E extends Entity<K>, K>
     protected Map<GroupInfo, List<K>> groupItems;
     // reversed relations from groupItems
     protected Map<K, GroupInfo> itemGroups;
+    // number of items in a group including items of nested groups
+    protected Map<GroupInfo, Integer> groupItemsCounts;
 
     protected boolean isGrouping;
 
@@ -124,6 +126,7 @@ public class GroupContainerTableSource<E extends Entity<K>, K>
                     children = null;
                     groupItems = null;
                     itemGroups = null;
+                    groupItemsCounts = null;
                 }
             }
         } finally {
@@ -146,15 +149,25 @@ public class GroupContainerTableSource<E extends Entity<K>, K>
         children = new HashMap<>();
         groupItems = new HashMap<>();
         itemGroups = new HashMap<>();
+        groupItemsCounts = new HashMap<>();
 
         for (E item : container.getItems()) {
-            GroupInfo<MetaPropertyPath> groupInfo = groupItems(0, null, roots, item, new LinkedMap<>());
+            addToGroups(item, false);
+        }
+    }
 
-            if (groupInfo == null) {
-                throw new IllegalStateException("Item group cannot be NULL");
-            }
+    protected void addToGroups(E item, boolean first) {
+        GroupInfo<MetaPropertyPath> groupInfo = groupItems(0, null, roots, item, new LinkedMap<>());
+
+        if (groupInfo == null) {
+            throw new IllegalStateException("Item group cannot be NULL");
+        }
 
-            List<K> itemsIds = groupItems.computeIfAbsent(groupInfo, k -> new ArrayList<>());
+        List<K> itemsIds = groupItems.computeIfAbsent(groupInfo, k -> new ArrayList<>());
+        if (first) {
+            itemsIds.add(0, item.getId());
+            moveCreatedGroupsFirst(groupInfo);
+        } else {
             itemsIds.add(item.getId());
         }
     }
@@ -170,11 +183,9 @@ public class GroupContainerTableSource<E extends Entity<K>, K>
 
         if (!parents.containsKey(groupInfo)) {
             parents.put(groupInfo, parent);
-        }
-
-        if (!children.contains(groupInfo)) {
             children.add(groupInfo);
         }
+        groupItemsCounts.merge(groupInfo, 1, Integer::sum);
 
         List<GroupInfo> groupChildren =
                 this.children.computeIfAbsent(groupInfo, k -> new ArrayList<>());
@@ -186,6 +197,133 @@ public class GroupContainerTableSource<E extends Entity<K>, K>
         return groupInfo;
     }
 
+    protected void moveCreatedGroupsFirst(GroupInfo groupInfo) {
+        GroupInfo group = groupInfo;
+        while (group != null) {
+            GroupInfo parent = parents.get(group);
+            if (groupItemsCounts.get(group) == 1) {
+                List<GroupInfo> siblings = parent == null ? roots : children.get(parent);
+                siblings.remove(group);
+                siblings.add(0, group);
+            }
+            group = parent;
+        }
+    }
+
+    protected void removeFromGroups(K itemId) {
+        GroupInfo groupInfo = itemGroups.remove(itemId);
+        if (groupInfo == null) {
+            return;
+        }
+
+        List<K> itemIds = groupItems.get(groupInfo);
+        if (itemIds != null) {
+            itemIds.remove(itemId);
+        }
+
+        GroupInfo group = groupInfo;
+        while (group != null) {
+            GroupInfo parent = parents.get(group);
+            int count = groupItemsCounts.merge(group, -1, Integer::sum);
+            if (count <= 0) {
+                removeGroup(group, parent);
+            }
+            group = parent;
+        }
+    }
+
+    protected void removeGroup(GroupInfo group, GroupInfo parent) {
+        List<GroupInfo> siblings = parent == null ? roots : children.get(parent);
+        if (siblings != null) {
+            siblings.remove(group);
+        }
+        parents.remove(group);
+        children.remove(group);
+        groupItems.remove(group);
+        groupItemsCounts.remove(group);
+    }
+
+    protected void updateInGroups(E item) {
+        GroupInfo groupInfo = itemGroups.get(item.getId());
+        if (groupInfo != null) {
+            LinkedMap<MetaPropertyPath, Object> groupValues = new LinkedMap<>();
+            for (Object property : groupProperties) {
+                MetaPropertyPath propertyPath = (MetaPropertyPath) property;
+                groupValues.put(propertyPath, getValueByProperty(item, propertyPath));
+            }
+            if (groupInfo.equals(new GroupInfo<>(groupValues))) {
+                return;
+            }
+            removeFromGroups(item.getId());
+        }
+        addToGroups(item, false);
+    }
+
+    @Override
+    protected void containerCollectionChanged(CollectionContainer.CollectionChangeEvent<E> e) {
+        if (hasGroups() && !isGrouping) {
+            updateGroups(e);
+        }
+
+        super.containerCollectionChanged(e);
+    }
+
+    /**
+     * Updates the group index according to a change of the container collection. Only the group paths of the
+     * changed items are affected, the whole index is rebuilt if the change cannot be applied incrementally.
+     */
+    protected void updateGroups(CollectionContainer.CollectionChangeEvent<E> e) {
+        List<E> items = container.getItems();
+        List<? extends E> changes = new ArrayList<>(e.getChanges());
+
+        switch (e.getChangeType()) {
+            case ADD_ITEMS:
+                if (isSubList(items, items.size() - changes.size(), changes)) {
+                    for (E item : changes) {
+                        addToGroups(item, false);
+                    }
+                    return;
+                } else if (isSubList(items, 0, changes)) {
+                    for (int i = changes.size() - 1; i >= 0; i--) {
+                        addToGroups(changes.get(i), true);
+                    }
+                    return;
+                }
+                break;
+            case REMOVE_ITEMS:
+                for (E item : changes) {
+                    removeFromGroups(item.getId());
+                }
+                return;
+            case SET_ITEM:
+                if (changes.stream().allMatch(item -> itemGroups.containsKey(item.getId()))) {
+                    for (E item : changes) {
+                        updateInGroups(item);
+                    }
+                    return;
+                }
+                break;
+            default:
+        }
+
+        doGroup();
+        if (sortProperties != null && sortProperties.length > 0) {
+            doGroupSort(createSort(sortProperties, sortAscending));
+        }
+    }
+
+    protected boolean isSubList(List<E> items, int fromIndex, List<? extends E> subList) {
+        if (fromIndex < 0 || fromIndex + subList.size() > items.size()) {
+            return false;
+        }
+        for (int i = 0; i < subList.size(); i++) {
+            if (items.get(fromIndex + i) != subList.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     protected Object getValueByProperty(E item, MetaPropertyPath property) {
         Preconditions.checkNotNullArgument(item);
 
@@ -345,17 +483,7 @@ public class GroupContainerTableSource<E extends Entity<K>, K>
     @Override
     public int getGroupItemsCount(GroupInfo groupId) {
         if (containsGroup(groupId)) {
-            List<K> itemIds;
-            if ((itemIds = groupItems.get(groupId)) == null) {
-                int count = 0;
-                List<GroupInfo> children = getChildrenInternal(groupId);
-                for (GroupInfo child : children) {
-                    count += getGroupItemsCount(child);
-                }
-                return count;
-            } else {
-                return itemIds.size();
-            }
+            return groupItemsCounts.getOrDefault(groupId, 0);
         }
         return 0;
     }
@@ -376,7 +504,7 @@ public class GroupContainerTableSource<E extends Entity<K>, K>
 
     @Override
     public boolean containsGroup(GroupInfo groupId) {
-        return hasGroups() && parents.keySet().contains(groupId);
+        return hasGroups() && parents.containsKey(groupId);
     }
 
     public static class EntityByIdComparator<T extends Entity<K>, K> extends AbstractComparator<K> {
@@ -23,6 +23,9 @@ public class GroupInfo<P> {
     private LinkedMap groupingValues;
     private P groupProperty;
 
+    // group info is immutable, so its string form used for equality is built only once
+    private String key;
+
     @SuppressWarnings("unchecked")
     public GroupInfo(LinkedMap groupingValues) {
         this.groupingValues = new LinkedMap(groupingValues);
@@ -49,6 +52,13 @@ public class GroupInfo<P> {
 
     @Override
     public String toString() {
+        if (key == null) {
+            key = buildKey();
+        }
+        return key;
+    }
+
+    protected String buildKey() {
         StringBuilder sb = new StringBuilder("{");
         for (int groupIndex = 0; groupIndex < groupingValues.size(); groupIndex++) {
             Object value = groupingValues.getValue(groupIndex);
@@ -71,7 +81,7 @@ public class GroupInfo<P> {
 
         GroupInfo groupInfo = (GroupInfo) o;
 
-        return toString().equals(groupInfo.toString());
+        return hashCode() == groupInfo.hashCode() && toString().equals(groupInfo.toString());
     }
 
     @Override
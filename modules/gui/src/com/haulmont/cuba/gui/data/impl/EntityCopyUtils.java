@@ -83,7 +83,7 @@ public class EntityCopyUtils {
                         dest.setValue(name, dstCollection);
 
                     } else {
-                        dest.setValue(name, source.getValue(name));
+                        dest.setValue(name, value);
                     }
                 } catch (RuntimeException e) {
                     Throwable cause = ExceptionUtils.getRootCause(e);
@@ -118,9 +118,9 @@ public class EntityCopyUtils {
 
                     if (value != null && srcProperty.getRange().getCardinality().isMany()
                             && srcProperty.getType() == MetaProperty.Type.COMPOSITION) {
-                        ((AbstractInstance) dest).setValue(name, source.getValue(name), false);
+                        ((AbstractInstance) dest).setValue(name, value, false);
                     } else {
-                        dest.setValue(name, source.getValue(name));
+                        dest.setValue(name, value);
                     }
                 } catch (RuntimeException e) {
                     Throwable cause = ExceptionUtils.getRootCause(e);
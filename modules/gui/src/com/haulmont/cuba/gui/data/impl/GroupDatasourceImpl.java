@@ -50,6 +50,13 @@ public class GroupDatasourceImpl<T extends Entity<K>, K>
         }
     }
 
+    @Override
+    protected void fireCollectionChanged(Operation operation, List<T> items) {
+        groupDelegate.collectionChanged(operation, items, sortInfos);
+
+        super.fireCollectionChanged(operation, items);
+    }
+
     @Override
     public List<GroupInfo> rootGroups() {
         return groupDelegate.rootGroups();
@@ -44,6 +44,8 @@ public abstract class GroupDelegate<T extends Entity<K>, K> {
     protected Map<GroupInfo, List<K>> groupItems;
     // reversed relations from groupItems
     protected Map<K, GroupInfo> itemGroups;
+    // number of items in a group including items of nested groups
+    protected Map<GroupInfo, Integer> groupItemsCounts;
 
     protected boolean isGrouping;
 
@@ -84,6 +86,7 @@ public abstract class GroupDelegate<T extends Entity<K>, K> {
                     children = null;
                     groupItems = null;
                     itemGroups = null;
+                    groupItemsCounts = null;
                 }
             }
         } finally {
@@ -105,18 +108,28 @@ public abstract class GroupDelegate<T extends Entity<K>, K> {
         children = new HashMap<>();
         groupItems = new HashMap<>();
         itemGroups = new HashMap<>();
+        groupItemsCounts = new HashMap<>();
 
         Collection<K> itemIds = datasource.getItemIds();
         for (K id : itemIds) {
             T item = datasource.getItem(id);
-            GroupInfo<MetaPropertyPath> groupInfo = groupItems(0, null, roots, item, new LinkedMap<>());
+            addToGroups(item, false);
+        }
+    }
 
-            if (groupInfo == null) {
-                throw new IllegalStateException("Item group cannot be NULL");
-            }
+    protected void addToGroups(T item, boolean first) {
+        GroupInfo<MetaPropertyPath> groupInfo = groupItems(0, null, roots, item, new LinkedMap<>());
 
-            List<K> itemsIds = groupItems.computeIfAbsent(groupInfo, k -> new ArrayList<>());
-            itemsIds.add(id);
+        if (groupInfo == null) {
+            throw new IllegalStateException("Item group cannot be NULL");
+        }
+
+        List<K> itemsIds = groupItems.computeIfAbsent(groupInfo, k -> new ArrayList<>());
+        if (first) {
+            itemsIds.add(0, item.getId());
+            moveCreatedGroupsFirst(groupInfo);
+        } else {
+            itemsIds.add(item.getId());
         }
     }
 
@@ -131,11 +144,9 @@ public abstract class GroupDelegate<T extends Entity<K>, K> {
 
         if (!parents.containsKey(groupInfo)) {
             parents.put(groupInfo, parent);
-        }
-
-        if (!children.contains(groupInfo)) {
             children.add(groupInfo);
         }
+        groupItemsCounts.merge(groupInfo, 1, Integer::sum);
 
         List<GroupInfo> groupChildren =
                 this.children.computeIfAbsent(groupInfo, k -> new ArrayList<>());
@@ -147,6 +158,113 @@ public abstract class GroupDelegate<T extends Entity<K>, K> {
         return groupInfo;
     }
 
+    protected void moveCreatedGroupsFirst(GroupInfo groupInfo) {
+        GroupInfo group = groupInfo;
+        while (group != null) {
+            GroupInfo parent = parents.get(group);
+            if (groupItemsCounts.get(group) == 1) {
+                List<GroupInfo> siblings = parent == null ? roots : children.get(parent);
+                siblings.remove(group);
+                siblings.add(0, group);
+            }
+            group = parent;
+        }
+    }
+
+    protected void removeFromGroups(K itemId) {
+        GroupInfo groupInfo = itemGroups.remove(itemId);
+        if (groupInfo == null) {
+            return;
+        }
+
+        List<K> itemIds = groupItems.get(groupInfo);
+        if (itemIds != null) {
+            itemIds.remove(itemId);
+        }
+
+        GroupInfo group = groupInfo;
+        while (group != null) {
+            GroupInfo parent = parents.get(group);
+            int count = groupItemsCounts.merge(group, -1, Integer::sum);
+            if (count <= 0) {
+                removeGroup(group, parent);
+            }
+            group = parent;
+        }
+    }
+
+    protected void removeGroup(GroupInfo group, GroupInfo parent) {
+        List<GroupInfo> siblings = parent == null ? roots : children.get(parent);
+        if (siblings != null) {
+            siblings.remove(group);
+        }
+        parents.remove(group);
+        children.remove(group);
+        groupItems.remove(group);
+        groupItemsCounts.remove(group);
+    }
+
+    protected void updateInGroups(T item) {
+        GroupInfo groupInfo = itemGroups.get(item.getId());
+        if (groupInfo != null) {
+            LinkedMap<MetaPropertyPath, Object> groupValues = new LinkedMap<>();
+            for (Object property : groupProperties) {
+                MetaPropertyPath propertyPath = (MetaPropertyPath) property;
+                groupValues.put(propertyPath, getValueByProperty(item, propertyPath));
+            }
+            if (groupInfo.equals(new GroupInfo<>(groupValues))) {
+                return;
+            }
+            removeFromGroups(item.getId());
+        }
+        addToGroups(item, false);
+    }
+
+    /**
+     * Updates the group index according to a change of the datasource collection. Only the group paths of the
+     * changed items are affected, the whole index is rebuilt only if the collection has been refreshed or cleared.
+     *
+     * @param operation collection change type
+     * @param items     changed items
+     * @param sortInfos current sort of the datasource, applied after the index is rebuilt
+     */
+    public void collectionChanged(CollectionDatasource.Operation operation, List<T> items,
+                                  CollectionDatasource.Sortable.SortInfo<MetaPropertyPath>[] sortInfos) {
+        if (isGrouping || !hasGroups()) {
+            return;
+        }
+
+        switch (operation) {
+            case ADD:
+                for (T item : items) {
+                    if (!itemGroups.containsKey(item.getId())) {
+                        addToGroups(item, isFirstItem(item));
+                    }
+                }
+                break;
+            case REMOVE:
+                for (T item : items) {
+                    removeFromGroups(item.getId());
+                }
+                break;
+            case UPDATE:
+                for (T item : items) {
+                    updateInGroups(item);
+                }
+                break;
+            default:
+                doGroup();
+                if (!ArrayUtils.isEmpty(sortInfos)) {
+                    doGroupSort(sortInfos);
+                }
+        }
+    }
+
+    protected boolean isFirstItem(T item) {
+        Iterator<T> iterator = datasource.getItems().iterator();
+        return iterator.hasNext() && Objects.equals(iterator.next().getId(), item.getId());
+    }
+
     protected abstract void doSort(CollectionDatasource.Sortable.SortInfo<MetaPropertyPath>[] sortInfo);
 
     protected void doGroupSort(CollectionDatasource.Sortable.SortInfo<MetaPropertyPath>[] sortInfo) {
@@ -238,17 +356,7 @@ public abstract class GroupDelegate<T extends Entity<K>, K> {
 
     public int getGroupItemsCount(GroupInfo groupId) {
         if (containsGroup(groupId)) {
-            List<K> itemIds;
-            if ((itemIds = groupItems.get(groupId)) == null) {
-                int count = 0;
-                List<GroupInfo> children = getChildrenInternal(groupId);
-                for (GroupInfo child : children) {
-                    count += getGroupItemsCount(child);
-                }
-                return count;
-            } else {
-                return itemIds.size();
-            }
+            return groupItemsCounts.getOrDefault(groupId, 0);
         }
         return 0;
     }
@@ -266,7 +374,7 @@ public abstract class GroupDelegate<T extends Entity<K>, K> {
     }
 
     public boolean containsGroup(GroupInfo groupInfo) {
-        return hasGroups() && parents.keySet().contains(groupInfo);
+        return hasGroups() && parents.containsKey(groupInfo);
     }
 
     protected Object getValueByProperty(T item, MetaPropertyPath property) {
@@ -49,6 +49,13 @@ public class GroupPropertyDatasourceImpl<T extends Entity<K>, K>
         }
     }
 
+    @Override
+    protected void fireCollectionChanged(Operation operation, List<T> items) {
+        groupDelegate.collectionChanged(operation, items, sortInfos);
+
+        super.fireCollectionChanged(operation, items);
+    }
+
     @Override
     public List<GroupInfo> rootGroups() {
         return groupDelegate.rootGroups();
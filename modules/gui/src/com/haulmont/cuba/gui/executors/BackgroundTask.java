@@ -175,6 +175,16 @@ public abstract class BackgroundTask<T, V> {
         return null;
     }
 
+    /**
+     * Defines the order in which tasks waiting for a free working thread are started.
+     * Tasks of the same priority are started in the order of submission.
+     *
+     * @return task priority, {@link Priority#NORMAL} by default
+     */
+    public Priority getPriority() {
+        return Priority.NORMAL;
+    }
+
     /**
      * @return owner window
      */
@@ -222,6 +232,21 @@ public abstract class BackgroundTask<T, V> {
         progressListeners.remove(progressListener);
     }
 
+    /**
+     * Priority class of a background task.
+     */
+    public enum Priority {
+        /**
+         * Short interactive tasks, e.g. lookups and field suggestions.
+         */
+        HIGH,
+        NORMAL,
+        /**
+         * Long running tasks, e.g. reports and exports.
+         */
+        LOW
+    }
+
     /**
      * Listener of the task life cycle events, complementary to the tasks own methods:
      * {@link BackgroundTask#progress(java.util.List)}, {@link BackgroundTask#done(Object)},
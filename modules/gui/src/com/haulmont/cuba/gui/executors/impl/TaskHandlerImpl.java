@@ -44,8 +44,9 @@ public class TaskHandlerImpl<T, V> implements BackgroundTaskHandler<V> {
 
     private volatile boolean started = false;
     private volatile boolean timeoutHappens = false;
+    private volatile boolean waitingForExecution = false;
 
-    private long startTimeStamp;
+    private volatile long startTimeStamp;
     private UserSession userSession;
     private Window.CloseListener closeListener;
 
@@ -272,6 +273,30 @@ public class TaskHandlerImpl<T, V> implements BackgroundTaskHandler<V> {
         return startTimeStamp;
     }
 
+    /**
+     * Called by the worker if the task waits for a working thread after {@link #execute()}.
+     * The timeout is not counted while the task is waiting.
+     */
+    public final void waitForExecution() {
+        this.waitingForExecution = true;
+    }
+
+    /**
+     * Called by the worker when the waiting task gets a working thread. The timeout is counted from this moment.
+     */
+    public final void executionStarted() {
+        TimeSource timeSource = AppBeans.get(TimeSource.NAME);
+        this.startTimeStamp = timeSource.currentTimestamp().getTime();
+        this.waitingForExecution = false;
+    }
+
+    /**
+     * @return true if the task waits for a working thread
+     */
+    public boolean isWaitingForExecution() {
+        return waitingForExecution;
+    }
+
     public long getTimeoutMs() {
         return taskExecutor.getTask().getTimeoutMilliseconds();
     }
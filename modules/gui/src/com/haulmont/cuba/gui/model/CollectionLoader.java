@@ -21,6 +21,7 @@ import com.haulmont.cuba.core.global.LoadContext;
 import com.haulmont.cuba.core.global.View;
 import com.haulmont.cuba.gui.screen.InstallSubject;
 
+import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.function.Function;
 
@@ -44,6 +45,41 @@ public interface CollectionLoader<E extends Entity> extends BaseCollectionLoader
 
     void setCacheable(boolean cacheable);
 
+    /**
+     * Loads the next page in keyset pagination mode: the collection following the last instance loaded by the
+     * previous {@link #load()} or {@code loadNextPage()}. After an empty page the position does not advance.
+     *
+     * @throws IllegalStateException if keyset pagination is not enabled
+     */
+    void loadNextPage();
+
+    /**
+     * Returns the property used for keyset pagination or null if keyset pagination is not used.
+     */
+    @Nullable
+    String getKeysetProperty();
+
+    /**
+     * Enables keyset pagination by the given property. The property must be unique and ordered, usually
+     * it is the primary key. If set, the loaded collection is sorted by this property and the next chunk
+     * is selected after {@link #getKeysetLastValue()} instead of skipping {@code firstResult} rows.
+     * <p>{@link #load()} reloads the current page, use {@link #loadNextPage()} to move to the next one.
+     * Changing the query, condition, parameters or sort returns to the first page.
+     */
+    void setKeysetProperty(@Nullable String keysetProperty);
+
+    /**
+     * Returns the value of the keyset property of the last instance of the previous chunk.
+     * It is advanced by {@link #loadNextPage()}.
+     */
+    @Nullable
+    Object getKeysetLastValue();
+
+    /**
+     * Sets the value of the keyset property of the last instance of the previous chunk.
+     */
+    void setKeysetLastValue(@Nullable Object keysetLastValue);
+
     View getView();
 
     void setView(View view);
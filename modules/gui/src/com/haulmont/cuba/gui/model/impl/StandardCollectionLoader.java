@@ -17,6 +17,7 @@
 package com.haulmont.cuba.gui.model.impl;
 
 import com.haulmont.cuba.core.entity.Entity;
+import com.haulmont.cuba.core.entity.IdProxy;
 import com.haulmont.cuba.core.global.*;
 import com.haulmont.cuba.core.global.queryconditions.Condition;
 import com.haulmont.cuba.gui.model.CollectionContainer;
@@ -46,6 +47,9 @@ public class StandardCollectionLoader<E extends Entity> implements CollectionLoa
     private boolean softDeletion = true;
     private boolean loadDynamicAttributes;
     private boolean cacheable;
+    private String keysetProperty;
+    private Object keysetLastValue;
+    private Object keysetNextValue;
     private View view;
     private String viewName;
     private Sort sort;
@@ -90,6 +94,15 @@ public class StandardCollectionLoader<E extends Entity> implements CollectionLoa
             collection = delegate.apply(loadContext);
         }
 
+        if (keysetProperty != null) {
+            // remember where the next page starts, the current one is kept for refreshing
+            E lastEntity = null;
+            for (E entity : collection) {
+                lastEntity = entity;
+            }
+            keysetNextValue = lastEntity != null ? getKeysetValue(lastEntity) : keysetLastValue;
+        }
+
         if (dataContext != null) {
             for (E entity : collection) {
                 dataContext.merge(entity);
@@ -98,6 +111,15 @@ public class StandardCollectionLoader<E extends Entity> implements CollectionLoa
         container.setItems(collection);
     }
 
+    @Override
+    public void loadNextPage() {
+        if (keysetProperty == null)
+            throw new IllegalStateException("keyset pagination is not enabled");
+
+        keysetLastValue = keysetNextValue;
+        load();
+    }
+
     @Override
     public LoadContext<E> createLoadContext() {
 
@@ -117,6 +139,11 @@ public class StandardCollectionLoader<E extends Entity> implements CollectionLoa
         if (maxResults < Integer.MAX_VALUE)
             query.setMaxResults(maxResults);
 
+        if (keysetProperty != null) {
+            query.setKeysetProperty(keysetProperty);
+            query.setKeysetLastValue(keysetLastValue);
+        }
+
         loadContext.setView(resolveView());
         loadContext.setSoftDeletion(softDeletion);
         loadContext.setLoadDynamicAttributes(loadDynamicAttributes);
@@ -124,6 +151,11 @@ public class StandardCollectionLoader<E extends Entity> implements CollectionLoa
         return loadContext;
     }
 
+    protected Object getKeysetValue(E entity) {
+        Object value = entity.getValueEx(keysetProperty);
+        return value instanceof IdProxy ? ((IdProxy) value).getNN() : value;
+    }
+
     protected View resolveView() {
         View view = this.view;
         if (view == null && viewName != null) {
@@ -157,6 +189,7 @@ public class StandardCollectionLoader<E extends Entity> implements CollectionLoa
     @Override
     public void setQuery(String query) {
         this.query = query;
+        resetKeyset();
     }
 
     @Override
@@ -167,6 +200,7 @@ public class StandardCollectionLoader<E extends Entity> implements CollectionLoa
     @Override
     public void setCondition(Condition condition) {
         this.condition = condition;
+        resetKeyset();
     }
 
     @Override
@@ -194,6 +228,7 @@ public class StandardCollectionLoader<E extends Entity> implements CollectionLoa
         } else {
             parameters.put(name, value);
         }
+        resetKeyset();
     }
 
     @Override
@@ -246,6 +281,38 @@ public class StandardCollectionLoader<E extends Entity> implements CollectionLoa
         this.cacheable = cacheable;
     }
 
+    @Nullable
+    @Override
+    public String getKeysetProperty() {
+        return keysetProperty;
+    }
+
+    @Override
+    public void setKeysetProperty(@Nullable String keysetProperty) {
+        this.keysetProperty = keysetProperty;
+        resetKeyset();
+    }
+
+    @Nullable
+    @Override
+    public Object getKeysetLastValue() {
+        return keysetLastValue;
+    }
+
+    @Override
+    public void setKeysetLastValue(@Nullable Object keysetLastValue) {
+        this.keysetLastValue = keysetLastValue;
+        this.keysetNextValue = keysetLastValue;
+    }
+
+    /**
+     * Returns to the first page of keyset pagination.
+     */
+    protected void resetKeyset() {
+        keysetLastValue = null;
+        keysetNextValue = null;
+    }
+
     @Override
     public View getView() {
         return view;
@@ -275,6 +342,7 @@ public class StandardCollectionLoader<E extends Entity> implements CollectionLoa
         } else {
             this.sort = sort;
         }
+        resetKeyset();
     }
 
     @Override
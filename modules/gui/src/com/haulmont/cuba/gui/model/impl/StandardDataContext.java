@@ -22,17 +22,20 @@ import com.haulmont.bali.events.Subscription;
 import com.haulmont.bali.util.Numbers;
 import com.haulmont.bali.util.Preconditions;
 import com.haulmont.chile.core.model.Instance;
+import com.haulmont.chile.core.model.MetaClass;
 import com.haulmont.chile.core.model.MetaProperty;
 import com.haulmont.chile.core.model.impl.AbstractInstance;
+import com.haulmont.chile.core.model.utils.FieldAccessor;
+import com.haulmont.cuba.client.ClientConfig;
 import com.haulmont.cuba.core.entity.*;
 import com.haulmont.cuba.core.global.*;
+import com.haulmont.cuba.core.sys.persistence.CubaEntityFetchGroup;
 import com.haulmont.cuba.gui.model.DataContext;
 import org.apache.commons.lang3.StringUtils;
+import org.eclipse.persistence.queries.FetchGroupTracker;
 import org.springframework.context.ApplicationContext;
 
 import javax.annotation.Nullable;
-import java.lang.reflect.AnnotatedElement;
-import java.lang.reflect.Field;
 import java.util.*;
 import java.util.function.Consumer;
 
@@ -49,6 +52,12 @@ public class StandardDataContext implements DataContext {
 
     protected Set<Entity> modifiedInstances = new HashSet<>();
 
+    /**
+     * Names of changed attributes of modified instances. Instances modified otherwise, e.g. new ones or ones
+     * with changed collections, are absent here and committed entirely.
+     */
+    protected Map<Entity, Set<String>> changedAttributes = new HashMap<>();
+
     protected Set<Entity> removedInstances = new HashSet<>();
 
     protected PropertyChangeListener propertyChangeListener = new PropertyChangeListener();
@@ -77,6 +86,10 @@ public class StandardDataContext implements DataContext {
         return applicationContext.getBean(DataManager.NAME, DataManager.class);
     }
 
+    protected ClientConfig getClientConfig() {
+        return applicationContext.getBean(Configuration.NAME, Configuration.class).getConfig(ClientConfig.class);
+    }
+
     @Override
     public DataContext getParent() {
         return parentContext;
@@ -221,20 +234,14 @@ public class StandardDataContext implements DataContext {
             if ((!property.getRange().isClass() || property.getRange().getCardinality().isMany()) // local and collections
                     && !property.isReadOnly()                                                     // read-write
                     && (srcNew || entityStates.isLoaded(srcEntity, name))) {                      // loaded
-                AnnotatedElement annotatedElement = property.getAnnotatedElement();
-                if (annotatedElement instanceof Field) {
-                    Field field = (Field) annotatedElement;
-                    field.setAccessible(true);
-                    try {
-                        Object value = field.get(srcEntity);
-                        if (srcNew || property.getRange().getCardinality().isMany()) {
-                            if (value != null)
-                                copyValue(dstEntity, field, value);
-                        } else {
-                            copyValue(dstEntity, field, value);
-                        }
-                    } catch (IllegalAccessException e) {
-                        throw new RuntimeException("Error copying state of attribute " + name, e);
+                FieldAccessor accessor = FieldAccessor.of(property);
+                if (accessor != null) {
+                    Object value = accessor.get(srcEntity);
+                    if (srcNew || property.getRange().getCardinality().isMany()) {
+                        if (value != null)
+                            copyValue(dstEntity, accessor, value);
+                    } else {
+                        copyValue(dstEntity, accessor, value);
                     }
                 }
             }
@@ -274,31 +281,25 @@ public class StandardDataContext implements DataContext {
             String name = property.getName();
             if (!property.isReadOnly()
                     && (srcNew || entityStates.isLoaded(srcEntity, name))) {
-                AnnotatedElement annotatedElement = property.getAnnotatedElement();
-                if (annotatedElement instanceof Field) {
-                    Field field = (Field) annotatedElement;
-                    field.setAccessible(true);
-                    try {
-                        Object value = field.get(srcEntity);
-                        Object newValue;
-                        if (value != null) {
-                            if (!property.getRange().isClass()) {
-                                newValue = value;
-                            } else if (!property.getRange().getCardinality().isMany()) {
-                                newValue = copyGraph((Entity) value, copied);
-                            } else {
-                                Collection dstCollection = value instanceof List ? new ArrayList() : new LinkedHashSet();
-                                for (Object item : (Collection) value) {
-                                    dstCollection.add(copyGraph((Entity) item, copied));
-                                }
-                                newValue = dstCollection;
-                            }
-                            if (newValue != null) {
-                                field.set(dstEntity, newValue);
+                FieldAccessor accessor = FieldAccessor.of(property);
+                if (accessor != null) {
+                    Object value = accessor.get(srcEntity);
+                    Object newValue;
+                    if (value != null) {
+                        if (!property.getRange().isClass()) {
+                            newValue = value;
+                        } else if (!property.getRange().getCardinality().isMany()) {
+                            newValue = copyGraph((Entity) value, copied);
+                        } else {
+                            Collection dstCollection = value instanceof List ? new ArrayList() : new LinkedHashSet();
+                            for (Object item : (Collection) value) {
+                                dstCollection.add(copyGraph((Entity) item, copied));
                             }
+                            newValue = dstCollection;
+                        }
+                        if (newValue != null) {
+                            accessor.set(dstEntity, newValue);
                         }
-                    } catch (IllegalAccessException e) {
-                        throw new RuntimeException("Error copying state of attribute " + name, e);
                     }
                 }
             }
@@ -329,10 +330,10 @@ public class StandardDataContext implements DataContext {
     }
 
     @SuppressWarnings("unchecked")
-    protected void copyValue(Object dstObject, Field field, Object srcValue) throws IllegalAccessException {
+    protected void copyValue(Object dstObject, FieldAccessor accessor, Object srcValue) {
         if (srcValue instanceof Collection) {
             Collection srcCollection = (Collection) srcValue;
-            Collection dstCollection = (Collection) field.get(dstObject);
+            Collection dstCollection = (Collection) accessor.get(dstObject);
             Collection newDstCollection = srcValue instanceof List ? new ArrayList() : new LinkedHashSet();
             if (dstCollection == null) {
                 newDstCollection.addAll(srcCollection);
@@ -343,9 +344,9 @@ public class StandardDataContext implements DataContext {
                         newDstCollection.add(o);
                 }
             }
-            field.set(dstObject, newDstCollection);
+            accessor.set(dstObject, newDstCollection);
         } else {
-            field.set(dstObject, srcValue);
+            accessor.set(dstObject, srcValue);
         }
     }
 
@@ -358,6 +359,7 @@ public class StandardDataContext implements DataContext {
             Entity mergedEntity = entityMap.get(entity.getId());
             if (mergedEntity != null) {
                 modifiedInstances.remove(entity);
+                changedAttributes.remove(entity);
                 removedInstances.add(entity);
                 entityMap.remove(entity.getId());
                 entity.removePropertyChangeListener(propertyChangeListener);
@@ -408,6 +410,7 @@ public class StandardDataContext implements DataContext {
         mergeCommitted(committed);
 
         modifiedInstances.clear();
+        changedAttributes.clear();
         removedInstances.clear();
     }
 
@@ -433,15 +436,89 @@ public class StandardDataContext implements DataContext {
     }
 
     protected Set<Entity> commitToDataManager() {
-        CommitContext commitContext = new CommitContext(modifiedInstances, removedInstances);
+        CommitContext commitContext = new CommitContext();
+        boolean changedAttributesOnly = getClientConfig().getCommitChangedAttributesOnly();
+        for (Entity entity : modifiedInstances) {
+            Set<String> attributes = changedAttributesOnly ? getChangedAttributesToCommit(entity) : null;
+            if (attributes != null) {
+                Entity changes = copyChangedAttributes(entity, attributes);
+                commitContext.addInstanceToCommit(changes);
+                commitContext.getChangedAttributes().put(changes, attributes);
+            } else {
+                commitContext.addInstanceToCommit(entity);
+            }
+        }
+        for (Entity entity : removedInstances) {
+            commitContext.addInstanceToRemove(entity);
+        }
         return getDataManager().commit(commitContext);
     }
 
+    /**
+     * @return names of changed attributes if only they can be committed for the given modified instance,
+     * null if the whole instance should be committed
+     */
+    @Nullable
+    protected Set<String> getChangedAttributesToCommit(Entity entity) {
+        Set<String> attributes = changedAttributes.get(entity);
+        if (attributes == null
+                || !(entity instanceof BaseGenericIdEntity)
+                || !(entity instanceof FetchGroupTracker)
+                || getEntityStates().isNew(entity)) {
+            return null;
+        }
+        MetadataTools metadataTools = getMetadataTools();
+        MetaClass metaClass = getMetadata().getClassNN(entity.getClass());
+        for (String name : attributes) {
+            MetaProperty property = metaClass.getProperty(name);
+            if (property == null // dynamic attribute
+                    || !metadataTools.isPersistent(property)
+                    || metadataTools.isEmbedded(property)
+                    || property.getRange().getCardinality().isMany()) {
+                return null;
+            }
+        }
+        return attributes;
+    }
+
+    /**
+     * Creates a detached copy of the given instance containing only the given attributes and loaded system ones.
+     */
+    protected Entity copyChangedAttributes(Entity srcEntity, Set<String> attributes) {
+        Entity dstEntity;
+        try {
+            dstEntity = srcEntity.getClass().newInstance();
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new RuntimeException("Cannot create an instance of " + srcEntity.getClass(), e);
+        }
+        copyIdAndVersion(srcEntity, dstEntity);
+
+        EntityStates entityStates = getEntityStates();
+        MetadataTools metadataTools = getMetadataTools();
+        List<String> copiedAttributes = new ArrayList<>();
+        for (MetaProperty property : getMetadata().getClassNN(srcEntity.getClass()).getProperties()) {
+            String name = property.getName();
+            if (attributes.contains(name)
+                    || metadataTools.isSystem(property) && entityStates.isLoaded(srcEntity, name)) {
+                FieldAccessor accessor = FieldAccessor.of(property);
+                if (accessor != null) {
+                    accessor.set(dstEntity, accessor.get(srcEntity));
+                    copiedAttributes.add(name);
+                }
+            }
+        }
+        copySystemState(dstEntity);
+        BaseEntityInternalAccess.setSecurityState(dstEntity, BaseEntityInternalAccess.getSecurityState(srcEntity));
+        ((FetchGroupTracker) dstEntity)._persistence_setFetchGroup(new CubaEntityFetchGroup(copiedAttributes));
+        return dstEntity;
+    }
+
     protected Set<Entity> commitToParentContext() {
         HashSet<Entity> committedEntities = new HashSet<>();
         for (Entity entity : modifiedInstances) {
             Entity merged = parentContext.merge(entity, false);
             parentContext.modifiedInstances.add(merged);
+            parentContext.changedAttributes.remove(merged);
             committedEntities.add(merged);
         }
         for (Entity entity : removedInstances) {
@@ -516,8 +593,12 @@ public class StandardDataContext implements DataContext {
         @Override
         public void propertyChanged(Instance.PropertyChangeEvent e) {
             if (!disableListeners) {
-                modifiedInstances.add((Entity) e.getItem());
-                fireChangeListener((Entity) e.getItem());
+                Entity entity = (Entity) e.getItem();
+                // attributes are tracked only for instances not modified in other ways before
+                if (modifiedInstances.add(entity) || changedAttributes.containsKey(entity)) {
+                    changedAttributes.computeIfAbsent(entity, k -> new HashSet<>()).add(e.getProperty());
+                }
+                fireChangeListener(entity);
             }
         }
     }
@@ -589,6 +670,7 @@ public class StandardDataContext implements DataContext {
         protected void modified(Entity entity) {
             if (!disableListeners) {
                 modifiedInstances.add(entity);
+                changedAttributes.remove(entity);
                 fireChangeListener(entity);
             }
         }
@@ -22,6 +22,7 @@ import com.haulmont.cuba.gui.GuiDevelopmentException;
 import com.haulmont.cuba.gui.UiComponents;
 import com.haulmont.cuba.gui.components.Fragment;
 import com.haulmont.cuba.gui.components.Window;
+import com.haulmont.cuba.gui.xml.layout.loaders.AbstractComponentLoader;
 import com.haulmont.cuba.gui.xml.layout.loaders.FragmentLoader;
 import com.haulmont.cuba.gui.xml.layout.loaders.WindowLoader;
 import org.dom4j.Element;
@@ -29,6 +30,7 @@ import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
@@ -49,6 +51,9 @@ public class LayoutLoader {
     protected String messagesPack;
 
     protected BeanLocator beanLocator;
+    protected ScreenBlueprintCache screenBlueprintCache;
+
+    protected ScreenBlueprint blueprint;
 
     public LayoutLoader(ComponentLoader.Context context) {
         this.context = context;
@@ -69,6 +74,28 @@ public class LayoutLoader {
         this.config = config;
     }
 
+    @Inject
+    public void setScreenBlueprintCache(ScreenBlueprintCache screenBlueprintCache) {
+        this.screenBlueprintCache = screenBlueprintCache;
+    }
+
+    @Nullable
+    public ScreenBlueprint getBlueprint() {
+        return blueprint;
+    }
+
+    /**
+     * Sets the blueprint passed to created loaders. Usually it is obtained automatically from the root element of
+     * the descriptor, loaders of nested containers receive the blueprint of the enclosing screen.
+     */
+    public void setBlueprint(@Nullable ScreenBlueprint blueprint) {
+        this.blueprint = blueprint;
+    }
+
+    protected void initBlueprint(Element rootElement) {
+        blueprint = screenBlueprintCache.getBlueprint(rootElement, messagesPack, locale);
+    }
+
     public String getMessagesPack() {
         return messagesPack;
     }
@@ -123,6 +150,10 @@ public class LayoutLoader {
         loader.setFactory(factory);
         loader.setElement(element);
 
+        if (loader instanceof AbstractComponentLoader) {
+            ((AbstractComponentLoader) loader).setBlueprint(blueprint);
+        }
+
         return loader;
     }
 
@@ -130,6 +161,7 @@ public class LayoutLoader {
                                                                Map<String, Object> params) {
         ScreenXmlLoader screenXmlLoader = beanLocator.get(ScreenXmlLoader.NAME);
         Element element = screenXmlLoader.load(resourcePath, id, params);
+        initBlueprint(element);
 
         ComponentLoader loader = getLoader(element);
         FragmentLoader fragmentLoader = (FragmentLoader) loader;
@@ -148,6 +180,8 @@ public class LayoutLoader {
     }
 
     public ComponentLoader<Fragment> createFragmentContent(Fragment fragment, Element rootWindowElement, String fragmentId) {
+        initBlueprint(rootWindowElement);
+
         FragmentLoader fragmentLoader = getFragmentLoader(rootWindowElement);
 
         fragmentLoader.setFrameId(fragmentId);
@@ -162,6 +196,8 @@ public class LayoutLoader {
     }
 
     public ComponentLoader<Window> createWindowContent(Window window, Element rootWindowElement, String windowId) {
+        initBlueprint(rootWindowElement);
+
         WindowLoader windowLoader = getWindowLoader(rootWindowElement);
 
         windowLoader.setWindowId(windowId);
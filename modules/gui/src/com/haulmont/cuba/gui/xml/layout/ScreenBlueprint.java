@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.haulmont.cuba.gui.xml.layout;
+
+import com.haulmont.cuba.core.global.MessageTools;
+import org.dom4j.Attribute;
+import org.dom4j.Element;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable result of preprocessing a screen descriptor for a messages pack and locale.
+ * <p>
+ * Contains localized values of all message references found in the descriptor attributes, so component loaders
+ * do not have to look up messages each time the screen is opened.
+ *
+ * @see ScreenBlueprintCache
+ */
+public class ScreenBlueprint {
+
+    protected final Element rootElement;
+    protected final String messagesPack;
+    protected final Locale locale;
+
+    protected final Map<String, String> resolvedStrings;
+
+    public ScreenBlueprint(Element rootElement, @Nullable String messagesPack, Locale locale,
+                           MessageTools messageTools) {
+        this.rootElement = rootElement;
+        this.messagesPack = messagesPack;
+        this.locale = locale;
+
+        Map<String, String> strings = new HashMap<>();
+        collectStrings(rootElement, messageTools, strings);
+        this.resolvedStrings = Collections.unmodifiableMap(strings);
+    }
+
+    protected void collectStrings(Element element, MessageTools messageTools, Map<String, String> strings) {
+        for (Attribute attribute : element.attributes()) {
+            String value = attribute.getValue();
+            if (isMessageRef(value) && !strings.containsKey(value)) {
+                try {
+                    strings.put(value, messageTools.loadString(messagesPack, value, locale));
+                } catch (RuntimeException e) {
+                    // leave the reference to the loader, it reports the error if the attribute is actually used
+                }
+            }
+        }
+        for (Element child : element.elements()) {
+            collectStrings(child, messageTools, strings);
+        }
+    }
+
+    protected boolean isMessageRef(String value) {
+        return value.startsWith(MessageTools.MARK) || value.startsWith(MessageTools.MAIN_MARK);
+    }
+
+    public Element getRootElement() {
+        return rootElement;
+    }
+
+    @Nullable
+    public String getMessagesPack() {
+        return messagesPack;
+    }
+
+    public Locale getLocale() {
+        return locale;
+    }
+
+    /**
+     * @param ref   message reference as written in the descriptor
+     * @return localized message or null if the reference has not been resolved in advance
+     */
+    @Nullable
+    public String getResolvedString(String ref) {
+        return resolvedStrings.get(ref);
+    }
+
+    /**
+     * @return number of resolved message references
+     */
+    public int getResolvedStringsCount() {
+        return resolvedStrings.size();
+    }
+}
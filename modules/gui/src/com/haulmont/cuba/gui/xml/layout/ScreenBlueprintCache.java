@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.haulmont.cuba.gui.xml.layout;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.haulmont.cuba.client.ClientConfig;
+import com.haulmont.cuba.core.global.GlobalConfig;
+import com.haulmont.cuba.core.global.MessageTools;
+import com.haulmont.cuba.core.sys.events.AppContextStartedEvent;
+import com.haulmont.cuba.gui.config.WindowConfig;
+import com.haulmont.cuba.gui.config.WindowInfo;
+import org.apache.commons.lang3.StringUtils;
+import org.dom4j.Element;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Caches {@link ScreenBlueprint}s of screen descriptors for each messages pack and locale.
+ * <p>
+ * Blueprints are bound to the root elements cached by {@link ScreenXmlDocumentCache}, so a reloaded descriptor
+ * gets a new blueprint. If {@link ClientConfig#getWarmUpScreenBlueprints()} is set, the cache is filled for all
+ * registered screens and available locales on application start.
+ */
+@Component(ScreenBlueprintCache.NAME)
+public class ScreenBlueprintCache {
+
+    public static final String NAME = "cuba_ScreenBlueprintCache";
+
+    private static final Logger log = LoggerFactory.getLogger(ScreenBlueprintCache.class);
+
+    @Inject
+    protected MessageTools messageTools;
+    @Inject
+    protected ScreenXmlLoader screenXmlLoader;
+    @Inject
+    protected ScreenXmlDocumentCache screenXmlDocumentCache;
+    @Inject
+    protected WindowConfig windowConfig;
+    @Inject
+    protected ClientConfig clientConfig;
+    @Inject
+    protected GlobalConfig globalConfig;
+
+    protected Cache<BlueprintKey, ScreenBlueprint> cache;
+
+    @PostConstruct
+    protected void init() {
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(clientConfig.getScreenBlueprintCacheSize())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns a blueprint of the given descriptor creating it if needed.
+     *
+     * @param rootElement   root element of the descriptor returned by {@link ScreenXmlLoader}
+     * @param messagesPack  messages pack of the screen
+     * @param locale        locale of the messages, if null the blueprint is not created
+     * @return blueprint or null if the cache is disabled or the locale is not known
+     */
+    @Nullable
+    public ScreenBlueprint getBlueprint(Element rootElement, @Nullable String messagesPack, @Nullable Locale locale) {
+        if (locale == null || clientConfig.getScreenBlueprintCacheSize() <= 0) {
+            return null;
+        }
+
+        BlueprintKey key = new BlueprintKey(rootElement, messagesPack, locale);
+        try {
+            return cache.get(key, () -> new ScreenBlueprint(rootElement, messagesPack, locale, messageTools));
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Unable to create screen blueprint", e.getCause());
+        }
+    }
+
+    /**
+     * Loads descriptors of all registered screens and creates their blueprints for all available locales.
+     *
+     * @return number of processed screens
+     */
+    public int warmUp() {
+        long start = System.currentTimeMillis();
+        Collection<Locale> locales = globalConfig.getAvailableLocales().values();
+
+        int count = 0;
+        for (WindowInfo windowInfo : windowConfig.getWindows()) {
+            String template = windowInfo.getTemplate();
+            if (StringUtils.isEmpty(template)) {
+                continue;
+            }
+            try {
+                Element element = screenXmlLoader.load(template, windowInfo.getId(), Collections.emptyMap());
+                String messagesPack = getMessagePack(template);
+                for (Locale locale : locales) {
+                    getBlueprint(element, messagesPack, locale);
+                }
+                count++;
+            } catch (RuntimeException e) {
+                log.warn("Unable to create blueprint of screen {}: {}", windowInfo.getId(), e.toString());
+            }
+        }
+
+        log.info("Created blueprints of {} screens in {} ms", count, System.currentTimeMillis() - start);
+        return count;
+    }
+
+    @EventListener(AppContextStartedEvent.class)
+    protected void applicationStarted() {
+        if (clientConfig.getWarmUpScreenBlueprints()) {
+            warmUp();
+        }
+    }
+
+    protected String getMessagePack(String descriptorPath) {
+        if (descriptorPath.contains("/")) {
+            descriptorPath = StringUtils.substring(descriptorPath, 0, descriptorPath.lastIndexOf("/"));
+        }
+
+        String messagesPack = descriptorPath.replaceAll("/", ".");
+        int start = messagesPack.startsWith(".") ? 1 : 0;
+        messagesPack = messagesPack.substring(start);
+        return messagesPack;
+    }
+
+    public int getMaxSize() {
+        return clientConfig.getScreenBlueprintCacheSize();
+    }
+
+    public long getSize() {
+        return cache.size();
+    }
+
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    /**
+     * Clears cached blueprints and parsed screen descriptors.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+        screenXmlDocumentCache.invalidateAll();
+    }
+
+    protected static class BlueprintKey {
+
+        protected final Element rootElement;
+        protected final String messagesPack;
+        protected final Locale locale;
+
+        public BlueprintKey(Element rootElement, @Nullable String messagesPack, Locale locale) {
+            this.rootElement = rootElement;
+            this.messagesPack = messagesPack;
+            this.locale = locale;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            BlueprintKey that = (BlueprintKey) o;
+            // descriptors are shared through ScreenXmlDocumentCache, so the identity of the root element is enough
+            return rootElement == that.rootElement
+                    && Objects.equals(messagesPack, that.messagesPack)
+                    && locale.equals(that.locale);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(rootElement), messagesPack, locale);
+        }
+    }
+}
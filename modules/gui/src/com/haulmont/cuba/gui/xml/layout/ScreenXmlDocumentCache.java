@@ -30,7 +30,7 @@ public class ScreenXmlDocumentCache {
     }
 
     protected ScreenXmlDocumentCache(int cacheDescriptorsCount) {
-        cache = CacheBuilder.newBuilder().maximumSize(cacheDescriptorsCount).build();
+        cache = CacheBuilder.newBuilder().maximumSize(cacheDescriptorsCount).recordStats().build();
     }
 
     public void put(String xml, Document document) {
@@ -44,4 +44,16 @@ public class ScreenXmlDocumentCache {
     public void invalidateAll() {
         cache.invalidateAll();
     }
+
+    public long getSize() {
+        return cache.size();
+    }
+
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
 }
\ No newline at end of file
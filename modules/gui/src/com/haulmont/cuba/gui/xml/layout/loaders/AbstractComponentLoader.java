@@ -42,6 +42,7 @@ import com.haulmont.cuba.gui.xml.DeclarativeAction;
 import com.haulmont.cuba.gui.xml.DeclarativeTrackingAction;
 import com.haulmont.cuba.gui.xml.layout.ComponentLoader;
 import com.haulmont.cuba.gui.xml.layout.LayoutLoaderConfig;
+import com.haulmont.cuba.gui.xml.layout.ScreenBlueprint;
 import com.haulmont.cuba.security.entity.ConstraintOperationType;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.reflect.MethodUtils;
@@ -54,6 +55,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.math.BigDecimal;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.function.Function;
 
 import static com.haulmont.cuba.gui.icons.Icons.ICON_NAME_REGEX;
@@ -90,6 +92,8 @@ public abstract class AbstractComponentLoader<T extends Component> implements Co
 
     protected BeanLocator beanLocator;
 
+    protected ScreenBlueprint blueprint;
+
     protected AbstractComponentLoader() {
 
     }
@@ -129,6 +133,18 @@ public abstract class AbstractComponentLoader<T extends Component> implements Co
         this.messagesPack = name;
     }
 
+    @Nullable
+    public ScreenBlueprint getBlueprint() {
+        return blueprint;
+    }
+
+    /**
+     * Sets the blueprint of the descriptor containing the element, it is used to get pre-resolved messages.
+     */
+    public void setBlueprint(@Nullable ScreenBlueprint blueprint) {
+        this.blueprint = blueprint;
+    }
+
     @Override
     public UiComponents getFactory() {
         return factory;
@@ -315,6 +331,15 @@ public abstract class AbstractComponentLoader<T extends Component> implements Co
             return caption;
         }
 
+        if (blueprint != null
+                && Objects.equals(blueprint.getMessagesPack(), messagesPack)
+                && blueprint.getLocale().equals(locale)) {
+            String resolved = blueprint.getResolvedString(caption);
+            if (resolved != null) {
+                return resolved;
+            }
+        }
+
         return getMessageTools().loadString(messagesPack, caption);
     }
 
@@ -933,6 +958,10 @@ public abstract class AbstractComponentLoader<T extends Component> implements Co
         loader.setFactory(factory);
         loader.setElement(element);
 
+        if (loader instanceof AbstractComponentLoader) {
+            ((AbstractComponentLoader) loader).setBlueprint(blueprint);
+        }
+
         return loader;
     }
 
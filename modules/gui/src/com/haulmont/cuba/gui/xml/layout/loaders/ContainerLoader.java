@@ -63,6 +63,7 @@ public abstract class ContainerLoader<T extends Component> extends AbstractCompo
         LayoutLoader loader = beanLocator.getPrototype(LayoutLoader.NAME, context);
         loader.setLocale(getLocale());
         loader.setMessagesPack(getMessagesPack());
+        loader.setBlueprint(getBlueprint());
 
         //noinspection unchecked
         for (Element subElement : containerElement.elements()) {
@@ -487,6 +487,7 @@ public class FieldGroupLoader extends AbstractComponentLoader<FieldGroup> {
             LayoutLoader loader = beanLocator.getPrototype(LayoutLoader.NAME, context);
             loader.setLocale(getLocale());
             loader.setMessagesPack(getMessagesPack());
+            loader.setBlueprint(getBlueprint());
 
             ComponentLoader childComponentLoader = loader.createComponent(customFieldElement);
             childComponentLoader.loadComponent();
@@ -151,6 +151,7 @@ public class GridLayoutLoader extends ContainerLoader<GridLayout> {
         LayoutLoader loader = beanLocator.getPrototype(LayoutLoader.NAME, context);
         loader.setLocale(getLocale());
         loader.setMessagesPack(getMessagesPack());
+        loader.setBlueprint(getBlueprint());
 
         int col = 0;
 
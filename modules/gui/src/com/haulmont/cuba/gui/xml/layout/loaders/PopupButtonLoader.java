@@ -143,6 +143,7 @@ public class PopupButtonLoader extends AbstractComponentLoader<PopupButton> {
             LayoutLoader loader = beanLocator.getPrototype(LayoutLoader.NAME, context);
             loader.setLocale(getLocale());
             loader.setMessagesPack(getMessagesPack());
+            loader.setBlueprint(getBlueprint());
 
             List<Element> elements = element.element("popup").elements();
             if (elements.size() != 0) {
@@ -90,6 +90,7 @@ public class PopupViewLoader extends AbstractComponentLoader<PopupView> {
             LayoutLoader loader = beanLocator.getPrototype(LayoutLoader.NAME, context);
             loader.setLocale(getLocale());
             loader.setMessagesPack(getMessagesPack());
+            loader.setBlueprint(getBlueprint());
 
             List<Element> elements = element.elements();
             if (elements.size() != 0) {
@@ -56,6 +56,7 @@ public class RuntimePropertiesFrameLoader extends ContainerLoader<Frame> {
         LayoutLoader layoutLoader = beanLocator.getPrototype(LayoutLoader.NAME, context);
         layoutLoader.setLocale(getLocale());
         layoutLoader.setMessagesPack(getMessagesPack());
+        layoutLoader.setBlueprint(getBlueprint());
 
         String currentFrameId = context.getCurrentFrameId();
         context.setCurrentFrameId(frameId);
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.haulmont.cuba.gui.data.impl;
+
+import com.haulmont.cuba.client.testsupport.CubaClientTestCase;
+import com.haulmont.cuba.core.global.AppBeans;
+import com.haulmont.cuba.gui.data.CollectionDatasource;
+import com.haulmont.cuba.gui.data.GroupInfo;
+import com.haulmont.cuba.gui.data.impl.testmodel1.TestMasterEntity;
+import com.haulmont.cuba.gui.executors.BackgroundWorker;
+import mockit.Expectations;
+import mockit.Mocked;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class GroupDatasourceTest extends CubaClientTestCase {
+
+    @Mocked
+    protected BackgroundWorker backgroundWorker;
+
+    private GroupDatasourceImpl<TestMasterEntity, UUID> ds;
+
+    @Before
+    public void setUp() throws Exception {
+        addEntityPackage("com.haulmont.cuba");
+        setupInfrastructure();
+
+        new Expectations() {
+            {
+                backgroundWorker.checkUIAccess(); result = null; minTimes = 0;
+                AppBeans.get(BackgroundWorker.NAME); result = backgroundWorker; minTimes = 0;
+                AppBeans.get(BackgroundWorker.class); result = backgroundWorker; minTimes = 0;
+                AppBeans.get(BackgroundWorker.NAME, BackgroundWorker.class); result = backgroundWorker; minTimes = 0;
+            }
+        };
+
+        ds = new GroupDatasourceImpl<>();
+        ds.setMetaClass(metadata.getClassNN(TestMasterEntity.class));
+        ds.setRefreshMode(CollectionDatasource.RefreshMode.NEVER);
+        ds.valid();
+
+        for (String name : new String[]{"a", "b", "a"}) {
+            TestMasterEntity entity = createEntity(name);
+            ds.data.put(entity.getId(), entity);
+        }
+
+        ds.groupBy(new Object[]{ds.getMetaClass().getPropertyPath("masterName")});
+    }
+
+    @Test
+    public void testGroupBy() {
+        List<GroupInfo> roots = ds.rootGroups();
+        assertEquals(2, roots.size());
+        assertEquals("a", roots.get(0).getValue());
+        assertEquals(2, ds.getGroupItemsCount(roots.get(0)));
+        assertEquals("b", roots.get(1).getValue());
+        assertEquals(1, ds.getGroupItemsCount(roots.get(1)));
+    }
+
+    @Test
+    public void testAddAndRemoveItems() {
+        GroupInfo groupA = ds.rootGroups().get(0);
+
+        TestMasterEntity entity = createEntity("c");
+        ds.addItem(entity);
+
+        assertEquals(3, ds.rootGroups().size());
+        assertEquals("c", ds.rootGroups().get(2).getValue());
+        GroupInfo groupC = ds.getParentGroup(entity);
+        assertEquals(ds.rootGroups().get(2), groupC);
+
+        TestMasterEntity firstEntity = createEntity("d");
+        ds.addItemFirst(firstEntity);
+
+        assertEquals(4, ds.rootGroups().size());
+        assertEquals("d", ds.rootGroups().get(0).getValue());
+
+        TestMasterEntity anotherA = createEntity("a");
+        ds.addItem(anotherA);
+
+        assertEquals(4, ds.rootGroups().size());
+        assertEquals(3, ds.getGroupItemsCount(groupA));
+        assertEquals(anotherA.getId(), ds.groupDelegate.getGroupItemIds(groupA).get(2));
+
+        ds.removeItem(entity);
+
+        assertEquals(3, ds.rootGroups().size());
+        assertFalse(ds.containsGroup(groupC));
+
+        ds.removeItem(anotherA);
+
+        assertEquals(2, ds.getGroupItemsCount(groupA));
+    }
+
+    @Test
+    public void testUpdateItem() {
+        GroupInfo groupA = ds.rootGroups().get(0);
+        GroupInfo groupB = ds.rootGroups().get(1);
+
+        TestMasterEntity entity = ds.getOwnChildItems(groupB).get(0);
+        entity.setMasterName("a");
+        ds.updateItem(entity);
+
+        assertEquals(1, ds.rootGroups().size());
+        assertFalse(ds.containsGroup(groupB));
+        assertEquals(3, ds.getGroupItemsCount(groupA));
+        assertEquals(groupA, ds.getParentGroup(entity));
+    }
+
+    private TestMasterEntity createEntity(String name) {
+        TestMasterEntity entity = metadata.create(TestMasterEntity.class);
+        entity.setMasterName(name);
+        return entity;
+    }
+}
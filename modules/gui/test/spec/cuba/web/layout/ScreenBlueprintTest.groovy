@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package spec.cuba.web.layout
+
+import com.haulmont.cuba.core.global.Configuration
+import com.haulmont.cuba.core.global.MessageTools
+import com.haulmont.cuba.core.global.Messages
+import com.haulmont.cuba.gui.xml.layout.ScreenBlueprint
+import org.dom4j.DocumentHelper
+import spock.lang.Specification
+
+class ScreenBlueprintTest extends Specification {
+
+    def "blueprint resolves message references of all descriptor elements once"() {
+        def messages = Mock(Messages)
+        def messageTools = new MessageTools(Mock(Configuration))
+        messageTools.messages = messages
+
+        def root = DocumentHelper.parseText('''
+                <window caption="msg://caption">
+                    <layout>
+                        <button id="okBtn" caption="msg://caption" description="msg://com.company.app/okDescription"/>
+                        <label value="Plain text"/>
+                    </layout>
+                </window>''').rootElement
+
+        when:
+
+        def blueprint = new ScreenBlueprint(root, 'com.company.demo', Locale.ENGLISH, messageTools)
+
+        then:
+
+        1 * messages.getMessage('com.company.demo', 'caption', Locale.ENGLISH) >> 'Caption'
+        1 * messages.getMessage('com.company.app', 'okDescription', Locale.ENGLISH) >> 'OK'
+        0 * messages._
+
+        blueprint.rootElement.is(root)
+        blueprint.resolvedStringsCount == 2
+        blueprint.getResolvedString('msg://caption') == 'Caption'
+        blueprint.getResolvedString('msg://com.company.app/okDescription') == 'OK'
+        blueprint.getResolvedString('Plain text') == null
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.haulmont.restapi.common;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writer of a response body that keeps the written characters in memory until their number exceeds the threshold.
+ * <p>The response is not committed until then, so if the body fails to be produced, the error can still be returned
+ * with a proper status. A body not exceeding the threshold is sent with the Content-Length header when the writer
+ * is closed. A larger body is streamed, and a failure after the threshold results in an incomplete response.</p>
+ * <p>Closing the writer doesn't close the response output stream.</p>
+ */
+public class ResponseBodyWriter extends Writer {
+
+    protected final HttpServletResponse response;
+    protected final int threshold;
+
+    protected StringBuilder buffer = new StringBuilder();
+    protected Writer target;
+
+    public ResponseBodyWriter(HttpServletResponse response, int threshold) {
+        this.response = response;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        if (target != null) {
+            target.write(cbuf, off, len);
+        } else {
+            buffer.append(cbuf, off, len);
+            if (buffer.length() > threshold) {
+                startStreaming();
+            }
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        if (target != null) {
+            target.write(str, off, len);
+        } else {
+            buffer.append(str, off, off + len);
+            if (buffer.length() > threshold) {
+                startStreaming();
+            }
+        }
+    }
+
+    /**
+     * @return true if the buffered content has been sent and the response is committed
+     */
+    public boolean isStreaming() {
+        return target != null;
+    }
+
+    protected void startStreaming() throws IOException {
+        target = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        target.append(buffer);
+        buffer = null;
+    }
+
+    /**
+     * Flushes the written characters to the response only if it is already being streamed.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (target != null) {
+            target.flush();
+        }
+    }
+
+    /**
+     * Sends the buffered body or the rest of the streamed one.
+     */
+    @Override
+    public void close() throws IOException {
+        if (target != null) {
+            target.flush();
+        } else if (buffer != null) {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            buffer = null;
+            response.setContentLength(bytes.length);
+            response.getOutputStream().write(bytes);
+        }
+    }
+}
@@ -24,13 +24,18 @@ import com.haulmont.cuba.core.entity.BaseGenericIdEntity;
 import com.haulmont.cuba.core.entity.Entity;
 import com.haulmont.cuba.core.entity.SecurityState;
 import com.haulmont.cuba.core.global.*;
+import com.haulmont.restapi.config.RestApiConfig;
 import com.haulmont.restapi.config.RestJsonTransformations;
+import com.haulmont.restapi.data.EntitiesSearchResult;
 import com.haulmont.restapi.exception.RestAPIException;
 import com.haulmont.restapi.transform.JsonTransformationDirection;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.Arrays;
 
 /**
@@ -53,6 +58,9 @@ public class RestControllerUtils {
     @Inject
     protected ViewRepository viewRepository;
 
+    @Inject
+    protected RestApiConfig restApiConfig;
+
     /**
      * Finds metaClass by entityName. Throws a RestAPIException if metaClass not found
      */
@@ -99,6 +107,18 @@ public class RestControllerUtils {
             restJsonTransformations.getTransformer(entityName, modelVersion, direction).transformJson(json);
     }
 
+    /**
+     * Writes JSON of the loaded entities to the response body as it is being serialized. The response is committed
+     * only when the JSON exceeds {@link RestApiConfig#getResponseBufferSize()}, so an error occurred before that
+     * is returned with the error status by the exception handler. A larger body is sent in chunks.
+     */
+    public void writeJson(HttpServletResponse response, EntitiesSearchResult result) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+        ResponseBodyWriter writer = new ResponseBodyWriter(response, restApiConfig.getResponseBufferSize());
+        result.writeJson(writer);
+        writer.close();
+    }
+
     private class FillingInaccessibleAttributesVisitor implements EntityAttributeVisitor {
 
         @Override
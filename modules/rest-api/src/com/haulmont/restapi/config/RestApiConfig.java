@@ -21,6 +21,7 @@ import com.haulmont.cuba.core.config.Property;
 import com.haulmont.cuba.core.config.Source;
 import com.haulmont.cuba.core.config.SourceType;
 import com.haulmont.cuba.core.config.defaults.DefaultBoolean;
+import com.haulmont.cuba.core.config.defaults.DefaultInt;
 import com.haulmont.cuba.core.config.type.CommaSeparatedStringListTypeFactory;
 import com.haulmont.cuba.core.config.type.Factory;
 
@@ -72,4 +73,12 @@ public interface RestApiConfig extends Config {
     @Property("cuba.rest.optimisticLockingEnabled")
     @DefaultBoolean(false)
     boolean getOptimisticLockingEnabled();
+
+    /**
+     * @return maximum number of characters of a streamed entities list kept in memory before the response is
+     * committed. An error occurred while the list is in memory is returned with the error status.
+     */
+    @Property("cuba.rest.responseBufferSize")
+    @DefaultInt(65536)
+    int getResponseBufferSize();
 }
\ No newline at end of file
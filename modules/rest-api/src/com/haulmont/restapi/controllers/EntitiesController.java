@@ -19,6 +19,7 @@ package com.haulmont.restapi.controllers;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
+import com.haulmont.restapi.common.RestControllerUtils;
 import com.haulmont.restapi.data.CreatedEntityInfo;
 import com.haulmont.restapi.data.EntitiesSearchResult;
 import com.haulmont.restapi.service.EntitiesControllerManager;
@@ -34,6 +35,8 @@ import org.springframework.web.util.UriComponentsBuilder;
 
 import javax.inject.Inject;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 
 /**
  * Controller that performs CRUD entity operations
@@ -45,6 +48,9 @@ public class EntitiesController {
     @Inject
     protected EntitiesControllerManager entitiesControllerManager;
 
+    @Inject
+    protected RestControllerUtils restControllerUtils;
+
     @GetMapping("/{entityName}/{entityId}")
     public String loadEntity(@PathVariable String entityName,
                              @PathVariable String entityId,
@@ -56,55 +62,56 @@ public class EntitiesController {
     }
 
     @GetMapping("/{entityName}")
-    public ResponseEntity<String> loadEntitiesList(@PathVariable String entityName,
-                                                   @RequestParam(required = false) String view,
-                                                   @RequestParam(required = false) Integer limit,
-                                                   @RequestParam(required = false) Integer offset,
-                                                   @RequestParam(required = false) String sort,
-                                                   @RequestParam(required = false) Boolean returnNulls,
-                                                   @RequestParam(required = false) Boolean returnCount,
-                                                   @RequestParam(required = false) Boolean dynamicAttributes,
-                                                   @RequestParam(required = false) String modelVersion) {
+    public void loadEntitiesList(@PathVariable String entityName,
+                                 @RequestParam(required = false) String view,
+                                 @RequestParam(required = false) Integer limit,
+                                 @RequestParam(required = false) Integer offset,
+                                 @RequestParam(required = false) String sort,
+                                 @RequestParam(required = false) Boolean returnNulls,
+                                 @RequestParam(required = false) Boolean returnCount,
+                                 @RequestParam(required = false) Boolean dynamicAttributes,
+                                 @RequestParam(required = false) String modelVersion,
+                                 @RequestParam(required = false) String afterId,
+                                 HttpServletResponse response) throws IOException {
         EntitiesSearchResult entitiesSearchResult = entitiesControllerManager.loadEntitiesList(entityName, view, limit,
-                offset, sort, returnNulls, returnCount, dynamicAttributes, modelVersion);
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(HttpStatus.OK);
+                offset, sort, returnNulls, returnCount, dynamicAttributes, modelVersion, afterId);
         if (BooleanUtils.isTrue(returnCount)) {
-            responseBuilder.header("X-Total-Count", entitiesSearchResult.getCount().toString());
+            response.setHeader("X-Total-Count", entitiesSearchResult.getCount().toString());
         }
-        return responseBuilder.body(entitiesSearchResult.getJson());
+        restControllerUtils.writeJson(response, entitiesSearchResult);
     }
 
     @GetMapping("/{entityName}/search")
-    public ResponseEntity<String> searchEntitiesListGet(@PathVariable String entityName,
-                                                        @RequestParam String filter,
-                                                        @RequestParam(required = false) String view,
-                                                        @RequestParam(required = false) Integer limit,
-                                                        @RequestParam(required = false) Integer offset,
-                                                        @RequestParam(required = false) String sort,
-                                                        @RequestParam(required = false) Boolean returnNulls,
-                                                        @RequestParam(required = false) Boolean returnCount,
-                                                        @RequestParam(required = false) Boolean dynamicAttributes,
-                                                        @RequestParam(required = false) String modelVersion) {
+    public void searchEntitiesListGet(@PathVariable String entityName,
+                                      @RequestParam String filter,
+                                      @RequestParam(required = false) String view,
+                                      @RequestParam(required = false) Integer limit,
+                                      @RequestParam(required = false) Integer offset,
+                                      @RequestParam(required = false) String sort,
+                                      @RequestParam(required = false) Boolean returnNulls,
+                                      @RequestParam(required = false) Boolean returnCount,
+                                      @RequestParam(required = false) Boolean dynamicAttributes,
+                                      @RequestParam(required = false) String modelVersion,
+                                      HttpServletResponse response) throws IOException {
         EntitiesSearchResult entitiesSearchResult = entitiesControllerManager.searchEntities(entityName, filter,
                 view, limit, offset, sort, returnNulls, returnCount, dynamicAttributes, modelVersion);
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(HttpStatus.OK);
         if (BooleanUtils.isTrue(returnCount)) {
-            responseBuilder.header("X-Total-Count", entitiesSearchResult.getCount().toString());
+            response.setHeader("X-Total-Count", entitiesSearchResult.getCount().toString());
         }
-        return responseBuilder.body(entitiesSearchResult.getJson());
+        restControllerUtils.writeJson(response, entitiesSearchResult);
     }
 
     @PostMapping("/{entityName}/search")
-    public ResponseEntity<String> searchEntitiesListPost(@PathVariable String entityName,
-                                                         @RequestBody String requestBodyJson) {
+    public void searchEntitiesListPost(@PathVariable String entityName,
+                                       @RequestBody String requestBodyJson,
+                                       HttpServletResponse response) throws IOException {
         EntitiesSearchResult entitiesSearchResult = entitiesControllerManager.searchEntities(entityName, requestBodyJson);
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(HttpStatus.OK);
         JsonObject requestJsonObject = new JsonParser().parse(requestBodyJson).getAsJsonObject();
         JsonPrimitive returnCount = requestJsonObject.getAsJsonPrimitive("returnCount");
         if (returnCount != null && returnCount.getAsBoolean()) {
-            responseBuilder.header("X-Total-Count", entitiesSearchResult.getCount().toString());
+            response.setHeader("X-Total-Count", entitiesSearchResult.getCount().toString());
         }
-        return responseBuilder.body(entitiesSearchResult.getJson());
+        restControllerUtils.writeJson(response, entitiesSearchResult);
     }
 
     @PostMapping("/{entityName}")
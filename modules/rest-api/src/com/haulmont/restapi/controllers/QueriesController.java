@@ -16,15 +16,17 @@
 
 package com.haulmont.restapi.controllers;
 
+import com.haulmont.restapi.common.RestControllerUtils;
 import com.haulmont.restapi.config.RestQueriesConfiguration;
+import com.haulmont.restapi.data.EntitiesSearchResult;
 import com.haulmont.restapi.service.QueriesControllerManager;
 import org.apache.commons.lang3.BooleanUtils;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.inject.Inject;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.text.ParseException;
 import java.util.List;
 import java.util.Map;
@@ -39,45 +41,47 @@ public class QueriesController {
     @Inject
     protected QueriesControllerManager queriesControllerManager;
 
+    @Inject
+    protected RestControllerUtils restControllerUtils;
+
     @GetMapping("/{entityName}/{queryName}")
-    public ResponseEntity<String> executeQueryGet(@PathVariable String entityName,
-                               @PathVariable String queryName,
-                               @RequestParam(required = false) Integer limit,
-                               @RequestParam(required = false) Integer offset,
-                               @RequestParam(required = false) String view,
-                               @RequestParam(required = false) Boolean returnNulls,
-                               @RequestParam(required = false) Boolean dynamicAttributes,
-                               @RequestParam(required = false) Boolean returnCount,
-                               @RequestParam(required = false) String modelVersion,
-                               @RequestParam Map<String, String> params) {
-        String resultJson = queriesControllerManager.executeQueryGet(entityName, queryName, limit, offset, view, returnNulls, dynamicAttributes, modelVersion, params);
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(HttpStatus.OK);
+    public void executeQueryGet(@PathVariable String entityName,
+                                @PathVariable String queryName,
+                                @RequestParam(required = false) Integer limit,
+                                @RequestParam(required = false) Integer offset,
+                                @RequestParam(required = false) String view,
+                                @RequestParam(required = false) Boolean returnNulls,
+                                @RequestParam(required = false) Boolean dynamicAttributes,
+                                @RequestParam(required = false) Boolean returnCount,
+                                @RequestParam(required = false) String modelVersion,
+                                @RequestParam Map<String, String> params,
+                                HttpServletResponse response) throws IOException {
+        EntitiesSearchResult result = queriesControllerManager.loadQueryResultGet(entityName, queryName, limit, offset,
+                view, returnNulls, dynamicAttributes, returnCount, modelVersion, params);
         if (BooleanUtils.isTrue(returnCount)) {
-            String count = queriesControllerManager.getCountGet(entityName, queryName, modelVersion, params);
-            responseBuilder.header("X-Total-Count", count);
+            response.setHeader("X-Total-Count", result.getCount().toString());
         }
-        return responseBuilder.body(resultJson);
+        restControllerUtils.writeJson(response, result);
     }
 
     @PostMapping("/{entityName}/{queryName}")
-    public ResponseEntity<String> executeQueryPost(@PathVariable String entityName,
-                               @PathVariable String queryName,
-                               @RequestParam(required = false) Integer limit,
-                               @RequestParam(required = false) Integer offset,
-                               @RequestParam(required = false) String view,
-                               @RequestParam(required = false) Boolean returnNulls,
-                               @RequestParam(required = false) Boolean dynamicAttributes,
-                               @RequestParam(required = false) Boolean returnCount,
-                               @RequestParam(required = false) String modelVersion,
-                               @RequestBody String paramsJson) {
-
-        String resultJson = queriesControllerManager.executeQueryPost(entityName, queryName, limit, offset, view, returnNulls, dynamicAttributes, modelVersion, paramsJson);
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(HttpStatus.OK);
+    public void executeQueryPost(@PathVariable String entityName,
+                                 @PathVariable String queryName,
+                                 @RequestParam(required = false) Integer limit,
+                                 @RequestParam(required = false) Integer offset,
+                                 @RequestParam(required = false) String view,
+                                 @RequestParam(required = false) Boolean returnNulls,
+                                 @RequestParam(required = false) Boolean dynamicAttributes,
+                                 @RequestParam(required = false) Boolean returnCount,
+                                 @RequestParam(required = false) String modelVersion,
+                                 @RequestBody String paramsJson,
+                                 HttpServletResponse response) throws IOException {
+        EntitiesSearchResult result = queriesControllerManager.loadQueryResultPost(entityName, queryName, limit, offset,
+                view, returnNulls, dynamicAttributes, returnCount, modelVersion, paramsJson);
         if (BooleanUtils.isTrue(returnCount)) {
-            String count = queriesControllerManager.getCountPost(entityName, queryName, modelVersion, paramsJson);
-            responseBuilder.header("X-Total-Count", count);
+            response.setHeader("X-Total-Count", result.getCount().toString());
         }
-        return responseBuilder.body(resultJson);
+        restControllerUtils.writeJson(response, result);
     }
 
     @GetMapping(value = "/{entityName}/{queryName}/count")
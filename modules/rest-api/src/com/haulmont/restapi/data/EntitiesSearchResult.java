@@ -16,8 +16,18 @@
 
 package com.haulmont.restapi.data;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Result of loading a list of entities. The JSON can be either a prepared string or {@link JsonContent} that
+ * serializes entities directly to the response writer.
+ */
 public class EntitiesSearchResult {
     protected String json;
+    protected JsonContent jsonContent;
     protected Long count;
 
     public EntitiesSearchResult(String json, Long count) {
@@ -25,11 +35,44 @@ public class EntitiesSearchResult {
         this.count = count;
     }
 
+    public EntitiesSearchResult(JsonContent jsonContent, Long count) {
+        this.jsonContent = jsonContent;
+        this.count = count;
+    }
+
     public String getJson() {
+        if (json == null && jsonContent != null) {
+            StringWriter writer = new StringWriter();
+            try {
+                jsonContent.writeTo(writer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            json = writer.toString();
+        }
         return json;
     }
 
+    /**
+     * Writes the JSON to the given writer without building an intermediate string if possible.
+     */
+    public void writeJson(Writer writer) throws IOException {
+        if (json != null) {
+            writer.write(json);
+        } else if (jsonContent != null) {
+            jsonContent.writeTo(writer);
+        }
+    }
+
     public Long getCount() {
         return count;
     }
+
+    /**
+     * JSON that is produced on demand.
+     */
+    @FunctionalInterface
+    public interface JsonContent {
+        void writeTo(Writer writer) throws IOException;
+    }
 }
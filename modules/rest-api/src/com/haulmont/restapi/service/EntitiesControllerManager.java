@@ -133,15 +133,39 @@ public class EntitiesControllerManager {
                                                  @Nullable Boolean returnCount,
                                                  @Nullable Boolean dynamicAttributes,
                                                  @Nullable String modelVersion) {
+        return loadEntitiesList(entityName, viewName, limit, offset, sort, returnNulls, returnCount, dynamicAttributes,
+                modelVersion, null);
+    }
+
+    /**
+     * Loads a list of entities. If {@code afterId} is specified, the list is loaded in keyset pagination mode:
+     * entities are ordered by id and the page starts right after the entity with the given id, the {@code offset}
+     * and {@code sort} parameters are ignored.
+     */
+    public EntitiesSearchResult loadEntitiesList(String entityName,
+                                                 @Nullable String viewName,
+                                                 @Nullable Integer limit,
+                                                 @Nullable Integer offset,
+                                                 @Nullable String sort,
+                                                 @Nullable Boolean returnNulls,
+                                                 @Nullable Boolean returnCount,
+                                                 @Nullable Boolean dynamicAttributes,
+                                                 @Nullable String modelVersion,
+                                                 @Nullable String afterId) {
         entityName = restControllerUtils.transformEntityNameIfRequired(entityName, modelVersion, JsonTransformationDirection.FROM_VERSION);
         MetaClass metaClass = restControllerUtils.getMetaClass(entityName);
         checkCanReadEntity(metaClass);
 
         String queryString = "select e from " + entityName + " e";
-        String json = _loadEntitiesList(queryString, viewName, limit, offset, sort, returnNulls, dynamicAttributes, modelVersion,
-                metaClass, new HashMap<>());
-
-        json = restControllerUtils.transformJsonIfRequired(entityName, modelVersion, JsonTransformationDirection.TO_VERSION, json);
+        EntitiesSearchResult.JsonContent jsonContent;
+        if (Strings.isNullOrEmpty(afterId)) {
+            jsonContent = _loadEntitiesJson(queryString, viewName, limit, offset, sort, returnNulls, dynamicAttributes,
+                    modelVersion, metaClass, new HashMap<>(), null);
+        } else {
+            Object lastId = getIdFromString(afterId, metaClass);
+            jsonContent = _loadEntitiesJson(queryString, viewName, limit, null, null, returnNulls, dynamicAttributes,
+                    modelVersion, metaClass, new HashMap<>(), lastId);
+        }
 
         Long count = null;
         if (BooleanUtils.isTrue(returnCount)) {
@@ -149,8 +173,14 @@ public class EntitiesControllerManager {
                     .setQuery(LoadContext.createQuery(queryString));
             count = dataManager.getCount(ctx);
         }
-        return new EntitiesSearchResult(json, count);
 
+        EntitiesSearchResult result = new EntitiesSearchResult(jsonContent, count);
+        if (!Strings.isNullOrEmpty(modelVersion)) {
+            String json = restControllerUtils.transformJsonIfRequired(entityName, modelVersion,
+                    JsonTransformationDirection.TO_VERSION, result.getJson());
+            result = new EntitiesSearchResult(json, count);
+        }
+        return result;
     }
 
     public EntitiesSearchResult searchEntities(String entityName,
@@ -182,8 +212,8 @@ public class EntitiesControllerManager {
         Map<String, Object> queryParameters = filterParseResult.getQueryParameters();
 
         String queryString = "select e from " + entityName + " e where " + jpqlWhere;
-        String json = _loadEntitiesList(queryString, viewName, limit, offset, sort, returnNulls,
-                dynamicAttributes, modelVersion, metaClass, queryParameters);
+        EntitiesSearchResult.JsonContent jsonContent = _loadEntitiesJson(queryString, viewName, limit, offset, sort,
+                returnNulls, dynamicAttributes, modelVersion, metaClass, queryParameters, null);
         Long count = null;
         if (BooleanUtils.isTrue(returnCount)) {
             LoadContext ctx = LoadContext.create(metaClass.getJavaClass())
@@ -191,7 +221,7 @@ public class EntitiesControllerManager {
             count = dataManager.getCount(ctx);
         }
 
-        return new EntitiesSearchResult(json, count);
+        return new EntitiesSearchResult(jsonContent, count);
     }
 
     public EntitiesSearchResult searchEntities(String entityName, String searchRequestBody) {
@@ -231,6 +261,41 @@ public class EntitiesControllerManager {
                                        @Nullable String modelVersion,
                                        MetaClass metaClass,
                                        Map<String, Object> queryParameters) {
+        return _loadEntitiesList(queryString, viewName, limit, offset, sort, returnNulls, dynamicAttributes, modelVersion,
+                metaClass, queryParameters, null);
+    }
+
+    protected String _loadEntitiesList(String queryString,
+                                       @Nullable String viewName,
+                                       @Nullable Integer limit,
+                                       @Nullable Integer offset,
+                                       @Nullable String sort,
+                                       @Nullable Boolean returnNulls,
+                                       @Nullable Boolean dynamicAttributes,
+                                       @Nullable String modelVersion,
+                                       MetaClass metaClass,
+                                       Map<String, Object> queryParameters,
+                                       @Nullable Object keysetLastId) {
+        EntitiesSearchResult.JsonContent jsonContent = _loadEntitiesJson(queryString, viewName, limit, offset, sort,
+                returnNulls, dynamicAttributes, modelVersion, metaClass, queryParameters, keysetLastId);
+        return new EntitiesSearchResult(jsonContent, null).getJson();
+    }
+
+    /**
+     * Loads a list of entities and returns the JSON content which serializes them directly to the response writer.
+     * If {@code modelVersion} is specified, the JSON is built and transformed beforehand.
+     */
+    protected EntitiesSearchResult.JsonContent _loadEntitiesJson(String queryString,
+                                                                 @Nullable String viewName,
+                                                                 @Nullable Integer limit,
+                                                                 @Nullable Integer offset,
+                                                                 @Nullable String sort,
+                                                                 @Nullable Boolean returnNulls,
+                                                                 @Nullable Boolean dynamicAttributes,
+                                                                 @Nullable String modelVersion,
+                                                                 MetaClass metaClass,
+                                                                 Map<String, Object> queryParameters,
+                                                                 @Nullable Object keysetLastId) {
         LoadContext<Entity> ctx = new LoadContext<>(metaClass);
         if (!Strings.isNullOrEmpty(sort)) {
             boolean descSortOrder = false;
@@ -254,11 +319,14 @@ public class EntitiesControllerManager {
         if (queryParameters != null) {
             query.setParameters(queryParameters);
         }
+        if (keysetLastId != null) {
+            query.setKeysetPagination(true);
+            query.setKeysetLastValue(keysetLastId);
+        }
         ctx.setQuery(query);
 
-        View view = null;
-        if (!Strings.isNullOrEmpty(viewName)) {
-            view = restControllerUtils.getView(metaClass, viewName);
+        View view = !Strings.isNullOrEmpty(viewName) ? restControllerUtils.getView(metaClass, viewName) : null;
+        if (view != null) {
             ctx.setView(view);
         }
 
@@ -271,9 +339,15 @@ public class EntitiesControllerManager {
         serializationOptions.add(EntitySerializationOption.SERIALIZE_INSTANCE_NAME);
         if (BooleanUtils.isTrue(returnNulls)) serializationOptions.add(EntitySerializationOption.SERIALIZE_NULLS);
 
-        String json = entitySerializationAPI.toJson(entities, view, serializationOptions.toArray(new EntitySerializationOption[0]));
-        json = restControllerUtils.transformJsonIfRequired(metaClass.getName(), modelVersion, JsonTransformationDirection.TO_VERSION, json);
-        return json;
+        EntitySerializationOption[] options = serializationOptions.toArray(new EntitySerializationOption[0]);
+        if (Strings.isNullOrEmpty(modelVersion)) {
+            return writer -> entitySerializationAPI.toJson(entities, view, writer, options);
+        }
+
+        String json = entitySerializationAPI.toJson(entities, view, options);
+        String transformedJson = restControllerUtils.transformJsonIfRequired(metaClass.getName(), modelVersion,
+                JsonTransformationDirection.TO_VERSION, json);
+        return writer -> writer.write(transformedJson);
     }
 
     public CreatedEntityInfo createEntity(String entityJson, String entityName, String modelVersion) {
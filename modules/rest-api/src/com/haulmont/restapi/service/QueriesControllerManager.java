@@ -32,6 +32,7 @@ import com.haulmont.cuba.security.entity.User;
 import com.haulmont.restapi.common.RestControllerUtils;
 import com.haulmont.restapi.common.RestParseUtils;
 import com.haulmont.restapi.config.RestQueriesConfiguration;
+import com.haulmont.restapi.data.EntitiesSearchResult;
 import com.haulmont.restapi.exception.RestAPIException;
 import com.haulmont.restapi.transform.JsonTransformationDirection;
 import org.apache.commons.lang3.BooleanUtils;
@@ -101,6 +102,62 @@ public class QueriesControllerManager {
         return _executeQuery(entityName, queryName, limit, offset, viewName, returnNulls, dynamicAttributes, version, paramsMap);
     }
 
+    /**
+     * Executes the query like {@link #executeQueryGet(String, String, Integer, Integer, String, Boolean, Boolean,
+     * String, Map)}, but returns the result which serializes the loaded entities directly to the response writer.
+     */
+    public EntitiesSearchResult loadQueryResultGet(String entityName,
+                                                   String queryName,
+                                                   @Nullable Integer limit,
+                                                   @Nullable Integer offset,
+                                                   @Nullable String viewName,
+                                                   @Nullable Boolean returnNulls,
+                                                   @Nullable Boolean dynamicAttributes,
+                                                   @Nullable Boolean returnCount,
+                                                   @Nullable String version,
+                                                   Map<String, String> params) {
+        return _loadQueryResult(entityName, queryName, limit, offset, viewName, returnNulls, dynamicAttributes,
+                returnCount, version, params);
+    }
+
+    /**
+     * Executes the query like {@link #executeQueryPost(String, String, Integer, Integer, String, Boolean, Boolean,
+     * String, String)}, but returns the result which serializes the loaded entities directly to the response writer.
+     */
+    public EntitiesSearchResult loadQueryResultPost(String entityName,
+                                                    String queryName,
+                                                    @Nullable Integer limit,
+                                                    @Nullable Integer offset,
+                                                    @Nullable String viewName,
+                                                    @Nullable Boolean returnNulls,
+                                                    @Nullable Boolean dynamicAttributes,
+                                                    @Nullable Boolean returnCount,
+                                                    @Nullable String version,
+                                                    String paramsJson) {
+        Map<String, String> paramsMap = restParseUtils.parseParamsJson(paramsJson);
+        return _loadQueryResult(entityName, queryName, limit, offset, viewName, returnNulls, dynamicAttributes,
+                returnCount, version, paramsMap);
+    }
+
+    protected EntitiesSearchResult _loadQueryResult(String entityName,
+                                                    String queryName,
+                                                    @Nullable Integer limit,
+                                                    @Nullable Integer offset,
+                                                    @Nullable String viewName,
+                                                    @Nullable Boolean returnNulls,
+                                                    @Nullable Boolean dynamicAttributes,
+                                                    @Nullable Boolean returnCount,
+                                                    @Nullable String version,
+                                                    Map<String, String> params) {
+        EntitiesSearchResult.JsonContent jsonContent = _executeQueryJson(entityName, queryName, limit, offset, viewName,
+                returnNulls, dynamicAttributes, version, params);
+        Long count = null;
+        if (BooleanUtils.isTrue(returnCount)) {
+            count = Long.valueOf(_getCount(entityName, queryName, version, params));
+        }
+        return new EntitiesSearchResult(jsonContent, count);
+    }
+
     protected String _executeQuery(String entityName,
                                    String queryName,
                                    @Nullable Integer limit,
@@ -110,6 +167,24 @@ public class QueriesControllerManager {
                                    @Nullable Boolean dynamicAttributes,
                                    @Nullable String version,
                                    Map<String, String> params) {
+        EntitiesSearchResult.JsonContent jsonContent = _executeQueryJson(entityName, queryName, limit, offset, viewName,
+                returnNulls, dynamicAttributes, version, params);
+        return new EntitiesSearchResult(jsonContent, null).getJson();
+    }
+
+    /**
+     * Executes the query and returns the JSON content which serializes the loaded entities directly to the response
+     * writer. If {@code version} is specified, the JSON is built and transformed beforehand.
+     */
+    protected EntitiesSearchResult.JsonContent _executeQueryJson(String entityName,
+                                                                 String queryName,
+                                                                 @Nullable Integer limit,
+                                                                 @Nullable Integer offset,
+                                                                 @Nullable String viewName,
+                                                                 @Nullable Boolean returnNulls,
+                                                                 @Nullable Boolean dynamicAttributes,
+                                                                 @Nullable String version,
+                                                                 Map<String, String> params) {
         LoadContext<Entity> ctx;
         entityName = restControllerUtils.transformEntityNameIfRequired(entityName, version, JsonTransformationDirection.FROM_VERSION);
         try {
@@ -132,9 +207,16 @@ public class QueriesControllerManager {
         serializationOptions.add(EntitySerializationOption.SERIALIZE_INSTANCE_NAME);
         if (BooleanUtils.isTrue(returnNulls)) serializationOptions.add(EntitySerializationOption.SERIALIZE_NULLS);
 
-        String json = entitySerializationAPI.toJson(entities, ctx.getView(), serializationOptions.toArray(new EntitySerializationOption[0]));
-        json = restControllerUtils.transformJsonIfRequired(entityName, version, JsonTransformationDirection.TO_VERSION, json);
-        return json;
+        EntitySerializationOption[] options = serializationOptions.toArray(new EntitySerializationOption[0]);
+        View view = ctx.getView();
+        if (Strings.isNullOrEmpty(version)) {
+            return writer -> entitySerializationAPI.toJson(entities, view, writer, options);
+        }
+
+        String json = entitySerializationAPI.toJson(entities, view, options);
+        String transformedJson = restControllerUtils.transformJsonIfRequired(entityName, version,
+                JsonTransformationDirection.TO_VERSION, json);
+        return writer -> writer.write(transformedJson);
     }
 
     public String getCountGet(String entityName,
@@ -210,6 +210,22 @@ public interface WebConfig extends Config {
     @DefaultInteger(100)
     Integer getMaxActiveBackgroundTasksCount();
 
+    /**
+     * @return maximum number of background tasks executed simultaneously for a user session. Other tasks of the
+     * session wait until running ones are completed. 0 means no limit.
+     */
+    @Property("cuba.backgroundWorker.maxActiveTasksPerSession")
+    @DefaultInt(0)
+    int getMaxActiveBackgroundTasksPerSession();
+
+    /**
+     * @return maximum number of background tasks executed simultaneously for all sessions of a user. Other tasks of
+     * the user wait until running ones are completed. 0 means no limit.
+     */
+    @Property("cuba.backgroundWorker.maxActiveTasksPerUser")
+    @DefaultInt(0)
+    int getMaxActiveBackgroundTasksPerUser();
+
     @Property("cuba.backgroundWorker.maxClientLatencySeconds")
     @DefaultInt(60)
     int getClientBackgroundTasksLatencySeconds();
@@ -21,6 +21,7 @@ import com.haulmont.cuba.core.sys.StatisticsAccumulator;
 
 import org.springframework.stereotype.Component;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 @Component(WebStatisticsAccumulator.NAME)
 public class WebStatisticsAccumulator extends StatisticsAccumulator {
@@ -29,6 +30,9 @@ public class WebStatisticsAccumulator extends StatisticsAccumulator {
 
     protected AtomicLong webRequestsCount = new AtomicLong();
 
+    protected Histogram backgroundTasksQueueWait = new Histogram();
+    protected Histogram backgroundTasksRunTime = new Histogram();
+
     public void incWebRequestsCount() {
         webRequestsCount.incrementAndGet();
     }
@@ -40,4 +44,60 @@ public class WebStatisticsAccumulator extends StatisticsAccumulator {
     public double getWebRequestsPerSecond() {
         return getWebRequestsCount() / ((System.currentTimeMillis() - startTime) / 1000.0);
     }
-}
\ No newline at end of file
+
+    public void registerBackgroundTaskQueueWait(long millis) {
+        backgroundTasksQueueWait.register(millis);
+    }
+
+    public void registerBackgroundTaskRunTime(long millis) {
+        backgroundTasksRunTime.register(millis);
+    }
+
+    public Long getBackgroundTasksCount() {
+        return backgroundTasksRunTime.getCount();
+    }
+
+    public String getBackgroundTasksQueueWaitHistogram() {
+        return backgroundTasksQueueWait.toString();
+    }
+
+    public String getBackgroundTasksRunTimeHistogram() {
+        return backgroundTasksRunTime.toString();
+    }
+
+    /**
+     * Counts durations in milliseconds by fixed buckets.
+     */
+    public static class Histogram {
+
+        protected static final long[] BOUNDS = {10, 50, 100, 500, 1000, 5000, 10000, 60000};
+
+        protected AtomicLongArray counts = new AtomicLongArray(BOUNDS.length + 1);
+
+        public void register(long millis) {
+            int i = 0;
+            while (i < BOUNDS.length && millis > BOUNDS[i]) {
+                i++;
+            }
+            counts.incrementAndGet(i);
+        }
+
+        public long getCount() {
+            long count = 0;
+            for (int i = 0; i < counts.length(); i++) {
+                count += counts.get(i);
+            }
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < BOUNDS.length; i++) {
+                sb.append("<=").append(BOUNDS[i]).append("ms: ").append(counts.get(i)).append(", ");
+            }
+            sb.append(">").append(BOUNDS[BOUNDS.length - 1]).append("ms: ").append(counts.get(BOUNDS.length));
+            return sb.toString();
+        }
+    }
+}
@@ -18,6 +18,7 @@ package com.haulmont.cuba.web.gui.components.table;
 
 import com.haulmont.cuba.gui.components.data.BindingState;
 import com.haulmont.cuba.gui.components.data.GroupTableSource;
+import com.haulmont.cuba.gui.components.data.TableSource;
 import com.haulmont.cuba.gui.data.GroupInfo;
 import com.haulmont.cuba.web.widgets.data.GroupTableContainer;
 
@@ -69,6 +70,14 @@ public class GroupTableDataContainer<I> extends SortableDataContainer<I> impleme
         // todo aggregation
     }
 
+    @Override
+    protected void datasourceItemSetChanged(TableSource.ItemSetChangeEvent<I> e) {
+        // groups are already updated by the table source, only the visible items have to be collected again
+        resetCachedItems();
+
+        super.datasourceItemSetChanged(e);
+    }
+
     @Override
     public boolean isGroup(Object id) {
         return id instanceof GroupInfo && getGroupTableSource().containsGroup((GroupInfo) id);
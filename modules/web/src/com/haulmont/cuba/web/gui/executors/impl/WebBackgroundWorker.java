@@ -31,6 +31,7 @@ import com.haulmont.cuba.security.global.UserSession;
 import com.haulmont.cuba.web.App;
 import com.haulmont.cuba.web.AppUI;
 import com.haulmont.cuba.web.WebConfig;
+import com.haulmont.cuba.web.app.WebStatisticsAccumulator;
 import com.vaadin.server.VaadinSession;
 import com.vaadin.ui.UI;
 import org.slf4j.Logger;
@@ -40,18 +41,23 @@ import org.springframework.stereotype.Component;
 import javax.annotation.Nonnull;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
- * Web implementation of {@link BackgroundWorker}
+ * Web implementation of {@link BackgroundWorker}.
+ * <p>
+ * Tasks waiting for a working thread are started in the order of their {@link BackgroundTask#getPriority()}.
+ * The number of simultaneously running tasks of a user session and of a user can be limited by
+ * {@link WebConfig#getMaxActiveBackgroundTasksPerSession()} and {@link WebConfig#getMaxActiveBackgroundTasksPerUser()},
+ * tasks exceeding the limits are held until other tasks of the session or user are completed.
+ * The timeout of a task is counted since it gets a working thread.
  */
 @Component(BackgroundWorker.NAME)
 public class WebBackgroundWorker implements BackgroundWorker {
@@ -70,16 +76,30 @@ public class WebBackgroundWorker implements BackgroundWorker {
     @Inject
     protected Events events;
 
+    @Inject
+    protected WebStatisticsAccumulator statisticsAccumulator;
+
     protected Configuration configuration;
+    protected WebConfig webConfig;
 
     protected ExecutorService executorService;
 
+    protected final AtomicLong taskSequence = new AtomicLong();
+
+    // guarded by itself
+    protected final NavigableSet<ScheduledTask> waitingTasks = new TreeSet<>();
+    // guarded by waitingTasks
+    protected final Map<UUID, Integer> activeTasksBySession = new HashMap<>();
+    // guarded by waitingTasks
+    protected final Map<String, Integer> activeTasksByUser = new HashMap<>();
+
     public WebBackgroundWorker() {
     }
 
     @Inject
     public void setConfiguration(Configuration configuration) {
         this.configuration = configuration;
+        this.webConfig = configuration.getConfig(WebConfig.class);
 
         createThreadPoolExecutor();
     }
@@ -89,12 +109,12 @@ public class WebBackgroundWorker implements BackgroundWorker {
             return;
         }
 
-        WebConfig webConfig = configuration.getConfig(WebConfig.class);
+        // only ScheduledTask instances are submitted, so the queue orders them by priority
         this.executorService = new ThreadPoolExecutor(
                 webConfig.getMinBackgroundThreadsCount(),
                 webConfig.getMaxActiveBackgroundTasksCount(),
                 10L, TimeUnit.MINUTES,
-                new LinkedBlockingQueue<>(),
+                new PriorityBlockingQueue<>(),
                 new ThreadFactoryBuilder()
                         .setNameFormat(THREAD_NAME_PREFIX + "%d")
                         .build()
@@ -132,6 +152,69 @@ public class WebBackgroundWorker implements BackgroundWorker {
         return taskHandler;
     }
 
+    protected void schedule(ScheduledTask task) {
+        synchronized (waitingTasks) {
+            if (canStart(task)) {
+                start(task);
+            } else {
+                log.debug("Task is waiting for completion of other tasks. User: {}", task.userLogin);
+                waitingTasks.add(task);
+            }
+        }
+    }
+
+    protected void unschedule(ScheduledTask task) {
+        synchronized (waitingTasks) {
+            waitingTasks.remove(task);
+        }
+    }
+
+    protected void taskFinished(ScheduledTask task) {
+        synchronized (waitingTasks) {
+            decrement(activeTasksBySession, task.sessionId);
+            decrement(activeTasksByUser, task.userLogin);
+
+            Iterator<ScheduledTask> iterator = waitingTasks.iterator();
+            while (iterator.hasNext()) {
+                ScheduledTask waitingTask = iterator.next();
+                if (waitingTask.future.isDone()) {
+                    iterator.remove();
+                } else if (canStart(waitingTask)) {
+                    iterator.remove();
+                    start(waitingTask);
+                }
+            }
+        }
+    }
+
+    // guarded by waitingTasks
+    protected boolean canStart(ScheduledTask task) {
+        int sessionLimit = webConfig.getMaxActiveBackgroundTasksPerSession();
+        if (sessionLimit > 0 && activeTasksBySession.getOrDefault(task.sessionId, 0) >= sessionLimit) {
+            return false;
+        }
+        int userLimit = webConfig.getMaxActiveBackgroundTasksPerUser();
+        return userLimit <= 0 || activeTasksByUser.getOrDefault(task.userLogin, 0) < userLimit;
+    }
+
+    // guarded by waitingTasks
+    protected void start(ScheduledTask task) {
+        activeTasksBySession.merge(task.sessionId, 1, Integer::sum);
+        activeTasksByUser.merge(task.userLogin, 1, Integer::sum);
+
+        try {
+            executorService.execute(task);
+        } catch (RejectedExecutionException e) {
+            decrement(activeTasksBySession, task.sessionId);
+            decrement(activeTasksByUser, task.userLogin);
+            throw e;
+        }
+    }
+
+    protected <K> void decrement(Map<K, Integer> counters, K key) {
+        counters.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+    }
+
     @Override
     public UIAccessor getUIAccessor() {
         checkUIAccess();
@@ -161,8 +244,14 @@ public class WebBackgroundWorker implements BackgroundWorker {
         private volatile boolean doneHandled = false;
 
         private SecurityContext securityContext;
+        private UUID sessionId;
         private String userLogin;
 
+        private ScheduledTask scheduledTask;
+
+        private final Queue<T> pendingChanges = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean progressScheduled = new AtomicBoolean();
+
         private Map<String, Object> params;
         private TaskHandlerImpl<T, V> taskHandler;
 
@@ -178,6 +267,7 @@ public class WebBackgroundWorker implements BackgroundWorker {
             this.securityContext = new SecurityContext(AppContext.getSecurityContextNN().getSession());
 
             UserSession userSession = userSessionSource.getUserSession();
+            this.sessionId = userSession.getId();
             this.userLogin = userSession.getUser().getLogin();
 
             this.future = new FutureTask<V>(this) {
@@ -239,9 +329,27 @@ public class WebBackgroundWorker implements BackgroundWorker {
         @Override
         public final void handleProgress(T... changes) {
             if (changes != null) {
-                ui.access(() ->
-                        process(Arrays.asList(changes))
-                );
+                pendingChanges.addAll(Arrays.asList(changes));
+
+                // changes published before the UI thread picks them up are delivered in one batch
+                if (progressScheduled.compareAndSet(false, true)) {
+                    ui.access(this::processPendingChanges);
+                }
+            }
+        }
+
+        @ExecutedOnUIThread
+        protected void processPendingChanges() {
+            progressScheduled.set(false);
+
+            List<T> chunks = new ArrayList<>();
+            T change;
+            while ((change = pendingChanges.poll()) != null) {
+                chunks.add(change);
+            }
+
+            if (!chunks.isEmpty()) {
+                process(chunks);
             }
         }
 
@@ -322,6 +430,11 @@ public class WebBackgroundWorker implements BackgroundWorker {
 
             log.debug("Cancel task. User: {}", userLogin);
 
+            if (scheduledTask != null) {
+                // a task that has not been started yet does not occupy a working thread or a limit slot
+                unschedule(scheduledTask);
+            }
+
             boolean isCanceledNow = future.cancel(true);
             if (isCanceledNow) {
                 log.trace("Task was cancelled. User: {}", userLogin);
@@ -371,10 +484,9 @@ public class WebBackgroundWorker implements BackgroundWorker {
         @ExecutedOnUIThread
         @Override
         public final void startExecution() {
-            // Start thread
-            executorService.execute(() ->
-                    future.run()
-            );
+            taskHandler.waitForExecution();
+            scheduledTask = new ScheduledTask(future, taskHandler, runnableTask.getPriority(), sessionId, userLogin);
+            schedule(scheduledTask);
         }
 
         @Override
@@ -412,6 +524,51 @@ public class WebBackgroundWorker implements BackgroundWorker {
         }
     }
 
+    protected class ScheduledTask implements Runnable, Comparable<ScheduledTask> {
+
+        protected final FutureTask<?> future;
+        protected final TaskHandlerImpl<?, ?> taskHandler;
+        protected final BackgroundTask.Priority priority;
+        protected final UUID sessionId;
+        protected final String userLogin;
+
+        protected final long sequence = taskSequence.incrementAndGet();
+        protected final long submitTime = System.currentTimeMillis();
+
+        protected ScheduledTask(FutureTask<?> future, TaskHandlerImpl<?, ?> taskHandler,
+                                BackgroundTask.Priority priority, UUID sessionId, String userLogin) {
+            this.future = future;
+            this.taskHandler = taskHandler;
+            this.priority = priority != null ? priority : BackgroundTask.Priority.NORMAL;
+            this.sessionId = sessionId;
+            this.userLogin = userLogin;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (!future.isDone()) {
+                    taskHandler.executionStarted();
+
+                    long startTime = System.currentTimeMillis();
+                    statisticsAccumulator.registerBackgroundTaskQueueWait(startTime - submitTime);
+
+                    future.run();
+
+                    statisticsAccumulator.registerBackgroundTaskRunTime(System.currentTimeMillis() - startTime);
+                }
+            } finally {
+                taskFinished(this);
+            }
+        }
+
+        @Override
+        public int compareTo(ScheduledTask other) {
+            int result = priority.compareTo(other.priority);
+            return result != 0 ? result : Long.compare(sequence, other.sequence);
+        }
+    }
+
     private static class WebUIAccessor implements UIAccessor {
         private UI ui;
 
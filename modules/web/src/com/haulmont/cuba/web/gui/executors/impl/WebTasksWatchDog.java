@@ -34,6 +34,11 @@ public class WebTasksWatchDog extends TasksWatchDog {
 
     @Override
     protected ExecutionStatus getExecutionStatus(long actualTimeMs, TaskHandlerImpl taskHandler) {
+        if (taskHandler.isWaitingForExecution()) {
+            // the timeout is counted since the task gets a working thread
+            return ExecutionStatus.NORMAL;
+        }
+
         WebConfig webConfig = configuration.getConfig(WebConfig.class);
 
         long timeout = taskHandler.getTimeoutMs();
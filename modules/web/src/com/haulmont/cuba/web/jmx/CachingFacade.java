@@ -27,10 +27,13 @@ import com.haulmont.cuba.core.sys.AppContext;
 import com.haulmont.cuba.core.sys.SecurityContext;
 import com.haulmont.cuba.gui.config.MenuConfig;
 import com.haulmont.cuba.gui.config.WindowConfig;
+import com.haulmont.cuba.gui.xml.layout.ScreenBlueprintCache;
+import com.haulmont.cuba.gui.xml.layout.ScreenXmlDocumentCache;
 import com.haulmont.cuba.security.app.TrustedClientService;
 import com.haulmont.cuba.security.global.LoginException;
 import com.haulmont.cuba.security.global.UserSession;
 import com.haulmont.cuba.web.auth.WebAuthConfig;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -69,6 +72,12 @@ public class CachingFacade implements CachingFacadeMBean {
     @Inject
     protected DynamicAttributesCacheStrategy dynamicAttributesCacheStrategy;
 
+    @Inject
+    protected ScreenXmlDocumentCache screenXmlDocumentCache;
+
+    @Inject
+    protected ScreenBlueprintCache screenBlueprintCache;
+
     @Override
     public int getMessagesCacheSize() {
         return messages.getCacheSize();
@@ -83,6 +92,8 @@ public class CachingFacade implements CachingFacadeMBean {
     @Override
     public void clearMessagesCache() {
         messages.clearCache();
+        // blueprints contain resolved messages
+        screenBlueprintCache.invalidateAll();
         log.info("Messages cache has been cleared");
     }
 
@@ -124,4 +135,56 @@ public class CachingFacade implements CachingFacadeMBean {
     public void clearSystemPropertiesCache() {
         AppContext.Internals.getAppProperties().initSystemProperties();
     }
+
+    @Override
+    public long getScreenXmlCacheSize() {
+        return screenXmlDocumentCache.getSize();
+    }
+
+    @Override
+    public long getScreenXmlCacheHitCount() {
+        return screenXmlDocumentCache.getHitCount();
+    }
+
+    @Override
+    public long getScreenXmlCacheMissCount() {
+        return screenXmlDocumentCache.getMissCount();
+    }
+
+    @Override
+    public int getScreenBlueprintCacheMaxSize() {
+        return screenBlueprintCache.getMaxSize();
+    }
+
+    @Override
+    public long getScreenBlueprintCacheSize() {
+        return screenBlueprintCache.getSize();
+    }
+
+    @Override
+    public long getScreenBlueprintCacheHitCount() {
+        return screenBlueprintCache.getHitCount();
+    }
+
+    @Override
+    public long getScreenBlueprintCacheMissCount() {
+        return screenBlueprintCache.getMissCount();
+    }
+
+    @Override
+    public void clearScreenBlueprintCache() {
+        screenBlueprintCache.invalidateAll();
+        log.info("Screen blueprint cache has been cleared");
+    }
+
+    @Override
+    public String warmUpScreenBlueprintCache() {
+        try {
+            int count = screenBlueprintCache.warmUp();
+            return String.format("Created blueprints of %d screens", count);
+        } catch (Exception e) {
+            log.error("Unable to warm up screen blueprint cache", e);
+            return ExceptionUtils.getStackTrace(e);
+        }
+    }
 }
\ No newline at end of file
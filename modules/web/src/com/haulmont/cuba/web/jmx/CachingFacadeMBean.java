@@ -23,6 +23,9 @@ public interface CachingFacadeMBean {
 
     void clearGroovyCache();
 
+    /**
+     * Clears messages and screen blueprints containing resolved messages.
+     */
     void clearMessagesCache();
 
     void clearPersistenceManagerClientCache();
@@ -36,4 +39,28 @@ public interface CachingFacadeMBean {
     void clearDynamicAttributesCache();
 
     void clearSystemPropertiesCache();
+
+    long getScreenXmlCacheSize();
+
+    long getScreenXmlCacheHitCount();
+
+    long getScreenXmlCacheMissCount();
+
+    int getScreenBlueprintCacheMaxSize();
+
+    long getScreenBlueprintCacheSize();
+
+    long getScreenBlueprintCacheHitCount();
+
+    long getScreenBlueprintCacheMissCount();
+
+    /**
+     * Clears screen blueprints and parsed screen descriptors.
+     */
+    void clearScreenBlueprintCache();
+
+    /**
+     * Creates blueprints of all registered screens for all available locales.
+     */
+    String warmUpScreenBlueprintCache();
 }
\ No newline at end of file
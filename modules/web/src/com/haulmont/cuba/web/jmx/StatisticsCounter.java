@@ -82,4 +82,19 @@ public class StatisticsCounter implements StatisticsCounterMBean {
     public double getAvgThreadCount() {
         return accumulator.getAvgThreadCount();
     }
-}
\ No newline at end of file
+
+    @Override
+    public long getBackgroundTasksCount() {
+        return accumulator.getBackgroundTasksCount();
+    }
+
+    @Override
+    public String getBackgroundTasksQueueWaitHistogram() {
+        return accumulator.getBackgroundTasksQueueWaitHistogram();
+    }
+
+    @Override
+    public String getBackgroundTasksRunTimeHistogram() {
+        return accumulator.getBackgroundTasksRunTimeHistogram();
+    }
+}
@@ -44,4 +44,10 @@ public interface StatisticsCounterMBean {
     double getAvgProcessCpuLoad();
 
     double getAvgThreadCount();
+
+    long getBackgroundTasksCount();
+
+    String getBackgroundTasksQueueWaitHistogram();
+
+    String getBackgroundTasksRunTimeHistogram();
 }
\ No newline at end of file
@@ -95,6 +95,17 @@ public class LocalServiceProxy extends RemoteAccessor implements FactoryBean<Obj
 
         @Override
         public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            LocalServiceInvoker invoker = getInvoker();
+            LocalServiceInvocation invocation = createInvocation(method, args);
+
+            if (AsyncRemoteInvocations.isAsync(method)) {
+                // arguments and the session are taken in the calling thread, only the invoker is called in the pool
+                return AsyncRemoteInvocations.supplyAsync(() -> invokeService(invoker, invocation));
+            }
+            return invokeService(invoker, invocation);
+        }
+
+        private LocalServiceInvoker getInvoker() {
             String connectionUrlList = AppContext.getProperty("cuba.connectionUrlList");
             if (connectionUrlList == null)
                 throw new IllegalStateException("Property cuba.connectionUrlList not defined");
@@ -103,7 +114,10 @@ public class LocalServiceProxy extends RemoteAccessor implements FactoryBean<Obj
             LocalServiceInvoker invoker = LocalServiceDirectory.getInvoker(entryName);
             if (invoker == null)
                 throw new IllegalArgumentException(String.format("Service %s is not registered in LocalServiceDirectory", entryName));
+            return invoker;
+        }
 
+        private LocalServiceInvocation createInvocation(Method method, Object[] args) {
             Parameter[] parameters = method.getParameters();
             Class<?>[] parameterTypes = method.getParameterTypes();
             String[] parameterTypeNames = new String[parameterTypes.length];
@@ -151,6 +165,10 @@ public class LocalServiceProxy extends RemoteAccessor implements FactoryBean<Obj
             }
             invocation.setResultBypassSerialization(canMethodResultBypassSerialization(method));
 
+            return invocation;
+        }
+
+        private Object invokeService(LocalServiceInvoker invoker, LocalServiceInvocation invocation) throws Throwable {
             LocalServiceInvocationResult result = invoker.invoke(invocation);
             AppContext.setSecurityContext(AppContext.getSecurityContext()); // to reset application name in LogMDC for the current thread
 
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package spec.cuba.web.datacontext
+
+import com.haulmont.cuba.core.global.LoadContext
+import com.haulmont.cuba.core.global.Sort
+import com.haulmont.cuba.gui.model.CollectionContainer
+import com.haulmont.cuba.gui.model.CollectionLoader
+import com.haulmont.cuba.gui.model.DataContextFactory
+import com.haulmont.cuba.web.testmodel.datacontext.Foo
+import com.haulmont.cuba.web.testsupport.TestContainer
+import org.junit.ClassRule
+import spock.lang.Shared
+import spock.lang.Specification
+
+class CollectionLoaderTest extends Specification {
+
+    @Shared @ClassRule
+    public TestContainer cont = TestContainer.Common.INSTANCE
+
+    private DataContextFactory factory
+
+    void setup() {
+        factory = cont.getBean(DataContextFactory)
+    }
+
+    def "keyset pagination moves to the next page explicitly"() {
+        CollectionLoader<Foo> loader = factory.createCollectionLoader()
+        CollectionContainer<Foo> container = factory.createCollectionContainer(Foo)
+
+        List<Foo> items = (0..4).collect { new Foo(name: "foo-$it") }
+        List<Object> requestedLastValues = []
+
+        loader.setContainer(container)
+        loader.setQuery('select e from test$Foo e')
+        loader.setMaxResults(2)
+        loader.setKeysetProperty('name')
+        loader.setLoadDelegate({ LoadContext<Foo> loadContext ->
+            def lastValue = loadContext.query.keysetLastValue
+            requestedLastValues << lastValue
+            items.findAll { lastValue == null || it.name > lastValue }.take(loadContext.query.maxResults)
+        })
+
+        when:
+
+        loader.load()
+
+        then:
+
+        container.items*.name == ['foo-0', 'foo-1']
+        loader.keysetLastValue == null
+
+        when: "the current page is refreshed"
+
+        loader.load()
+
+        then:
+
+        container.items*.name == ['foo-0', 'foo-1']
+
+        when:
+
+        loader.loadNextPage()
+        loader.loadNextPage()
+
+        then:
+
+        container.items*.name == ['foo-4']
+        loader.keysetLastValue == 'foo-3'
+        requestedLastValues == [null, null, 'foo-1', 'foo-3']
+
+        when: "the next page is empty"
+
+        loader.loadNextPage()
+
+        then: "the position is kept"
+
+        container.items.isEmpty()
+        loader.keysetLastValue == 'foo-4'
+
+        when:
+
+        loader.loadNextPage()
+
+        then:
+
+        container.items.isEmpty()
+        loader.keysetLastValue == 'foo-4'
+
+        when: "a parameter is changed"
+
+        loader.setParameter('name', 'foo')
+        loader.load()
+
+        then: "the first page is loaded"
+
+        loader.keysetLastValue == null
+        container.items*.name == ['foo-0', 'foo-1']
+
+        when: "the sort is changed"
+
+        loader.loadNextPage()
+        loader.setSort(Sort.by('name'))
+        loader.load()
+
+        then:
+
+        loader.keysetLastValue == null
+        container.items*.name == ['foo-0', 'foo-1']
+    }
+}
@@ -637,6 +637,94 @@ class DataContextTest extends Specification {
 
     }
 
+    def "commit changed attributes only"() {
+        DataContext context = factory.createDataContext()
+
+        User user = new User(login: 'u1', name: 'User 1', userRoles: [])
+        makeDetached(user)
+        context.merge(user)
+
+        User newUser = new User(login: 'u2', name: 'User 2')
+        context.merge(newUser)
+
+        CommitContext commitContext = null
+        TestServiceProxy.mock(DataService, Mock(DataService) {
+            commit(_) >> { CommitContext cc ->
+                commitContext = cc
+                TestServiceProxy.getDefault(DataService).commit(cc)
+            }
+        })
+
+        when:
+
+        user.name = 'User 11'
+        context.commit()
+
+        then: "a detached instance is sent with the changed attribute only"
+
+        commitContext.commitInstances.size() == 2
+
+        User committedUser = commitContext.commitInstances.find { it == user }
+        !committedUser.is(user)
+        commitContext.changedAttributes[committedUser] == ['name'] as Set
+        committedUser.name == 'User 11'
+        !entityStates.isLoaded(committedUser, 'login')
+
+        and: "a new instance is sent entirely"
+
+        commitContext.commitInstances.find { it == newUser }.is(newUser)
+        commitContext.changedAttributes[newUser] == null
+
+        and: "the instance in the context keeps its state"
+
+        User mergedUser = context.find(User, user.id)
+        mergedUser.login == 'u1'
+        mergedUser.name == 'User 11'
+        mergedUser.version == 1
+    }
+
+    def "merge large graph"() {
+        DataContext context = factory.createDataContext()
+
+        List<Role> roles = (1..30).collect { new Role(name: "role-$it") }
+        List<User> users = (1..3000).collect { int i ->
+            User user = new User(login: "u$i", name: "User $i", userRoles: [])
+            user.userRoles.add(new UserRole(user: user, role: roles[i % roles.size()]))
+            user
+        }
+        users.each { makeDetached(it, *it.userRoles) }
+        makeDetached(*roles)
+
+        when: "merging the loaded collection"
+
+        users.each { context.merge(it) }
+
+        then:
+
+        context.find(User, users[0].id).is(users[0])
+
+        when: "merging copies of the same graph"
+
+        List<User> copies = users.collect { User user ->
+            User copy = new User(id: user.id, login: user.login, name: "${user.name} copy", version: 1, userRoles: [])
+            copy.userRoles.add(new UserRole(id: user.userRoles[0].id, user: copy,
+                    role: new Role(id: user.userRoles[0].role.id, name: "${user.userRoles[0].role.name} copy")))
+            copy
+        }
+        copies.each { makeDetached(it, it.userRoles[0], it.userRoles[0].role) }
+
+        copies.each { context.merge(it) }
+
+        then: "state of the managed instances is updated"
+
+        User user = context.find(User, users[100].id)
+        user.is(users[100])
+        user.name == "User 101 copy"
+        user.userRoles.size() == 1
+        user.userRoles[0].role.is(roles[101 % roles.size()])
+        user.userRoles[0].role.name == "role-${101 % roles.size() + 1} copy"
+    }
+
     private <T> T createDetached(Class<T> entityClass) {
         def entity = metadata.create(entityClass)
         entityStates.makeDetached(entity)
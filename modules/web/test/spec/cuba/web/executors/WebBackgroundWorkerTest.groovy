@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package spec.cuba.web.executors
+
+import com.haulmont.cuba.core.global.Configuration
+import com.haulmont.cuba.core.global.Events
+import com.haulmont.cuba.core.global.UserSessionSource
+import com.haulmont.cuba.core.sys.AppContext
+import com.haulmont.cuba.core.sys.SecurityContext
+import com.haulmont.cuba.gui.executors.BackgroundTask
+import com.haulmont.cuba.gui.executors.BackgroundTaskHandler
+import com.haulmont.cuba.gui.executors.TaskLifeCycle
+import com.haulmont.cuba.gui.executors.WatchDog
+import com.haulmont.cuba.gui.executors.impl.TasksWatchDog
+import com.haulmont.cuba.security.entity.User
+import com.haulmont.cuba.security.global.UserSession
+import com.haulmont.cuba.web.WebConfig
+import com.haulmont.cuba.web.app.WebStatisticsAccumulator
+import com.haulmont.cuba.web.gui.executors.impl.WebBackgroundWorker
+import com.haulmont.cuba.web.gui.executors.impl.WebTasksWatchDog
+import spec.cuba.web.WebSpec
+
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.TimeUnit
+
+import static com.haulmont.cuba.gui.executors.BackgroundTask.Priority.*
+
+class WebBackgroundWorkerTest extends WebSpec {
+
+    private WebBackgroundWorker worker
+
+    private int sessionLimit
+    private int userLimit
+
+    private UserSession currentSession
+
+    // tasks passed to the thread pool
+    private List<Runnable> started = []
+    // actions passed to the UI thread
+    private List<Runnable> uiActions = []
+    // names of the executed tasks
+    private List<String> executed = []
+
+    @Override
+    void setup() {
+        worker = new WebBackgroundWorker()
+        worker.watchDog = Mock(WatchDog)
+        worker.events = Mock(Events)
+        worker.statisticsAccumulator = Mock(WebStatisticsAccumulator)
+        worker.userSessionSource = Stub(UserSessionSource) {
+            getUserSession() >> { currentSession }
+        }
+        worker.webConfig = Stub(WebConfig) {
+            getMaxActiveBackgroundTasksPerSession() >> { sessionLimit }
+            getMaxActiveBackgroundTasksPerUser() >> { userLimit }
+        }
+        worker.executorService = Mock(ExecutorService) {
+            execute(_) >> { Runnable task -> started.add(task) }
+        }
+
+        vaadinUi.access(_) >> { Runnable action ->
+            uiActions.add(action)
+            return null
+        }
+    }
+
+    @Override
+    void cleanup() {
+        AppContext.setSecurityContext(null)
+    }
+
+    def "tasks over the session limit wait for completion of other tasks of the session"() {
+
+        sessionLimit = 1
+        def session1 = createSession('user1')
+        def session2 = createSession('user2')
+
+        when:
+
+        def handler1 = submit(session1, 'task1')
+        def handler2 = submit(session1, 'task2')
+        submit(session2, 'task3')
+
+        then:
+
+        started.size() == 2
+        worker.waitingTasks.size() == 1
+        handler2.waitingForExecution
+
+        when:
+
+        started[0].run()
+
+        then: "the waiting task is started when the running task of the session is finished"
+
+        started.size() == 3
+        worker.waitingTasks.isEmpty()
+        !handler1.waitingForExecution
+
+        when:
+
+        started[1].run()
+        started[2].run()
+
+        then:
+
+        executed == ['task1', 'task3', 'task2']
+        !handler2.waitingForExecution
+        worker.activeTasksBySession.isEmpty()
+        worker.activeTasksByUser.isEmpty()
+    }
+
+    def "tasks over the user limit wait for completion of other tasks of the user"() {
+
+        userLimit = 1
+        def session1 = createSession('user1')
+        def session2 = createSession('user1')
+        def session3 = createSession('user2')
+
+        when:
+
+        submit(session1, 'task1')
+        submit(session2, 'task2')
+        submit(session3, 'task3')
+
+        then:
+
+        started.size() == 2
+
+        when:
+
+        runAll()
+
+        then:
+
+        executed == ['task1', 'task3', 'task2']
+        worker.activeTasksByUser.isEmpty()
+    }
+
+    def "waiting tasks are started in the order of priority and submission"() {
+
+        sessionLimit = 1
+        def session = createSession('user1')
+
+        when:
+
+        submit(session, 'running', NORMAL)
+        submit(session, 'low', LOW)
+        submit(session, 'normal', NORMAL)
+        submit(session, 'high1', HIGH)
+        submit(session, 'high2', HIGH)
+        runAll()
+
+        then:
+
+        executed == ['running', 'high1', 'high2', 'normal', 'low']
+    }
+
+    def "task cancelled while waiting doesn't take a thread"() {
+
+        sessionLimit = 1
+        def session = createSession('user1')
+
+        def handler1 = submit(session, 'task1')
+        def handler2 = submit(session, 'task2')
+        def handler3 = submit(session, 'task3')
+
+        when:
+
+        def cancelled = handler2.cancel()
+
+        then:
+
+        cancelled
+        handler2.cancelled
+        worker.waitingTasks.size() == 1
+
+        when:
+
+        runAll()
+
+        then:
+
+        executed == ['task1', 'task3']
+        handler1.done
+        handler3.done
+        worker.activeTasksBySession.isEmpty()
+    }
+
+    def "timeout of a task is counted since it gets a thread"() {
+
+        sessionLimit = 1
+        def session = createSession('user1')
+
+        def watchDog = new WebTasksWatchDog()
+        watchDog.configuration = cont.getBean(Configuration)
+
+        submit(session, 'task1')
+        def handler = submit(session, 'task2')
+        long timeout = handler.timeoutMs
+
+        expect: "the waiting task is not timed out"
+
+        handler.waitingForExecution
+        watchDog.getExecutionStatus(System.currentTimeMillis() + timeout * 2, handler) == TasksWatchDog.ExecutionStatus.NORMAL
+
+        when:
+
+        started[0].run()
+        started[1].run()
+
+        then:
+
+        !handler.waitingForExecution
+        watchDog.getExecutionStatus(handler.startTimeStamp + timeout.intdiv(2), handler) == TasksWatchDog.ExecutionStatus.NORMAL
+        watchDog.getExecutionStatus(handler.startTimeStamp + timeout + 1, handler) == TasksWatchDog.ExecutionStatus.TIMEOUT_EXCEEDED
+    }
+
+    def "progress published before the UI thread processes it is delivered in one batch"() {
+
+        def session = createSession('user1')
+        List<List<Integer>> progress = []
+
+        def task = new TestTask('task', NORMAL, executed, { TaskLifeCycle<Integer> lifeCycle ->
+            lifeCycle.publish(1)
+            lifeCycle.publish(2, 3)
+            runUiActions()
+            lifeCycle.publish(4)
+        }) {
+            @Override
+            void progress(List<Integer> changes) {
+                progress.add(new ArrayList<>(changes))
+            }
+        }
+
+        when:
+
+        currentSession = session
+        AppContext.setSecurityContext(new SecurityContext(session))
+        worker.handle(task).execute()
+        started[0].run()
+        runUiActions()
+
+        then:
+
+        progress == [[1, 2, 3], [4]]
+    }
+
+    private BackgroundTaskHandler submit(UserSession session, String name, BackgroundTask.Priority priority = NORMAL) {
+        currentSession = session
+        AppContext.setSecurityContext(new SecurityContext(session))
+
+        def handler = worker.handle(new TestTask(name, priority, executed, null))
+        handler.execute()
+        return handler
+    }
+
+    private void runAll() {
+        for (int i = 0; i < started.size(); i++) {
+            started[i].run()
+        }
+    }
+
+    private void runUiActions() {
+        List<Runnable> actions = new ArrayList<>(uiActions)
+        uiActions.clear()
+        actions.each { it.run() }
+    }
+
+    private static UserSession createSession(String login) {
+        return new UserSession(UUID.randomUUID(), new User(login: login), [], Locale.ENGLISH, false)
+    }
+
+    static class TestTask extends BackgroundTask<Integer, String> {
+
+        private String name
+        private BackgroundTask.Priority priority
+        private List<String> executed
+        private Closure body
+
+        TestTask(String name, BackgroundTask.Priority priority, List<String> executed, Closure body) {
+            super(10, TimeUnit.SECONDS)
+            this.name = name
+            this.priority = priority
+            this.executed = executed
+            this.body = body
+        }
+
+        @Override
+        BackgroundTask.Priority getPriority() {
+            return priority
+        }
+
+        @Override
+        String run(TaskLifeCycle<Integer> taskLifeCycle) throws Exception {
+            executed.add(name)
+            if (body != null) {
+                body.call(taskLifeCycle)
+            }
+            return name
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2008-2018 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package spec.cuba.web.remoting
+
+import com.haulmont.cuba.core.sys.AppContext
+import com.haulmont.cuba.core.sys.SecurityContext
+import com.haulmont.cuba.core.sys.remoting.LocalServiceDirectory
+import com.haulmont.cuba.core.sys.remoting.LocalServiceInvocation
+import com.haulmont.cuba.core.sys.remoting.LocalServiceInvocationResult
+import com.haulmont.cuba.core.sys.remoting.LocalServiceInvoker
+import com.haulmont.cuba.core.sys.serialization.SerializationSupport
+import com.haulmont.cuba.security.entity.User
+import com.haulmont.cuba.security.global.UserSession
+import com.haulmont.cuba.web.sys.remoting.LocalServiceProxy
+import com.haulmont.cuba.web.testsupport.TestContainer
+import org.junit.ClassRule
+import spock.lang.Shared
+import spock.lang.Specification
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+
+class LocalServiceProxyTest extends Specification {
+
+    static final String SERVICE_NAME = 'test_LocalAsyncService'
+
+    @Shared @ClassRule
+    public TestContainer cont = TestContainer.Common.INSTANCE
+
+    private String entryName
+    private UserSession userSession
+    private List<LocalServiceInvocation> invocations = new CopyOnWriteArrayList<>()
+    private List<Thread> threads = new CopyOnWriteArrayList<>()
+
+    void setup() {
+        String connectionUrlList = AppContext.getProperty('cuba.connectionUrlList')
+        entryName = connectionUrlList.substring(connectionUrlList.lastIndexOf('/') + 1) + '/' + SERVICE_NAME
+
+        LocalServiceDirectory.registerInvoker(entryName, { LocalServiceInvocation invocation ->
+            invocations.add(invocation)
+            threads.add(Thread.currentThread())
+
+            def result = new LocalServiceInvocationResult()
+            if (invocation.methodName == 'fail') {
+                result.exception = SerializationSupport.serialize(new IllegalStateException('test error'))
+            } else {
+                result.data = SerializationSupport.serialize('value')
+            }
+            return result
+        } as LocalServiceInvoker)
+
+        userSession = new UserSession(UUID.randomUUID(), new User(login: 'test'), [], Locale.ENGLISH, false)
+
+        // AppContext is not started in tests and returns the same security context in all threads
+        setAppContextStarted(true)
+        AppContext.setSecurityContext(new SecurityContext(userSession))
+    }
+
+    void cleanup() {
+        AppContext.setSecurityContext(null)
+        setAppContextStarted(false)
+        LocalServiceDirectory.unregisterInvoker(entryName)
+    }
+
+    def "method returning a future is invoked in the thread pool with the security context of the caller"() {
+
+        def service = createProxy()
+
+        when:
+
+        def value = service.getValue().get(10, TimeUnit.SECONDS)
+
+        then:
+
+        value == 'value'
+
+        threads.size() == 1
+        threads[0] != Thread.currentThread()
+        threads[0].name.startsWith('AsyncRemoteInvocation-')
+        invocations[0].sessionId == userSession.id
+    }
+
+    def "invocation of a method returning a future is created in the calling thread"() {
+
+        def service = createProxy()
+        def argument = new TestArgument()
+
+        when:
+
+        def value = service.getValueOf(argument).get(10, TimeUnit.SECONDS)
+
+        then:
+
+        value == 'value'
+        TestArgument.serializedIn == Thread.currentThread()
+        threads[0] != Thread.currentThread()
+        invocations[0].methodName == 'getValueOf'
+    }
+
+    def "synchronous method is invoked in the calling thread"() {
+
+        def service = createProxy()
+
+        expect:
+
+        service.getValueSync() == 'value'
+        threads == [Thread.currentThread()]
+        invocations[0].sessionId == userSession.id
+    }
+
+    def "exception of the service completes the future exceptionally"() {
+
+        def service = createProxy()
+
+        when:
+
+        service.fail().get(10, TimeUnit.SECONDS)
+
+        then:
+
+        def e = thrown(ExecutionException)
+        e.cause instanceof IllegalStateException
+        e.cause.message == 'test error'
+    }
+
+    private static TestLocalAsyncService createProxy() {
+        def proxy = new LocalServiceProxy()
+        proxy.serviceName = SERVICE_NAME
+        proxy.serviceInterface = TestLocalAsyncService
+        proxy.afterPropertiesSet()
+        return (TestLocalAsyncService) proxy.object
+    }
+
+    private static void setAppContextStarted(boolean started) {
+        def field = AppContext.getDeclaredField('started')
+        field.accessible = true
+        field.set(null, started)
+    }
+
+    static interface TestLocalAsyncService {
+
+        CompletableFuture<String> getValue()
+
+        CompletableFuture<String> fail()
+
+        CompletableFuture<String> getValueOf(TestArgument argument)
+
+        String getValueSync()
+    }
+
+    static class TestArgument implements Serializable {
+
+        static volatile Thread serializedIn
+
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            serializedIn = Thread.currentThread()
+            out.defaultWriteObject()
+        }
+    }
+}